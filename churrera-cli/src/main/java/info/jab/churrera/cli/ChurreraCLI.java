@@ -1,18 +1,26 @@
 package info.jab.churrera.cli;
 
 import info.jab.churrera.cli.command.run.RunCommand;
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
+import info.jab.churrera.cli.repository.JobStoreFactory;
 import info.jab.churrera.workflow.WorkflowParser;
 import info.jab.churrera.cli.service.JobProcessor;
 import info.jab.churrera.cli.service.CLIAgent;
+import info.jab.churrera.cli.service.MetadataCache;
+import info.jab.churrera.cli.service.RequestJournal;
 import info.jab.churrera.util.CursorApiKeyResolver;
 import info.jab.churrera.util.PropertyResolver;
 import info.jab.churrera.util.PmlConverter;
+import info.jab.churrera.util.PmlMarkdownRenderer;
 import info.jab.churrera.workflow.WorkflowValidator;
 import info.jab.churrera.workflow.PmlValidator;
+import info.jab.churrera.workflow.SchemaCache;
+import info.jab.cursor.client.impl.ApiRequestExecutor;
 import info.jab.cursor.client.impl.CursorAgentManagementImpl;
 import info.jab.cursor.client.impl.CursorAgentInformationImpl;
+import info.jab.cursor.client.impl.TokenBucketRateLimiter;
 import info.jab.cursor.client.impl.CursorAgentGeneralEndpointsImpl;
+import info.jab.cursor.client.impl.CursorApiClientFactory;
 import info.jab.cursor.generated.client.ApiClient;
 import info.jab.cursor.generated.client.api.DefaultApi;
 import org.slf4j.Logger;
@@ -22,11 +30,14 @@ import picocli.CommandLine;
 import info.jab.churrera.cli.util.GitInfo;
 
 import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.function.Supplier;
 
 /**
  * Main CLI application for churrera.
- * Root command that provides subcommands for managing jobs stored in BaseX.
+ * Root command that provides subcommands for managing stored jobs.
  */
 @CommandLine.Command(
     name = "churrera",
@@ -37,10 +48,15 @@ public class ChurreraCLI implements Runnable {
 
     private static final Logger logger = LoggerFactory.getLogger(ChurreraCLI.class);
 
+    // JVM-wide setting of the JDK HTTP client, read once when its first connection pool is created
+    static final String HTTP_KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+    // Longer than the polling interval, so polling reuses connections instead of opening new ones
+    static final Duration HTTP_KEEP_ALIVE = Duration.ofMinutes(5);
+
     // Dependencies
     private final CursorApiKeyResolver apiKeyResolver;
     final PropertyResolver propertyResolver;
-    final JobRepository jobRepository;
+    final JobStore jobRepository;
     private final ApiClient apiClient;
     private final DefaultApi defaultApi;
     final CLIAgent cliAgent;
@@ -48,6 +64,7 @@ public class ChurreraCLI implements Runnable {
     final JobProcessor jobProcessor;
     final WorkflowValidator workflowValidator;
     final PmlValidator pmlValidator;
+    final RequestJournal requestJournal;
     private final String apiKey;
 
     /**
@@ -60,30 +77,118 @@ public class ChurreraCLI implements Runnable {
         logger.debug("CURSOR_API_KEY validated");
 
         this.propertyResolver = new PropertyResolver();
-        this.jobRepository = new JobRepository(propertyResolver);
-        logger.debug("JobRepository initialized");
+        this.jobRepository = JobStoreFactory.create(propertyResolver);
+        logger.debug("Job store initialized");
 
         // Create CLIAgent with dependencies
-        String apiBaseUrl = "https://api.cursor.com";
-        this.apiClient = new ApiClient();
-        this.apiClient.updateBaseUri(apiBaseUrl);
+        Duration connectTimeout = propertyResolver.getProperty("application.properties", "cursor.api.connect.timeout.seconds")
+                .map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                .orElse(CursorApiClientFactory.DEFAULT_CONNECT_TIMEOUT);
+        Duration readTimeout = propertyResolver.getProperty("application.properties", "cursor.api.read.timeout.seconds")
+                .map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                .orElse(CursorApiClientFactory.DEFAULT_READ_TIMEOUT);
+        // One HttpClient, and so one connection pool, for the generated API and conversation streaming
+        HttpClient httpClient = CursorApiClientFactory.createHttpClient(connectTimeout);
+        this.apiClient = CursorApiClientFactory.createApiClient(CursorApiClientFactory.DEFAULT_BASE_URI,
+                httpClient, readTimeout);
         this.defaultApi = new DefaultApi(apiClient);
+        ApiRequestExecutor requestExecutor = createRequestExecutor(propertyResolver);
         this.cliAgent = new CLIAgent(
             jobRepository,
-            new CursorAgentManagementImpl(apiKey, defaultApi),
-            new CursorAgentInformationImpl(apiKey, defaultApi),
-            new CursorAgentGeneralEndpointsImpl(apiKey, defaultApi),
-            new PmlConverter()
+            new CursorAgentManagementImpl(apiKey, defaultApi, requestExecutor),
+            new CursorAgentInformationImpl(apiKey, defaultApi, requestExecutor, apiClient),
+            new CursorAgentGeneralEndpointsImpl(apiKey, defaultApi, requestExecutor),
+            new PmlConverter(),
+            createMetadataCache(propertyResolver),
+            createPmlRenderer(propertyResolver)
         );
 
         // Create WorkflowParser
         this.workflowParser = new WorkflowParser();
 
-        this.jobProcessor = new JobProcessor(jobRepository, cliAgent, workflowParser);
+        int maxConcurrency = propertyResolver.getProperty("application.properties", "cli.processing.max.concurrency")
+                .map(Integer::parseInt)
+                .orElse(JobProcessor.DEFAULT_MAX_CONCURRENCY);
+        // Reconciled by the run command, so --help or a bad argument makes no API calls
+        this.requestJournal = createRequestJournal(propertyResolver);
+        this.jobProcessor = new JobProcessor(jobRepository, cliAgent, workflowParser, maxConcurrency, requestJournal);
+
+        // Create validators, sharing the compiled schemas and their local copies
+        SchemaCache schemaCache = createSchemaCache(propertyResolver);
+        this.workflowValidator = new WorkflowValidator(schemaCache);
+        this.pmlValidator = new PmlValidator(schemaCache);
+    }
+
+    /**
+     * Creates the cache of models and repositories, stored in the data directory.
+     * Offline mode can also be enabled for a single run with {@code -Dmetadata.cache.offline=true}.
+     */
+    private static MetadataCache createMetadataCache(PropertyResolver propertyResolver) {
+        Duration ttl = propertyResolver.getProperty("application.properties", "metadata.cache.ttl.seconds")
+                .map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                .orElse(MetadataCache.DEFAULT_TTL);
+        Duration stale = propertyResolver.getProperty("application.properties", "metadata.cache.stale.seconds")
+                .map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                .orElse(MetadataCache.DEFAULT_STALE);
+        String offlineDefault = propertyResolver.getProperty("application.properties", "metadata.cache.offline")
+                .orElse("false");
+        boolean offline = Boolean.parseBoolean(System.getProperty("metadata.cache.offline", offlineDefault));
+        return new MetadataCache(JobStoreFactory.dataDirectory(propertyResolver).resolve(MetadataCache.FILE_NAME), ttl, stale, offline);
+    }
 
-        // Create validators
-        this.workflowValidator = new WorkflowValidator();
-        this.pmlValidator = new PmlValidator();
+    /**
+     * Creates the cache of validation schemas, stored in the data directory.
+     * Copies placed there beforehand let runners without network access validate workflows.
+     */
+    private static SchemaCache createSchemaCache(PropertyResolver propertyResolver) {
+        return new SchemaCache(JobStoreFactory.dataDirectory(propertyResolver).resolve("schemas"));
+    }
+
+    /**
+     * Creates the native PML renderer when {@code pml.renderer=native}; with the default, {@code xslt},
+     * prompts are converted by the XSLT stylesheet only.
+     */
+    private static PmlMarkdownRenderer createPmlRenderer(PropertyResolver propertyResolver) {
+        String renderer = propertyResolver.getProperty("application.properties", "pml.renderer")
+                .orElse("xslt");
+        if ("native".equalsIgnoreCase(renderer.trim())) {
+            return new PmlMarkdownRenderer(PmlMarkdownRenderer.CLI_STYLESHEET);
+        }
+        if (!"xslt".equalsIgnoreCase(renderer.trim())) {
+            logger.warn("Unknown pml.renderer '{}', using xslt", renderer);
+        }
+        return null;
+    }
+
+    /**
+     * Opens the journal of agent launches and follow-ups, stored in the data directory.
+     * Without a journal, calls interrupted by a crash may be repeated on the next run.
+     */
+    private static RequestJournal createRequestJournal(PropertyResolver propertyResolver) {
+        Path dataDirectory = JobStoreFactory.dataDirectory(propertyResolver);
+        try {
+            return new RequestJournal(dataDirectory.resolve(RequestJournal.FILE_NAME));
+        } catch (IOException e) {
+            logger.warn("Cannot open request journal in {}, continuing without it: {}", dataDirectory, e.getMessage());
+            return RequestJournal.disabled();
+        }
+    }
+
+    /**
+     * Creates the executor that rate limits and retries the requests of all Cursor API clients.
+     */
+    private static ApiRequestExecutor createRequestExecutor(PropertyResolver propertyResolver) {
+        double permitsPerSecond = propertyResolver.getProperty("application.properties", "cursor.api.rate.limit.per.second")
+                .map(Double::parseDouble)
+                .orElse(ApiRequestExecutor.DEFAULT_PERMITS_PER_SECOND);
+        int burst = propertyResolver.getProperty("application.properties", "cursor.api.rate.limit.burst")
+                .map(Integer::parseInt)
+                .orElse(ApiRequestExecutor.DEFAULT_BURST);
+        int maxAttempts = propertyResolver.getProperty("application.properties", "cursor.api.retry.max.attempts")
+                .map(Integer::parseInt)
+                .orElse(ApiRequestExecutor.DEFAULT_MAX_ATTEMPTS);
+        return new ApiRequestExecutor(new TokenBucketRateLimiter(permitsPerSecond, burst), maxAttempts,
+                ApiRequestExecutor.DEFAULT_INITIAL_BACKOFF, ApiRequestExecutor.DEFAULT_MAX_BACKOFF);
     }
 
     /**
@@ -93,7 +198,7 @@ public class ChurreraCLI implements Runnable {
             CursorApiKeyResolver apiKeyResolver,
             String apiKey,
             PropertyResolver propertyResolver,
-            JobRepository jobRepository,
+            JobStore jobRepository,
             ApiClient apiClient,
             DefaultApi defaultApi,
             CLIAgent cliAgent,
@@ -112,6 +217,7 @@ public class ChurreraCLI implements Runnable {
         this.jobProcessor = jobProcessor;
         this.workflowValidator = workflowValidator;
         this.pmlValidator = pmlValidator;
+        this.requestJournal = RequestJournal.disabled();
     }
 
 
@@ -126,7 +232,8 @@ public class ChurreraCLI implements Runnable {
                 .map(Integer::parseInt)
                 .orElseThrow(() -> new RuntimeException("Required property 'cli.polling.interval.seconds' not found in application.properties"));
 
-        return new RunCommand(jobRepository, jobProcessor, workflowValidator, workflowParser, pmlValidator, pollingIntervalSeconds, cliAgent);
+        return new RunCommand(jobRepository, jobProcessor, workflowValidator, workflowParser, pmlValidator,
+            pollingIntervalSeconds, cliAgent, requestJournal);
     }
 
     @Override
@@ -141,6 +248,11 @@ public class ChurreraCLI implements Runnable {
      * @param args command line arguments
      */
     public static void main(String[] args) {
+        // Before any HttpClient is used, as the JDK only reads it then; a -D option on the command line wins
+        if (System.getProperty(HTTP_KEEP_ALIVE_PROPERTY) == null) {
+            System.setProperty(HTTP_KEEP_ALIVE_PROPERTY, String.valueOf(HTTP_KEEP_ALIVE.toSeconds()));
+        }
+
         // Print banner first in all cases
         printBanner(GitInfo::new);
 
@@ -159,6 +271,8 @@ public class ChurreraCLI implements Runnable {
             // Add shutdown hook to ensure proper cleanup
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 logger.trace("Shutdown hook triggered");
+                // Keep models and repositories refreshed during this run for the next one
+                cli.cliAgent.awaitMetadataRefreshes(MetadataCache.DEFAULT_SHUTDOWN_WAIT);
                 // Cleanup for RunCommand
                 if (runCommand != null && runCommand.getJobRepository() != null) {
                     runCommand.getJobRepository().close();
@@ -1,15 +1,15 @@
 package info.jab.churrera.cli.command.run;
 
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.workflow.WorkflowType;
 
 /**
  * Factory for creating completion checkers based on workflow type.
  */
 public class CompletionCheckerFactory {
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
 
-    public CompletionCheckerFactory(JobRepository jobRepository) {
+    public CompletionCheckerFactory(JobStore jobRepository) {
         this.jobRepository = jobRepository;
     }
 
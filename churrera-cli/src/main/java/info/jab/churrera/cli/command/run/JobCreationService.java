@@ -3,7 +3,7 @@ package info.jab.churrera.cli.command.run;
 import info.jab.churrera.cli.model.AgentState;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.Prompt;
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.service.CLIAgent;
 import info.jab.churrera.workflow.ParallelWorkflowData;
 import info.jab.churrera.workflow.PmlValidator;
@@ -32,13 +32,13 @@ import java.util.UUID;
 public class JobCreationService {
     private static final Logger logger = LoggerFactory.getLogger(JobCreationService.class);
 
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final WorkflowValidator workflowValidator;
     private final WorkflowParser workflowParser;
     private final PmlValidator pmlValidator;
     private final CLIAgent cliAgent;
 
-    public JobCreationService(JobRepository jobRepository, WorkflowValidator workflowValidator,
+    public JobCreationService(JobStore jobRepository, WorkflowValidator workflowValidator,
                              WorkflowParser workflowParser, PmlValidator pmlValidator, CLIAgent cliAgent) {
         this.jobRepository = jobRepository;
         this.workflowValidator = workflowValidator;
@@ -160,16 +160,13 @@ public class JobCreationService {
                 fallbackSrc, // fallback source file path (null if not specified)
                 null // fallbackExecuted is null initially (false when not executed)
             );
-            logger.trace("Saving job with jobId: {}", jobId);
-            jobRepository.save(job);
-            logger.debug("Job saved successfully");
-
-            // Create and save prompts (all prompts including the first one)
+            // Create prompts (all prompts including the first one)
             List<PromptInfo> allPrompts = new ArrayList<>();
             allPrompts.add(workflowData.getLaunchPrompt());
             allPrompts.addAll(workflowData.getUpdatePrompts());
 
             logger.debug("Creating {} prompts for job", allPrompts.size());
+            List<Prompt> prompts = new ArrayList<>();
             for (PromptInfo promptInfo : allPrompts) {
                 String promptId = UUID.randomUUID().toString();
                 Prompt prompt = new Prompt(
@@ -180,10 +177,15 @@ public class JobCreationService {
                     now,
                     now
                 );
-                logger.debug("Saving prompt: {} (PML: {})", promptId, promptInfo.getSrcFile());
-                jobRepository.savePrompt(prompt);
+                logger.debug("Prepared prompt: {} (PML: {})", promptId, promptInfo.getSrcFile());
+                prompts.add(prompt);
             }
 
+            // Save the job together with its prompts so a failure never leaves a job without prompts
+            logger.trace("Saving job with jobId: {}", jobId);
+            jobRepository.saveAll(List.of(job), prompts);
+            logger.debug("Job saved successfully");
+
             logger.debug("Job created successfully with jobId: {}, {} prompts created", jobId, allPrompts.size());
             return JobCreationResult.success(jobId);
 
@@ -1,12 +1,15 @@
 package info.jab.churrera.cli.command.run;
 
 import info.jab.churrera.cli.model.Job;
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.service.CLIAgent;
+import info.jab.cursor.client.CursorAsync;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service for deleting jobs and their child jobs.
@@ -14,10 +17,12 @@ import java.util.List;
 public class JobDeletionService {
     private static final Logger logger = LoggerFactory.getLogger(JobDeletionService.class);
 
-    private final JobRepository jobRepository;
+    static final int MAX_PARALLEL_DELETIONS = 8;
+
+    private final JobStore jobRepository;
     private final CLIAgent cliAgent;
 
-    public JobDeletionService(JobRepository jobRepository, CLIAgent cliAgent) {
+    public JobDeletionService(JobStore jobRepository, CLIAgent cliAgent) {
         this.jobRepository = jobRepository;
         this.cliAgent = cliAgent;
     }
@@ -85,66 +90,54 @@ public class JobDeletionService {
     }
 
     /**
-     * Delete a job and all its child jobs recursively.
+     * Delete a job and all its descendant jobs.
+     * Cursor agents are removed in parallel through the API, while the database records of the
+     * whole tree, prompts included, are removed with a single cascade delete.
      * Package-private for testing.
      */
     void deleteJobAndChildren(String jobId, String reason) {
         try {
             logger.info("Deleting job {} and all child jobs ({} enabled)", jobId, reason);
 
-            // Delete child jobs recursively first
-            deleteChildJobsRecursively(jobId);
-
-            // Delete the parent job
-            var jobOpt = jobRepository.findById(jobId);
-            if (jobOpt.isPresent()) {
-                deleteJob(jobOpt.get());
-                logger.info("Job and all child jobs deleted successfully");
+            List<Job> jobTree = jobRepository.findJobTree(jobId);
+            if (jobTree.isEmpty()) {
+                logger.debug("Job {} not found, nothing to delete", jobId);
+                return;
             }
+
+            deleteAgents(jobTree);
+            jobRepository.deleteJobCascade(jobId);
+            logger.info("Job and all {} child jobs deleted successfully", jobTree.size() - 1);
         } catch (Exception e) {
             logger.error("Error deleting job {}: {}", jobId, e.getMessage(), e);
         }
     }
 
     /**
-     * Recursively delete all child jobs of a parent job.
-     * Package-private for testing.
-     */
-    void deleteChildJobsRecursively(String parentJobId) {
-        List<Job> childJobs = jobRepository.findJobsByParentId(parentJobId);
-
-        for (Job childJob : childJobs) {
-            // First delete this child's children (depth-first)
-            deleteChildJobsRecursively(childJob.jobId());
-
-            // Then delete this child job
-            deleteJob(childJob);
-            logger.info("Deleted child job: {}", childJob.jobId());
-        }
-    }
-
-    /**
-     * Delete a single job including its Cursor agent and prompts.
+     * Delete the Cursor agents of the given jobs in parallel, at most
+     * {@value #MAX_PARALLEL_DELETIONS} at a time, and wait until all of them are done.
+     * A failing API call is logged and does not stop the remaining deletions.
      * Package-private for testing.
      */
-    void deleteJob(Job job) {
-        // Delete Cursor agent if it exists
-        if (job.cursorAgentId() != null) {
+    void deleteAgents(List<Job> jobs) {
+        List<Job> jobsWithAgent = jobs.stream()
+                .filter(job -> job.cursorAgentId() != null)
+                .toList();
+        List<CompletableFuture<Job>> deletions = CursorAsync.mapConcurrently(jobsWithAgent, MAX_PARALLEL_DELETIONS, job -> {
+            cliAgent.deleteAgent(job.cursorAgentId());
+            return job;
+        });
+        for (int i = 0; i < deletions.size(); i++) {
+            Job job = jobsWithAgent.get(i);
             try {
-                cliAgent.deleteAgent(job.cursorAgentId());
+                deletions.get(i).join();
                 logger.info("Deleted Cursor agent for job {}: {}", job.jobId(), job.cursorAgentId());
-            } catch (Exception e) {
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
                 logger.error("Failed to delete Cursor agent {} for job {}: {}",
-                        job.cursorAgentId(), job.jobId(), e.getMessage());
+                        job.cursorAgentId(), job.jobId(), cause.getMessage());
                 // Continue with database deletion even if Cursor API fails
             }
         }
-
-        // Delete all prompts from database
-        jobRepository.deletePromptsByJobId(job.jobId());
-
-        // Delete the job from database
-        jobRepository.deleteById(job.jobId());
     }
 }
-
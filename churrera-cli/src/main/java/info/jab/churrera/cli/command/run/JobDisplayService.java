@@ -2,7 +2,7 @@ package info.jab.churrera.cli.command.run;
 
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.Prompt;
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.workflow.WorkflowParser;
 import info.jab.churrera.workflow.WorkflowType;
 import org.slf4j.Logger;
@@ -29,14 +29,14 @@ public class JobDisplayService {
     private static final String ERROR_STATUS = "ERROR";
     private static final String STARTED_PREFIX = "Started ";
 
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final Clock clock;
 
-    public JobDisplayService(JobRepository jobRepository) {
+    public JobDisplayService(JobStore jobRepository) {
         this(jobRepository, Clock.systemDefaultZone());
     }
 
-    JobDisplayService(JobRepository jobRepository, Clock clock) {
+    JobDisplayService(JobStore jobRepository, Clock clock) {
         this.jobRepository = Objects.requireNonNull(jobRepository, "jobRepository cannot be null");
         this.clock = Objects.requireNonNull(clock, "clock cannot be null");
     }
@@ -83,12 +83,7 @@ public class JobDisplayService {
 
         // If parallel workflow, add child jobs
         if (job.type() == WorkflowType.PARALLEL) {
-            List<Job> allJobs = jobRepository.findAll();
-            for (Job j : allJobs) {
-                if (jobId.equals(j.parentJobId())) {
-                    jobsToDisplay.add(j);
-                }
-            }
+            jobsToDisplay.addAll(jobRepository.findJobsByParentId(jobId));
         }
 
         return jobsToDisplay;
@@ -1,9 +1,8 @@
 package info.jab.churrera.cli.command.run;
 
 import info.jab.churrera.cli.model.Job;
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.service.CLIAgent;
-import info.jab.cursor.client.model.ConversationMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,10 +12,10 @@ import org.slf4j.LoggerFactory;
 public class JobLogDisplayService {
     private static final Logger logger = LoggerFactory.getLogger(JobLogDisplayService.class);
 
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final CLIAgent cliAgent;
 
-    public JobLogDisplayService(JobRepository jobRepository, CLIAgent cliAgent) {
+    public JobLogDisplayService(JobStore jobRepository, CLIAgent cliAgent) {
         this.jobRepository = jobRepository;
         this.cliAgent = cliAgent;
     }
@@ -37,7 +36,9 @@ public class JobLogDisplayService {
     }
 
     /**
-     * Fetches and displays the conversation for a cursor agent.
+     * Streams and displays the conversation for a cursor agent.
+     * Every message is logged as soon as it has been decoded, so the conversation is never
+     * held in memory as a whole.
      *
      * @param jobId the job ID (for display purposes)
      * @param cursorAgentId the cursor agent ID
@@ -45,14 +46,10 @@ public class JobLogDisplayService {
     private void fetchAndDisplayConversation(String jobId, String cursorAgentId) {
         try {
             logger.info("=== Cursor Agent Conversation (Job: {}) ===", jobId);
-            var conversation = cliAgent.getConversation(cursorAgentId);
-            if (conversation != null && conversation.messages() != null) {
-                logger.debug("Retrieved {} conversation messages for job {}", conversation.messages().size(), jobId);
-                StringBuilder conversationText = new StringBuilder();
-                for (ConversationMessage message : conversation.messages()) {
-                    conversationText.append("[conversation] ").append(message.text()).append("\n");
-                }
-                logger.info("Conversation messages:\n{}", conversationText);
+            int count = cliAgent.streamConversation(cursorAgentId,
+                message -> logger.info("[conversation] {}", message.text()));
+            if (count > 0) {
+                logger.debug("Displayed {} conversation messages for job {}", count, jobId);
             } else {
                 logger.info("No conversation messages available for job {}", jobId);
             }
@@ -62,4 +59,3 @@ public class JobLogDisplayService {
         }
     }
 }
-
@@ -2,29 +2,36 @@ package info.jab.churrera.cli.command.run;
 
 import info.jab.churrera.cli.model.AgentState;
 import info.jab.churrera.cli.model.Job;
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.service.JobProcessor;
 import info.jab.churrera.workflow.WorkflowType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * Service for polling job execution status.
+ * <p>
+ * Between ticks it sleeps until the job processor's next scheduled check, but never longer
+ * than the polling interval, so completions are noticed within seconds while idle jobs are not
+ * polled more often than they need to be.
  */
 public class JobPollingService {
     private static final Logger logger = LoggerFactory.getLogger(JobPollingService.class);
 
+    static final long MIN_SLEEP_MILLIS = 500;
+
     private final JobProcessor jobProcessor;
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final JobDisplayService displayService;
     private final CompletionCheckerFactory completionCheckerFactory;
     private final int pollingIntervalSeconds;
     private final Sleeper sleeper;
 
-    public JobPollingService(JobProcessor jobProcessor, JobRepository jobRepository,
+    public JobPollingService(JobProcessor jobProcessor, JobStore jobRepository,
                             JobDisplayService displayService,
                             CompletionCheckerFactory completionCheckerFactory,
                             int pollingIntervalSeconds) {
@@ -32,7 +39,7 @@ public class JobPollingService {
             pollingIntervalSeconds, Thread::sleep);
     }
 
-    JobPollingService(JobProcessor jobProcessor, JobRepository jobRepository,
+    JobPollingService(JobProcessor jobProcessor, JobStore jobRepository,
                       JobDisplayService displayService,
                       CompletionCheckerFactory completionCheckerFactory,
                       int pollingIntervalSeconds,
@@ -55,6 +62,9 @@ public class JobPollingService {
         AgentState finalStatus = null;
         boolean interrupted = false;
 
+        // Otherwise an idle job could back off past the polling interval and finish unnoticed
+        jobProcessor.limitCheckInterval(Duration.ofSeconds(pollingIntervalSeconds));
+
         while (true) {
             // Process the job
             jobProcessor.processJobs();
@@ -91,13 +101,13 @@ public class JobPollingService {
     }
 
     /**
-     * Sleeps for the polling interval and checks for interruption.
+     * Sleeps until the next scheduled check, at most the polling interval, and checks for interruption.
      *
      * @return true if interrupted, false otherwise
      */
     private boolean sleepWithInterruptCheck() {
         try {
-            sleeper.sleep(pollingIntervalSeconds * 1000L);
+            sleeper.sleep(sleepMillis());
             return false;
         } catch (InterruptedException e) {
             logger.warn("Polling interrupted: {}", e.getMessage());
@@ -106,6 +116,15 @@ public class JobPollingService {
         }
     }
 
+    long sleepMillis() {
+        long maxMillis = pollingIntervalSeconds * 1000L;
+        Duration untilNextCheck = jobProcessor.timeUntilNextCheck();
+        if (untilNextCheck == null) {
+            return maxMillis;
+        }
+        return Math.clamp(untilNextCheck.toMillis(), Math.min(MIN_SLEEP_MILLIS, maxMillis), maxMillis);
+    }
+
     @FunctionalInterface
     interface Sleeper {
         void sleep(long millis) throws InterruptedException;
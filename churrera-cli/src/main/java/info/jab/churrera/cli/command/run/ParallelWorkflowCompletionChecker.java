@@ -2,7 +2,7 @@ package info.jab.churrera.cli.command.run;
 
 import info.jab.churrera.cli.model.AgentState;
 import info.jab.churrera.cli.model.Job;
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,9 +15,9 @@ import java.util.List;
 public class ParallelWorkflowCompletionChecker implements CompletionChecker {
     private static final Logger logger = LoggerFactory.getLogger(ParallelWorkflowCompletionChecker.class);
 
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
 
-    public ParallelWorkflowCompletionChecker(JobRepository jobRepository) {
+    public ParallelWorkflowCompletionChecker(JobStore jobRepository) {
         this.jobRepository = jobRepository;
     }
 
@@ -57,19 +57,11 @@ public class ParallelWorkflowCompletionChecker implements CompletionChecker {
      * Finds all child jobs for a given parent job ID.
      */
     private List<Job> findChildJobs(String parentJobId) {
-        List<Job> allJobs;
         try {
-            allJobs = jobRepository.findAll();
+            return new ArrayList<>(jobRepository.findJobsByParentId(parentJobId));
         } catch (Exception e) {
-            throw new RuntimeException("Error retrieving all jobs: " + e.getMessage(), e);
+            throw new RuntimeException("Error retrieving child jobs: " + e.getMessage(), e);
         }
-        List<Job> childJobs = new ArrayList<>();
-        for (Job j : allJobs) {
-            if (parentJobId.equals(j.parentJobId())) {
-                childJobs.add(j);
-            }
-        }
-        return childJobs;
     }
 
     /**
@@ -2,9 +2,11 @@ package info.jab.churrera.cli.command.run;
 
 import info.jab.churrera.cli.model.AgentState;
 import info.jab.churrera.cli.model.Job;
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.service.CLIAgent;
 import info.jab.churrera.cli.service.JobProcessor;
+import info.jab.churrera.cli.service.RequestJournal;
+import info.jab.churrera.cli.service.RequestJournalReconciler;
 import info.jab.churrera.workflow.PmlValidator;
 import info.jab.churrera.workflow.WorkflowParser;
 import info.jab.churrera.workflow.WorkflowValidator;
@@ -70,10 +72,11 @@ public class RunCommand implements Callable<Integer> {
     )
     private Integer pollingIntervalOverride;
 
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final JobProcessor jobProcessor;
     private final int pollingIntervalSeconds;
     private final CLIAgent cliAgent;
+    private final RequestJournal requestJournal;
 
     // Services
     private final JobCreationService jobCreationService;
@@ -83,15 +86,29 @@ public class RunCommand implements Callable<Integer> {
     private final CompletionCheckerFactory completionCheckerFactory;
 
     /**
-     * Constructor with dependency injection.
+     * Constructor with dependency injection, without a request journal to reconcile.
      */
-    public RunCommand(JobRepository jobRepository, JobProcessor jobProcessor,
+    public RunCommand(JobStore jobRepository, JobProcessor jobProcessor,
                      WorkflowValidator workflowValidator, WorkflowParser workflowParser,
                      PmlValidator pmlValidator, int pollingIntervalSeconds, CLIAgent cliAgent) {
+        this(jobRepository, jobProcessor, workflowValidator, workflowParser, pmlValidator,
+            pollingIntervalSeconds, cliAgent, RequestJournal.disabled());
+    }
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param requestJournal the journal used by the job processor, reconciled before the polling loop starts
+     */
+    public RunCommand(JobStore jobRepository, JobProcessor jobProcessor,
+                     WorkflowValidator workflowValidator, WorkflowParser workflowParser,
+                     PmlValidator pmlValidator, int pollingIntervalSeconds, CLIAgent cliAgent,
+                     RequestJournal requestJournal) {
         this.jobRepository = jobRepository;
         this.jobProcessor = jobProcessor;
         this.pollingIntervalSeconds = pollingIntervalSeconds;
         this.cliAgent = cliAgent;
+        this.requestJournal = requestJournal;
 
         // Initialize services
         this.jobCreationService = new JobCreationService(jobRepository, workflowValidator,
@@ -141,6 +158,9 @@ public class RunCommand implements Callable<Integer> {
             logger.debug("Job created with ID: {}, starting blocking execution", jobId);
             logger.info("Job registered");
 
+            // Resolve the launches and follow-ups a previous run left open before any job is processed
+            reconcileRequestJournal();
+
             // Create polling service with effective polling interval
             int effectivePollingInterval = getEffectivePollingIntervalSeconds();
             JobPollingService pollingService = new JobPollingService(jobProcessor, jobRepository,
@@ -182,6 +202,21 @@ public class RunCommand implements Callable<Integer> {
         }
     }
 
+    /**
+     * Resolves the requests left open in the journal. A failure is not fatal: open launches stay
+     * in the journal for the next run, and open follow-ups are checked before being sent again.
+     */
+    private void reconcileRequestJournal() {
+        try {
+            int resolved = new RequestJournalReconciler(requestJournal, jobRepository, cliAgent).reconcile();
+            if (resolved > 0) {
+                logger.info("Reconciled {} interrupted request(s)", resolved);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to reconcile request journal: {}", e.getMessage());
+        }
+    }
+
     /**
      * Handles early return options like --retrieve-models and --retrieve-repositories.
      *
@@ -266,11 +301,11 @@ public class RunCommand implements Callable<Integer> {
     }
 
     /**
-     * Gets the JobRepository for cleanup purposes.
+     * Gets the job store for cleanup purposes.
      *
-     * @return the JobRepository instance
+     * @return the JobStore instance
      */
-    public JobRepository getJobRepository() {
+    public JobStore getJobRepository() {
         return jobRepository;
     }
 
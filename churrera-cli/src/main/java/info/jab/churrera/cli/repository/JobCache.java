@@ -0,0 +1,240 @@
+package info.jab.churrera.cli.repository;
+
+import info.jab.churrera.cli.model.Job;
+import info.jab.churrera.cli.model.Prompt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Write-through cache of job and prompt records kept in front of the BaseX documents.
+ * <p>
+ * Records are keyed by id. Secondary indexes (children by parent job, prompts by job and
+ * non-terminal jobs) are only answered once they have been loaded completely from the
+ * database; from then on every write keeps them current. Records that come from a database
+ * read never replace a record that was written through the cache, so a slow read cannot
+ * roll back a newer write.
+ */
+final class JobCache {
+
+    private final Map<String, Job> jobsById = new HashMap<>();
+    private final Map<String, Prompt> promptsById = new HashMap<>();
+
+    private final Map<String, Set<String>> childIdsByParent = new HashMap<>();
+    private final Set<String> loadedParents = new HashSet<>();
+
+    private final Map<String, Set<String>> promptIdsByJob = new HashMap<>();
+    private final Set<String> loadedPromptJobs = new HashSet<>();
+
+    private final Set<String> unfinishedJobIds = new LinkedHashSet<>();
+    private boolean unfinishedLoaded;
+
+    /**
+     * Same rule as the repository query: no agent assigned yet, or the agent is not terminal.
+     */
+    static boolean isUnfinished(Job job) {
+        return job.cursorAgentId() == null || !job.status().isTerminal();
+    }
+
+    synchronized Optional<Job> job(String jobId) {
+        return Optional.ofNullable(jobsById.get(jobId));
+    }
+
+    synchronized Optional<Prompt> prompt(String promptId) {
+        return Optional.ofNullable(promptsById.get(promptId));
+    }
+
+    /**
+     * Returns the children of a parent job, or empty when they have not been loaded yet.
+     */
+    synchronized Optional<List<Job>> childrenOf(String parentJobId) {
+        if (!loadedParents.contains(parentJobId)) {
+            return Optional.empty();
+        }
+        return Optional.of(resolveJobs(childIdsByParent.getOrDefault(parentJobId, Set.of())));
+    }
+
+    /**
+     * Returns the prompts of a job, or empty when they have not been loaded yet.
+     */
+    synchronized Optional<List<Prompt>> promptsOf(String jobId) {
+        if (!loadedPromptJobs.contains(jobId)) {
+            return Optional.empty();
+        }
+        List<Prompt> prompts = new ArrayList<>();
+        for (String promptId : promptIdsByJob.getOrDefault(jobId, Set.of())) {
+            Prompt prompt = promptsById.get(promptId);
+            if (prompt != null) {
+                prompts.add(prompt);
+            }
+        }
+        return Optional.of(prompts);
+    }
+
+    /**
+     * Returns the unfinished jobs, or empty when they have not been loaded yet.
+     */
+    synchronized Optional<List<Job>> unfinishedJobs() {
+        if (!unfinishedLoaded) {
+            return Optional.empty();
+        }
+        return Optional.of(resolveJobs(unfinishedJobIds));
+    }
+
+    /**
+     * Stores a job that has just been written to the database.
+     */
+    synchronized void storeJob(Job job) {
+        Job previous = jobsById.put(job.jobId(), job);
+        if (previous != null && previous.parentJobId() != null && !previous.parentJobId().equals(job.parentJobId())) {
+            Set<String> siblings = childIdsByParent.get(previous.parentJobId());
+            if (siblings != null) {
+                siblings.remove(job.jobId());
+            }
+        }
+        index(job);
+    }
+
+    /**
+     * Stores a prompt that has just been written to the database.
+     */
+    synchronized void storePrompt(Prompt prompt) {
+        Prompt previous = promptsById.put(prompt.promptId(), prompt);
+        if (previous != null && !previous.jobId().equals(prompt.jobId())) {
+            Set<String> siblings = promptIdsByJob.get(previous.jobId());
+            if (siblings != null) {
+                siblings.remove(prompt.promptId());
+            }
+        }
+        promptIdsByJob.computeIfAbsent(prompt.jobId(), _ -> new LinkedHashSet<>()).add(prompt.promptId());
+    }
+
+    /**
+     * Records jobs read from the database without overriding newer cached writes.
+     */
+    synchronized void rememberJobs(List<Job> jobs) {
+        for (Job job : jobs) {
+            if (jobsById.putIfAbsent(job.jobId(), job) == null) {
+                index(job);
+            }
+        }
+    }
+
+    synchronized void rememberChildren(String parentJobId, List<Job> children) {
+        rememberJobs(children);
+        Set<String> ids = childIdsByParent.computeIfAbsent(parentJobId, _ -> new LinkedHashSet<>());
+        for (Job child : children) {
+            ids.add(child.jobId());
+        }
+        loadedParents.add(parentJobId);
+    }
+
+    synchronized void rememberUnfinished(List<Job> jobs) {
+        rememberJobs(jobs);
+        unfinishedLoaded = true;
+    }
+
+    synchronized void rememberPrompts(List<Prompt> prompts) {
+        for (Prompt prompt : prompts) {
+            if (promptsById.putIfAbsent(prompt.promptId(), prompt) == null) {
+                promptIdsByJob.computeIfAbsent(prompt.jobId(), _ -> new LinkedHashSet<>()).add(prompt.promptId());
+            }
+        }
+    }
+
+    synchronized void rememberPromptsOf(String jobId, List<Prompt> prompts) {
+        rememberPrompts(prompts);
+        loadedPromptJobs.add(jobId);
+    }
+
+    synchronized void evictJob(String jobId) {
+        Job removed = jobsById.remove(jobId);
+        if (removed != null && removed.parentJobId() != null) {
+            Set<String> siblings = childIdsByParent.get(removed.parentJobId());
+            if (siblings != null) {
+                siblings.remove(jobId);
+            }
+        }
+        unfinishedJobIds.remove(jobId);
+        childIdsByParent.remove(jobId);
+        loadedParents.remove(jobId);
+    }
+
+    /**
+     * Drops every cached prompt of a job. The job's prompt list is reloaded on next access.
+     */
+    synchronized void evictPromptsOf(String jobId) {
+        promptsById.values().removeIf(prompt -> prompt.jobId().equals(jobId));
+        promptIdsByJob.remove(jobId);
+        loadedPromptJobs.remove(jobId);
+    }
+
+    /**
+     * Drops a job, every cached descendant and all their prompts.
+     */
+    synchronized void evictTree(String rootJobId) {
+        Map<String, List<String>> childrenByParent = new HashMap<>();
+        for (Job job : jobsById.values()) {
+            if (job.parentJobId() != null) {
+                childrenByParent.computeIfAbsent(job.parentJobId(), _ -> new ArrayList<>()).add(job.jobId());
+            }
+        }
+        Set<String> visited = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(rootJobId);
+        while (!pending.isEmpty()) {
+            String jobId = pending.pop();
+            if (visited.add(jobId)) {
+                pending.addAll(childrenByParent.getOrDefault(jobId, List.of()));
+                pending.addAll(childIdsByParent.getOrDefault(jobId, Set.of()));
+            }
+        }
+        for (String jobId : visited) {
+            evictJob(jobId);
+            promptIdsByJob.remove(jobId);
+            loadedPromptJobs.remove(jobId);
+        }
+        promptsById.values().removeIf(prompt -> visited.contains(prompt.jobId()));
+    }
+
+    synchronized void clear() {
+        jobsById.clear();
+        promptsById.clear();
+        childIdsByParent.clear();
+        loadedParents.clear();
+        promptIdsByJob.clear();
+        loadedPromptJobs.clear();
+        unfinishedJobIds.clear();
+        unfinishedLoaded = false;
+    }
+
+    private void index(Job job) {
+        if (job.parentJobId() != null) {
+            childIdsByParent.computeIfAbsent(job.parentJobId(), _ -> new LinkedHashSet<>()).add(job.jobId());
+        }
+        if (isUnfinished(job)) {
+            unfinishedJobIds.add(job.jobId());
+        } else {
+            unfinishedJobIds.remove(job.jobId());
+        }
+    }
+
+    private List<Job> resolveJobs(Set<String> jobIds) {
+        List<Job> jobs = new ArrayList<>();
+        for (String jobId : jobIds) {
+            Job job = jobsById.get(jobId);
+            if (job != null) {
+                jobs.add(job);
+            }
+        }
+        return jobs;
+    }
+}
@@ -3,15 +3,16 @@ package info.jab.churrera.cli.repository;
 import java.util.List;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.Prompt;
-import info.jab.churrera.cli.model.JobWithDetails;
 import info.jab.churrera.cli.util.JobXmlMapper;
 import info.jab.churrera.cli.util.PromptXmlMapper;
 import org.basex.core.BaseXException;
 import org.basex.core.Context;
+import org.basex.core.MainOptions;
 import org.basex.core.cmd.Add;
 import org.basex.core.cmd.CreateDB;
 import org.basex.core.cmd.Get;
 import org.basex.core.cmd.Open;
+import org.basex.core.cmd.Set;
 import org.basex.core.cmd.XQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,28 +24,48 @@ import java.nio.file.Paths;
 import java.time.format.DateTimeFormatter;
 import info.jab.churrera.util.PropertyResolver;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
- * Repository for managing jobs in BaseX XML database.
+ * {@link JobStore} backed by an embedded BaseX XML database.
+ * <p>
+ * Writes go to BaseX first and then to an in-memory {@link JobCache}, so repeated reads
+ * within a polling cycle are served from memory. All operations are serialized on the
+ * repository because jobs are processed concurrently and share one BaseX context.
  */
-public class JobRepository {
+public class JobRepository implements JobStore {
 
     private static final Logger logger = LoggerFactory.getLogger(JobRepository.class);
 
     private static final String DATABASE_NAME = "churrera-jobs";
-    private static final String APPLICATION_PROPERTIES = "application.properties";
     private static final String JOBS_XML = "jobs.xml";
     private static final String PROMPTS_XML = "prompts.xml";
+    private static final String JOBS_ROOT = "doc('" + DATABASE_NAME + "/" + JOBS_XML + "')/jobs";
+    private static final String PROMPTS_ROOT = "doc('" + DATABASE_NAME + "/" + PROMPTS_XML + "')/prompts";
+    private static final String TERMINAL_STATUSES = "('FINISHED', 'ERROR', 'EXPIRED')";
+
+    /**
+     * Collects every descendant of the given job ids level by level. Ids already visited are
+     * skipped, so a corrupted parent chain cannot recurse forever.
+     */
+    private static final String DESCENDANTS_FUNCTION =
+            "declare function local:descendants($jobs as element(jobs), $ids as xs:string*, $seen as xs:string*) "
+            + "as element(job)* { "
+            + "let $children := $jobs/job[parentJobId = $ids][not(jobId = $seen)] "
+            + "return if (empty($children)) then () "
+            + "else ($children, local:descendants($jobs, $children/jobId/string(), ($seen, $children/jobId/string()))) "
+            + "}; ";
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     private final Context context;
     private final String databasePath;
+    private final JobCache cache = new JobCache();
 
     public JobRepository(PropertyResolver propertyResolver) throws IOException {
-        this.databasePath = propertyResolver.getProperty(APPLICATION_PROPERTIES, "basex.database.path")
-                .orElse("/tmp/churrera-data");
+        this.databasePath = JobStoreFactory.dataDirectory(propertyResolver).toString();
 
         // Ensure the database directory exists
         Path dbPath = Paths.get(databasePath);
@@ -76,6 +97,9 @@ public class JobRepository {
         } catch (BaseXException _) {
             // Database doesn't exist, create it
             logger.info("Creating new database: {} at {}", DATABASE_NAME, databasePath);
+            // Keep the text index current on every update so that lookups by id stay index-backed
+            new Set(MainOptions.UPDINDEX, true).execute(context);
+            new Set(MainOptions.TEXTINDEX, true).execute(context);
             // Create database with explicit path
             new CreateDB(DATABASE_NAME, databasePath).execute(context);
             // Create initial XML structures
@@ -108,6 +132,25 @@ public class JobRepository {
         } catch (BaseXException e) {
             logger.warn("Database test failed", e);
         }
+
+        ensureIndexes();
+    }
+
+    /**
+     * Make sure the text index exists and is maintained incrementally. Databases created
+     * by older versions were built without UPDINDEX, so they are optimized once here.
+     */
+    private void ensureIndexes() {
+        try {
+            String updindex = new XQuery("db:property('" + DATABASE_NAME + "', 'updindex')").execute(context).trim();
+            if (!"true".equals(updindex)) {
+                logger.info("Enabling incremental indexes for database: {}", DATABASE_NAME);
+                new XQuery("db:optimize('" + DATABASE_NAME + "', true(), "
+                        + "map { 'updindex': true(), 'textindex': true(), 'attrindex': true() })").execute(context);
+            }
+        } catch (BaseXException e) {
+            logger.warn("Could not enable indexes for database: {}, lookups will scan the documents", DATABASE_NAME, e);
+        }
     }
 
     /**
@@ -115,7 +158,8 @@ public class JobRepository {
      *
      * @return list of all jobs
      */
-    public List<Job> findAll() {
+    @Override
+    public synchronized List<Job> findAll() {
         try {
             // Use BaseX Get command to retrieve the document content
             String xmlContent = new Get(JOBS_XML).execute(context);
@@ -133,18 +177,18 @@ public class JobRepository {
      * @param jobId the job ID to search for
      * @return Optional containing the job if found
      */
-    public Optional<Job> findById(String jobId) {
+    @Override
+    public synchronized Optional<Job> findById(String jobId) {
+        Optional<Job> cached = cache.job(jobId);
+        if (cached.isPresent()) {
+            return cached;
+        }
         try {
-            // Use BaseX Get command to retrieve the document content
-            String xmlContent = new Get(JOBS_XML).execute(context);
-
-            // Parse the XML content and find the specific job
-            return JobXmlMapper.fromDocument(xmlContent, DATE_TIME_FORMATTER).stream()
-                    .filter(job -> job.jobId().equals(jobId))
-                    .findFirst();
-
+            List<Job> jobs = queryJobs("jobId = " + literal(jobId));
+            cache.rememberJobs(jobs);
+            return jobs.stream().findFirst();
         } catch (Exception e) {
-            logger.error("Error using Get command in findById for jobId: {}", jobId, e);
+            logger.error("Error querying job by ID: {}", jobId, e);
             return Optional.empty();
         }
     }
@@ -154,25 +198,71 @@ public class JobRepository {
      *
      * @param job the job to save
      */
-    public void save(Job job) throws IOException {
-        // Check if job already exists
-        Optional<Job> existingJob = findById(job.jobId());
-
-        if (existingJob.isPresent()) {
-            // Update existing job
-            logger.debug("Updating existing job: {}", job.jobId());
-            String updateQuery = "replace node doc('" + DATABASE_NAME + "/" + JOBS_XML + "')/jobs/job[jobId='" + job.jobId()
-                    + "'] " +
-                    "with " + JobXmlMapper.toXml(job, DATE_TIME_FORMATTER);
-            new XQuery(updateQuery).execute(context);
-            logger.trace("Updated job: {}", job.jobId());
-        } else {
-            // Add new job
-            logger.debug("Adding new job: {}", job.jobId());
-            String insertQuery = "insert node " + JobXmlMapper.toXml(job, DATE_TIME_FORMATTER) + " into doc('" + DATABASE_NAME + "/" + JOBS_XML + "')/jobs";
-            new XQuery(insertQuery).execute(context);
-            logger.trace("Saved new job: {}", job.jobId());
+    @Override
+    public synchronized void save(Job job) throws IOException {
+        logger.debug("Saving job: {}", job.jobId());
+        String upsertQuery = upsert(JOBS_ROOT, "job", "jobId", job.jobId(), JobXmlMapper.toXml(job, DATE_TIME_FORMATTER));
+        new XQuery(upsertQuery).execute(context);
+        cache.storeJob(normalize(job));
+        logger.trace("Saved job: {}", job.jobId());
+    }
+
+    /**
+     * Save several jobs and prompts with one updating query. BaseX applies the pending
+     * updates of a query atomically, so either every record is written or none is.
+     * When the same id appears more than once, the last record wins.
+     *
+     * @param jobs the jobs to save
+     * @param prompts the prompts to save
+     */
+    @Override
+    public synchronized void saveAll(List<Job> jobs, List<Prompt> prompts) throws IOException {
+        Map<String, Job> uniqueJobs = new LinkedHashMap<>();
+        for (Job job : jobs) {
+            uniqueJobs.put(job.jobId(), job);
+        }
+        Map<String, Prompt> uniquePrompts = new LinkedHashMap<>();
+        for (Prompt prompt : prompts) {
+            uniquePrompts.put(prompt.promptId(), prompt);
+        }
+        if (uniqueJobs.isEmpty() && uniquePrompts.isEmpty()) {
+            return;
+        }
+
+        logger.debug("Saving {} jobs and {} prompts in one batch", uniqueJobs.size(), uniquePrompts.size());
+        StringBuilder batch = new StringBuilder("<batch><jobs>");
+        for (Job job : uniqueJobs.values()) {
+            JobXmlMapper.appendXml(job, DATE_TIME_FORMATTER, batch);
+        }
+        batch.append("</jobs><prompts>");
+        for (Prompt prompt : uniquePrompts.values()) {
+            PromptXmlMapper.appendXml(prompt, DATE_TIME_FORMATTER, batch);
         }
+        batch.append("</prompts></batch>");
+
+        String batchQuery = "let $jobs := " + JOBS_ROOT + " "
+                + "let $prompts := " + PROMPTS_ROOT + " "
+                + "let $batch := " + asConstructor(batch.toString()) + " "
+                + "return ("
+                + "for $record in $batch/jobs/job "
+                + "let $existing := $jobs/job[jobId = $record/jobId] "
+                + "return if (exists($existing)) "
+                + "then (replace node head($existing) with $record, delete node tail($existing)) "
+                + "else insert node $record into $jobs, "
+                + "for $record in $batch/prompts/prompt "
+                + "let $existing := $prompts/prompt[promptId = $record/promptId] "
+                + "return if (exists($existing)) "
+                + "then (replace node head($existing) with $record, delete node tail($existing)) "
+                + "else insert node $record into $prompts)";
+        new XQuery(batchQuery).execute(context);
+
+        for (Job job : uniqueJobs.values()) {
+            cache.storeJob(normalize(job));
+        }
+        for (Prompt prompt : uniquePrompts.values()) {
+            cache.storePrompt(prompt);
+        }
+        logger.trace("Saved batch of {} jobs and {} prompts", uniqueJobs.size(), uniquePrompts.size());
     }
 
     /**
@@ -180,11 +270,13 @@ public class JobRepository {
      *
      * @param jobId the job ID to delete
      */
-    public void deleteById(String jobId) {
+    @Override
+    public synchronized void deleteById(String jobId) {
         logger.debug("Deleting job: {}", jobId);
-        String deleteQuery = "delete node doc('" + DATABASE_NAME + "/" + JOBS_XML + "')/jobs/job[jobId='" + jobId + "']";
+        String deleteQuery = "delete node " + JOBS_ROOT + "/job[jobId = " + literal(jobId) + "]";
         try {
             new XQuery(deleteQuery).execute(context);
+            cache.evictJob(jobId);
             logger.info("Deleted job: {}", jobId);
         } catch (BaseXException e) {
             logger.error("Error deleting job: {}", jobId, e);
@@ -196,26 +288,14 @@ public class JobRepository {
      *
      * @param prompt the prompt to save
      */
-    public void savePrompt(Prompt prompt) throws IOException {
-        // Check if prompt already exists
-        Optional<Prompt> existingPrompt = findPromptById(prompt.promptId());
-
-        if (existingPrompt.isPresent()) {
-            // Update existing prompt
-            logger.debug("Updating existing prompt: {}", prompt.promptId());
-            String updateQuery = "replace node doc('" + DATABASE_NAME + "/" + PROMPTS_XML + "')/prompts/prompt[promptId='"
-                    + prompt.promptId() + "'] " +
-                    "with " + PromptXmlMapper.toXml(prompt, DATE_TIME_FORMATTER);
-            new XQuery(updateQuery).execute(context);
-            logger.info("Updated prompt: {}", prompt.promptId());
-        } else {
-            // Add new prompt
-            logger.debug("Adding new prompt: {}", prompt.promptId());
-            String insertQuery = "insert node " + PromptXmlMapper.toXml(prompt, DATE_TIME_FORMATTER) + " into doc('" + DATABASE_NAME
-                    + "/" + PROMPTS_XML + "')/prompts";
-            new XQuery(insertQuery).execute(context);
-            logger.trace("Saved new prompt: {}", prompt.promptId());
-        }
+    @Override
+    public synchronized void savePrompt(Prompt prompt) throws IOException {
+        logger.debug("Saving prompt: {}", prompt.promptId());
+        String upsertQuery = upsert(PROMPTS_ROOT, "prompt", "promptId", prompt.promptId(),
+                PromptXmlMapper.toXml(prompt, DATE_TIME_FORMATTER));
+        new XQuery(upsertQuery).execute(context);
+        cache.storePrompt(prompt);
+        logger.trace("Saved prompt: {}", prompt.promptId());
     }
 
     /**
@@ -224,15 +304,16 @@ public class JobRepository {
      * @param promptId the prompt ID to search for
      * @return Optional containing the prompt if found
      */
-    public Optional<Prompt> findPromptById(String promptId) {
+    @Override
+    public synchronized Optional<Prompt> findPromptById(String promptId) {
+        Optional<Prompt> cached = cache.prompt(promptId);
+        if (cached.isPresent()) {
+            return cached;
+        }
         try {
-            String xmlContent = new Get(PROMPTS_XML).execute(context);
-
-            // Parse the XML content and find the specific prompt
-            return PromptXmlMapper.fromDocument(xmlContent, DATE_TIME_FORMATTER).stream()
-                    .filter(prompt -> prompt.promptId().equals(promptId))
-                    .findFirst();
-
+            List<Prompt> prompts = queryPrompts("promptId = " + literal(promptId));
+            cache.rememberPrompts(prompts);
+            return prompts.stream().findFirst();
         } catch (Exception e) {
             logger.error("Error finding prompt by ID: {}", promptId, e);
             return Optional.empty();
@@ -245,62 +326,38 @@ public class JobRepository {
      * @param jobId the job ID to search for
      * @return list of prompts for the job
      */
-    public List<Prompt> findPromptsByJobId(String jobId) {
+    @Override
+    public synchronized List<Prompt> findPromptsByJobId(String jobId) {
+        Optional<List<Prompt>> cached = cache.promptsOf(jobId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         try {
-            String xmlContent = new Get(PROMPTS_XML).execute(context);
-            List<Prompt> allPrompts = PromptXmlMapper.fromDocument(xmlContent, DATE_TIME_FORMATTER);
-            List<Prompt> jobPrompts = new ArrayList<>();
-
-            for (Prompt prompt : allPrompts) {
-                if (prompt.jobId().equals(jobId)) {
-                    jobPrompts.add(prompt);
-                }
-            }
-
-            return jobPrompts;
-
+            List<Prompt> prompts = queryPrompts("jobId = " + literal(jobId));
+            cache.rememberPromptsOf(jobId, prompts);
+            return prompts;
         } catch (Exception e) {
             logger.error("Error finding prompts by job ID: {}", jobId, e);
             return new ArrayList<>();
         }
     }
 
-    /**
-     * Find job with all related prompts.
-     *
-     * @param jobId the job ID to search for
-     * @return JobWithDetails containing job and prompts
-     */
-    public Optional<JobWithDetails> findJobWithDetails(String jobId) {
-        Optional<Job> job = findById(jobId);
-        if (job.isEmpty()) {
-            return Optional.empty();
-        }
-
-        List<Prompt> prompts = findPromptsByJobId(jobId);
-
-        return Optional.of(new JobWithDetails(job.get(), prompts));
-    }
-
     /**
      * Find all jobs that are not in terminal state.
      *
      * @return list of unfinished jobs
      */
-    public List<Job> findUnfinishedJobs() {
+    @Override
+    public synchronized List<Job> findUnfinishedJobs() {
+        Optional<List<Job>> cached = cache.unfinishedJobs();
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         try {
-            String xmlContent = new Get(JOBS_XML).execute(context);
-            List<Job> allJobs = JobXmlMapper.fromDocument(xmlContent, DATE_TIME_FORMATTER);
-            List<Job> unfinishedJobs = new ArrayList<>();
-
-            for (Job job : allJobs) {
-                if (job.cursorAgentId() == null || !job.status().isTerminal()) {
-                    unfinishedJobs.add(job);
-                }
-            }
-
-            return unfinishedJobs;
-
+            // Same rule as JobCache.isUnfinished: no agent assigned yet, or the agent has not reached a terminal state
+            List<Job> jobs = queryJobs("cursorAgentId = 'null' or not(status = " + TERMINAL_STATUSES + ")");
+            cache.rememberUnfinished(jobs);
+            return jobs;
         } catch (Exception e) {
             logger.error("Error finding unfinished jobs", e);
             return new ArrayList<>();
@@ -312,21 +369,61 @@ public class JobRepository {
      *
      * @param jobId the job ID to delete prompts for
      */
-    public void deletePromptsByJobId(String jobId) {
+    @Override
+    public synchronized void deletePromptsByJobId(String jobId) {
         try {
-            String xmlContent = new Get(PROMPTS_XML).execute(context);
-            List<Prompt> allPrompts = PromptXmlMapper.fromDocument(xmlContent, DATE_TIME_FORMATTER);
-
-            for (Prompt prompt : allPrompts) {
-                if (prompt.jobId().equals(jobId)) {
-                    String deleteQuery = "delete node doc('" + DATABASE_NAME
-                            + "/" + PROMPTS_XML + "')/prompts/prompt[promptId='" + prompt.promptId() + "']";
-                    new XQuery(deleteQuery).execute(context);
-                }
-            }
-
+            String deleteQuery = "delete node " + PROMPTS_ROOT + "/prompt[jobId = " + literal(jobId) + "]";
+            new XQuery(deleteQuery).execute(context);
         } catch (Exception e) {
             logger.error("Error deleting prompts by job ID: {}", jobId, e);
+        } finally {
+            cache.evictPromptsOf(jobId);
+        }
+    }
+
+    /**
+     * Find a job together with all its descendants (children, grandchildren and so on)
+     * with one query. The job itself comes first, followed by its descendants level by level.
+     *
+     * @param jobId the root job ID
+     * @return the job tree, or an empty list when nothing matches
+     */
+    @Override
+    public synchronized List<Job> findJobTree(String jobId) {
+        try {
+            String treeQuery = DESCENDANTS_FUNCTION
+                    + "let $jobs := " + JOBS_ROOT + " "
+                    + "return ($jobs/job[jobId = " + literal(jobId) + "], "
+                    + "local:descendants($jobs, " + literal(jobId) + ", " + literal(jobId) + "))";
+            String xmlContent = new XQuery(treeQuery).execute(context);
+            return JobXmlMapper.fromDocument(xmlContent, DATE_TIME_FORMATTER);
+        } catch (Exception e) {
+            logger.error("Error finding job tree for job ID: {}", jobId, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Delete a job, all its descendants and the prompts of all of them in a single updating query.
+     *
+     * @param jobId the root job ID
+     */
+    @Override
+    public synchronized void deleteJobCascade(String jobId) {
+        logger.debug("Deleting job tree: {}", jobId);
+        String cascadeQuery = DESCENDANTS_FUNCTION
+                + "let $jobs := " + JOBS_ROOT + " "
+                + "let $tree := ($jobs/job[jobId = " + literal(jobId) + "], "
+                + "local:descendants($jobs, " + literal(jobId) + ", " + literal(jobId) + ")) "
+                + "let $ids := $tree/jobId/string() "
+                + "return (delete node $tree, delete node " + PROMPTS_ROOT + "/prompt[jobId = $ids])";
+        try {
+            new XQuery(cascadeQuery).execute(context);
+            logger.info("Deleted job tree: {}", jobId);
+        } catch (BaseXException e) {
+            logger.error("Error deleting job tree: {}", jobId, e);
+        } finally {
+            cache.evictTree(jobId);
         }
     }
 
@@ -336,32 +433,89 @@ public class JobRepository {
      * @param parentJobId the parent job ID to search for
      * @return list of child jobs
      */
-    public List<Job> findJobsByParentId(String parentJobId) {
+    @Override
+    public synchronized List<Job> findJobsByParentId(String parentJobId) {
+        if (parentJobId == null) {
+            return new ArrayList<>();
+        }
+        Optional<List<Job>> cached = cache.childrenOf(parentJobId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
         try {
-            String xmlContent = new Get(JOBS_XML).execute(context);
-            List<Job> allJobs = JobXmlMapper.fromDocument(xmlContent, DATE_TIME_FORMATTER);
-            List<Job> childJobs = new ArrayList<>();
-
-            for (Job job : allJobs) {
-                if (job.parentJobId() != null && job.parentJobId().equals(parentJobId)) {
-                    childJobs.add(job);
-                }
-            }
-
-            return childJobs;
-
+            List<Job> children = queryJobs("parentJobId = " + literal(parentJobId));
+            cache.rememberChildren(parentJobId, children);
+            return children;
         } catch (Exception e) {
             logger.error("Error finding jobs by parent ID: {}", parentJobId, e);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Run a predicate against the job records and parse only the matching nodes.
+     * Equality predicates on child elements are rewritten by BaseX to text index lookups.
+     */
+    private List<Job> queryJobs(String predicate) throws BaseXException {
+        String xmlContent = new XQuery(JOBS_ROOT + "/job[" + predicate + "]").execute(context);
+        return JobXmlMapper.fromDocument(xmlContent, DATE_TIME_FORMATTER);
+    }
+
+    private List<Prompt> queryPrompts(String predicate) throws BaseXException {
+        String xmlContent = new XQuery(PROMPTS_ROOT + "/prompt[" + predicate + "]").execute(context);
+        return PromptXmlMapper.fromDocument(xmlContent, DATE_TIME_FORMATTER);
+    }
+
+    /**
+     * Build a single updating query that replaces the record with the given id when it exists
+     * and inserts it otherwise, so a write never needs a separate existence check. Duplicate
+     * records left behind by older versions are removed on the way.
+     */
+    private static String upsert(String root, String element, String idElement, String id, String recordXml) {
+        return "let $root := " + root + " "
+                + "let $record := " + asConstructor(recordXml) + " "
+                + "let $existing := $root/" + element + "[" + idElement + " = " + literal(id) + "] "
+                + "return if (exists($existing)) "
+                + "then (replace node head($existing) with $record, delete node tail($existing)) "
+                + "else insert node $record into $root";
+    }
+
+    /**
+     * Escape curly braces so record XML can be embedded as a direct element constructor
+     * without its text being evaluated as enclosed expressions.
+     */
+    private static String asConstructor(String recordXml) {
+        return recordXml.replace("{", "{{").replace("}", "}}");
+    }
+
+    /**
+     * Bring a job to the shape it has after an XML round-trip, so cached and stored
+     * copies compare equal.
+     */
+    static Job normalize(Job job) {
+        if (job.fallbackExecuted() != null) {
+            return job;
+        }
+        return new Job(job.jobId(), job.path(), job.cursorAgentId(), job.model(), job.repository(), job.status(),
+                job.createdAt(), job.lastUpdate(), job.parentJobId(), job.result(), job.type(), job.timeoutMillis(),
+                job.workflowStartTime(), job.fallbackSrc(), Boolean.FALSE);
+    }
+
+    /**
+     * Quote a value as an XQuery string literal, escaping entity references and apostrophes.
+     */
+    static String literal(String value) {
+        return "'" + value.replace("&", "&amp;").replace("'", "''") + "'";
+    }
+
     /**
      * Close the repository and clean up resources.
      */
-    public void close() {
+    @Override
+    public synchronized void close() {
         if (context != null) {
             logger.debug("Closing repository");
+            cache.clear();
             context.close();
             logger.trace("Repository closed");
         }
@@ -0,0 +1,133 @@
+package info.jab.churrera.cli.repository;
+
+import info.jab.churrera.cli.model.Job;
+import info.jab.churrera.cli.model.JobWithDetails;
+import info.jab.churrera.cli.model.Prompt;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage for jobs and their prompts.
+ * <p>
+ * Two backends are available: {@link JobRepository} on top of an embedded BaseX database and
+ * {@link LogJobStore}, an append-only log with periodic snapshots. {@link JobStoreFactory}
+ * selects one from the application properties.
+ */
+public interface JobStore extends AutoCloseable {
+
+    /**
+     * Find all jobs in insertion order.
+     *
+     * @return list of all jobs
+     */
+    List<Job> findAll();
+
+    /**
+     * Find a job by its ID.
+     *
+     * @param jobId the job ID to search for
+     * @return Optional containing the job if found
+     */
+    Optional<Job> findById(String jobId);
+
+    /**
+     * Insert or replace a job.
+     *
+     * @param job the job to save
+     */
+    void save(Job job) throws IOException;
+
+    /**
+     * Insert or replace several jobs and prompts atomically. When the same id appears more
+     * than once, the last record wins.
+     *
+     * @param jobs the jobs to save
+     * @param prompts the prompts to save
+     */
+    void saveAll(List<Job> jobs, List<Prompt> prompts) throws IOException;
+
+    /**
+     * Delete a job by its ID.
+     *
+     * @param jobId the job ID to delete
+     */
+    void deleteById(String jobId);
+
+    /**
+     * Insert or replace a prompt.
+     *
+     * @param prompt the prompt to save
+     */
+    void savePrompt(Prompt prompt) throws IOException;
+
+    /**
+     * Find a prompt by its ID.
+     *
+     * @param promptId the prompt ID to search for
+     * @return Optional containing the prompt if found
+     */
+    Optional<Prompt> findPromptById(String promptId);
+
+    /**
+     * Find all prompts for a specific job.
+     *
+     * @param jobId the job ID to search for
+     * @return list of prompts for the job
+     */
+    List<Prompt> findPromptsByJobId(String jobId);
+
+    /**
+     * Find job with all related prompts.
+     *
+     * @param jobId the job ID to search for
+     * @return JobWithDetails containing job and prompts
+     */
+    default Optional<JobWithDetails> findJobWithDetails(String jobId) {
+        return findById(jobId).map(job -> new JobWithDetails(job, findPromptsByJobId(jobId)));
+    }
+
+    /**
+     * Find all jobs that have no agent yet or whose agent is not in a terminal state.
+     *
+     * @return list of unfinished jobs
+     */
+    List<Job> findUnfinishedJobs();
+
+    /**
+     * Delete all prompts for a specific job.
+     *
+     * @param jobId the job ID to delete prompts for
+     */
+    void deletePromptsByJobId(String jobId);
+
+    /**
+     * Find a job together with all its descendants. The job itself comes first.
+     *
+     * @param jobId the root job ID
+     * @return the job tree, or an empty list when nothing matches
+     */
+    List<Job> findJobTree(String jobId);
+
+    /**
+     * Delete a job, all its descendants and the prompts of all of them.
+     *
+     * @param jobId the root job ID
+     */
+    void deleteJobCascade(String jobId);
+
+    /**
+     * Find all jobs by parent job ID.
+     *
+     * @param parentJobId the parent job ID to search for
+     * @return list of child jobs
+     */
+    List<Job> findJobsByParentId(String parentJobId);
+
+    /**
+     * Release the resources held by the store.
+     */
+    @Override
+    void close();
+}
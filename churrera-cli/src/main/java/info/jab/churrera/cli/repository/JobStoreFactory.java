@@ -0,0 +1,72 @@
+package info.jab.churrera.cli.repository;
+
+import info.jab.churrera.util.PropertyResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Factory for the configured {@link JobStore} backend.
+ * <p>
+ * {@code jobstore.backend} selects {@code basex} (default) or {@code log}. The log backend
+ * keeps its files in {@code jobstore.log.path}, by default {@code log} in the data directory,
+ * and writes a snapshot every {@code jobstore.log.snapshot.every} entries.
+ * <p>
+ * The data directory, {@code basex.database.path}, holds the BaseX database and the other files
+ * kept between runs.
+ */
+public final class JobStoreFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobStoreFactory.class);
+
+    private static final String APPLICATION_PROPERTIES = "application.properties";
+    static final String BACKEND_BASEX = "basex";
+    static final String BACKEND_LOG = "log";
+    static final String DEFAULT_DATA_DIRECTORY = "/tmp/churrera-data";
+
+    private JobStoreFactory() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Creates the job store selected in the application properties.
+     *
+     * @param propertyResolver resolver for the application properties
+     * @return the opened job store
+     */
+    public static JobStore create(PropertyResolver propertyResolver) throws IOException {
+        String backend = propertyResolver.getProperty(APPLICATION_PROPERTIES, "jobstore.backend")
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .orElse(BACKEND_BASEX);
+        logger.debug("Using job store backend: {}", backend);
+
+        return switch (backend) {
+            case BACKEND_BASEX -> new JobRepository(propertyResolver);
+            case BACKEND_LOG -> {
+                String path = propertyResolver.getProperty(APPLICATION_PROPERTIES, "jobstore.log.path")
+                        .orElseGet(() -> dataDirectory(propertyResolver).resolve("log").toString());
+                int snapshotEvery = propertyResolver.getProperty(APPLICATION_PROPERTIES, "jobstore.log.snapshot.every")
+                        .map(Integer::parseInt)
+                        .orElse(1000);
+                yield new LogJobStore(Paths.get(path), snapshotEvery);
+            }
+            default -> throw new RuntimeException("Unknown job store backend '" + backend
+                    + "', expected '" + BACKEND_BASEX + "' or '" + BACKEND_LOG + "'");
+        };
+    }
+
+    /**
+     * Returns the data directory, where the BaseX database and the files kept next to it live.
+     *
+     * @param propertyResolver resolver for the application properties
+     * @return {@code basex.database.path}, or {@code /tmp/churrera-data} when it is not set
+     */
+    public static Path dataDirectory(PropertyResolver propertyResolver) {
+        return Paths.get(propertyResolver.getProperty(APPLICATION_PROPERTIES, "basex.database.path")
+                .orElse(DEFAULT_DATA_DIRECTORY));
+    }
+}
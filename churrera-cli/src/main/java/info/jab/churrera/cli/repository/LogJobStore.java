@@ -0,0 +1,524 @@
+package info.jab.churrera.cli.repository;
+
+import info.jab.churrera.cli.model.Job;
+import info.jab.churrera.cli.model.Prompt;
+import info.jab.churrera.cli.util.JobXmlMapper;
+import info.jab.churrera.cli.util.PromptXmlMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * {@link JobStore} backed by an append-only, memory-mapped event log.
+ * <p>
+ * All records live in memory; every write is appended to {@code jobs.log} as one checksummed
+ * record before it is applied, so a batch is either replayed completely or not at all. Once
+ * the log holds {@code snapshotEvery} entries the whole state is written to
+ * {@code jobs.snapshot} and the log starts over with the next generation. Every record carries
+ * the generation it was written in. On startup the snapshot is loaded and the log is replayed
+ * on top of it, skipping records older than the snapshot; a torn record at the end of the log,
+ * and older records left behind by an interrupted snapshot, are discarded. A damaged record
+ * followed by valid ones, or a damaged snapshot, fails the startup and leaves the files as they
+ * are, as discarding them would lose committed writes.
+ * <p>
+ * Records are stored in the same XML shape as the BaseX backend so both stay interchangeable.
+ */
+public class LogJobStore implements JobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogJobStore.class);
+
+    static final String LOG_FILE = "jobs.log";
+    static final String SNAPSHOT_FILE = "jobs.snapshot";
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    /** Every record starts with the payload length, a CRC32 of generation and payload, and the generation. */
+    private static final int HEADER_BYTES = Integer.BYTES * 3;
+    private static final int INITIAL_MAPPING_BYTES = 1 << 20;
+    private static final byte[] ZEROS = new byte[8192];
+
+    private static final byte PUT_JOB = 1;
+    private static final byte PUT_PROMPT = 2;
+    private static final byte DELETE_JOB = 3;
+    private static final byte DELETE_PROMPT = 4;
+
+    private final Path directory;
+    private final int snapshotEvery;
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private final Map<String, Prompt> prompts = new LinkedHashMap<>();
+
+    private final FileChannel channel;
+    private MappedByteBuffer log;
+    private int writePosition;
+    private int entriesSinceSnapshot;
+    private int generation;
+
+    /**
+     * Open the store in the given directory, creating it when needed.
+     *
+     * @param directory directory holding the log and snapshot files
+     * @param snapshotEvery number of log entries after which a snapshot is taken
+     */
+    public LogJobStore(Path directory, int snapshotEvery) throws IOException {
+        if (snapshotEvery <= 0) {
+            throw new IllegalArgumentException("snapshotEvery must be positive: " + snapshotEvery);
+        }
+        this.directory = directory;
+        this.snapshotEvery = snapshotEvery;
+
+        if (!Files.exists(directory)) {
+            Files.createDirectories(directory);
+            logger.info("Created job store directory: {}", directory);
+        }
+
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            ByteBuffer snapshotBytes = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+            // The snapshot is replaced atomically, so it is exactly one complete record
+            int end = replay(snapshotBytes, snapshotBytes.capacity());
+            if (end != snapshotBytes.capacity()) {
+                throw new IOException("Job store snapshot " + snapshot + " is corrupt at offset " + end
+                        + "; restore it from a backup or move it and " + LOG_FILE + " away to start empty");
+            }
+            entriesSinceSnapshot = 0;
+        }
+
+        Path logFile = directory.resolve(LOG_FILE);
+        this.channel = FileChannel.open(logFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_MAPPING_BYTES, channel.size()));
+        this.writePosition = replay(log, log.capacity());
+        // Appends are sequential, so only a torn last record or records older than the snapshot
+        // may follow the last record of this generation
+        if (hasRecordAfter(log, writePosition, log.capacity())) {
+            channel.close();
+            throw new IOException("Job store log " + logFile + " is corrupt at offset " + writePosition
+                    + " and has records after it; restore it from a backup or move it away to start from "
+                    + SNAPSHOT_FILE);
+        }
+        if (hasDataAfter(log, writePosition, log.capacity())) {
+            logger.warn("Discarding incomplete or outdated records after offset {} of {}", writePosition, logFile);
+            zero(writePosition, log.capacity());
+            log.force();
+        }
+        logger.info("Opened job store at {} with {} jobs and {} prompts", directory, jobs.size(), prompts.size());
+    }
+
+    @Override
+    public synchronized List<Job> findAll() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    @Override
+    public synchronized Optional<Job> findById(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Override
+    public void save(Job job) throws IOException {
+        saveAll(List.of(job), List.of());
+    }
+
+    @Override
+    public synchronized void saveAll(List<Job> jobsToSave, List<Prompt> promptsToSave) throws IOException {
+        if (jobsToSave.isEmpty() && promptsToSave.isEmpty()) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (Job job : jobsToSave) {
+            entries.add(new Entry(PUT_JOB, JobXmlMapper.toXml(job, DATE_TIME_FORMATTER)));
+        }
+        for (Prompt prompt : promptsToSave) {
+            entries.add(new Entry(PUT_PROMPT, PromptXmlMapper.toXml(prompt, DATE_TIME_FORMATTER)));
+        }
+        append(entries);
+        for (Job job : jobsToSave) {
+            jobs.put(job.jobId(), JobRepository.normalize(job));
+        }
+        for (Prompt prompt : promptsToSave) {
+            prompts.put(prompt.promptId(), prompt);
+        }
+        snapshotIfDue();
+        logger.trace("Saved {} jobs and {} prompts", jobsToSave.size(), promptsToSave.size());
+    }
+
+    @Override
+    public synchronized void deleteById(String jobId) {
+        logger.debug("Deleting job: {}", jobId);
+        try {
+            append(List.of(new Entry(DELETE_JOB, jobId)));
+            jobs.remove(jobId);
+            snapshotIfDue();
+            logger.info("Deleted job: {}", jobId);
+        } catch (IOException e) {
+            logger.error("Error deleting job: {}", jobId, e);
+        }
+    }
+
+    @Override
+    public void savePrompt(Prompt prompt) throws IOException {
+        saveAll(List.of(), List.of(prompt));
+    }
+
+    @Override
+    public synchronized Optional<Prompt> findPromptById(String promptId) {
+        return Optional.ofNullable(prompts.get(promptId));
+    }
+
+    @Override
+    public synchronized List<Prompt> findPromptsByJobId(String jobId) {
+        List<Prompt> result = new ArrayList<>();
+        for (Prompt prompt : prompts.values()) {
+            if (prompt.jobId().equals(jobId)) {
+                result.add(prompt);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized List<Job> findUnfinishedJobs() {
+        List<Job> result = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            if (JobCache.isUnfinished(job)) {
+                result.add(job);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void deletePromptsByJobId(String jobId) {
+        List<String> promptIds = new ArrayList<>();
+        for (Prompt prompt : prompts.values()) {
+            if (prompt.jobId().equals(jobId)) {
+                promptIds.add(prompt.promptId());
+            }
+        }
+        if (promptIds.isEmpty()) {
+            return;
+        }
+        try {
+            append(promptIds.stream().map(promptId -> new Entry(DELETE_PROMPT, promptId)).toList());
+            promptIds.forEach(prompts::remove);
+            snapshotIfDue();
+        } catch (IOException e) {
+            logger.error("Error deleting prompts by job ID: {}", jobId, e);
+        }
+    }
+
+    @Override
+    public synchronized List<Job> findJobTree(String jobId) {
+        Job root = jobs.get(jobId);
+        if (root == null) {
+            return new ArrayList<>();
+        }
+        Map<String, List<Job>> childrenByParent = new HashMap<>();
+        for (Job job : jobs.values()) {
+            if (job.parentJobId() != null) {
+                childrenByParent.computeIfAbsent(job.parentJobId(), _ -> new ArrayList<>()).add(job);
+            }
+        }
+        List<Job> tree = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Deque<Job> pending = new ArrayDeque<>();
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Job job = pending.poll();
+            if (seen.add(job.jobId())) {
+                tree.add(job);
+                pending.addAll(childrenByParent.getOrDefault(job.jobId(), List.of()));
+            }
+        }
+        return tree;
+    }
+
+    @Override
+    public synchronized void deleteJobCascade(String jobId) {
+        logger.debug("Deleting job tree: {}", jobId);
+        Set<String> jobIds = new HashSet<>();
+        for (Job job : findJobTree(jobId)) {
+            jobIds.add(job.jobId());
+        }
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>();
+        List<String> promptIds = new ArrayList<>();
+        for (Prompt prompt : prompts.values()) {
+            if (jobIds.contains(prompt.jobId())) {
+                promptIds.add(prompt.promptId());
+                entries.add(new Entry(DELETE_PROMPT, prompt.promptId()));
+            }
+        }
+        for (String id : jobIds) {
+            entries.add(new Entry(DELETE_JOB, id));
+        }
+        try {
+            append(entries);
+            promptIds.forEach(prompts::remove);
+            jobIds.forEach(jobs::remove);
+            snapshotIfDue();
+            logger.info("Deleted job tree: {}", jobId);
+        } catch (IOException e) {
+            logger.error("Error deleting job tree: {}", jobId, e);
+        }
+    }
+
+    @Override
+    public synchronized List<Job> findJobsByParentId(String parentJobId) {
+        List<Job> result = new ArrayList<>();
+        if (parentJobId == null) {
+            return result;
+        }
+        for (Job job : jobs.values()) {
+            if (parentJobId.equals(job.parentJobId())) {
+                result.add(job);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        logger.debug("Closing job store");
+        try {
+            log.force();
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Error closing job store at {}", directory, e);
+        }
+        logger.trace("Job store closed");
+    }
+
+    /**
+     * Append the entries as one checksummed record. Callers apply the change to memory afterwards,
+     * so a failed write leaves the in-memory state untouched.
+     */
+    private void append(List<Entry> entries) throws IOException {
+        byte[] payload = encode(entries);
+        int recordBytes = HEADER_BYTES + payload.length;
+        ensureCapacity(writePosition + recordBytes + Integer.BYTES);
+        log.putInt(writePosition + Integer.BYTES, checksum(generation, payload));
+        log.putInt(writePosition + Integer.BYTES * 2, generation);
+        log.put(writePosition + HEADER_BYTES, payload);
+        log.putInt(writePosition, payload.length);
+        log.force(writePosition, recordBytes);
+        writePosition += recordBytes;
+        entriesSinceSnapshot += entries.size();
+    }
+
+    /**
+     * Take a snapshot once the log holds enough entries. A failed snapshot is not fatal: the
+     * log is still complete and the next write tries again.
+     */
+    private void snapshotIfDue() {
+        if (entriesSinceSnapshot < snapshotEvery) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException e) {
+            logger.warn("Could not write snapshot to {}, keeping the log", directory, e);
+        }
+    }
+
+    /**
+     * Write the full state next to the log and start the log over with the next generation. The
+     * snapshot replaces the previous one atomically. The log is cleared in place afterwards; if
+     * the process stops before or while it is cleared, the records left behind belong to the
+     * previous generation and are skipped on replay.
+     */
+    private void snapshot() throws IOException {
+        List<Entry> entries = new ArrayList<>(jobs.size() + prompts.size());
+        for (Job job : jobs.values()) {
+            entries.add(new Entry(PUT_JOB, JobXmlMapper.toXml(job, DATE_TIME_FORMATTER)));
+        }
+        for (Prompt prompt : prompts.values()) {
+            entries.add(new Entry(PUT_PROMPT, PromptXmlMapper.toXml(prompt, DATE_TIME_FORMATTER)));
+        }
+        byte[] payload = encode(entries);
+        int nextGeneration = generation + 1;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt(checksum(nextGeneration, payload)).putInt(nextGeneration).put(payload);
+
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        Files.write(temporary, record.array());
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation = nextGeneration;
+
+        zero(0, writePosition);
+        log.force();
+        writePosition = 0;
+        entriesSinceSnapshot = 0;
+        logger.debug("Wrote snapshot with {} jobs and {} prompts", jobs.size(), prompts.size());
+    }
+
+    /**
+     * Apply every complete record in the buffer that is not older than the current generation
+     * and return the offset after the last complete record.
+     */
+    private int replay(ByteBuffer source, int limit) {
+        int offset = 0;
+        StoredRecord record;
+        while ((record = readRecord(source, offset, limit)) != null) {
+            // Older records are already part of the snapshot
+            if (record.generation() >= generation) {
+                generation = record.generation();
+                apply(record.payload());
+            }
+            offset += HEADER_BYTES + record.payload().length;
+        }
+        return offset;
+    }
+
+    /**
+     * Return the complete record at the offset, or null if there is none.
+     */
+    private static StoredRecord readRecord(ByteBuffer source, int offset, int limit) {
+        if (offset + HEADER_BYTES > limit) {
+            return null;
+        }
+        int length = source.getInt(offset);
+        if (length < 0 || length > limit - offset - HEADER_BYTES) {
+            return null;
+        }
+        int recordGeneration = source.getInt(offset + Integer.BYTES * 2);
+        byte[] payload = new byte[length];
+        source.get(offset + HEADER_BYTES, payload);
+        if (checksum(recordGeneration, payload) != source.getInt(offset + Integer.BYTES)) {
+            return null;
+        }
+        return new StoredRecord(recordGeneration, payload);
+    }
+
+    /**
+     * Whether a complete record of the current generation starts anywhere after the offset where
+     * replay stopped, which means the record at the offset was damaged in place rather than torn
+     * by a crash or cleared by a snapshot.
+     */
+    private boolean hasRecordAfter(ByteBuffer source, int offset, int limit) {
+        for (int candidate = offset + 1; candidate + HEADER_BYTES <= limit; candidate++) {
+            if (source.getInt(candidate) != 0) {
+                StoredRecord record = readRecord(source, candidate, limit);
+                if (record != null && record.generation() >= generation) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasDataAfter(ByteBuffer source, int offset, int limit) {
+        for (int index = offset; index < limit; index++) {
+            if (source.get(index) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void apply(byte[] payload) {
+        ByteBuffer entries = ByteBuffer.wrap(payload);
+        while (entries.hasRemaining()) {
+            byte operation = entries.get();
+            byte[] value = new byte[entries.getInt()];
+            entries.get(value);
+            String text = new String(value, StandardCharsets.UTF_8);
+            switch (operation) {
+                case PUT_JOB -> {
+                    Job job = JobXmlMapper.fromXml(text, DATE_TIME_FORMATTER);
+                    jobs.put(job.jobId(), job);
+                }
+                case PUT_PROMPT -> {
+                    Prompt prompt = PromptXmlMapper.fromXml(text, DATE_TIME_FORMATTER);
+                    prompts.put(prompt.promptId(), prompt);
+                }
+                case DELETE_JOB -> jobs.remove(text);
+                case DELETE_PROMPT -> prompts.remove(text);
+                default -> throw new IllegalStateException("Unknown log operation: " + operation);
+            }
+            entriesSinceSnapshot++;
+        }
+    }
+
+    private void ensureCapacity(int required) throws IOException {
+        if (required <= log.capacity()) {
+            return;
+        }
+        long capacity = log.capacity();
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Job store log is full: " + directory.resolve(LOG_FILE));
+        }
+        log.force();
+        log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private void zero(int from, int to) {
+        for (int offset = from; offset < to; offset += ZEROS.length) {
+            log.put(offset, ZEROS, 0, Math.min(ZEROS.length, to - offset));
+        }
+    }
+
+    private static byte[] encode(List<Entry> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (Entry entry : entries) {
+                byte[] value = entry.value().getBytes(StandardCharsets.UTF_8);
+                out.writeByte(entry.operation());
+                out.writeInt(value.length);
+                out.write(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error encoding log entries", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The checksum covers the generation too, so a zeroed header never passes as an empty record.
+     */
+    private static int checksum(int recordGeneration, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Integer.BYTES).putInt(recordGeneration).array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private record Entry(byte operation, String value) {
+    }
+
+    private record StoredRecord(int generation, byte[] payload) {
+    }
+}
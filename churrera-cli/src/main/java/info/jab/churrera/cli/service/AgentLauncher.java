@@ -1,14 +1,17 @@
 package info.jab.churrera.cli.service;
 
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.AgentState;
 import info.jab.churrera.workflow.WorkflowData;
 import info.jab.churrera.workflow.PromptInfo;
+import info.jab.cursor.client.CursorAsync;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for launching Cursor agents for jobs.
@@ -18,14 +21,39 @@ public class AgentLauncher {
     private static final Logger logger = LoggerFactory.getLogger(AgentLauncher.class);
 
     private final CLIAgent cliAgent;
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final WorkflowFileService workflowFileService;
+    private final RequestJournal requestJournal;
+    private final RequestJournalReconciler requestJournalReconciler;
 
-    public AgentLauncher(CLIAgent cliAgent, JobRepository jobRepository,
+    public AgentLauncher(CLIAgent cliAgent, JobStore jobRepository,
                         WorkflowFileService workflowFileService) {
+        this(cliAgent, jobRepository, workflowFileService, RequestJournal.disabled());
+    }
+
+    public AgentLauncher(CLIAgent cliAgent, JobStore jobRepository,
+                        WorkflowFileService workflowFileService, RequestJournal requestJournal) {
         this.cliAgent = cliAgent;
         this.jobRepository = jobRepository;
         this.workflowFileService = workflowFileService;
+        this.requestJournal = requestJournal;
+        this.requestJournalReconciler = new RequestJournalReconciler(requestJournal, jobRepository, cliAgent);
+    }
+
+    /**
+     * Launch the agents of several jobs in parallel, with at most {@link CLIAgent#LAUNCH_CONCURRENCY}
+     * launches in flight, as many as the launch bulkhead admits. Each launch is journaled and handled
+     * like {@link #launchJobAgent(Job, WorkflowData)}, so a failed or postponed launch only affects its job.
+     *
+     * @param jobs the jobs to launch
+     * @param workflowData the workflow data shared by the jobs
+     */
+    public void launchJobAgents(List<Job> jobs, WorkflowData workflowData) {
+        List<CompletableFuture<Job>> launches = CursorAsync.mapConcurrently(jobs, CLIAgent.LAUNCH_CONCURRENCY, job -> {
+            launchJobAgent(job, workflowData);
+            return job;
+        });
+        CursorAsync.allOf(launches).join();
     }
 
     /**
@@ -36,13 +64,19 @@ public class AgentLauncher {
      */
     public void launchJobAgent(Job job, WorkflowData workflowData) {
         try {
+            // A launch whose outcome was unknown may have created an agent already
+            if (!requestJournalReconciler.clearToLaunch(job)) {
+                return;
+            }
+
             // Get launch prompt info
             PromptInfo launchPrompt = workflowData.getLaunchPrompt();
 
             // Read the launch prompt file
             String promptContent = workflowFileService.readPromptFile(job.path(), launchPrompt.getSrcFile());
 
-            // Get bind value from job result if present (for child jobs from parallel workflows)
+            // Get bind value from job result if present (for child jobs from parallel workflows, the value
+            // their bindResultExp selected from the parent result when the child job was created)
             // Only apply if the prompt has bindResultExp attribute
             String bindValue = null;
             if (launchPrompt.hasBindResultExp() && job.result() != null) {
@@ -56,12 +90,32 @@ public class AgentLauncher {
             logger.debug("Launching agent with PR flag: {} (workflow type: {})", createPr,
                 workflowData.isParallelWorkflow() ? "parallel" : "sequence");
 
-            // Launch the agent with type information, optional bind value, and PR flag
-            String cursorAgentId = cliAgent.launchAgentForJob(job, promptContent, launchPrompt.getType(), bindValue, createPr);
+            // Launch the agent with type information, optional bind value, and PR flag,
+            // journaled so that a crash before the agent ID is stored does not launch it twice
+            String requestId = requestJournal.begin(RequestJournal.Operation.LAUNCH, job.jobId(), null, null);
+            String cursorAgentId;
+            try {
+                cursorAgentId = cliAgent.launchAgentForJob(job, promptContent, launchPrompt.getType(), bindValue, createPr);
+            } catch (RuntimeException e) {
+                if (ApiGuard.isOutcomeUnknown(e)) {
+                    // The agent may exist, so the launch stays open and is reconciled before the next attempt
+                    requestJournal.release(requestId);
+                } else {
+                    requestJournal.abort(requestId);
+                }
+                throw e;
+            }
+            requestJournal.sent(requestId, cursorAgentId);
 
             // Update job in database with cursorAgentId and CREATING status
             Job updatedJob = job.withCursorAgentId(cursorAgentId);
-            cliAgent.updateJobCursorIdInDatabase(updatedJob, cursorAgentId, AgentState.creating());
+            try {
+                cliAgent.updateJobCursorIdInDatabase(updatedJob, cursorAgentId, AgentState.creating());
+            } catch (RuntimeException e) {
+                requestJournal.release(requestId);
+                throw e;
+            }
+            requestJournal.commit(requestId);
 
             // Reset workflowStartTime to now when launching (even if it already exists, to start fresh)
             if (job.timeoutMillis() != null) {
@@ -73,6 +127,15 @@ public class AgentLauncher {
 
             logger.debug("Launched job {} with Cursor ID: {} (type: {})", job.jobId(), cursorAgentId, launchPrompt.getType());
 
+        } catch (ApiUnavailableException e) {
+            // The job is launched again on a later polling cycle; if the call reached the API,
+            // the open journal entry is reconciled with the agent list first
+            if (e.isOutcomeUnknown()) {
+                logger.warn("Cursor API failed while launching job {}, the launch will be checked before it is retried: {}",
+                    job.jobId(), e.getMessage());
+            } else {
+                logger.warn("Cursor API unavailable, postponing launch of job {}: {}", job.jobId(), e.getMessage());
+            }
         } catch (Exception e) {
             logger.error("Error launching job {}: {}", job.jobId(), e.getMessage());
             // Mark job as failed if launch fails
@@ -0,0 +1,196 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.cursor.generated.client.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker and bulkhead for one class of Cursor API calls.
+ * <p>
+ * The bulkhead caps the calls of this class in flight, so slow calls of one class cannot take
+ * every worker from the others. The circuit opens after a number of consecutive failed calls
+ * and then rejects calls for a while; afterwards a single trial call decides whether it closes
+ * again. Client errors such as a missing agent do not count as failures. Outage errors, i.e.
+ * I/O failures, 429 and 5xx responses, are rethrown as {@link ApiUnavailableException}, marked
+ * with an unknown outcome unless the API refused the call.
+ */
+final class ApiGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiGuard.class);
+
+    static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+    static final Duration DEFAULT_BULKHEAD_WAIT = Duration.ofSeconds(30);
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Semaphore bulkhead;
+    private final Duration bulkheadWait;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean trialInFlight;
+
+    ApiGuard(String name, int maxConcurrentCalls) {
+        this(name, maxConcurrentCalls, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION, DEFAULT_BULKHEAD_WAIT, Clock.systemUTC());
+    }
+
+    ApiGuard(String name, int maxConcurrentCalls, int failureThreshold, Duration openDuration, Duration bulkheadWait, Clock clock) {
+        // Preconditions
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("Max concurrent calls must be at least 1");
+        }
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.bulkheadWait = bulkheadWait;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs a call if the circuit allows it and a bulkhead slot frees up in time.
+     *
+     * @param call the API call
+     * @return the result of the call
+     * @throws ApiUnavailableException if the call was rejected or failed with an outage error
+     */
+    <T> T call(Supplier<T> call) {
+        acquirePermission();
+        acquireSlot();
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (isClientError(e)) {
+                onIgnored();
+                throw e;
+            }
+            onFailure();
+            if (isOutage(e)) {
+                throw new ApiUnavailableException("Cursor API " + name + " call failed: " + e.getMessage(), e, isOutcomeUnknown(e));
+            }
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == State.OPEN) {
+            if (Duration.between(openedAt, clock.instant()).compareTo(openDuration) < 0) {
+                throw new ApiUnavailableException("Cursor API " + name + " circuit is open");
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                throw new ApiUnavailableException("Cursor API " + name + " circuit is half-open, waiting for the trial call");
+            }
+            trialInFlight = true;
+        }
+    }
+
+    private void acquireSlot() {
+        try {
+            if (bulkhead.tryAcquire(bulkheadWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+            onIgnored();
+            throw new ApiUnavailableException("Too many concurrent Cursor API " + name + " calls");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            onIgnored();
+            throw new ApiUnavailableException("Interrupted while waiting for a Cursor API " + name + " slot", e);
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            logger.info("Cursor API {} circuit closed", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    private synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+            consecutiveFailures = 0;
+            logger.warn("Cursor API {} circuit opened for {} s", name, openDuration.toSeconds());
+        }
+    }
+
+    private synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+
+    /**
+     * Returns whether a failed call may have taken effect, i.e. it failed with an I/O error or a
+     * 5xx response, as opposed to being rejected before it was made or refused with a 4xx response.
+     *
+     * @param e the error of the call
+     * @return true if the outcome of the call is unknown
+     */
+    static boolean isOutcomeUnknown(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiUnavailableException unavailable) {
+                return unavailable.isOutcomeUnknown();
+            }
+            if (cause instanceof ApiException apiException) {
+                int code = apiException.getCode();
+                return code == 0 || code >= 500;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isClientError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalArgumentException) {
+                return true;
+            }
+            if (cause instanceof ApiException apiException) {
+                int code = apiException.getCode();
+                return code >= 400 && code < 500 && code != 429;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOutage(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException apiException) {
+                int code = apiException.getCode();
+                return code == 0 || code == 429 || code >= 500;
+            }
+        }
+        return false;
+    }
+}
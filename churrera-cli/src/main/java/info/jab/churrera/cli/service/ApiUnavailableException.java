@@ -0,0 +1,37 @@
+package info.jab.churrera.cli.service;
+
+/**
+ * Exception thrown when the Cursor API is temporarily unavailable, either because a call failed
+ * with an outage error or because the circuit breaker or bulkhead rejected it. Jobs hit by it
+ * should be kept in their current state and retried on a later polling cycle.
+ * <p>
+ * A rejected call and a 429 response are known not to have taken effect. An I/O failure or a 5xx
+ * response may come after the API acted on the call, so the outcome of such a call is unknown and
+ * a mutating call must be verified before it is made again.
+ */
+public class ApiUnavailableException extends RuntimeException {
+
+    private final boolean outcomeUnknown;
+
+    public ApiUnavailableException(String message) {
+        this(message, null, false);
+    }
+
+    public ApiUnavailableException(String message, Throwable cause) {
+        this(message, cause, false);
+    }
+
+    public ApiUnavailableException(String message, Throwable cause, boolean outcomeUnknown) {
+        super(message, cause);
+        this.outcomeUnknown = outcomeUnknown;
+    }
+
+    /**
+     * Returns whether the call may have taken effect despite failing.
+     *
+     * @return true if the call reached the API and failed without a definite answer
+     */
+    public boolean isOutcomeUnknown() {
+        return outcomeUnknown;
+    }
+}
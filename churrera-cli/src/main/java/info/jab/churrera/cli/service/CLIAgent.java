@@ -5,16 +5,26 @@ import info.jab.cursor.client.CursorAgentManagement;
 import info.jab.cursor.client.CursorAgentInformation;
 import info.jab.cursor.client.CursorAgentGeneralEndpoints;
 import info.jab.cursor.client.model.FollowUpResponse;
-import info.jab.cursor.client.model.ConversationResponse;
 import info.jab.cursor.client.model.ConversationMessage;
+import info.jab.cursor.client.model.ConversationResponse;
+import info.jab.cursor.client.model.AgentsList;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
-import info.jab.churrera.cli.repository.JobRepository;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.model.Prompt;
+import info.jab.churrera.cli.service.RenderedPromptCache.RenderedPrompt;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.AgentState;
 import info.jab.churrera.util.PmlConverter;
-import info.jab.churrera.workflow.ExpressionEvaluator;
+import info.jab.churrera.util.PmlMarkdownRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,19 +36,53 @@ public class CLIAgent {
 
     private static final Logger logger = LoggerFactory.getLogger(CLIAgent.class);
     private static final String DEFAULT_MODEL = "default";
+    private static final String USER_MESSAGE = "user_message";
+    static final int AGENTS_PAGE_SIZE = 100;
+    static final int MAX_AGENTS_PAGES = 10;
+    // Bulkhead sizes per class of API call; conversations are few so slow downloads cannot starve status polling
+    static final int LAUNCH_CONCURRENCY = 4;
+    static final int STATUS_CONCURRENCY = 8;
+    static final int CONVERSATION_CONCURRENCY = 2;
+    static final int DELETE_CONCURRENCY = 8;
 
     private final CursorAgentManagement cursorAgentManagement;
     private final CursorAgentInformation cursorAgentInformation;
     private final CursorAgentGeneralEndpoints cursorAgentGeneralEndpoints;
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final PmlConverter pmlConverter;
+    private final PmlMarkdownRenderer pmlRenderer;
+    private final Map<String, AgentState> agentStatusSnapshot = new ConcurrentHashMap<>();
+    // Agents the agent list did not return, e.g. deleted or older ones; they are queried one by one
+    private final Set<String> unlistedAgents = ConcurrentHashMap.newKeySet();
+    private final ConversationCache conversationCache = new ConversationCache();
+    private final RenderedPromptCache renderedPrompts = new RenderedPromptCache();
+    private final MetadataCache metadataCache;
+    private final ApiGuard launchGuard = new ApiGuard("launch", LAUNCH_CONCURRENCY);
+    private final ApiGuard statusGuard = new ApiGuard("status", STATUS_CONCURRENCY);
+    private final ApiGuard conversationGuard = new ApiGuard("conversation", CONVERSATION_CONCURRENCY);
+    private final ApiGuard deleteGuard = new ApiGuard("delete", DELETE_CONCURRENCY);
+
+    public CLIAgent(JobStore jobRepository, CursorAgentManagement cursorAgentManagement, CursorAgentInformation cursorAgentInformation, CursorAgentGeneralEndpoints cursorAgentGeneralEndpoints, PmlConverter pmlConverter) {
+        this(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, pmlConverter, MetadataCache.disabled());
+    }
 
-    public CLIAgent(JobRepository jobRepository, CursorAgentManagement cursorAgentManagement, CursorAgentInformation cursorAgentInformation, CursorAgentGeneralEndpoints cursorAgentGeneralEndpoints, PmlConverter pmlConverter) {
+    public CLIAgent(JobStore jobRepository, CursorAgentManagement cursorAgentManagement, CursorAgentInformation cursorAgentInformation, CursorAgentGeneralEndpoints cursorAgentGeneralEndpoints, PmlConverter pmlConverter, MetadataCache metadataCache) {
+        this(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, pmlConverter, metadataCache, null);
+    }
+
+    /**
+     * Constructor with a native PML renderer.
+     *
+     * @param pmlRenderer renders PML prompts without XSLT; null to always use the pmlConverter
+     */
+    public CLIAgent(JobStore jobRepository, CursorAgentManagement cursorAgentManagement, CursorAgentInformation cursorAgentInformation, CursorAgentGeneralEndpoints cursorAgentGeneralEndpoints, PmlConverter pmlConverter, MetadataCache metadataCache, PmlMarkdownRenderer pmlRenderer) {
+        this.metadataCache = metadataCache;
         this.cursorAgentManagement = cursorAgentManagement;
         this.cursorAgentInformation = cursorAgentInformation;
         this.cursorAgentGeneralEndpoints = cursorAgentGeneralEndpoints;
         this.jobRepository = jobRepository;
         this.pmlConverter = pmlConverter;
+        this.pmlRenderer = pmlRenderer;
     }
 
     /**
@@ -55,17 +99,16 @@ public class CLIAgent {
         try {
             logger.trace("🚀 launchAgentForJob - type: {}, bindValue: {}, pr: {}", type, bindValue, pr);
 
-            // Convert to Markdown if needed
-            String markdownContent = convertToMarkdown(promptContent, type);
+            // Convert to Markdown if needed, once for all the jobs sharing the prompt
+            RenderedPrompt rendered = renderedPrompts.render(promptContent, type, this::convertToMarkdown);
+            String markdownContent = rendered.markdown();
             logger.trace("📄 After XML->Markdown conversion (length: {})", markdownContent.length());
 
             // Apply bind value replacement if provided
             if (bindValue != null && !bindValue.isEmpty()) {
                 logger.trace("🔄 Applying bind value replacement with value: '{}'", bindValue);
-                String before = markdownContent;
-                markdownContent = ExpressionEvaluator.replaceInputPlaceholder(markdownContent, bindValue);
-                boolean changed = !before.equals(markdownContent);
-                logger.trace("🔄 Replacement result: content changed = {}", changed);
+                markdownContent = rendered.bind(bindValue);
+                logger.trace("🔄 Replacement result: content changed = {}", rendered.template().slotCount() > 0);
             } else {
                 logger.trace("⏭️ Skipping bind value replacement (bindValue is {})",
                     bindValue == null ? "null" : "empty");
@@ -73,8 +116,11 @@ public class CLIAgent {
 
             logger.debug("Prepared prompt content for agent launch (type: {})", type);
 
-            AgentResponse cursorAgentResult = cursorAgentManagement.launch(markdownContent, job.model(), job.repository(), pr);
+            String content = markdownContent;
+            AgentResponse cursorAgentResult = launchGuard.call(() -> cursorAgentManagement.launch(content, job.model(), job.repository(), pr));
             return cursorAgentResult.id();
+        } catch (ApiUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to launch agent: " + e.getMessage(), e);
         }
@@ -92,31 +138,72 @@ public class CLIAgent {
     public String followUpForPrompt(String cursorAgentId, String promptContent, String type, String bindValue) {
         try {
             logger.info("📨 followUpForPrompt - type: {}, bindValue: {}", type, bindValue);
+            String content = prepareFollowUp(promptContent, type, bindValue);
 
-            // Convert to Markdown if needed
-            String markdownContent = convertToMarkdown(promptContent, type);
-            logger.info("📄 After XML->Markdown conversion (length: {})", markdownContent.length());
-
-            // Apply bind value replacement if provided
-            if (bindValue != null && !bindValue.isEmpty()) {
-                logger.info("🔄 Applying bind value replacement with value: '{}'", bindValue);
-                String before = markdownContent;
-                markdownContent = ExpressionEvaluator.replaceInputPlaceholder(markdownContent, bindValue);
-                boolean changed = !before.equals(markdownContent);
-                logger.info("🔄 Replacement result: content changed = {}", changed);
-            } else {
-                logger.info("⏭️ Skipping bind value replacement (bindValue is {})",
-                    bindValue == null ? "null" : "empty");
-            }
-
-            logger.debug("Prepared prompt content for follow-up (type: {})", type);
-            FollowUpResponse response = cursorAgentManagement.followUp(cursorAgentId, markdownContent);
+            // The agent starts working on the follow-up, so a status fetched earlier is stale
+            agentStatusSnapshot.remove(cursorAgentId);
+            conversationCache.invalidate(cursorAgentId);
+            FollowUpResponse response = launchGuard.call(() -> cursorAgentManagement.followUp(cursorAgentId, content));
             return response.id();
+        } catch (ApiUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to send follow-up for agent " + cursorAgentId + ": " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Check whether a follow-up prompt whose outcome is unknown reached an existing Cursor agent.
+     * Follow-ups are only sent once the agent has finished its work, so a delivered follow-up is
+     * the last user message of the conversation.
+     *
+     * @param cursorAgentId the Cursor agent ID
+     * @param promptContent the prompt content for the follow-up
+     * @param type the type of prompt ("pml" or "md")
+     * @param bindValue optional value to replace <input>INPUT</input> placeholder (can be null)
+     * @return true if the last user message of the conversation is the follow-up
+     */
+    public boolean isFollowUpDelivered(String cursorAgentId, String promptContent, String type, String bindValue) {
+        try {
+            String content = prepareFollowUp(promptContent, type, bindValue);
+            // Bypasses the cache, as the conversation may have changed since it was cached
+            ConversationResponse conversation = fetchConversation(cursorAgentId);
+            List<ConversationMessage> messages = conversation == null || conversation.messages() == null
+                ? List.of() : conversation.messages();
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                ConversationMessage message = messages.get(i);
+                if (message != null && USER_MESSAGE.equals(message.type())) {
+                    return message.text() != null && message.text().strip().equals(content.strip());
+                }
+            }
+            return false;
+        } catch (ApiUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to check follow-up for agent " + cursorAgentId + ": " + e.getMessage(), e);
+        }
+    }
+
+    private String prepareFollowUp(String promptContent, String type, String bindValue) {
+        // Convert to Markdown if needed, once for all the jobs sharing the prompt
+        RenderedPrompt rendered = renderedPrompts.render(promptContent, type, this::convertToMarkdown);
+        String markdownContent = rendered.markdown();
+        logger.info("📄 After XML->Markdown conversion (length: {})", markdownContent.length());
+
+        // Apply bind value replacement if provided
+        if (bindValue != null && !bindValue.isEmpty()) {
+            logger.info("🔄 Applying bind value replacement with value: '{}'", bindValue);
+            markdownContent = rendered.bind(bindValue);
+            logger.info("🔄 Replacement result: content changed = {}", rendered.template().slotCount() > 0);
+        } else {
+            logger.info("⏭️ Skipping bind value replacement (bindValue is {})",
+                bindValue == null ? "null" : "empty");
+        }
+
+        logger.debug("Prepared prompt content for follow-up (type: {})", type);
+        return markdownContent;
+    }
+
     /**
      * Monitor an agent's status until it reaches a terminal state.
      *
@@ -167,7 +254,33 @@ public class CLIAgent {
      */
     public ConversationResponse getConversation(String cursorAgentId) {
         try {
-            return cursorAgentInformation.getAgentConversation(cursorAgentId);
+            return conversationCache.conversation(cursorAgentId, this::fetchConversation);
+        } catch (ApiUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to get agent conversation for " + cursorAgentId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Pass the conversation messages of a specific agent to a consumer, one at a time.
+     * Messages cached since the agent's last status change are replayed; otherwise the
+     * conversation is streamed from the API without being materialized, and it is not cached.
+     *
+     * @param cursorAgentId the Cursor agent ID
+     * @param consumer the consumer of the messages
+     * @return the number of messages passed to the consumer
+     */
+    public int streamConversation(String cursorAgentId, Consumer<ConversationMessage> consumer) {
+        try {
+            Collection<ConversationMessage> cached = conversationCache.freshMessages(cursorAgentId);
+            if (cached != null) {
+                cached.forEach(consumer);
+                return cached.size();
+            }
+            return conversationGuard.call(() -> cursorAgentInformation.streamAgentConversation(cursorAgentId, consumer));
+        } catch (ApiUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to get agent conversation for " + cursorAgentId + ": " + e.getMessage(), e);
         }
@@ -176,42 +289,52 @@ public class CLIAgent {
     /**
      * Get the conversation content as a string for a specific agent.
      * This extracts all messages from the conversation and concatenates them.
+     * The conversation is only downloaded again when the agent's status has changed.
      *
      * @param cursorAgentId the Cursor agent ID
      * @return the conversation content as a string
      */
     public String getConversationContent(String cursorAgentId) {
         try {
-            ConversationResponse conversation = cursorAgentInformation.getAgentConversation(cursorAgentId);
-            StringBuilder content = new StringBuilder();
-
-            if (conversation.messages() != null) {
-                for (ConversationMessage message : conversation.messages()) {
-                    if (message.text() != null) {
-                        content.append(message.text()).append("\n");
-                    }
-                }
-            }
-
-            return content.toString();
+            return conversationCache.content(cursorAgentId, this::fetchConversation);
+        } catch (ApiUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to get agent conversation content for " + cursorAgentId + ": " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Drop the cached conversation and status of an agent whose conversation is no longer needed,
+     * e.g. because its result has been extracted or it has failed.
+     * A later lookup simply fetches the conversation again.
+     *
+     * @param cursorAgentId the Cursor agent ID
+     */
+    public void releaseConversation(String cursorAgentId) {
+        conversationCache.invalidate(cursorAgentId);
+    }
+
     /**
      * Delete a Cursor agent.
      *
      * @param cursorAgentId the Cursor agent ID to delete
      */
     public void deleteAgent(String cursorAgentId) {
+        conversationCache.invalidate(cursorAgentId);
         try {
-            cursorAgentManagement.delete(cursorAgentId);
+            deleteGuard.call(() -> cursorAgentManagement.delete(cursorAgentId));
+        } catch (ApiUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete agent " + cursorAgentId + ": " + e.getMessage(), e);
         }
     }
 
+    private ConversationResponse fetchConversation(String cursorAgentId) {
+        return conversationGuard.call(() -> cursorAgentInformation.getAgentConversation(cursorAgentId));
+    }
+
     /**
      * Update the job in the database with the Cursor agent ID and status.
      *
@@ -279,23 +402,125 @@ public class CLIAgent {
      * @return the current agent state
      */
     public AgentState getAgentStatus(String cursorAgentId) {
+        AgentState snapshotState = cursorAgentId != null ? agentStatusSnapshot.remove(cursorAgentId) : null;
+        if (snapshotState != null) {
+            return snapshotState;
+        }
         try {
-            AgentResponse agent = cursorAgentInformation.getStatus(cursorAgentId);
-            return AgentState.of(agent);
+            AgentResponse agent = statusGuard.call(() -> cursorAgentInformation.getStatus(cursorAgentId));
+            AgentState state = AgentState.of(agent);
+            conversationCache.observeStatus(cursorAgentId, state);
+            return state;
+        } catch (ApiUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to get agent status for " + cursorAgentId + ": " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Fetch the status of many agents at once by paging through the agent list, so the
+     * following {@link #getAgentStatus(String)} calls for these agents need no request of their own.
+     * Paging stops as soon as every requested agent has been seen, and never fetches more pages
+     * than there are agents to refresh, so it costs no more requests than querying them one by one.
+     * Each snapshot entry is used once; agents that were not found are still queried individually,
+     * and are left out of later refreshes.
+     *
+     * @param cursorAgentIds the Cursor agent IDs to refresh
+     * @return the number of agents whose status was found
+     */
+    public int refreshAgentStatuses(Set<String> cursorAgentIds) {
+        clearAgentStatuses();
+        unlistedAgents.retainAll(cursorAgentIds);
+        Set<String> pending = new HashSet<>(cursorAgentIds);
+        pending.removeAll(unlistedAgents);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        int maxPages = Math.min(MAX_AGENTS_PAGES, pending.size());
+        String cursor = null;
+        int pages = 0;
+        int found = 0;
+        try {
+            do {
+                String pageCursor = cursor;
+                AgentsList page = statusGuard.call(() -> cursorAgentInformation.getAgents(AGENTS_PAGE_SIZE, pageCursor));
+                pages++;
+                if (page == null) {
+                    // Nothing was listed, so nothing is known about the pending agents
+                    return found;
+                }
+                for (AgentResponse agent : page.agents()) {
+                    if (pending.remove(agent.id())) {
+                        AgentState state = AgentState.of(agent);
+                        agentStatusSnapshot.put(agent.id(), state);
+                        conversationCache.observeStatus(agent.id(), state);
+                        found++;
+                    }
+                }
+                cursor = page.nextCursor();
+            } while (!pending.isEmpty() && cursor != null && !cursor.isBlank() && pages < maxPages);
+            unlistedAgents.addAll(pending);
+        } catch (Exception e) {
+            logger.warn("Failed to list agents, statuses will be fetched one by one: {}", e.getMessage());
+        }
+        logger.debug("Refreshed {} of {} agent statuses with {} list request(s)", found, cursorAgentIds.size(), pages);
+        return found;
+    }
+
+    /**
+     * List the agents created at or after the given time. The agent list is returned newest first,
+     * so paging stops at the first page that reaches back before that time.
+     *
+     * @param since the earliest creation time of interest
+     * @return the agents created since then
+     */
+    public List<AgentResponse> getAgentsCreatedSince(OffsetDateTime since) {
+        List<AgentResponse> agents = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        try {
+            boolean reachedOlder = false;
+            do {
+                String pageCursor = cursor;
+                AgentsList page = statusGuard.call(() -> cursorAgentInformation.getAgents(AGENTS_PAGE_SIZE, pageCursor));
+                pages++;
+                if (page == null) {
+                    break;
+                }
+                for (AgentResponse agent : page.agents()) {
+                    if (agent.createdAt() == null || !agent.createdAt().isBefore(since)) {
+                        agents.add(agent);
+                    } else {
+                        reachedOlder = true;
+                    }
+                }
+                cursor = page.nextCursor();
+            } while (!reachedOlder && cursor != null && !cursor.isBlank() && pages < MAX_AGENTS_PAGES);
+            return agents;
+        } catch (ApiUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to list agents: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Discard the statuses fetched by {@link #refreshAgentStatuses(Set)} that were not used.
+     */
+    public void clearAgentStatuses() {
+        agentStatusSnapshot.clear();
+    }
+
     /**
      * Get the list of available models from the Cursor API.
-     * Always includes "default" in the list.
+     * Always includes "default" in the list. The list is served from the metadata cache while it is fresh.
      *
      * @return list of available model names (including "default")
      */
     public List<String> getModels() {
         try {
-            List<String> models = cursorAgentGeneralEndpoints.getModels();
+            List<String> models = metadataCache.get(MetadataCache.MODELS, cursorAgentGeneralEndpoints::getModels);
             if (models == null) {
                 return List.of(DEFAULT_MODEL);
             }
@@ -311,14 +536,27 @@ public class CLIAgent {
         }
     }
 
+    /**
+     * Wait for the models and repositories being refreshed in the background, so that a
+     * short-lived process keeps them in the metadata cache.
+     *
+     * @param timeout how long to wait at most
+     */
+    public void awaitMetadataRefreshes(Duration timeout) {
+        if (!metadataCache.awaitRefreshes(timeout)) {
+            logger.debug("Metadata refresh still running after {}, it is dropped", timeout);
+        }
+    }
+
     /**
      * Get the list of available repository URLs from the Cursor API.
+     * The list is served from the metadata cache while it is fresh, as listing repositories is slow.
      *
      * @return list of available repository URLs
      */
     public List<String> getRepositories() {
         try {
-            return cursorAgentGeneralEndpoints.getRepositories();
+            return metadataCache.get(MetadataCache.REPOSITORIES, cursorAgentGeneralEndpoints::getRepositories);
         } catch (Exception e) {
             throw new RuntimeException("Failed to get repositories: " + e.getMessage(), e);
         }
@@ -326,7 +564,7 @@ public class CLIAgent {
 
     /**
      * Convert prompt content to Markdown based on type.
-     * If type is "pml", use PmlConverter. Otherwise, return content as-is.
+     * If type is "pml", use the native renderer when configured, then PmlConverter. Otherwise, return content as-is.
      *
      * @param promptContent the prompt content
      * @param type the type of prompt ("pml" or "md")
@@ -334,6 +572,13 @@ public class CLIAgent {
      */
     private String convertToMarkdown(String promptContent, String type) {
         if ("pml".equalsIgnoreCase(type)) {
+            if (pmlRenderer != null) {
+                try {
+                    return pmlRenderer.render(promptContent);
+                } catch (Exception e) {
+                    logger.error("Failed to render PML to Markdown natively, using XSLT: {}", e.getMessage());
+                }
+            }
             // Convert PML to Markdown using XSLT transformation
             try {
                 // Try the direct path first
@@ -0,0 +1,147 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.churrera.cli.model.AgentState;
+import info.jab.cursor.client.model.ConversationMessage;
+import info.jab.cursor.client.model.ConversationResponse;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache of agent conversations keyed by agent id.
+ * <p>
+ * A conversation is fetched again only when the agent's status has changed since the last
+ * fetch, or when the agent has received a follow-up since then. As long as the status is unchanged, the
+ * result extraction, the log display and any retry share one download. Messages are kept by
+ * their id, so a refetch updates existing messages and appends new ones. The concatenated text
+ * is only built when it is first asked for. When the agent's status is unknown, the
+ * conversation is always fetched.
+ */
+final class ConversationCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, ObservedStatus> latestStatus = new ConcurrentHashMap<>();
+    private final AtomicLong stamps = new AtomicLong();
+
+    /**
+     * Records the latest known status of an agent.
+     */
+    void observeStatus(String agentId, AgentState status) {
+        if (agentId != null && status != null) {
+            latestStatus.compute(agentId, (_, previous) -> previous != null && previous.status().equals(status)
+                ? previous
+                : new ObservedStatus(status, stamps.incrementAndGet()));
+        }
+    }
+
+    /**
+     * Forgets the conversation and status of an agent, e.g. because it received a new prompt
+     * or its conversation is no longer needed.
+     * Until its status is observed again the conversation is fetched on every call.
+     */
+    void invalidate(String agentId) {
+        if (agentId != null) {
+            entries.remove(agentId);
+            latestStatus.remove(agentId);
+        }
+    }
+
+    ConversationResponse conversation(String agentId, Function<String, ConversationResponse> fetcher) {
+        return entry(agentId, fetcher).response();
+    }
+
+    String content(String agentId, Function<String, ConversationResponse> fetcher) {
+        return entry(agentId, fetcher).content();
+    }
+
+    /**
+     * Returns the cached messages of an agent, or null when they are missing or stale.
+     * Unlike the other lookups this never fetches, so callers can stream the conversation instead.
+     */
+    Collection<ConversationMessage> freshMessages(String agentId) {
+        ObservedStatus status = latestStatus.get(agentId);
+        Entry cached = entries.get(agentId);
+        if (cached != null && status != null && status.stamp() == cached.stamp()) {
+            return cached.messages().values();
+        }
+        return null;
+    }
+
+    private Entry entry(String agentId, Function<String, ConversationResponse> fetcher) {
+        ObservedStatus status = latestStatus.get(agentId);
+        Entry cached = entries.get(agentId);
+        if (cached != null && status != null && status.stamp() == cached.stamp()) {
+            return cached;
+        }
+
+        ConversationResponse fetched = fetcher.apply(agentId);
+        Map<String, ConversationMessage> messages = new LinkedHashMap<>();
+        if (cached != null) {
+            messages.putAll(cached.messages());
+        }
+        if (fetched != null && fetched.messages() != null) {
+            for (ConversationMessage message : fetched.messages()) {
+                if (message != null) {
+                    messages.put(message.id(), message);
+                }
+            }
+        }
+        // Without earlier messages the fetched response can be handed out as it is
+        ConversationResponse response = cached == null ? fetched
+            : new ConversationResponse(fetched != null ? fetched.id() : agentId, List.copyOf(messages.values()));
+        Entry entry = new Entry(response, status != null ? status.stamp() : -1, messages);
+        if (status != null) {
+            entries.put(agentId, entry);
+        }
+        return entry;
+    }
+
+    private record ObservedStatus(AgentState status, long stamp) {
+    }
+
+    private static final class Entry {
+
+        private final ConversationResponse response;
+        private final long stamp;
+        private final Map<String, ConversationMessage> messages;
+        private volatile String content;
+
+        Entry(ConversationResponse response, long stamp, Map<String, ConversationMessage> messages) {
+            this.response = response;
+            this.stamp = stamp;
+            this.messages = messages;
+        }
+
+        long stamp() {
+            return stamp;
+        }
+
+        Map<String, ConversationMessage> messages() {
+            return messages;
+        }
+
+        ConversationResponse response() {
+            return response;
+        }
+
+        String content() {
+            String text = content;
+            if (text == null) {
+                StringBuilder builder = new StringBuilder();
+                for (ConversationMessage message : messages.values()) {
+                    if (message.text() != null) {
+                        builder.append(message.text()).append("\n");
+                    }
+                }
+                text = builder.toString();
+                content = text;
+            }
+            return text;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package info.jab.churrera.cli.service;
 
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.AgentState;
 import info.jab.churrera.workflow.WorkflowData;
@@ -20,10 +20,10 @@ public class FallbackExecutor {
     private static final Logger logger = LoggerFactory.getLogger(FallbackExecutor.class);
 
     private final CLIAgent cliAgent;
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final WorkflowFileService workflowFileService;
 
-    public FallbackExecutor(CLIAgent cliAgent, JobRepository jobRepository, 
+    public FallbackExecutor(CLIAgent cliAgent, JobStore jobRepository, 
                            WorkflowFileService workflowFileService) {
         this.cliAgent = cliAgent;
         this.jobRepository = jobRepository;
@@ -100,6 +100,9 @@ public class FallbackExecutor {
             logger.info("Fallback prompt sent successfully for job: {}", job.jobId());
             logger.info("Continuing to monitor the fallback agent status...");
 
+        } catch (ApiUnavailableException e) {
+            // fallbackExecuted stays unset, so the fallback is tried again on a later polling cycle
+            logger.warn("Cursor API unavailable, postponing fallback for job {}: {}", job.jobId(), e.getMessage());
         } catch (Exception e) {
             logger.error("Error executing fallback for job {}: {}", job.jobId(), e.getMessage(), e);
             try {
@@ -132,10 +135,9 @@ public class FallbackExecutor {
             }
 
             // Find all child jobs that are not finished
-            List<Job> allJobs = jobRepository.findAll();
             List<Job> unfinishedChildren = new ArrayList<>();
-            for (Job childJob : allJobs) {
-                if (parentJob.jobId().equals(childJob.parentJobId()) && !childJob.status().isTerminal()) {
+            for (Job childJob : jobRepository.findJobsByParentId(parentJob.jobId())) {
+                if (!childJob.status().isTerminal()) {
                     unfinishedChildren.add(childJob);
                 }
             }
@@ -151,8 +153,14 @@ public class FallbackExecutor {
             String type = workflowFileService.inferTypeFromExtension(fallbackSrc);
 
             // Execute fallback for each unfinished child
+            boolean postponed = false;
             for (Job childJob : unfinishedChildren) {
-                executeFallbackForChild(childJob, fallbackContent, type);
+                postponed |= !executeFallbackForChild(childJob, fallbackContent, type);
+            }
+            if (postponed) {
+                // The children done so far are marked, so only the others are tried again
+                logger.warn("Fallback for parallel workflow {} is incomplete, retrying on a later polling cycle", parentJob.jobId());
+                return;
             }
 
             // Mark fallback as executed for parent job
@@ -167,13 +175,15 @@ public class FallbackExecutor {
 
     /**
      * Execute fallback for a single child job.
+     *
+     * @return false if the Cursor API was unavailable and the fallback must be tried again
      */
-    private void executeFallbackForChild(Job childJob, String fallbackContent, String type) {
+    private boolean executeFallbackForChild(Job childJob, String fallbackContent, String type) {
         try {
             // Check if fallback has already been executed for this child
             if (childJob.fallbackExecuted() != null && childJob.fallbackExecuted()) {
                 logger.debug("Fallback already executed for child job {}, skipping.", childJob.jobId());
-                return;
+                return true;
             }
 
             String bindValue = childJob.result();
@@ -199,9 +209,13 @@ public class FallbackExecutor {
             Job updatedChildJob = childJob.withFallbackExecuted(true);
             jobRepository.save(updatedChildJob);
             logger.info("Marked fallback as executed for child job {}", childJob.jobId());
+        } catch (ApiUnavailableException e) {
+            logger.warn("Cursor API unavailable, postponing fallback for child job {}: {}", childJob.jobId(), e.getMessage());
+            return false;
         } catch (Exception e) {
             logger.error("Error executing fallback for child job {}: {}", childJob.jobId(), e.getMessage(), e);
         }
+        return true;
     }
 }
 
@@ -1,6 +1,6 @@
 package info.jab.churrera.cli.service;
 
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.Prompt;
 import info.jab.churrera.cli.service.handler.SequenceWorkflowHandler;
@@ -11,11 +11,33 @@ import info.jab.churrera.workflow.WorkflowData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
 /**
  * Background job processor that automatically processes unfinished jobs,
- * launching and tracking Cursor agents using traditional threading.
+ * launching and tracking Cursor agents.
+ *
+ * Jobs of one polling tick are processed concurrently on virtual threads, with at most
+ * {@code maxConcurrency} in flight, so a tick takes about as long as the slowest job
+ * instead of the sum of all of them. Jobs of one workflow tree are never processed by two workers
+ * at once: a parallel parent sends follow-ups to, launches and saves its child jobs, so the
+ * parents of a tick are processed before their children, and a child is skipped while its
+ * parent is still being processed by an earlier call (and the other way round).
+ *
+ * Not every unfinished job is processed on every tick: a {@link JobScheduler} keeps a next-check
+ * time per job, backing off for agents that keep running unchanged and waking jobs whose state
+ * changed or whose timeout is due. The statuses of the due agents are fetched together through
+ * the agent list at the start of the tick instead of one request per job.
  *
  * This class orchestrates job processing by delegating to specialized handlers
  * for different workflow types (sequence, parallel, child).
@@ -24,21 +46,45 @@ public class JobProcessor {
 
     private static final Logger logger = LoggerFactory.getLogger(JobProcessor.class);
 
-    private final JobRepository jobRepository;
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+    // A single agent is cheaper to query directly than through the agent list
+    static final int MIN_AGENTS_FOR_BATCH_REFRESH = 2;
+
+    private final JobStore jobRepository;
+    private final CLIAgent cliAgent;
+    private final int maxConcurrency;
+    // Job id to the id of the root of its workflow tree; guarded by itself
+    private final Map<String, String> jobsInFlight = new HashMap<>();
+    private final JobScheduler scheduler;
     private final WorkflowFileService workflowFileService;
     private final SequenceWorkflowHandler sequenceWorkflowHandler;
     private final ParallelWorkflowHandler parallelWorkflowHandler;
     private final ChildWorkflowHandler childWorkflowHandler;
 
     // Public constructor for dependency injection
-    public JobProcessor(JobRepository jobRepository, CLIAgent cliAgent, WorkflowParser workflowParser) {
+    public JobProcessor(JobStore jobRepository, CLIAgent cliAgent, WorkflowParser workflowParser) {
+        this(jobRepository, cliAgent, workflowParser, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public JobProcessor(JobStore jobRepository, CLIAgent cliAgent, WorkflowParser workflowParser, int maxConcurrency) {
+        this(jobRepository, cliAgent, workflowParser, maxConcurrency, RequestJournal.disabled());
+    }
+
+    public JobProcessor(JobStore jobRepository, CLIAgent cliAgent, WorkflowParser workflowParser, int maxConcurrency,
+                        RequestJournal requestJournal) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1: " + maxConcurrency);
+        }
         this.jobRepository = jobRepository;
+        this.cliAgent = cliAgent;
+        this.maxConcurrency = maxConcurrency;
+        this.scheduler = new JobScheduler(Clock.systemDefaultZone());
 
         // Initialize services
         this.workflowFileService = new WorkflowFileService(workflowParser);
         TimeoutManager timeoutManager = new TimeoutManager(jobRepository);
-        AgentLauncher agentLauncher = new AgentLauncher(cliAgent, jobRepository, workflowFileService);
-        PromptProcessor promptProcessor = new PromptProcessor(cliAgent, workflowFileService);
+        AgentLauncher agentLauncher = new AgentLauncher(cliAgent, jobRepository, workflowFileService, requestJournal);
+        PromptProcessor promptProcessor = new PromptProcessor(cliAgent, workflowFileService, requestJournal);
         FallbackExecutor fallbackExecutor = new FallbackExecutor(cliAgent, jobRepository, workflowFileService);
         ResultExtractor resultExtractor = new ResultExtractor(cliAgent, jobRepository);
 
@@ -64,14 +110,121 @@ public class JobProcessor {
             logger.debug("Found {} unfinished job(s): {}", unfinishedJobs.size(),
                 unfinishedJobs.stream().map(Job::jobId).toList());
 
-            for (Job job : unfinishedJobs) {
-                processSingleJob(job);
+            List<Job> dueJobs = scheduler.selectDue(unfinishedJobs);
+            if (dueJobs.isEmpty()) {
+                logger.debug("No unfinished job is due for a check yet");
+                return;
+            }
+
+            Set<String> agentIds = dueJobs.stream()
+                .map(Job::cursorAgentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+            boolean batched = agentIds.size() >= MIN_AGENTS_FOR_BATCH_REFRESH;
+            if (batched) {
+                cliAgent.refreshAgentStatuses(agentIds);
+            }
+            try {
+                processConcurrently(dueJobs);
+            } finally {
+                if (batched) {
+                    cliAgent.clearAgentStatuses();
+                }
             }
         } catch (Exception e) {
             logger.error("Error finding unfinished jobs: {}", e.getMessage());
         }
     }
 
+    /**
+     * Time until the next unfinished job is due for a check, so callers can sleep until then
+     * instead of a fixed interval.
+     *
+     * @return a non-negative duration
+     */
+    public Duration timeUntilNextCheck() {
+        return scheduler.timeUntilNextCheck();
+    }
+
+    /**
+     * Limit the backoff of idle jobs so that each job is checked at least once per interval.
+     *
+     * @param interval the polling interval
+     */
+    public void limitCheckInterval(Duration interval) {
+        scheduler.limitMaxDelay(interval);
+    }
+
+    /**
+     * Process the jobs on virtual threads and wait until all of them are done.
+     * Top-level jobs are processed first and child jobs after them, so a parallel parent and
+     * its children never run at the same time. A job whose workflow tree is still being
+     * processed by an earlier call is skipped.
+     */
+    private void processConcurrently(List<Job> jobs) {
+        processBatch(jobs.stream().filter(job -> job.parentJobId() == null).toList());
+        processBatch(jobs.stream().filter(job -> job.parentJobId() != null).toList());
+    }
+
+    private void processBatch(List<Job> jobs) {
+        if (jobs.isEmpty()) {
+            return;
+        }
+        Semaphore permits = new Semaphore(maxConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Job job : jobs) {
+                if (!claim(job)) {
+                    logger.debug("Job {} or its workflow tree is already being processed, skipping", job.jobId());
+                    continue;
+                }
+                try {
+                    permits.acquire();
+                } catch (InterruptedException _) {
+                    release(job);
+                    Thread.currentThread().interrupt();
+                    logger.warn("Interrupted while scheduling jobs, remaining jobs are left for the next tick");
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        processSingleJob(job);
+                    } finally {
+                        scheduler.processed(job);
+                        release(job);
+                        permits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Marks the job as in flight unless it, its parent or, for a parent, one of its children
+     * already is. Children of one parent may run together: each only updates itself.
+     */
+    private boolean claim(Job job) {
+        String root = job.parentJobId() != null ? job.parentJobId() : job.jobId();
+        synchronized (jobsInFlight) {
+            if (jobsInFlight.containsKey(job.jobId())) {
+                return false;
+            }
+            boolean treeBusy = job.parentJobId() != null
+                ? jobsInFlight.containsKey(root)
+                : jobsInFlight.containsValue(root);
+            if (treeBusy) {
+                return false;
+            }
+            jobsInFlight.put(job.jobId(), root);
+            return true;
+        }
+    }
+
+    private void release(Job job) {
+        synchronized (jobsInFlight) {
+            jobsInFlight.remove(job.jobId());
+        }
+    }
+
     /**
      * Process a single job by launching agents and executing prompts.
      */
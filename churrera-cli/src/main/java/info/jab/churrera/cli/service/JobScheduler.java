@@ -0,0 +1,178 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.churrera.cli.model.AgentState;
+import info.jab.churrera.cli.model.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Decides when each unfinished job is checked next.
+ * <p>
+ * A job is due as soon as it is seen for the first time or its state (status or agent) has
+ * changed since the previous tick. After each check the delay until the next one doubles, from
+ * {@code minDelay} up to {@code maxDelay}, so idle agents cost fewer API calls. A job's state only
+ * changes when it is checked, so {@code maxDelay} bounds how late a completion is noticed; callers
+ * that poll on a fixed interval limit it to that interval. A job with a
+ * timeout is woken at its deadline even if its backoff would be longer. When a child job
+ * changes state its parent is woken as well, so parallel workflows notice completions quickly.
+ */
+public class JobScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
+
+    public static final Duration DEFAULT_MIN_DELAY = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(60);
+
+    private final Duration minDelay;
+    // Guarded by this, as it can be lowered by limitMaxDelay
+    private Duration maxDelay;
+    private final Clock clock;
+    private final Map<String, Schedule> schedules = new HashMap<>();
+
+    public JobScheduler(Clock clock) {
+        this(DEFAULT_MIN_DELAY, DEFAULT_MAX_DELAY, clock);
+    }
+
+    public JobScheduler(Duration minDelay, Duration maxDelay, Clock clock) {
+        if (minDelay.isNegative() || maxDelay.compareTo(minDelay) < 0) {
+            throw new IllegalArgumentException("Invalid backoff range: " + minDelay + " to " + maxDelay);
+        }
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+    }
+
+    /**
+     * Lower the longest delay between two checks of a job, e.g. to the polling interval, so that
+     * no job is checked less often than every tick would check it. A longer limit is ignored, and
+     * the limit is never below {@code minDelay}.
+     *
+     * @param limit the longest delay between two checks
+     */
+    public synchronized void limitMaxDelay(Duration limit) {
+        if (limit.compareTo(maxDelay) >= 0) {
+            return;
+        }
+        maxDelay = limit.compareTo(minDelay) < 0 ? minDelay : limit;
+        Instant latestCheck = clock.instant().plus(maxDelay);
+        schedules.replaceAll((jobId, schedule) -> new Schedule(schedule.status(), schedule.cursorAgentId(),
+            schedule.nextCheck().isAfter(latestCheck) ? latestCheck : schedule.nextCheck(),
+            schedule.delay().compareTo(maxDelay) > 0 ? maxDelay : schedule.delay()));
+        logger.debug("Jobs are checked at least every {} s", maxDelay.toSeconds());
+    }
+
+    /**
+     * Record the current state of the unfinished jobs and return those that are due now.
+     * Jobs that are no longer unfinished are forgotten.
+     *
+     * @param unfinishedJobs all unfinished jobs
+     * @return the jobs to process in this tick, in the given order
+     */
+    public synchronized List<Job> selectDue(List<Job> unfinishedJobs) {
+        Instant now = clock.instant();
+        Set<String> current = new HashSet<>();
+        Set<String> parentsToWake = new HashSet<>();
+        for (Job job : unfinishedJobs) {
+            current.add(job.jobId());
+            Schedule schedule = schedules.get(job.jobId());
+            if (schedule == null) {
+                schedules.put(job.jobId(), new Schedule(job, now, minDelay));
+            } else if (schedule.hasChanged(job)) {
+                logger.debug("Job {} changed to {}, checking it now", job.jobId(), job.status());
+                schedules.put(job.jobId(), new Schedule(job, now, minDelay));
+                if (job.parentJobId() != null) {
+                    parentsToWake.add(job.parentJobId());
+                }
+            }
+        }
+        schedules.keySet().retainAll(current);
+        for (String parentJobId : parentsToWake) {
+            Schedule parent = schedules.get(parentJobId);
+            if (parent != null) {
+                schedules.put(parentJobId, parent.at(now));
+            }
+        }
+
+        List<Job> due = new ArrayList<>();
+        for (Job job : unfinishedJobs) {
+            if (!schedules.get(job.jobId()).nextCheck().isAfter(now)) {
+                due.add(job);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Schedule the next check of a job that has just been processed.
+     *
+     * @param job the job as it was when processing started
+     */
+    public synchronized void processed(Job job) {
+        Schedule schedule = schedules.get(job.jobId());
+        if (schedule == null) {
+            return;
+        }
+        Instant now = clock.instant();
+        Instant nextCheck = now.plus(schedule.delay());
+        Instant deadline = deadline(job);
+        if (deadline != null && deadline.isAfter(now) && deadline.isBefore(nextCheck)) {
+            nextCheck = deadline;
+        }
+        Duration nextDelay = schedule.delay().multipliedBy(2);
+        if (nextDelay.compareTo(maxDelay) > 0) {
+            nextDelay = maxDelay;
+        }
+        schedules.put(job.jobId(), new Schedule(schedule.status(), schedule.cursorAgentId(), nextCheck, nextDelay));
+        logger.trace("Next check of job {} at {}", job.jobId(), nextCheck);
+    }
+
+    /**
+     * Time until the earliest scheduled check, or {@code maxDelay} when nothing is scheduled.
+     *
+     * @return a non-negative duration
+     */
+    public synchronized Duration timeUntilNextCheck() {
+        Instant now = clock.instant();
+        Duration earliest = maxDelay;
+        for (Schedule schedule : schedules.values()) {
+            Duration untilCheck = Duration.between(now, schedule.nextCheck());
+            if (untilCheck.compareTo(earliest) < 0) {
+                earliest = untilCheck;
+            }
+        }
+        return earliest.isNegative() ? Duration.ZERO : earliest;
+    }
+
+    private Instant deadline(Job job) {
+        if (job.timeoutMillis() == null || job.workflowStartTime() == null) {
+            return null;
+        }
+        return job.workflowStartTime().atZone(clock.getZone()).toInstant().plusMillis(job.timeoutMillis());
+    }
+
+    private record Schedule(AgentState status, String cursorAgentId, Instant nextCheck, Duration delay) {
+
+        Schedule(Job job, Instant nextCheck, Duration delay) {
+            this(job.status(), job.cursorAgentId(), nextCheck, delay);
+        }
+
+        boolean hasChanged(Job job) {
+            return !Objects.equals(status, job.status()) || !Objects.equals(cursorAgentId, job.cursorAgentId());
+        }
+
+        Schedule at(Instant time) {
+            return new Schedule(status, cursorAgentId, time, delay);
+        }
+    }
+}
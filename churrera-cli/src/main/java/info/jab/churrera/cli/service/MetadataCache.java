@@ -0,0 +1,257 @@
+package info.jab.churrera.cli.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Cache of slowly changing Cursor API metadata, such as the available models and repositories,
+ * persisted in a JSON file so that it survives between CLI runs.
+ * <p>
+ * A list younger than the TTL is served from the cache. Once it is older, it is still served
+ * for up to the stale period while a background refresh replaces it; after that it is loaded
+ * again before returning. In offline mode the API is never called and only cached lists are
+ * served, however old they are. Background refreshes run on daemon threads, so a process that
+ * exits soon after should wait for them with {@link #awaitRefreshes(Duration)}.
+ */
+public class MetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataCache.class);
+
+    public static final String MODELS = "models";
+    public static final String REPOSITORIES = "repositories";
+    public static final String FILE_NAME = "metadata-cache.json";
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+    public static final Duration DEFAULT_STALE = Duration.ofDays(1);
+    public static final Duration DEFAULT_SHUTDOWN_WAIT = Duration.ofSeconds(2);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String FETCHED_AT = "fetchedAt";
+    private static final String VALUES = "values";
+
+    private final Path file;
+    private final Duration ttl;
+    private final Duration stale;
+    private final boolean offline;
+    private final Clock clock;
+    private final Executor refreshExecutor;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> refreshing = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    /**
+     * Creates a new MetadataCache.
+     *
+     * @param file the JSON file the cache is persisted in (can be null to keep it in memory only)
+     * @param ttl how long a list is served without refreshing it
+     * @param stale how long after the TTL a list is still served while it is refreshed in the background
+     * @param offline whether to serve cached lists only, without calling the API
+     */
+    public MetadataCache(Path file, Duration ttl, Duration stale, boolean offline) {
+        this(file, ttl, stale, offline, Clock.systemUTC(), task -> Thread.ofVirtual().name("metadata-refresh").start(task));
+    }
+
+    MetadataCache(Path file, Duration ttl, Duration stale, boolean offline, Clock clock, Executor refreshExecutor) {
+        // Preconditions
+        if (ttl == null || ttl.isNegative()) {
+            throw new IllegalArgumentException("TTL cannot be null or negative");
+        }
+        if (stale == null || stale.isNegative()) {
+            throw new IllegalArgumentException("Stale period cannot be null or negative");
+        }
+
+        this.file = file;
+        this.ttl = ttl;
+        this.stale = stale;
+        this.offline = offline;
+        this.clock = clock;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Creates a cache that always calls the API, i.e. the behaviour without a cache.
+     *
+     * @return a cache that stores nothing
+     */
+    public static MetadataCache disabled() {
+        return new MetadataCache(null, Duration.ZERO, Duration.ZERO, false);
+    }
+
+    /**
+     * Returns the cached list for the key, loading it with the loader when needed.
+     *
+     * @param key the name of the list, e.g. {@link #MODELS}
+     * @param loader the API call that loads the list
+     * @return the cached or loaded list
+     */
+    public List<String> get(String key, Supplier<List<String>> loader) {
+        if (file == null && ttl.isZero() && stale.isZero() && !offline) {
+            return loader.get();
+        }
+        loadFile();
+
+        Entry entry = entries.get(key);
+        if (offline) {
+            if (entry == null) {
+                throw new IllegalStateException("No cached " + key + " available in offline mode");
+            }
+            logger.debug("Offline mode, serving {} cached {}", entry.values().size(), key);
+            return entry.values();
+        }
+
+        Instant now = clock.instant();
+        if (entry != null) {
+            Duration age = Duration.between(entry.fetchedAt(), now);
+            if (age.compareTo(ttl) < 0) {
+                return entry.values();
+            }
+            if (age.compareTo(ttl.plus(stale)) < 0) {
+                refreshInBackground(key, loader);
+                return entry.values();
+            }
+        }
+        return load(key, loader);
+    }
+
+    /**
+     * Forgets all cached lists and deletes the cache file.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        loaded = true;
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Failed to delete metadata cache {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private List<String> load(String key, Supplier<List<String>> loader) {
+        List<String> values = loader.get();
+        if (values != null) {
+            entries.put(key, new Entry(List.copyOf(values), clock.instant()));
+            persist();
+        }
+        return values;
+    }
+
+    /**
+     * Waits for the background refreshes in progress, so that their results are persisted
+     * before the process exits.
+     *
+     * @param timeout how long to wait at most
+     * @return true if no refresh is left in progress
+     */
+    public boolean awaitRefreshes(Duration timeout) {
+        List<CompletableFuture<Void>> pending = List.copyOf(refreshing.values());
+        if (pending.isEmpty()) {
+            return true;
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            logger.debug("Gave up waiting for {} metadata refresh(es) after {}", pending.size(), timeout);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            // Refreshes complete normally, failures are logged by the refresh itself
+            return true;
+        }
+    }
+
+    private void refreshInBackground(String key, Supplier<List<String>> loader) {
+        CompletableFuture<Void> refresh = new CompletableFuture<>();
+        if (refreshing.putIfAbsent(key, refresh) != null) {
+            return;
+        }
+        logger.debug("Serving stale {} while refreshing them", key);
+        refreshExecutor.execute(() -> {
+            try {
+                load(key, loader);
+            } catch (Exception e) {
+                logger.warn("Failed to refresh cached {}: {}", key, e.getMessage());
+            } finally {
+                refreshing.remove(key, refresh);
+                refresh.complete(null);
+            }
+        });
+    }
+
+    private synchronized void loadFile() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            JsonNode root = MAPPER.readTree(file.toFile());
+            root.properties().forEach(field -> {
+                JsonNode node = field.getValue();
+                if (node.hasNonNull(FETCHED_AT) && node.path(VALUES).isArray()) {
+                    List<String> values = new ArrayList<>();
+                    node.get(VALUES).forEach(value -> values.add(value.asText()));
+                    entries.putIfAbsent(field.getKey(),
+                        new Entry(List.copyOf(values), Instant.ofEpochMilli(node.get(FETCHED_AT).asLong())));
+                }
+            });
+            logger.debug("Loaded metadata cache from {}", file);
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable metadata cache {}: {}", file, e.getMessage());
+        }
+    }
+
+    private synchronized void persist() {
+        if (file == null) {
+            return;
+        }
+        ObjectNode root = MAPPER.createObjectNode();
+        entries.forEach((key, entry) -> {
+            ObjectNode node = root.putObject(key);
+            node.put(FETCHED_AT, entry.fetchedAt().toEpochMilli());
+            ArrayNode values = node.putArray(VALUES);
+            entry.values().forEach(values::add);
+        });
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            MAPPER.writeValue(temporary.toFile(), root);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write metadata cache {}: {}", file, e.getMessage());
+        }
+    }
+
+    private record Entry(List<String> values, Instant fetchedAt) {
+    }
+}
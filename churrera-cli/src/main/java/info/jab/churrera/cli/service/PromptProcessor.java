@@ -3,6 +3,7 @@ package info.jab.churrera.cli.service;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.Prompt;
 import info.jab.churrera.cli.model.AgentState;
+import info.jab.churrera.cli.service.RequestJournal.PendingRequest;
 import info.jab.churrera.workflow.WorkflowData;
 import info.jab.churrera.workflow.PromptInfo;
 import org.slf4j.Logger;
@@ -19,10 +20,16 @@ public class PromptProcessor {
 
     private final CLIAgent cliAgent;
     private final WorkflowFileService workflowFileService;
+    private final RequestJournal requestJournal;
 
     public PromptProcessor(CLIAgent cliAgent, WorkflowFileService workflowFileService) {
+        this(cliAgent, workflowFileService, RequestJournal.disabled());
+    }
+
+    public PromptProcessor(CLIAgent cliAgent, WorkflowFileService workflowFileService, RequestJournal requestJournal) {
         this.cliAgent = cliAgent;
         this.workflowFileService = workflowFileService;
+        this.requestJournal = requestJournal;
     }
 
     /**
@@ -65,7 +72,8 @@ public class PromptProcessor {
                 // Read the prompt file
                 String promptContent = workflowFileService.readPromptFile(job.path(), promptInfo.getSrcFile());
 
-                // Get bind value from job result if present (for child jobs from parallel workflows)
+                // Get bind value from job result if present (for child jobs from parallel workflows, the value
+                // their bindResultExp selected from the parent result when the child job was created)
                 // Only apply if the prompt has bindResultExp attribute
                 String bindValue = null;
                 if (promptInfo.hasBindResultExp() && job.result() != null) {
@@ -73,12 +81,36 @@ public class PromptProcessor {
                     logger.info("Prompt has bindResultExp, will apply value: {}", bindValue);
                 }
 
-                // Send follow-up prompt with type information and optional bind value
-                cliAgent.followUpForPrompt(job.cursorAgentId(), promptContent, promptInfo.getType(), bindValue);
+                // A follow-up whose outcome was unknown may have reached the agent already
+                if (resolveOpenFollowUps(job, prompt, promptContent, promptInfo.getType(), bindValue)) {
+                    return;
+                }
+
+                // Send follow-up prompt with type information and optional bind value,
+                // journaled so that a crash before the prompt is marked SENT does not lose it
+                String requestId = requestJournal.begin(RequestJournal.Operation.FOLLOW_UP, job.jobId(), prompt.promptId(), job.cursorAgentId());
+                try {
+                    cliAgent.followUpForPrompt(job.cursorAgentId(), promptContent, promptInfo.getType(), bindValue);
+                } catch (RuntimeException e) {
+                    if (ApiGuard.isOutcomeUnknown(e)) {
+                        // The agent may have the prompt, so the follow-up stays open and is checked before the next attempt
+                        requestJournal.release(requestId);
+                    } else {
+                        requestJournal.abort(requestId);
+                    }
+                    throw e;
+                }
+                requestJournal.sent(requestId, job.cursorAgentId());
 
                 // Update prompt status to SENT
-                cliAgent.updatePromptInDatabase(prompt, "SENT");
-                cliAgent.updateJobInDatabase(job);
+                try {
+                    cliAgent.updatePromptInDatabase(prompt, "SENT");
+                    cliAgent.updateJobInDatabase(job);
+                } catch (RuntimeException e) {
+                    requestJournal.release(requestId);
+                    throw e;
+                }
+                requestJournal.commit(requestId);
 
                 logger.info("Sent follow-up prompt {} for job {} (type: {})", prompt.promptId(), job.jobId(), promptInfo.getType());
 
@@ -98,6 +130,13 @@ public class PromptProcessor {
                 }
             }
 
+        } catch (ApiUnavailableException e) {
+            if (e.isOutcomeUnknown() && "UNKNOWN".equals(prompt.status())) {
+                logger.warn("Cursor API failed while sending prompt {}, the follow-up will be checked before it is retried: {}",
+                    prompt.promptId(), e.getMessage());
+            } else {
+                logger.warn("Cursor API unavailable, keeping prompt {} in state {}: {}", prompt.promptId(), prompt.status(), e.getMessage());
+            }
         } catch (Exception e) {
             logger.error("Error processing prompt {}: {}", prompt.promptId(), e.getMessage());
             try {
@@ -108,5 +147,35 @@ public class PromptProcessor {
             }
         }
     }
-}
 
+    /**
+     * Resolves the follow-ups of a prompt left open because their outcome was unknown, by looking
+     * for the prompt in the agent's conversation.
+     *
+     * @return true if the prompt reached the agent and was marked SENT, false if it must be sent
+     */
+    private boolean resolveOpenFollowUps(Job job, Prompt prompt, String promptContent, String type, String bindValue) {
+        List<PendingRequest> open = requestJournal.pending().stream()
+            .filter(request -> request.operation() == RequestJournal.Operation.FOLLOW_UP)
+            .filter(request -> prompt.promptId().equals(request.promptId()))
+            .filter(request -> !requestJournal.isInFlight(request.id()))
+            .toList();
+        if (open.isEmpty()) {
+            return false;
+        }
+
+        boolean delivered = open.stream().anyMatch(request -> request.phase() == RequestJournal.Phase.SENT)
+            || cliAgent.isFollowUpDelivered(job.cursorAgentId(), promptContent, type, bindValue);
+        if (!delivered) {
+            logger.info("Prompt {} for job {} did not reach the agent, sending it again", prompt.promptId(), job.jobId());
+            open.forEach(request -> requestJournal.abort(request.id()));
+            return false;
+        }
+        cliAgent.updatePromptInDatabase(prompt, "SENT");
+        cliAgent.updateJobInDatabase(job);
+        open.forEach(request -> requestJournal.commit(request.id()));
+        logger.info("Prompt {} for job {} reached the agent before, marked as SENT without sending it again",
+            prompt.promptId(), job.jobId());
+        return true;
+    }
+}
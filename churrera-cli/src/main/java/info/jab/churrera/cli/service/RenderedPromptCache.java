@@ -0,0 +1,91 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.churrera.workflow.PromptTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Cache of prompts rendered to Markdown, keyed by prompt type and a hash of the prompt content.
+ * <p>
+ * The children of a parallel workflow send the same prompt files and only differ in the value
+ * bound to the {@code <input>INPUT</input>} placeholder. The prompt is therefore rendered once
+ * and compiled into a {@link PromptTemplate}, and each child only binds its own value into it.
+ * Keying on the content rather than the file means an edited prompt is rendered again.
+ * Concurrent requests for the same prompt wait for a single rendering.
+ */
+final class RenderedPromptCache {
+
+    static final int MAX_ENTRIES = 128;
+
+    private record Key(String type, String contentHash) {
+    }
+
+    /**
+     * A prompt rendered to Markdown and compiled at the input placeholder.
+     *
+     * @param template the rendered prompt, compiled at its input slots
+     */
+    record RenderedPrompt(PromptTemplate template) {
+
+        String markdown() {
+            return template.source();
+        }
+
+        /**
+         * Returns the prompt with the bind value in place of the input placeholder.
+         *
+         * @param bindValue the value to bind (null or empty leaves the placeholder as is)
+         * @return the prompt to send
+         */
+        String bind(String bindValue) {
+            if (bindValue == null || bindValue.isEmpty()) {
+                return template.source();
+            }
+            return template.render(bindValue);
+        }
+    }
+
+    private final Map<Key, RenderedPrompt> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the rendered prompt, rendering it on first use.
+     *
+     * @param promptContent the prompt as read from its file
+     * @param type the type of prompt ("pml" or "md")
+     * @param renderer renders the prompt content of the given type to Markdown
+     * @return the rendered prompt
+     */
+    RenderedPrompt render(String promptContent, String type, BiFunction<String, String, String> renderer) {
+        Key key = new Key(type == null ? "" : type.toLowerCase(Locale.ROOT), sha256(promptContent));
+        RenderedPrompt cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (entries.size() >= MAX_ENTRIES) {
+            // Prompts of finished workflows are not needed again; start over rather than track usage
+            entries.clear();
+        }
+        return entries.computeIfAbsent(key, _ ->
+            new RenderedPrompt(PromptTemplate.compile(renderer.apply(promptContent, type))));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
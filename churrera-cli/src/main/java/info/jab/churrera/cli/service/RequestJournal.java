@@ -0,0 +1,324 @@
+package info.jab.churrera.cli.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Write-ahead journal of the mutating Cursor API calls, i.e. agent launches and follow-ups.
+ * <p>
+ * The intent of a call is written and synced to disk before the call is made, and its outcome
+ * right after it returns; once the result is stored in the job store the request is committed.
+ * A crash therefore leaves an open request behind, which {@link RequestJournalReconciler}
+ * resolves on the next start instead of repeating the call. A call whose outcome is unknown,
+ * e.g. after a timeout, is released by its caller and left open in the same way, to be resolved
+ * before the call is made again. The journal is a file of JSON lines that is rewritten with
+ * only the open requests on startup and whenever it grows large.
+ */
+public class RequestJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestJournal.class);
+
+    public static final String FILE_NAME = "request-journal.jsonl";
+    static final int COMPACT_EVERY = 1000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * The kind of API call.
+     */
+    public enum Operation { LAUNCH, FOLLOW_UP }
+
+    /**
+     * How far a request got before the journal was last written.
+     */
+    public enum Phase {
+        /** The call was about to be made; whether it reached the API is unknown. */
+        INTENT,
+        /** The call returned, but its result may not have been stored. */
+        SENT,
+        /** The result was stored in the job store. */
+        COMMITTED,
+        /** The call failed and was handled by the caller. */
+        ABORTED
+    }
+
+    /**
+     * A request that was neither committed nor aborted.
+     *
+     * @param id the request ID
+     * @param operation the kind of API call
+     * @param phase the last phase written
+     * @param jobId the job the call was made for
+     * @param promptId the prompt sent by a follow-up, or null for launches
+     * @param agentId the agent that was launched or followed up, or null if not known yet
+     * @param startedAt when the intent was written
+     */
+    public record PendingRequest(String id, Operation operation, Phase phase, String jobId,
+                                 String promptId, String agentId, Instant startedAt) {
+    }
+
+    private final Path file;
+    private final Clock clock;
+    private final Map<String, PendingRequest> pending = new LinkedHashMap<>();
+    // Requests whose caller is still waiting for or storing the result
+    private final Set<String> inFlight = new HashSet<>();
+    private FileChannel channel;
+    private int linesSinceCompaction;
+
+    /**
+     * Opens the journal, reading the requests left open by an earlier run.
+     *
+     * @param file the journal file (can be null to journal nothing)
+     * @throws IOException if the journal cannot be opened
+     */
+    public RequestJournal(Path file) throws IOException {
+        this(file, Clock.systemUTC());
+    }
+
+    RequestJournal(Path file, Clock clock) throws IOException {
+        this.file = file;
+        this.clock = clock;
+        if (file != null) {
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            if (Files.exists(file)) {
+                read();
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            terminateTornLine();
+        }
+    }
+
+    /**
+     * Creates a journal that records nothing, i.e. the behaviour without a journal.
+     *
+     * @return a journal without a file
+     */
+    public static RequestJournal disabled() {
+        try {
+            return new RequestJournal(null);
+        } catch (IOException e) {
+            throw new IllegalStateException("A journal without a file cannot fail to open", e);
+        }
+    }
+
+    /**
+     * Records the intent to make a call and syncs it to disk.
+     *
+     * @return the ID of the request, to pass to the later phases
+     */
+    public synchronized String begin(Operation operation, String jobId, String promptId, String agentId) {
+        PendingRequest request = new PendingRequest(UUID.randomUUID().toString(), operation, Phase.INTENT,
+            jobId, promptId, agentId, clock.instant());
+        pending.put(request.id(), request);
+        inFlight.add(request.id());
+        append(request, true);
+        return request.id();
+    }
+
+    /**
+     * Records that the call returned and syncs it to disk.
+     *
+     * @param id the request ID
+     * @param agentId the agent the call created or followed up
+     */
+    public synchronized void sent(String id, String agentId) {
+        PendingRequest request = pending.get(id);
+        if (request != null) {
+            PendingRequest updated = new PendingRequest(id, request.operation(), Phase.SENT, request.jobId(),
+                request.promptId(), agentId, request.startedAt());
+            pending.put(id, updated);
+            append(updated, true);
+        }
+    }
+
+    /**
+     * Records that the result of the call was stored.
+     */
+    public synchronized void commit(String id) {
+        finish(id, Phase.COMMITTED);
+    }
+
+    /**
+     * Records that the call failed and the caller handled the failure.
+     */
+    public synchronized void abort(String id) {
+        finish(id, Phase.ABORTED);
+    }
+
+    /**
+     * Records that the caller gave up on the call without knowing its outcome.
+     * The request stays open, to be resolved before the call is made again.
+     */
+    public synchronized void release(String id) {
+        inFlight.remove(id);
+    }
+
+    /**
+     * Returns the requests that are still open, oldest first, including those in flight.
+     *
+     * @return the open requests
+     */
+    public synchronized List<PendingRequest> pending() {
+        return List.copyOf(pending.values());
+    }
+
+    /**
+     * Returns whether a caller in this process is still waiting for or storing the result of a request.
+     *
+     * @param id the request ID
+     * @return true if the request is in flight
+     */
+    public synchronized boolean isInFlight(String id) {
+        return inFlight.contains(id);
+    }
+
+    /**
+     * Rewrites the journal with only the open requests.
+     */
+    public synchronized void compact() {
+        if (file == null) {
+            return;
+        }
+        try {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            StringBuilder content = new StringBuilder();
+            for (PendingRequest request : pending.values()) {
+                content.append(toJson(request)).append('\n');
+            }
+            Files.writeString(temporary, content.toString(), StandardCharsets.UTF_8);
+            channel.close();
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                linesSinceCompaction = pending.size();
+            } finally {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to compact request journal {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void finish(String id, Phase phase) {
+        PendingRequest request = pending.remove(id);
+        inFlight.remove(id);
+        if (request != null) {
+            append(new PendingRequest(id, request.operation(), phase, request.jobId(), request.promptId(),
+                request.agentId(), request.startedAt()), false);
+            if (linesSinceCompaction >= COMPACT_EVERY) {
+                compact();
+            }
+        }
+    }
+
+    private void append(PendingRequest request, boolean sync) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            ByteBuffer line = ByteBuffer.wrap((toJson(request) + "\n").getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+            linesSinceCompaction++;
+        } catch (IOException e) {
+            // The call itself must not fail because of the journal
+            logger.warn("Failed to write request journal {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void terminateTornLine() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return;
+        }
+        ByteBuffer last = ByteBuffer.allocate(1);
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            reader.read(last, size - 1);
+        }
+        if (last.get(0) != '\n') {
+            // Otherwise the next line would be appended to the torn one and be lost with it
+            channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+        }
+    }
+
+    private void read() throws IOException {
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    PendingRequest request = fromJson(MAPPER.readTree(line));
+                    if (request.phase() == Phase.COMMITTED || request.phase() == Phase.ABORTED) {
+                        pending.remove(request.id());
+                    } else {
+                        pending.put(request.id(), request);
+                    }
+                } catch (Exception e) {
+                    // A crash can leave a torn last line behind
+                    logger.warn("Skipping malformed line {} of request journal {}: {}", lines, file, e.getMessage());
+                }
+            }
+        }
+        linesSinceCompaction = lines;
+        logger.debug("Read {} open request(s) from journal {}", pending.size(), file);
+    }
+
+    private static String toJson(PendingRequest request) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("id", request.id());
+        node.put("operation", request.operation().name());
+        node.put("phase", request.phase().name());
+        node.put("jobId", request.jobId());
+        node.put("promptId", request.promptId());
+        node.put("agentId", request.agentId());
+        node.put("startedAt", request.startedAt().toEpochMilli());
+        return node.toString();
+    }
+
+    private static PendingRequest fromJson(JsonNode node) {
+        return new PendingRequest(
+            node.get("id").asText(),
+            Operation.valueOf(node.get("operation").asText()),
+            Phase.valueOf(node.get("phase").asText()),
+            text(node, "jobId"),
+            text(node, "promptId"),
+            text(node, "agentId"),
+            Instant.ofEpochMilli(node.get("startedAt").asLong()));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,257 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.churrera.cli.model.AgentState;
+import info.jab.churrera.cli.model.Job;
+import info.jab.churrera.cli.model.Prompt;
+import info.jab.churrera.cli.repository.JobStore;
+import info.jab.churrera.cli.service.RequestJournal.Operation;
+import info.jab.churrera.cli.service.RequestJournal.PendingRequest;
+import info.jab.churrera.cli.service.RequestJournal.Phase;
+import info.jab.cursor.client.model.AgentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the requests left open in the {@link RequestJournal}, by a crashed run or by a call
+ * whose outcome is unknown.
+ * <ul>
+ *   <li>A launch that returned is adopted: its agent ID is stored in the job if the job has none yet.</li>
+ *   <li>A launch that may not have returned is looked up in the agent list, limited to the agents
+ *       created since the oldest such launch. An agent on the job's repository that no job owns is
+ *       adopted if it is the only candidate and no other launch on that repository is unresolved;
+ *       the agent list does not tell which launch created an agent, so with several of either the
+ *       reconciler does not guess. If there is no candidate, or it cannot tell, the job is launched
+ *       as usual.</li>
+ *   <li>A follow-up that returned marks its prompt SENT.</li>
+ *   <li>A follow-up that may not have returned stays open while its prompt is unsent; the
+ *       {@link PromptProcessor} checks the agent's conversation before sending it again.</li>
+ * </ul>
+ */
+public class RequestJournalReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestJournalReconciler.class);
+
+    // Tolerates clock differences between this machine and the Cursor API
+    static final Duration CLOCK_SKEW = Duration.ofMinutes(2);
+
+    private final RequestJournal requestJournal;
+    private final JobStore jobRepository;
+    private final CLIAgent cliAgent;
+
+    public RequestJournalReconciler(RequestJournal requestJournal, JobStore jobRepository, CLIAgent cliAgent) {
+        this.requestJournal = requestJournal;
+        this.jobRepository = jobRepository;
+        this.cliAgent = cliAgent;
+    }
+
+    /**
+     * Resolves the open requests and compacts the journal.
+     * Launches that could not be checked because the agent list failed stay open for the next start,
+     * and follow-ups that may have been delivered stay open until their prompt is processed.
+     *
+     * @return the number of requests resolved
+     */
+    public int reconcile() {
+        List<PendingRequest> pending = requestJournal.pending();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        logger.info("Reconciling {} request(s) left open by an earlier run", pending.size());
+
+        Set<String> adoptedJobs = new HashSet<>();
+        int resolved = 0;
+        for (PendingRequest request : pending) {
+            if (request.phase() == Phase.SENT) {
+                resolveSent(request, adoptedJobs);
+                resolved++;
+            } else if (request.operation() == Operation.FOLLOW_UP && resolveUnconfirmedFollowUp(request)) {
+                resolved++;
+            }
+        }
+        resolved += resolveUnconfirmedLaunches(pending.stream()
+            .filter(request -> request.phase() == Phase.INTENT && request.operation() == Operation.LAUNCH)
+            .toList(), adoptedJobs);
+
+        requestJournal.compact();
+        return resolved;
+    }
+
+    /**
+     * Resolves the open launches of a job before it is launched, so that a launch whose outcome
+     * was unknown is not repeated if it created an agent.
+     *
+     * @param job the job about to be launched
+     * @return true if the job can be launched, false if it got an agent or its launch cannot be checked yet
+     */
+    public synchronized boolean clearToLaunch(Job job) {
+        List<PendingRequest> open = openLaunches(job);
+        if (open.isEmpty()) {
+            return true;
+        }
+        Set<String> adoptedJobs = new HashSet<>();
+        for (PendingRequest request : open) {
+            if (request.phase() == Phase.SENT) {
+                resolveSent(request, adoptedJobs);
+            }
+        }
+        if (open.stream().anyMatch(request -> request.phase() == Phase.INTENT)) {
+            resolveUnconfirmedLaunches(requestJournal.pending().stream()
+                .filter(request -> request.phase() == Phase.INTENT && request.operation() == Operation.LAUNCH)
+                .filter(request -> !requestJournal.isInFlight(request.id()))
+                .toList(), adoptedJobs);
+        }
+        if (adoptedJobs.contains(job.jobId())) {
+            return false;
+        }
+        if (!openLaunches(job).isEmpty()) {
+            logger.info("Launch of job {} is postponed until its earlier launch is reconciled", job.jobId());
+            return false;
+        }
+        return true;
+    }
+
+    private List<PendingRequest> openLaunches(Job job) {
+        return requestJournal.pending().stream()
+            .filter(request -> request.operation() == Operation.LAUNCH && job.jobId().equals(request.jobId()))
+            .filter(request -> !requestJournal.isInFlight(request.id()))
+            .toList();
+    }
+
+    private boolean resolveUnconfirmedFollowUp(PendingRequest request) {
+        try {
+            Optional<Prompt> prompt = jobRepository.findPromptById(request.promptId());
+            if (prompt.isPresent() && "UNKNOWN".equals(prompt.get().status())) {
+                logger.info("Follow-up for prompt {} of job {} may have been delivered, it is checked before being sent again",
+                    request.promptId(), request.jobId());
+                return false;
+            }
+            requestJournal.abort(request.id());
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to reconcile {} request {} for job {}: {}",
+                request.operation(), request.id(), request.jobId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void resolveSent(PendingRequest request, Set<String> adoptedJobs) {
+        try {
+            if (request.operation() == Operation.LAUNCH) {
+                Optional<Job> job = jobRepository.findById(request.jobId());
+                if (job.isPresent() && job.get().cursorAgentId() == null && request.agentId() != null) {
+                    adopt(job.get(), request.agentId(), adoptedJobs);
+                }
+            } else {
+                Optional<Prompt> prompt = jobRepository.findPromptById(request.promptId());
+                if (prompt.isPresent() && "UNKNOWN".equals(prompt.get().status())) {
+                    cliAgent.updatePromptInDatabase(prompt.get(), "SENT");
+                    logger.info("Marked prompt {} of job {} as SENT after an interrupted follow-up",
+                        request.promptId(), request.jobId());
+                }
+            }
+            requestJournal.commit(request.id());
+        } catch (Exception e) {
+            logger.error("Failed to reconcile {} request {} for job {}: {}",
+                request.operation(), request.id(), request.jobId(), e.getMessage());
+        }
+    }
+
+    private int resolveUnconfirmedLaunches(List<PendingRequest> launches, Set<String> adoptedJobs) {
+        if (launches.isEmpty()) {
+            return 0;
+        }
+        Instant oldest = launches.stream().map(PendingRequest::startedAt).min(Comparator.naturalOrder()).orElseThrow();
+        List<AgentResponse> agents;
+        try {
+            agents = cliAgent.getAgentsCreatedSince(oldest.minus(CLOCK_SKEW).atOffset(ZoneOffset.UTC));
+        } catch (Exception e) {
+            logger.warn("Cannot list agents to reconcile {} interrupted launch(es), retrying later: {}",
+                launches.size(), e.getMessage());
+            return 0;
+        }
+
+        // Agents stored in a job or returned to a launch that is not stored yet
+        Set<String> ownedAgents = jobRepository.findAll().stream()
+            .map(Job::cursorAgentId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(HashSet::new));
+        requestJournal.pending().stream()
+            .map(PendingRequest::agentId)
+            .filter(Objects::nonNull)
+            .forEach(ownedAgents::add);
+        Map<String, List<String>> launchingJobs = launchingJobsByRepository();
+        int resolved = 0;
+        for (PendingRequest launch : launches) {
+            try {
+                Optional<Job> job = jobRepository.findById(launch.jobId());
+                if (job.isPresent() && job.get().cursorAgentId() == null) {
+                    String repository = job.get().repository();
+                    List<AgentResponse> candidates = agents.stream()
+                        .filter(agent -> !ownedAgents.contains(agent.id()))
+                        .filter(agent -> agent.source() != null
+                            && agent.source().repository().toString().equals(repository))
+                        .filter(agent -> agent.createdAt() == null
+                            || !agent.createdAt().toInstant().isBefore(launch.startedAt().minus(CLOCK_SKEW)))
+                        .toList();
+                    List<String> competingJobs = launchingJobs.getOrDefault(repository, List.of());
+                    if (candidates.isEmpty()) {
+                        logger.info("No agent was created by the interrupted launch of job {}, it will be launched again",
+                            launch.jobId());
+                    } else if (candidates.size() == 1 && competingJobs.size() <= 1) {
+                        ownedAgents.add(candidates.getFirst().id());
+                        adopt(job.get(), candidates.getFirst().id(), adoptedJobs);
+                    } else {
+                        logger.warn("Cannot tell which of the unowned agents {} on {} was created by the interrupted launch of job {} "
+                                + "(unresolved launches of jobs {}), it will be launched again; check these agents by hand",
+                            candidates.stream().map(AgentResponse::id).toList(), repository, launch.jobId(), competingJobs);
+                    }
+                }
+                requestJournal.commit(launch.id());
+                resolved++;
+            } catch (Exception e) {
+                logger.error("Failed to reconcile launch {} for job {}: {}", launch.id(), launch.jobId(), e.getMessage());
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Groups the jobs without an agent that have an unconfirmed launch, in flight or not, by repository.
+     */
+    private Map<String, List<String>> launchingJobsByRepository() {
+        Map<String, List<String>> launchingJobs = new HashMap<>();
+        for (PendingRequest request : requestJournal.pending()) {
+            if (request.operation() == Operation.LAUNCH && request.phase() == Phase.INTENT) {
+                jobRepository.findById(request.jobId())
+                    .filter(job -> job.cursorAgentId() == null)
+                    .ifPresent(job -> {
+                        List<String> jobs = launchingJobs.computeIfAbsent(job.repository(), key -> new ArrayList<>());
+                        if (!jobs.contains(job.jobId())) {
+                            jobs.add(job.jobId());
+                        }
+                    });
+            }
+        }
+        return launchingJobs;
+    }
+
+    private void adopt(Job job, String agentId, Set<String> adoptedJobs) {
+        cliAgent.updateJobCursorIdInDatabase(job.withCursorAgentId(agentId), agentId, AgentState.creating());
+        adoptedJobs.add(job.jobId());
+        logger.info("Adopted agent {} created by an interrupted launch of job {}", agentId, job.jobId());
+    }
+}
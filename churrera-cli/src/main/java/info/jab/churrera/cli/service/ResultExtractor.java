@@ -1,6 +1,6 @@
 package info.jab.churrera.cli.service;
 
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.workflow.ParallelWorkflowData;
 import info.jab.churrera.workflow.BindResultTypeMapper;
@@ -21,9 +21,9 @@ public class ResultExtractor {
     private static final Logger logger = LoggerFactory.getLogger(ResultExtractor.class);
 
     private final CLIAgent cliAgent;
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
 
-    public ResultExtractor(CLIAgent cliAgent, JobRepository jobRepository) {
+    public ResultExtractor(CLIAgent cliAgent, JobStore jobRepository) {
         this.cliAgent = cliAgent;
         this.jobRepository = jobRepository;
     }
@@ -34,6 +34,7 @@ public class ResultExtractor {
      * @param job the parent job
      * @param parallelData the parallel workflow data
      * @return the deserialized list of results, or null if extraction failed
+     * @throws ApiUnavailableException if the conversation cannot be fetched because the Cursor API is unavailable
      */
     public List<Object> extractResults(Job job, ParallelWorkflowData parallelData) {
         try {
@@ -85,6 +86,8 @@ public class ResultExtractor {
                 return List.of();
             }
 
+        } catch (ApiUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error extracting results for job {}: {}", job.jobId(), e.getMessage(), e);
             return List.of();
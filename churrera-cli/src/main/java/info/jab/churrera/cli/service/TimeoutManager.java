@@ -1,6 +1,6 @@
 package info.jab.churrera.cli.service;
 
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.model.Job;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,9 +15,9 @@ public class TimeoutManager {
 
     private static final Logger logger = LoggerFactory.getLogger(TimeoutManager.class);
 
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
 
-    public TimeoutManager(JobRepository jobRepository) {
+    public TimeoutManager(JobStore jobRepository) {
         this.jobRepository = jobRepository;
     }
 
@@ -1,6 +1,6 @@
 package info.jab.churrera.cli.service.handler;
 
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.Prompt;
 import info.jab.churrera.cli.model.AgentState;
@@ -21,14 +21,14 @@ public class ChildWorkflowHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(ChildWorkflowHandler.class);
 
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final CLIAgent cliAgent;
     private final AgentLauncher agentLauncher;
     private final PromptProcessor promptProcessor;
     private final TimeoutManager timeoutManager;
     private final FallbackExecutor fallbackExecutor;
 
-    public ChildWorkflowHandler(JobRepository jobRepository, CLIAgent cliAgent,
+    public ChildWorkflowHandler(JobStore jobRepository, CLIAgent cliAgent,
                                AgentLauncher agentLauncher, PromptProcessor promptProcessor,
                                TimeoutManager timeoutManager, FallbackExecutor fallbackExecutor) {
         this.jobRepository = jobRepository;
@@ -86,10 +86,27 @@ public class ChildWorkflowHandler {
             return null;
         }
 
-        SequenceInfo sequenceInfo = parallelData.getSequences().get(0);
+        WorkflowData childWorkflowData = toChildWorkflowData(parallelData.getSequences().get(0));
+        if (childWorkflowData == null) {
+            logger.error("No prompts found in sequence for child job: {}", job.jobId());
+            return null;
+        }
+
+        logger.info("Child job {} will use launch prompt: {} with {} update prompts",
+            job.jobId(), childWorkflowData.getLaunchPrompt().getSrcFile(), childWorkflowData.getUpdatePrompts().size());
+        return childWorkflowData;
+    }
+
+    /**
+     * Build the workflow that child jobs run: the first prompt of the sequence launches the agent
+     * and the remaining ones are sent as follow-ups.
+     *
+     * @param sequenceInfo the sequence of the parallel workflow
+     * @return the child workflow data, or null if the sequence has no prompts
+     */
+    static WorkflowData toChildWorkflowData(SequenceInfo sequenceInfo) {
         List<info.jab.churrera.workflow.PromptInfo> sequencePrompts = sequenceInfo.getPrompts();
         if (sequencePrompts.isEmpty()) {
-            logger.error("No prompts found in sequence for child job: {}", job.jobId());
             return null;
         }
 
@@ -98,17 +115,13 @@ public class ChildWorkflowHandler {
             ? sequencePrompts.subList(1, sequencePrompts.size())
             : new ArrayList<>();
 
-        WorkflowData childWorkflowData = new WorkflowData(
+        return new WorkflowData(
             launchPrompt,
             sequenceInfo.getModel(),
             sequenceInfo.getRepository(),
             updatePrompts,
             null, null, null
         );
-
-        logger.info("Child job {} will use launch prompt: {} with {} update prompts",
-            job.jobId(), launchPrompt.getSrcFile(), updatePrompts.size());
-        return childWorkflowData;
     }
 
     private Long getTimeoutMillis(Job job, WorkflowData parentWorkflowData) {
@@ -199,8 +212,12 @@ public class ChildWorkflowHandler {
                 promptProcessor.processRemainingPrompts(updatedJob, prompts, childWorkflowData);
             } else if (currentStatus.isTerminal()) {
                 logger.info("Child job {} reached terminal state: {}", updatedJob.jobId(), currentStatus);
+                cliAgent.releaseConversation(updatedJob.cursorAgentId());
             }
             return updatedJob;
+        } catch (ApiUnavailableException unavailable) {
+            logger.warn("Cursor API unavailable, keeping child job {} in state {}: {}", job.jobId(), job.status(), unavailable.getMessage());
+            return job;
         } catch (Exception statusError) {
             logger.error("Error processing child job {}: {}", job.jobId(), statusError.getMessage());
             cliAgent.updateJobStatusInDatabase(job, AgentState.error());
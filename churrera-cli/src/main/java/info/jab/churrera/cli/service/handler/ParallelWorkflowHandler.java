@@ -1,9 +1,11 @@
 package info.jab.churrera.cli.service.handler;
 
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.AgentState;
+import info.jab.churrera.cli.model.Prompt;
 import info.jab.churrera.cli.service.*;
+import info.jab.churrera.workflow.CompiledExpression;
 import info.jab.churrera.workflow.WorkflowData;
 import info.jab.churrera.workflow.ParallelWorkflowData;
 import info.jab.churrera.workflow.SequenceInfo;
@@ -11,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,14 +24,14 @@ public class ParallelWorkflowHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(ParallelWorkflowHandler.class);
 
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final CLIAgent cliAgent;
     private final AgentLauncher agentLauncher;
     private final TimeoutManager timeoutManager;
     private final FallbackExecutor fallbackExecutor;
     private final ResultExtractor resultExtractor;
 
-    public ParallelWorkflowHandler(JobRepository jobRepository, CLIAgent cliAgent,
+    public ParallelWorkflowHandler(JobStore jobRepository, CLIAgent cliAgent,
                                   AgentLauncher agentLauncher, TimeoutManager timeoutManager,
                                   FallbackExecutor fallbackExecutor, ResultExtractor resultExtractor) {
         this.jobRepository = jobRepository;
@@ -111,6 +114,8 @@ public class ParallelWorkflowHandler {
 
                 // Step 4: Extract and deserialize results
                 List<Object> deserializedList = resultExtractor.extractResults(job, parallelData);
+                // The parent's conversation is not read again once its result is extracted
+                cliAgent.releaseConversation(job.cursorAgentId());
 
                 if (deserializedList == null) {
                     logger.error("No result to store for parent job: {}", job.jobId());
@@ -119,10 +124,13 @@ public class ParallelWorkflowHandler {
                     return;
                 }
 
-                // Step 5: Create child jobs for each element
-                createChildJobs(job, deserializedList, parallelData);
+                // Step 5: Create child jobs for each element and launch their agents together
+                List<Job> childJobs = createChildJobs(job, deserializedList, parallelData);
+                launchChildJobs(childJobs, parallelData);
             }
 
+        } catch (ApiUnavailableException e) {
+            logger.warn("Cursor API unavailable, keeping parallel job {} in state {}: {}", job.jobId(), job.status(), e.getMessage());
         } catch (Exception e) {
             logger.error("Error processing parallel workflow for job {}: {}", job.jobId(), e.getMessage(), e);
             updateJobStatusToError(job, "Error updating job status");
@@ -130,52 +138,87 @@ public class ParallelWorkflowHandler {
     }
 
     /**
-     * Create child jobs for each element in the result list.
+     * Create child jobs for each element in the result list. All child jobs and their prompts
+     * are written in a single batch, so a fan-out is either stored completely or not at all.
      *
      * @param parentJob the parent job
      * @param resultList the list of results to create child jobs for
      * @param parallelData the parallel workflow data
+     * @return the stored child jobs, empty if none were created
      */
-    private void createChildJobs(Job parentJob, List<Object> resultList, ParallelWorkflowData parallelData) {
+    private List<Job> createChildJobs(Job parentJob, List<Object> resultList, ParallelWorkflowData parallelData) {
         try {
             logger.info("Creating {} child jobs for parent job: {}", resultList.size(), parentJob.jobId());
 
             // Get the first sequence (currently only one sequence is supported per parallel)
             if (parallelData.getSequences().isEmpty()) {
                 logger.error("No sequences found in parallel workflow data");
-                return;
+                return List.of();
             }
 
             SequenceInfo sequenceInfo = parallelData.getSequences().get(0);
 
-            // For each element in the result list, create a child job
+            // For each element in the result list, prepare a child job and its prompts
+            List<Job> childJobs = new ArrayList<>();
+            List<Prompt> childPrompts = new ArrayList<>();
             for (int i = 0; i < resultList.size(); i++) {
                 Object element = resultList.get(i);
-                logger.info("Creating child job {} of {} with value: {}", i + 1, resultList.size(), element);
+                logger.debug("Preparing child job {} of {} with value: {}", i + 1, resultList.size(), element);
 
-                createSingleChildJob(parentJob, element, i, sequenceInfo, parallelData);
+                Job childJob = buildChildJob(parentJob, element, sequenceInfo, parallelData);
+                childJobs.add(childJob);
+                childPrompts.addAll(buildChildJobPrompts(childJob, sequenceInfo));
             }
 
-            logger.info("Successfully created {} child jobs for parent: {}", resultList.size(), parentJob.jobId());
+            jobRepository.saveAll(childJobs, childPrompts);
+            logger.info("Successfully created {} child jobs with {} prompts for parent: {}",
+                childJobs.size(), childPrompts.size(), parentJob.jobId());
+            return childJobs;
 
         } catch (Exception e) {
             logger.error("Error creating child jobs for parent {}: {}", parentJob.jobId(), e.getMessage(), e);
+            // Nothing was stored, so the parent must not look like a completed fan-out without children
+            updateJobStatusToError(parentJob, "Parent job " + parentJob.jobId() + " marked as FAILED because its child jobs could not be created");
+            return List.of();
         }
     }
 
     /**
-     * Create prompt records in database for a child job.
+     * Launch the agents of freshly created child jobs in parallel, instead of one per child on later
+     * polling cycles. A child whose launch is postponed or fails is handled by the child workflow
+     * on the next cycle, like any child without an agent.
+     *
+     * @param childJobs the stored child jobs
+     * @param parallelData the parallel workflow data
+     */
+    private void launchChildJobs(List<Job> childJobs, ParallelWorkflowData parallelData) {
+        if (childJobs.isEmpty()) {
+            return;
+        }
+        WorkflowData childWorkflowData = ChildWorkflowHandler.toChildWorkflowData(parallelData.getSequences().get(0));
+        if (childWorkflowData == null) {
+            logger.error("No prompts found in sequence, child jobs will not be launched");
+            return;
+        }
+        logger.info("Launching {} child job agents", childJobs.size());
+        agentLauncher.launchJobAgents(childJobs, childWorkflowData);
+    }
+
+    /**
+     * Build the prompt records for a child job.
      *
      * @param childJob the child job
      * @param sequenceInfo the sequence info containing prompts
+     * @return the prompts to store with the child job
      */
-    private void createChildJobPrompts(Job childJob, SequenceInfo sequenceInfo) throws Exception {
+    private List<Prompt> buildChildJobPrompts(Job childJob, SequenceInfo sequenceInfo) {
+        List<Prompt> prompts = new ArrayList<>();
         for (info.jab.churrera.workflow.PromptInfo promptInfo : sequenceInfo.getPrompts()) {
             // Create prompt record with original filename
             String promptId = UUID.randomUUID().toString();
             LocalDateTime now = LocalDateTime.now();
 
-            info.jab.churrera.cli.model.Prompt prompt = new info.jab.churrera.cli.model.Prompt(
+            Prompt prompt = new Prompt(
                 promptId,
                 childJob.jobId(),
                 promptInfo.getSrcFile(), // Use original filename
@@ -184,9 +227,10 @@ public class ParallelWorkflowHandler {
                 now
             );
 
-            jobRepository.savePrompt(prompt);
-            logger.info("Created prompt {} for child job: {}", promptId, childJob.jobId());
+            prompts.add(prompt);
+            logger.debug("Prepared prompt {} for child job: {}", promptId, childJob.jobId());
         }
+        return prompts;
     }
 
     /**
@@ -234,9 +278,13 @@ public class ParallelWorkflowHandler {
                 return new JobStatusCheckResult(false, updatedJob); // Defer extraction until completion
             } else if (currentStatus.isTerminal()) {
                 logger.error("Parent job {} reached terminal state: {}", updatedJob.jobId(), currentStatus);
+                cliAgent.releaseConversation(updatedJob.cursorAgentId());
                 return new JobStatusCheckResult(false, updatedJob);
             }
             return new JobStatusCheckResult(false, updatedJob);
+        } catch (ApiUnavailableException unavailable) {
+            logger.warn("Cursor API unavailable, keeping parent job {} in state {}: {}", job.jobId(), job.status(), unavailable.getMessage());
+            return new JobStatusCheckResult(false, job);
         } catch (Exception statusError) {
             logger.error("Error getting agent status for parent job {}: {}", job.jobId(), statusError.getMessage());
             updateJobStatusToError(job, "Error updating job status to FAILED");
@@ -262,66 +310,81 @@ public class ParallelWorkflowHandler {
     }
 
     /**
-     * Creates a single child job for an element in the result list.
+     * Builds a single child job for an element in the result list.
      *
      * @param parentJob the parent job
      * @param element the element to create a child job for
-     * @param index the index of the element
      * @param sequenceInfo the sequence info
      * @param parallelData the parallel workflow data
+     * @return the child job, not yet stored
      */
-    private void createSingleChildJob(Job parentJob, Object element, int index, SequenceInfo sequenceInfo, ParallelWorkflowData parallelData) {
-        try {
-            // Generate new job ID
-            String childJobId = UUID.randomUUID().toString();
-            LocalDateTime now = LocalDateTime.now();
-
-            // Store the bound value in the job's result field so it can be used during prompt processing
-            String boundValue = String.valueOf(element);
+    private Job buildChildJob(Job parentJob, Object element, SequenceInfo sequenceInfo, ParallelWorkflowData parallelData) {
+        // Generate new job ID
+        String childJobId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+
+        // Store the bound value in the job's result field so it can be used during prompt processing
+        String boundValue = bindValue(element, sequenceInfo);
+
+        // Use parent workflow path - no need to create physical child workflow files
+        // Child jobs will be identified by parentJobId and will extract sequence info from parent workflow
+        String childWorkflowPath = parentJob.path();
+
+        // Inherit timeout and fallback from parent parallel workflow
+        Long childTimeoutMillis = sequenceInfo.getTimeoutMillis();
+        if (childTimeoutMillis == null) {
+            childTimeoutMillis = parallelData.getTimeoutMillis();
+        }
+        String childFallbackSrc = sequenceInfo.getFallbackSrc();
+        if (childFallbackSrc == null) {
+            childFallbackSrc = parallelData.getFallbackSrc();
+        }
 
-            // Use parent workflow path - no need to create physical child workflow files
-            // Child jobs will be identified by parentJobId and will extract sequence info from parent workflow
-            String childWorkflowPath = parentJob.path();
+        // Create child job with parent reference and bound value
+        Job childJob = new Job(
+            childJobId,
+            childWorkflowPath, // Reuse parent workflow path
+            null, // cursorAgentId starts as null
+            sequenceInfo.getModel() != null ? sequenceInfo.getModel() : parentJob.model(),
+            sequenceInfo.getRepository() != null ? sequenceInfo.getRepository() : parentJob.repository(),
+            AgentState.creating(),
+            now,
+            now,
+            parentJob.jobId(), // Set parent job ID
+            boundValue, // Store the bound value from parent result
+            info.jab.churrera.workflow.WorkflowType.SEQUENCE, // Child jobs are always SEQUENCE type
+            childTimeoutMillis, // Inherit timeout from parent or sequence
+            null, // workflowStartTime is null initially, set when launched if timeout is set
+            childFallbackSrc, // Inherit fallback from parent or sequence
+            null // fallbackExecuted is null initially (false when not executed)
+        );
+
+        logger.debug("Prepared child job: {} for parent: {} with bound value: {}", childJobId, parentJob.jobId(), boundValue);
+        return childJob;
+    }
 
-            // Inherit timeout and fallback from parent parallel workflow
-            Long childTimeoutMillis = sequenceInfo.getTimeoutMillis();
-            if (childTimeoutMillis == null) {
-                childTimeoutMillis = parallelData.getTimeoutMillis();
+    /**
+     * Selects the value a child job binds from its element, with the bindResultExp compiled when the
+     * workflow was parsed. A child job stores a single bound value, so the first prompt of the sequence
+     * with a bindResultExp selects it; without one, the whole element is bound.
+     *
+     * @param element the element of the parent result
+     * @param sequenceInfo the sequence info
+     * @return the bound value
+     */
+    private String bindValue(Object element, SequenceInfo sequenceInfo) {
+        for (info.jab.churrera.workflow.PromptInfo promptInfo : sequenceInfo.getPrompts()) {
+            if (!promptInfo.hasBindResultExp()) {
+                continue;
             }
-            String childFallbackSrc = sequenceInfo.getFallbackSrc();
-            if (childFallbackSrc == null) {
-                childFallbackSrc = parallelData.getFallbackSrc();
+            CompiledExpression expression = promptInfo.getBindExpression();
+            if (expression != null) {
+                return expression.evaluate(element);
             }
-
-            // Create child job with parent reference and bound value
-            Job childJob = new Job(
-                childJobId,
-                childWorkflowPath, // Reuse parent workflow path
-                null, // cursorAgentId starts as null
-                sequenceInfo.getModel() != null ? sequenceInfo.getModel() : parentJob.model(),
-                sequenceInfo.getRepository() != null ? sequenceInfo.getRepository() : parentJob.repository(),
-                AgentState.creating(),
-                now,
-                now,
-                parentJob.jobId(), // Set parent job ID
-                boundValue, // Store the bound value from parent result
-                info.jab.churrera.workflow.WorkflowType.SEQUENCE, // Child jobs are always SEQUENCE type
-                childTimeoutMillis, // Inherit timeout from parent or sequence
-                null, // workflowStartTime is null initially, set when launched if timeout is set
-                childFallbackSrc, // Inherit fallback from parent or sequence
-                null // fallbackExecuted is null initially (false when not executed)
-            );
-
-            // Save child job
-            jobRepository.save(childJob);
-            logger.info("Created child job: {} for parent: {} with bound value: {}", childJobId, parentJob.jobId(), boundValue);
-
-            // Create prompts for child job
-            createChildJobPrompts(childJob, sequenceInfo);
-
-        } catch (Exception e) {
-            logger.error("Error creating child job {} for parent {}: {}", index, parentJob.jobId(), e.getMessage(), e);
+            logger.warn("Unsupported bindResultExp '{}' in prompt {}, binding the whole element",
+                promptInfo.getBindResultExp(), promptInfo.getSrcFile());
+            break;
         }
+        return String.valueOf(element);
     }
 }
-
@@ -1,6 +1,6 @@
 package info.jab.churrera.cli.service.handler;
 
-import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.Prompt;
 import info.jab.churrera.cli.model.AgentState;
@@ -18,14 +18,14 @@ public class SequenceWorkflowHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(SequenceWorkflowHandler.class);
 
-    private final JobRepository jobRepository;
+    private final JobStore jobRepository;
     private final CLIAgent cliAgent;
     private final AgentLauncher agentLauncher;
     private final PromptProcessor promptProcessor;
     private final TimeoutManager timeoutManager;
     private final FallbackExecutor fallbackExecutor;
 
-    public SequenceWorkflowHandler(JobRepository jobRepository, CLIAgent cliAgent,
+    public SequenceWorkflowHandler(JobStore jobRepository, CLIAgent cliAgent,
                                    AgentLauncher agentLauncher, PromptProcessor promptProcessor,
                                    TimeoutManager timeoutManager, FallbackExecutor fallbackExecutor) {
         this.jobRepository = jobRepository;
@@ -132,7 +132,10 @@ public class SequenceWorkflowHandler {
                 promptProcessor.processRemainingPrompts(job, prompts, workflowData);
             } else if (currentStatus.isTerminal()) {
                 logger.info("Job {} reached terminal state: {}", job.jobId(), currentStatus);
+                cliAgent.releaseConversation(job.cursorAgentId());
             }
+        } catch (ApiUnavailableException unavailable) {
+            logger.warn("Cursor API unavailable, keeping job {} in state {}: {}", job.jobId(), job.status(), unavailable.getMessage());
         } catch (Exception statusError) {
             logger.error("Error getting agent status for job {}: {}", job.jobId(), statusError.getMessage());
             // Mark job as failed if we can't get status
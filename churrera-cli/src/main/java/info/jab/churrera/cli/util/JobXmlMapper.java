@@ -6,18 +6,47 @@ import info.jab.churrera.workflow.WorkflowType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Utility class for mapping Job entities to and from XML.
+ * Parsing is done in a single pass by {@code XmlRecordReader}.
  */
 public final class JobXmlMapper {
 
     private static final Logger logger = LoggerFactory.getLogger(JobXmlMapper.class);
 
+    private static final String RECORD = "job";
+    private static final String NULL = "null";
+    private static final String[] FIELDS = {
+            "jobId", "path", "cursorAgentId", "model", "repository", "status", "createdAt", "lastUpdate",
+            "parentJobId", "result", "type", "timeoutMillis", "workflowStartTime", "fallbackSrc", "fallbackExecuted"
+    };
+    private static final int JOB_ID = 0;
+    private static final int PATH = 1;
+    private static final int CURSOR_AGENT_ID = 2;
+    private static final int MODEL = 3;
+    private static final int REPOSITORY = 4;
+    private static final int STATUS = 5;
+    private static final int CREATED_AT = 6;
+    private static final int LAST_UPDATE = 7;
+    private static final int PARENT_JOB_ID = 8;
+    private static final int RESULT = 9;
+    private static final int TYPE = 10;
+    private static final int TIMEOUT_MILLIS = 11;
+    private static final int WORKFLOW_START_TIME = 12;
+    private static final int FALLBACK_SRC = 13;
+    private static final int FALLBACK_EXECUTED = 14;
+
     private JobXmlMapper() {
         // Utility class - prevent instantiation
     }
@@ -30,39 +59,38 @@ public final class JobXmlMapper {
      * @return XML string representation of the job
      */
     public static String toXml(Job job, DateTimeFormatter formatter) {
-        return String.format(
-                "<job>" +
-                        "<jobId>%s</jobId>" +
-                        "<path>%s</path>" +
-                        "<cursorAgentId>%s</cursorAgentId>" +
-                        "<model>%s</model>" +
-                        "<repository>%s</repository>" +
-                        "<status>%s</status>" +
-                        "<createdAt>%s</createdAt>" +
-                        "<lastUpdate>%s</lastUpdate>" +
-                        "<parentJobId>%s</parentJobId>" +
-                        "<result>%s</result>" +
-                        "<type>%s</type>" +
-                        "<timeoutMillis>%s</timeoutMillis>" +
-                        "<workflowStartTime>%s</workflowStartTime>" +
-                        "<fallbackSrc>%s</fallbackSrc>" +
-                        "<fallbackExecuted>%s</fallbackExecuted>" +
-                        "</job>",
-                XmlUtils.escapeXml(job.jobId()),
-                XmlUtils.escapeXml(job.path()),
-                job.cursorAgentId() != null ? XmlUtils.escapeXml(job.cursorAgentId()) : "null",
-                XmlUtils.escapeXml(job.model()),
-                XmlUtils.escapeXml(job.repository()),
-                XmlUtils.escapeXml(job.status().toString()),
-                job.createdAt().format(formatter),
-                job.lastUpdate().format(formatter),
-                job.parentJobId() != null ? XmlUtils.escapeXml(job.parentJobId()) : "null",
-                job.result() != null ? XmlUtils.escapeXml(job.result()) : "null",
-                job.type() != null ? job.type().toString() : "null",
-                job.timeoutMillis() != null ? String.valueOf(job.timeoutMillis()) : "null",
-                job.workflowStartTime() != null ? job.workflowStartTime().format(formatter) : "null",
-                job.fallbackSrc() != null ? XmlUtils.escapeXml(job.fallbackSrc()) : "null",
-                job.fallbackExecuted() != null ? String.valueOf(job.fallbackExecuted()) : "null");
+        StringBuilder xml = new StringBuilder(512);
+        appendXml(job, formatter, xml);
+        return xml.toString();
+    }
+
+    /**
+     * Appends the XML representation of a Job to the given builder.
+     *
+     * @param job the job to convert
+     * @param formatter the date-time formatter to use
+     * @param xml the builder to append to
+     */
+    public static void appendXml(Job job, DateTimeFormatter formatter, StringBuilder xml) {
+        xml.append("<job>");
+        XmlUtils.appendElement(xml, "jobId", job.jobId());
+        XmlUtils.appendElement(xml, "path", job.path());
+        XmlUtils.appendElement(xml, "cursorAgentId", orNull(job.cursorAgentId()));
+        XmlUtils.appendElement(xml, "model", job.model());
+        XmlUtils.appendElement(xml, "repository", job.repository());
+        XmlUtils.appendElement(xml, "status", job.status().toString());
+        XmlUtils.appendElement(xml, "createdAt", job.createdAt().format(formatter));
+        XmlUtils.appendElement(xml, "lastUpdate", job.lastUpdate().format(formatter));
+        XmlUtils.appendElement(xml, "parentJobId", orNull(job.parentJobId()));
+        XmlUtils.appendElement(xml, "result", orNull(job.result()));
+        XmlUtils.appendElement(xml, "type", job.type() != null ? job.type().toString() : NULL);
+        XmlUtils.appendElement(xml, "timeoutMillis", job.timeoutMillis() != null ? String.valueOf(job.timeoutMillis()) : NULL);
+        XmlUtils.appendElement(xml, "workflowStartTime",
+                job.workflowStartTime() != null ? job.workflowStartTime().format(formatter) : NULL);
+        XmlUtils.appendElement(xml, "fallbackSrc", orNull(job.fallbackSrc()));
+        XmlUtils.appendElement(xml, "fallbackExecuted",
+                job.fallbackExecuted() != null ? String.valueOf(job.fallbackExecuted()) : NULL);
+        xml.append("</job>");
     }
 
     /**
@@ -73,30 +101,15 @@ public final class JobXmlMapper {
      * @return the parsed Job
      */
     public static Job fromXml(String xml, DateTimeFormatter formatter) {
-        String jobId = XmlUtils.extractXmlValue(xml, "jobId");
-        String path = XmlUtils.extractXmlValue(xml, "path");
-        String cursorAgentId = XmlUtils.extractXmlValue(xml, "cursorAgentId");
-        if ("null".equals(cursorAgentId)) {
-            cursorAgentId = null;
+        try (XmlRecordReader reader = new XmlRecordReader(new StringReader(xml), RECORD, FIELDS)) {
+            String[] values = new String[FIELDS.length];
+            if (!reader.next(values)) {
+                throw new IllegalArgumentException("Start tag not found: <" + RECORD + ">");
+            }
+            return fromValues(values, formatter);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading job XML", e);
         }
-        String model = XmlUtils.extractXmlValue(xml, "model");
-        String repository = XmlUtils.extractXmlValue(xml, "repository");
-        String statusStr = XmlUtils.extractXmlValue(xml, "status");
-        LocalDateTime createdAt = LocalDateTime.parse(XmlUtils.extractXmlValue(xml, "createdAt"), formatter);
-        LocalDateTime lastUpdate = LocalDateTime.parse(XmlUtils.extractXmlValue(xml, "lastUpdate"), formatter);
-
-        // Parse new fields with null handling
-        String parentJobId = parseNullableString(xml, "parentJobId");
-        String result = parseNullableString(xml, "result");
-        WorkflowType type = parseWorkflowType(xml, jobId);
-        AgentState status = AgentState.of(statusStr);
-        Long timeoutMillis = parseTimeoutMillis(xml, jobId);
-        LocalDateTime workflowStartTime = parseWorkflowStartTime(xml, formatter, jobId);
-        String fallbackSrc = parseNullableString(xml, "fallbackSrc");
-        Boolean fallbackExecuted = parseFallbackExecuted(xml, jobId);
-
-        return new Job(jobId, path, cursorAgentId, model, repository, status, createdAt, lastUpdate, parentJobId,
-                result, type, timeoutMillis, workflowStartTime, fallbackSrc, fallbackExecuted);
     }
 
     /**
@@ -107,49 +120,67 @@ public final class JobXmlMapper {
      * @return list of parsed Jobs
      */
     public static List<Job> fromDocument(String documentXml, DateTimeFormatter formatter) {
-        List<Job> jobs = new ArrayList<>();
-
-        // Find all job elements in the document
-        String jobStartTag = "<job>";
-        String jobEndTag = "</job>";
-
-        int startIndex = 0;
-        boolean continueParsing = true;
-        while (continueParsing) {
-            int jobStart = documentXml.indexOf(jobStartTag, startIndex);
-            if (jobStart == -1) {
-                continueParsing = false;
-            } else {
-                int jobEnd = documentXml.indexOf(jobEndTag, jobStart);
-                if (jobEnd == -1) {
-                    continueParsing = false;
-                } else {
-                    // Extract the job XML
-                    String jobXml = documentXml.substring(jobStart, jobEnd + jobEndTag.length());
-
-                    try {
-                        jobs.add(fromXml(jobXml, formatter));
-                    } catch (Exception e) {
-                        logger.error("Error parsing individual job", e);
-                        logger.debug("Job XML: {}", jobXml);
-                    }
-
-                    startIndex = jobEnd + jobEndTag.length();
-                }
-            }
+        try (Stream<Job> jobs = stream(new StringReader(documentXml), formatter)) {
+            return jobs.collect(Collectors.toCollection(ArrayList::new));
         }
+    }
+
+    /**
+     * Streams the Jobs of an XML document lazily, reading the input once. Malformed jobs are
+     * logged and skipped. Closing the stream closes the reader.
+     *
+     * @param documentReader reader over job elements, with or without an enclosing root
+     * @param formatter the date-time formatter to use
+     * @return lazy stream of parsed Jobs
+     */
+    public static Stream<Job> stream(Reader documentReader, DateTimeFormatter formatter) {
+        return new XmlRecordReader(documentReader, RECORD, FIELDS).stream(values -> fromValues(values, formatter));
+    }
+
+    private static Job fromValues(String[] values, DateTimeFormatter formatter) {
+        String jobId = required(values, JOB_ID);
+        String path = required(values, PATH);
+        String cursorAgentId = required(values, CURSOR_AGENT_ID);
+        if (NULL.equals(cursorAgentId)) {
+            cursorAgentId = null;
+        }
+        String model = required(values, MODEL);
+        String repository = required(values, REPOSITORY);
+        AgentState status = AgentState.of(required(values, STATUS));
+        LocalDateTime createdAt = LocalDateTime.parse(required(values, CREATED_AT), formatter);
+        LocalDateTime lastUpdate = LocalDateTime.parse(required(values, LAST_UPDATE), formatter);
+
+        // Parse new fields with null handling
+        String parentJobId = parseNullableString(values[PARENT_JOB_ID]);
+        String result = parseNullableString(values[RESULT]);
+        WorkflowType type = parseWorkflowType(values[TYPE], jobId);
+        Long timeoutMillis = parseTimeoutMillis(values[TIMEOUT_MILLIS], jobId);
+        LocalDateTime workflowStartTime = parseWorkflowStartTime(values[WORKFLOW_START_TIME], formatter, jobId);
+        String fallbackSrc = parseNullableString(values[FALLBACK_SRC]);
+        Boolean fallbackExecuted = parseFallbackExecuted(values[FALLBACK_EXECUTED], jobId);
+
+        return new Job(jobId, path, cursorAgentId, model, repository, status, createdAt, lastUpdate, parentJobId,
+                result, type, timeoutMillis, workflowStartTime, fallbackSrc, fallbackExecuted);
+    }
+
+    private static String required(String[] values, int field) {
+        String value = values[field];
+        if (value == null) {
+            throw new IllegalArgumentException("Start tag not found: <" + FIELDS[field] + ">");
+        }
+        return value;
+    }
 
-        return jobs;
+    private static String orNull(String value) {
+        return value != null ? value : NULL;
     }
 
-    private static String parseNullableString(String xml, String tagName) {
-        String value = XmlUtils.extractXmlValueOptional(xml, tagName);
-        return "null".equals(value) ? null : value;
+    private static String parseNullableString(String value) {
+        return NULL.equals(value) ? null : value;
     }
 
-    private static WorkflowType parseWorkflowType(String xml, String jobId) {
-        String typeStr = XmlUtils.extractXmlValueOptional(xml, "type");
-        if (typeStr == null || "null".equals(typeStr)) {
+    private static WorkflowType parseWorkflowType(String typeStr, String jobId) {
+        if (typeStr == null || NULL.equals(typeStr)) {
             return null;
         }
         try {
@@ -160,9 +191,8 @@ public final class JobXmlMapper {
         }
     }
 
-    private static Long parseTimeoutMillis(String xml, String jobId) {
-        String timeoutMillisStr = XmlUtils.extractXmlValueOptional(xml, "timeoutMillis");
-        if (timeoutMillisStr == null || "null".equals(timeoutMillisStr)) {
+    private static Long parseTimeoutMillis(String timeoutMillisStr, String jobId) {
+        if (timeoutMillisStr == null || NULL.equals(timeoutMillisStr)) {
             return null;
         }
         try {
@@ -173,9 +203,8 @@ public final class JobXmlMapper {
         }
     }
 
-    private static LocalDateTime parseWorkflowStartTime(String xml, DateTimeFormatter formatter, String jobId) {
-        String workflowStartTimeStr = XmlUtils.extractXmlValueOptional(xml, "workflowStartTime");
-        if (workflowStartTimeStr == null || "null".equals(workflowStartTimeStr)) {
+    private static LocalDateTime parseWorkflowStartTime(String workflowStartTimeStr, DateTimeFormatter formatter, String jobId) {
+        if (workflowStartTimeStr == null || NULL.equals(workflowStartTimeStr)) {
             return null;
         }
         try {
@@ -186,9 +215,8 @@ public final class JobXmlMapper {
         }
     }
 
-    private static Boolean parseFallbackExecuted(String xml, String jobId) {
-        String fallbackExecutedStr = XmlUtils.extractXmlValueOptional(xml, "fallbackExecuted");
-        if (fallbackExecutedStr == null || "null".equals(fallbackExecutedStr)) {
+    private static Boolean parseFallbackExecuted(String fallbackExecutedStr, String jobId) {
+        if (fallbackExecutedStr == null || NULL.equals(fallbackExecutedStr)) {
             return Boolean.FALSE;
         }
         try {
@@ -1,20 +1,32 @@
 package info.jab.churrera.cli.util;
 
 import info.jab.churrera.cli.model.Prompt;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Utility class for mapping Prompt entities to and from XML.
+ * Parsing is done in a single pass by {@code XmlRecordReader}.
  */
 public final class PromptXmlMapper {
 
-    private static final Logger logger = LoggerFactory.getLogger(PromptXmlMapper.class);
+    private static final String RECORD = "prompt";
+    private static final String[] FIELDS = {"promptId", "jobId", "pmlFile", "status", "createdAt", "lastUpdate"};
+    private static final int PROMPT_ID = 0;
+    private static final int JOB_ID = 1;
+    private static final int PML_FILE = 2;
+    private static final int STATUS = 3;
+    private static final int CREATED_AT = 4;
+    private static final int LAST_UPDATE = 5;
 
     private PromptXmlMapper() {
         // Utility class - prevent instantiation
@@ -28,21 +40,27 @@ public final class PromptXmlMapper {
      * @return XML string representation of the prompt
      */
     public static String toXml(Prompt prompt, DateTimeFormatter formatter) {
-        return String.format(
-                "<prompt>" +
-                        "<promptId>%s</promptId>" +
-                        "<jobId>%s</jobId>" +
-                        "<pmlFile>%s</pmlFile>" +
-                        "<status>%s</status>" +
-                        "<createdAt>%s</createdAt>" +
-                        "<lastUpdate>%s</lastUpdate>" +
-                        "</prompt>",
-                XmlUtils.escapeXml(prompt.promptId()),
-                XmlUtils.escapeXml(prompt.jobId()),
-                XmlUtils.escapeXml(prompt.pmlFile()),
-                XmlUtils.escapeXml(prompt.status()),
-                prompt.createdAt().format(formatter),
-                prompt.lastUpdate().format(formatter));
+        StringBuilder xml = new StringBuilder(256);
+        appendXml(prompt, formatter, xml);
+        return xml.toString();
+    }
+
+    /**
+     * Appends the XML representation of a Prompt to the given builder.
+     *
+     * @param prompt the prompt to convert
+     * @param formatter the date-time formatter to use
+     * @param xml the builder to append to
+     */
+    public static void appendXml(Prompt prompt, DateTimeFormatter formatter, StringBuilder xml) {
+        xml.append("<prompt>");
+        XmlUtils.appendElement(xml, "promptId", prompt.promptId());
+        XmlUtils.appendElement(xml, "jobId", prompt.jobId());
+        XmlUtils.appendElement(xml, "pmlFile", prompt.pmlFile());
+        XmlUtils.appendElement(xml, "status", prompt.status());
+        XmlUtils.appendElement(xml, "createdAt", prompt.createdAt().format(formatter));
+        XmlUtils.appendElement(xml, "lastUpdate", prompt.lastUpdate().format(formatter));
+        xml.append("</prompt>");
     }
 
     /**
@@ -53,14 +71,15 @@ public final class PromptXmlMapper {
      * @return the parsed Prompt
      */
     public static Prompt fromXml(String xml, DateTimeFormatter formatter) {
-        String promptId = XmlUtils.extractXmlValue(xml, "promptId");
-        String jobId = XmlUtils.extractXmlValue(xml, "jobId");
-        String pmlFile = XmlUtils.extractXmlValue(xml, "pmlFile");
-        String status = XmlUtils.extractXmlValue(xml, "status");
-        LocalDateTime createdAt = LocalDateTime.parse(XmlUtils.extractXmlValue(xml, "createdAt"), formatter);
-        LocalDateTime lastUpdate = LocalDateTime.parse(XmlUtils.extractXmlValue(xml, "lastUpdate"), formatter);
-
-        return new Prompt(promptId, jobId, pmlFile, status, createdAt, lastUpdate);
+        try (XmlRecordReader reader = new XmlRecordReader(new StringReader(xml), RECORD, FIELDS)) {
+            String[] values = new String[FIELDS.length];
+            if (!reader.next(values)) {
+                throw new IllegalArgumentException("Start tag not found: <" + RECORD + ">");
+            }
+            return fromValues(values, formatter);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading prompt XML", e);
+        }
     }
 
     /**
@@ -71,37 +90,39 @@ public final class PromptXmlMapper {
      * @return list of parsed Prompts
      */
     public static List<Prompt> fromDocument(String documentXml, DateTimeFormatter formatter) {
-        List<Prompt> prompts = new ArrayList<>();
+        try (Stream<Prompt> prompts = stream(new StringReader(documentXml), formatter)) {
+            return prompts.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
 
-        String promptStartTag = "<prompt>";
-        String promptEndTag = "</prompt>";
+    /**
+     * Streams the Prompts of an XML document lazily, reading the input once. Malformed prompts
+     * are logged and skipped. Closing the stream closes the reader.
+     *
+     * @param documentReader reader over prompt elements, with or without an enclosing root
+     * @param formatter the date-time formatter to use
+     * @return lazy stream of parsed Prompts
+     */
+    public static Stream<Prompt> stream(Reader documentReader, DateTimeFormatter formatter) {
+        return new XmlRecordReader(documentReader, RECORD, FIELDS).stream(values -> fromValues(values, formatter));
+    }
 
-        int startIndex = 0;
-        boolean continueParsing = true;
-        while (continueParsing) {
-            int promptStart = documentXml.indexOf(promptStartTag, startIndex);
-            if (promptStart == -1) {
-                continueParsing = false;
-            } else {
-                int promptEnd = documentXml.indexOf(promptEndTag, promptStart);
-                if (promptEnd == -1) {
-                    continueParsing = false;
-                } else {
-                    String promptXml = documentXml.substring(promptStart, promptEnd + promptEndTag.length());
+    private static Prompt fromValues(String[] values, DateTimeFormatter formatter) {
+        String promptId = required(values, PROMPT_ID);
+        String jobId = required(values, JOB_ID);
+        String pmlFile = required(values, PML_FILE);
+        String status = required(values, STATUS);
+        LocalDateTime createdAt = LocalDateTime.parse(required(values, CREATED_AT), formatter);
+        LocalDateTime lastUpdate = LocalDateTime.parse(required(values, LAST_UPDATE), formatter);
 
-                    try {
-                        prompts.add(fromXml(promptXml, formatter));
-                    } catch (Exception e) {
-                        logger.error("Error parsing individual prompt", e);
-                        logger.debug("Prompt XML: {}", promptXml);
-                    }
+        return new Prompt(promptId, jobId, pmlFile, status, createdAt, lastUpdate);
+    }
 
-                    startIndex = promptEnd + promptEndTag.length();
-                }
-            }
+    private static String required(String[] values, int field) {
+        String value = values[field];
+        if (value == null) {
+            throw new IllegalArgumentException("Start tag not found: <" + FIELDS[field] + ">");
         }
-
-        return prompts;
+        return value;
     }
 }
-
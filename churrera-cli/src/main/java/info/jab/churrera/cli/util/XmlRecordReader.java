@@ -0,0 +1,331 @@
+package info.jab.churrera.cli.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Single-pass reader for flat XML records such as {@code <job>} and {@code <prompt>}.
+ * <p>
+ * Every character is read once through a fixed buffer; entities are decoded while the text is
+ * read. The input does not need to be a well-formed document: records may follow each other
+ * without a root element, as returned by BaseX queries, and a malformed record is skipped up to
+ * its end tag so the following records can still be read. Only the configured field elements
+ * are kept; anything else inside a record is ignored.
+ */
+final class XmlRecordReader implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(XmlRecordReader.class);
+
+    private static final int EOF = -1;
+    private static final int START_TAG = 0;
+    private static final int END_TAG = 1;
+    private static final int EMPTY_TAG = 2;
+    private static final int OTHER_MARKUP = 3;
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    private final Reader reader;
+    private final String recordElement;
+    private final String[] fieldNames;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder tag = new StringBuilder(32);
+    private final StringBuilder text = new StringBuilder(256);
+    private final StringBuilder entity = new StringBuilder(MAX_ENTITY_LENGTH);
+    private int position;
+    private int limit;
+
+    /**
+     * @param reader source of the XML text
+     * @param recordElement name of the record element, e.g. {@code job}
+     * @param fieldNames names of the child elements to collect, in the order of the value array
+     */
+    XmlRecordReader(Reader reader, String recordElement, String[] fieldNames) {
+        this.reader = reader;
+        this.recordElement = recordElement;
+        this.fieldNames = fieldNames;
+    }
+
+    /**
+     * Read the next record into {@code values}, indexed like the field names. Fields that are
+     * absent are left {@code null}.
+     *
+     * @return false when there are no more complete records
+     * @throws IllegalArgumentException when the record is malformed; the reader is positioned
+     *         after it so reading can continue
+     */
+    boolean next(String[] values) throws IOException {
+        Arrays.fill(values, null);
+        if (!skipToRecordStart()) {
+            return false;
+        }
+        while (true) {
+            if (skipText() == EOF) {
+                return false;
+            }
+            int kind = readTag();
+            if (kind == EOF) {
+                return false;
+            }
+            if (kind == END_TAG && recordElement.contentEquals(tag)) {
+                return true;
+            }
+            if (kind == END_TAG) {
+                throw malformed("unexpected end tag </" + tag + ">");
+            }
+            if (kind != START_TAG) {
+                if (kind == EMPTY_TAG) {
+                    storeEmpty(values);
+                }
+                continue;
+            }
+
+            int field = fieldIndex();
+            String element = field >= 0 ? fieldNames[field] : tag.toString();
+            if (readText() == EOF) {
+                return false;
+            }
+            kind = readTag();
+            if (kind == EOF) {
+                return false;
+            }
+            if (kind != END_TAG || !element.contentEquals(tag)) {
+                boolean recordClosed = kind == END_TAG && recordElement.contentEquals(tag);
+                throw malformed(recordClosed, "element <" + element + "> is not closed");
+            }
+            if (field >= 0) {
+                values[field] = text.toString();
+            }
+        }
+    }
+
+    /**
+     * Stream the records lazily through the given mapper. Records that are malformed or that the
+     * mapper rejects are logged and skipped. The value array passed to the mapper is reused.
+     */
+    <T> Stream<T> stream(Function<String[], T> mapper) {
+        String[] values = new String[fieldNames.length];
+        Spliterator<T> records = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                T record = null;
+                while (record == null) {
+                    try {
+                        if (!next(values)) {
+                            return false;
+                        }
+                        record = mapper.apply(values);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Error reading <" + recordElement + "> records", e);
+                    } catch (RuntimeException e) {
+                        logger.error("Error parsing individual {}", recordElement, e);
+                    }
+                }
+                action.accept(record);
+                return true;
+            }
+        };
+        return StreamSupport.stream(records, false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            logger.debug("Error closing XML reader", e);
+        }
+    }
+
+    private boolean skipToRecordStart() throws IOException {
+        while (skipText() != EOF) {
+            int kind = readTag();
+            if (kind == EOF) {
+                return false;
+            }
+            if (kind == START_TAG && recordElement.contentEquals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skip to the end tag of the current record, then report it as malformed.
+     */
+    private IllegalArgumentException malformed(String reason) throws IOException {
+        return malformed(false, reason);
+    }
+
+    private IllegalArgumentException malformed(boolean recordClosed, String reason) throws IOException {
+        if (!recordClosed) {
+            while (skipText() != EOF) {
+                int kind = readTag();
+                if (kind == EOF || (kind == END_TAG && recordElement.contentEquals(tag))) {
+                    break;
+                }
+            }
+        }
+        return new IllegalArgumentException("Malformed <" + recordElement + "> record: " + reason);
+    }
+
+    private void storeEmpty(String[] values) {
+        int field = fieldIndex();
+        if (field >= 0) {
+            values[field] = "";
+        }
+    }
+
+    private int fieldIndex() {
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (fieldNames[i].contentEquals(tag)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skip character data up to and including the next {@code <}.
+     */
+    private int skipText() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != EOF && c != '<');
+        return c;
+    }
+
+    /**
+     * Read element text up to and including the next {@code <}, decoding entities on the way.
+     */
+    private int readText() throws IOException {
+        text.setLength(0);
+        int c;
+        while ((c = read()) != EOF && c != '<') {
+            if (c == '&') {
+                readEntity();
+            } else {
+                text.append((char) c);
+            }
+        }
+        return c;
+    }
+
+    private void readEntity() throws IOException {
+        entity.setLength(0);
+        int c;
+        while ((c = read()) != EOF && c != ';') {
+            if (c == '<' || c == '&' || entity.length() == MAX_ENTITY_LENGTH) {
+                unread();
+                text.append('&').append(entity);
+                return;
+            }
+            entity.append((char) c);
+        }
+        if (c == EOF) {
+            text.append('&').append(entity);
+            return;
+        }
+        int decoded = decodeEntity();
+        if (decoded == EOF) {
+            // Unknown entities are kept as written
+            text.append('&').append(entity).append(';');
+        } else {
+            text.appendCodePoint(decoded);
+        }
+    }
+
+    private int decodeEntity() {
+        if (entity.isEmpty()) {
+            return EOF;
+        }
+        if (entity.charAt(0) == '#') {
+            try {
+                boolean hex = entity.length() > 1 && (entity.charAt(1) == 'x' || entity.charAt(1) == 'X');
+                int codePoint = hex ? Integer.parseInt(entity, 2, entity.length(), 16)
+                        : Integer.parseInt(entity, 1, entity.length(), 10);
+                return Character.isValidCodePoint(codePoint) ? codePoint : EOF;
+            } catch (NumberFormatException _) {
+                return EOF;
+            }
+        }
+        return switch (entity.toString()) {
+            case "amp" -> '&';
+            case "lt" -> '<';
+            case "gt" -> '>';
+            case "quot" -> '"';
+            case "apos" -> '\'';
+            default -> EOF;
+        };
+    }
+
+    /**
+     * Read a tag after its opening {@code <} up to and including {@code >}. The element name is
+     * left in {@link #tag}.
+     */
+    private int readTag() throws IOException {
+        tag.setLength(0);
+        int c = read();
+        if (c == EOF) {
+            return EOF;
+        }
+        if (c == '?' || c == '!') {
+            return skipMarkup();
+        }
+        int kind = START_TAG;
+        if (c == '/') {
+            kind = END_TAG;
+            c = read();
+        }
+        while (c != EOF && c != '>' && c != '/' && !Character.isWhitespace(c)) {
+            tag.append((char) c);
+            c = read();
+        }
+        int previous = c;
+        while (c != EOF && c != '>') {
+            previous = c;
+            c = read();
+        }
+        if (c == EOF) {
+            return EOF;
+        }
+        return previous == '/' && kind == START_TAG ? EMPTY_TAG : kind;
+    }
+
+    private int skipMarkup() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != EOF && c != '>');
+        return c == EOF ? EOF : OTHER_MARKUP;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            int count = reader.read(buffer, 0, buffer.length);
+            if (count <= 0) {
+                position = 0;
+                limit = 0;
+                return EOF;
+            }
+            position = 0;
+            limit = count;
+        }
+        return buffer[position++];
+    }
+
+    private void unread() {
+        position--;
+    }
+}
@@ -1,17 +1,38 @@
 package info.jab.churrera.cli.util;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * Utility class for general XML operations.
  * Provides methods for XML escaping and value extraction.
  */
 public final class XmlUtils {
 
+    // The predefined entities, used both to escape and to unescape
+    private static final Entity[] ENTITIES = {
+        new Entity('&', "&amp;"),
+        new Entity('<', "&lt;"),
+        new Entity('>', "&gt;"),
+        new Entity('"', "&quot;"),
+        new Entity('\'', "&apos;")
+    };
+    // Entity of each character below 128 that needs one, looked up while escaping
+    private static final String[] ENTITY_BY_CHARACTER = new String[128];
+
+    static {
+        for (Entity entity : ENTITIES) {
+            ENTITY_BY_CHARACTER[entity.character()] = entity.reference();
+        }
+    }
+
     private XmlUtils() {
         // Utility class - prevent instantiation
     }
 
     /**
      * Escapes special XML characters in a string.
+     * Text without special characters is returned as is.
      *
      * @param text the text to escape
      * @return the escaped text, or empty string if text is null
@@ -20,15 +41,61 @@ public final class XmlUtils {
         if (text == null) {
             return "";
         }
-        return text.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&apos;");
+        int first = indexOfEscapable(text);
+        if (first < 0) {
+            return text;
+        }
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        escaped.append(text, 0, first);
+        appendEscaped(text, first, escaped);
+        return escaped.toString();
+    }
+
+    /**
+     * Escapes special XML characters while appending to a builder.
+     *
+     * @param text the text to escape, nothing is appended if null
+     * @param out the builder to append to
+     * @return the builder
+     */
+    public static StringBuilder escapeXml(CharSequence text, StringBuilder out) {
+        if (text != null) {
+            appendEscaped(text, 0, out);
+        }
+        return out;
+    }
+
+    /**
+     * Escapes special XML characters while appending to an {@link Appendable}.
+     *
+     * @param text the text to escape, nothing is appended if null
+     * @param out the target to append to
+     * @return the target
+     * @throws IOException if the target fails to append
+     */
+    public static <A extends Appendable> A escapeXml(CharSequence text, A out) throws IOException {
+        if (text != null) {
+            escapeFrom(text, 0, out);
+        }
+        return out;
+    }
+
+    /**
+     * Appends an element whose text content is the escaped value.
+     *
+     * @param xml the builder to append to
+     * @param tagName the name of the element
+     * @param value the text content, or null for an empty element
+     */
+    public static void appendElement(StringBuilder xml, String tagName, String value) {
+        xml.append('<').append(tagName).append('>');
+        escapeXml(value, xml);
+        xml.append("</").append(tagName).append('>');
     }
 
     /**
      * Unescapes XML entities in a string.
+     * Text without entities is returned as is.
      *
      * @param text the text to unescape
      * @return the unescaped text
@@ -37,11 +104,103 @@ public final class XmlUtils {
         if (text == null) {
             return null;
         }
-        return text.replace("&apos;", "'")
-                .replace("&quot;", "\"")
-                .replace("&gt;", ">")
-                .replace("&lt;", "<")
-                .replace("&amp;", "&");
+        int first = text.indexOf('&');
+        if (first < 0) {
+            return text;
+        }
+        StringBuilder unescaped = new StringBuilder(text.length());
+        unescaped.append(text, 0, first);
+        unescapeFrom(text, first, unescaped);
+        return unescaped.toString();
+    }
+
+    /**
+     * Unescapes XML entities while appending to a builder.
+     *
+     * @param text the text to unescape, nothing is appended if null
+     * @param out the builder to append to
+     * @return the builder
+     */
+    public static StringBuilder unescapeXml(CharSequence text, StringBuilder out) {
+        if (text != null) {
+            unescapeFrom(text, 0, out);
+        }
+        return out;
+    }
+
+    private static int indexOfEscapable(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (entityFor(text.charAt(i)) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void appendEscaped(CharSequence text, int from, StringBuilder out) {
+        try {
+            escapeFrom(text, from, out);
+        } catch (IOException e) {
+            // A StringBuilder never fails to append
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escapeFrom(CharSequence text, int from, Appendable out) throws IOException {
+        int start = from;
+        for (int i = from; i < text.length(); i++) {
+            String entity = entityFor(text.charAt(i));
+            if (entity != null) {
+                out.append(text, start, i).append(entity);
+                start = i + 1;
+            }
+        }
+        out.append(text, start, text.length());
+    }
+
+    private static String entityFor(char c) {
+        return c < ENTITY_BY_CHARACTER.length ? ENTITY_BY_CHARACTER[c] : null;
+    }
+
+    /**
+     * Decodes the five predefined entities; any other {@code &} is copied unchanged.
+     */
+    private static void unescapeFrom(CharSequence text, int from, StringBuilder out) {
+        int start = from;
+        int i = from;
+        while (i < text.length()) {
+            if (text.charAt(i) != '&') {
+                i++;
+                continue;
+            }
+            Entity decoded = null;
+            for (Entity entity : ENTITIES) {
+                if (regionMatches(text, i, entity.reference())) {
+                    decoded = entity;
+                    break;
+                }
+            }
+            if (decoded == null) {
+                i++;
+            } else {
+                out.append(text, start, i).append(decoded.character());
+                i += decoded.reference().length();
+                start = i;
+            }
+        }
+        out.append(text, start, text.length());
+    }
+
+    private static boolean regionMatches(CharSequence text, int offset, String entity) {
+        if (offset + entity.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < entity.length(); i++) {
+            if (text.charAt(offset + i) != entity.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -90,5 +249,7 @@ public final class XmlUtils {
         String value = xml.substring(start, end);
         return unescapeXml(value);
     }
-}
 
+    private record Entity(char character, String reference) {
+    }
+}
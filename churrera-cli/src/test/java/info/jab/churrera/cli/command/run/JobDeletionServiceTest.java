@@ -8,6 +8,7 @@ import info.jab.churrera.workflow.WorkflowType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,6 +21,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -109,73 +111,65 @@ class JobDeletionServiceTest {
     }
 
     @Test
-    void shouldDeleteJobAndChildrenInOrder() {
-        JobDeletionService serviceSpy = spy(jobDeletionService);
-        Job parentJob = createJob(JOB_ID, null, AgentState.finished(), null);
-        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(parentJob));
-
-        doNothing().when(serviceSpy).deleteChildJobsRecursively(JOB_ID);
-        doNothing().when(serviceSpy).deleteJob(parentJob);
-
-        serviceSpy.deleteJobAndChildren(JOB_ID, "--delete-on-success-completion");
-
-        verify(serviceSpy).deleteChildJobsRecursively(JOB_ID);
-        verify(serviceSpy).deleteJob(parentJob);
+    void shouldDeleteAgentsBeforeCascadeDeletingTheJobTree() {
+        Job parentJob = createJob(JOB_ID, null, AgentState.finished(), "agent-parent");
+        Job child = createJob("child-1", JOB_ID, AgentState.finished(), "agent-child");
+        Job grandChild = createJob("grand-child", "child-1", AgentState.finished(), null);
+        when(jobRepository.findJobTree(JOB_ID)).thenReturn(List.of(parentJob, child, grandChild));
+
+        jobDeletionService.deleteJobAndChildren(JOB_ID, "--delete-on-success-completion");
+
+        // Agents are deleted in parallel, so only their order relative to the cascade delete is fixed
+        InOrder parentOrder = inOrder(cliAgent, jobRepository);
+        parentOrder.verify(cliAgent).deleteAgent("agent-parent");
+        parentOrder.verify(jobRepository).deleteJobCascade(JOB_ID);
+        InOrder childOrder = inOrder(cliAgent, jobRepository);
+        childOrder.verify(cliAgent).deleteAgent("agent-child");
+        childOrder.verify(jobRepository).deleteJobCascade(JOB_ID);
+        verify(cliAgent, times(2)).deleteAgent(any());
+        verify(jobRepository, never()).findJobsByParentId(any());
     }
 
     @Test
-    void shouldDeleteChildJobsRecursivelyDepthFirst() {
-        JobDeletionService serviceSpy = spy(jobDeletionService);
-        Job child1 = createJob("child-1", JOB_ID, AgentState.finished(), null);
-        Job child2 = createJob("child-2", JOB_ID, AgentState.finished(), null);
-        Job grandChild = createJob("grand-child", "child-1", AgentState.finished(), null);
+    void shouldSkipDeletionWhenJobTreeIsEmpty() {
+        when(jobRepository.findJobTree(JOB_ID)).thenReturn(List.of());
 
-        when(jobRepository.findJobsByParentId(JOB_ID)).thenReturn(List.of(child1, child2));
-        when(jobRepository.findJobsByParentId("child-1")).thenReturn(List.of(grandChild));
-        when(jobRepository.findJobsByParentId("child-2")).thenReturn(List.of());
-        when(jobRepository.findJobsByParentId("grand-child")).thenReturn(List.of());
+        jobDeletionService.deleteJobAndChildren(JOB_ID, "--delete-on-completion");
 
-        doNothing().when(serviceSpy).deleteJob(any());
-
-        serviceSpy.deleteChildJobsRecursively(JOB_ID);
-
-        verify(jobRepository, times(4)).findJobsByParentId(any());
-        verify(serviceSpy).deleteJob(grandChild);
-        verify(serviceSpy).deleteJob(child1);
-        verify(serviceSpy).deleteJob(child2);
+        verify(jobRepository, never()).deleteJobCascade(any());
+        verify(cliAgent, never()).deleteAgent(any());
     }
 
     @Test
     void shouldDeleteCursorAgentAndDatabaseEntries() {
         Job job = createJob(JOB_ID, null, AgentState.finished(), "cursor-agent-123");
+        when(jobRepository.findJobTree(JOB_ID)).thenReturn(List.of(job));
 
-        jobDeletionService.deleteJob(job);
+        jobDeletionService.deleteJobAndChildren(JOB_ID, "--delete-on-completion");
 
         verify(cliAgent).deleteAgent("cursor-agent-123");
-        verify(jobRepository).deletePromptsByJobId(JOB_ID);
-        verify(jobRepository).deleteById(JOB_ID);
+        verify(jobRepository).deleteJobCascade(JOB_ID);
     }
 
     @Test
     void shouldContinueDeletionWhenCursorAgentRemovalFails() {
         Job job = createJob(JOB_ID, null, AgentState.finished(), "cursor-agent-123");
+        Job child = createJob("child-1", JOB_ID, AgentState.finished(), "cursor-agent-456");
         doThrow(new RuntimeException("API error")).when(cliAgent).deleteAgent("cursor-agent-123");
 
-        jobDeletionService.deleteJob(job);
+        jobDeletionService.deleteAgents(List.of(job, child));
 
         verify(cliAgent).deleteAgent("cursor-agent-123");
-        verify(jobRepository).deletePromptsByJobId(JOB_ID);
-        verify(jobRepository).deleteById(JOB_ID);
+        verify(cliAgent).deleteAgent("cursor-agent-456");
     }
 
     @Test
     void shouldContinueWhenExceptionOccursDuringDeleteJobAndChildren() {
-        JobDeletionService serviceSpy = spy(jobDeletionService);
-        doThrow(new RuntimeException("boom")).when(serviceSpy).deleteChildJobsRecursively(JOB_ID);
+        when(jobRepository.findJobTree(JOB_ID)).thenThrow(new RuntimeException("boom"));
 
-        serviceSpy.deleteJobAndChildren(JOB_ID, "--delete-on-completion");
+        jobDeletionService.deleteJobAndChildren(JOB_ID, "--delete-on-completion");
 
-        verify(serviceSpy).deleteChildJobsRecursively(JOB_ID);
+        verify(jobRepository, never()).deleteJobCascade(any());
     }
 
     private Job createJob(String jobId, String parentJobId, AgentState state, String cursorAgentId) {
@@ -117,7 +117,7 @@ class JobDisplayServiceTest {
         );
 
         when(jobRepository.findById(parentId)).thenReturn(Optional.of(parentJob));
-        when(jobRepository.findAll()).thenReturn(List.of(parentJob, childJob));
+        when(jobRepository.findJobsByParentId(parentId)).thenReturn(List.of(childJob));
         when(jobRepository.findPromptsByJobId(parentId))
             .thenReturn(List.of(new Prompt("prompt-1", parentId, "prompt1.xml", "COMPLETED", createdAt, createdAt)));
         doThrow(new RuntimeException("boom")).when(jobRepository).findPromptsByJobId(childId);
@@ -4,7 +4,6 @@ import info.jab.churrera.cli.model.AgentState;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.repository.JobRepository;
 import info.jab.churrera.cli.service.CLIAgent;
-import info.jab.cursor.client.model.ConversationResponse;
 import info.jab.cursor.client.model.ConversationMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,7 +14,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 /**
@@ -47,7 +48,7 @@ class JobLogDisplayServiceTest {
         service.displayLogsForJob(job);
 
         // Then
-        verify(cliAgent, never()).getConversation(anyString());
+        verify(cliAgent, never()).streamConversation(anyString(), any());
     }
 
     @Test
@@ -58,47 +59,42 @@ class JobLogDisplayServiceTest {
 
         ConversationMessage msg1 = new ConversationMessage("msg1", "user", "message1");
         ConversationMessage msg2 = new ConversationMessage("msg2", "assistant", "message2");
-        List<ConversationMessage> messages = List.of(msg1, msg2);
-        ConversationResponse conversation = new ConversationResponse("conv-id", messages);
+        List<ConversationMessage> streamed = new ArrayList<>();
 
-        when(cliAgent.getConversation("cursor-agent-123")).thenReturn(conversation);
+        when(cliAgent.streamConversation(eq("cursor-agent-123"), any())).thenAnswer(invocation -> {
+            Consumer<ConversationMessage> consumer = invocation.getArgument(1);
+            Consumer<ConversationMessage> recording = consumer.andThen(streamed::add);
+            recording.accept(msg1);
+            recording.accept(msg2);
+            return 2;
+        });
 
         // When
         service.displayLogsForJob(job);
 
         // Then
-        verify(cliAgent).getConversation("cursor-agent-123");
-    }
-
-    @Test
-    void testDisplayLogsForJob_WithCursorAgentId_NullConversation() {
-        // Given
-        Job job = new Job("job-id", "/path", "cursor-agent-123", "model", "repo",
-            AgentState.running(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
-
-        when(cliAgent.getConversation("cursor-agent-123")).thenReturn(null);
-
-        // When
-        service.displayLogsForJob(job);
-
-        // Then
-        verify(cliAgent).getConversation("cursor-agent-123");
+        verify(cliAgent).streamConversation(eq("cursor-agent-123"), any());
+        verify(cliAgent, never()).getConversation(anyString());
+        assertEquals(List.of(msg1, msg2), streamed);
     }
 
     @Test
-    void testDisplayLogsForJob_WithCursorAgentId_ConversationWithNullMessages() {
+    void testDisplayLogsForJob_WithCursorAgentId_MessageWithNullText() {
         // Given
         Job job = new Job("job-id", "/path", "cursor-agent-123", "model", "repo",
             AgentState.running(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
 
-        ConversationResponse conversation = new ConversationResponse("conv-id", null);
-        when(cliAgent.getConversation("cursor-agent-123")).thenReturn(conversation);
+        when(cliAgent.streamConversation(eq("cursor-agent-123"), any())).thenAnswer(invocation -> {
+            Consumer<ConversationMessage> consumer = invocation.getArgument(1);
+            consumer.accept(new ConversationMessage("msg1", "assistant", null));
+            return 1;
+        });
 
         // When
         service.displayLogsForJob(job);
 
         // Then
-        verify(cliAgent).getConversation("cursor-agent-123");
+        verify(cliAgent).streamConversation(eq("cursor-agent-123"), any());
     }
 
     @Test
@@ -107,14 +103,13 @@ class JobLogDisplayServiceTest {
         Job job = new Job("job-id", "/path", "cursor-agent-123", "model", "repo",
             AgentState.running(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
 
-        ConversationResponse conversation = new ConversationResponse("conv-id", new ArrayList<>());
-        when(cliAgent.getConversation("cursor-agent-123")).thenReturn(conversation);
+        when(cliAgent.streamConversation(eq("cursor-agent-123"), any())).thenReturn(0);
 
         // When
         service.displayLogsForJob(job);
 
         // Then
-        verify(cliAgent).getConversation("cursor-agent-123");
+        verify(cliAgent).streamConversation(eq("cursor-agent-123"), any());
     }
 
     @Test
@@ -123,14 +118,13 @@ class JobLogDisplayServiceTest {
         Job job = new Job("job-id", "/path", "cursor-agent-123", "model", "repo",
             AgentState.running(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
 
-        when(cliAgent.getConversation("cursor-agent-123"))
+        when(cliAgent.streamConversation(eq("cursor-agent-123"), any()))
             .thenThrow(new RuntimeException("API error"));
 
         // When
         service.displayLogsForJob(job);
 
         // Then - should handle exception gracefully
-        verify(cliAgent).getConversation("cursor-agent-123");
+        verify(cliAgent).streamConversation(eq("cursor-agent-123"), any());
     }
 }
-
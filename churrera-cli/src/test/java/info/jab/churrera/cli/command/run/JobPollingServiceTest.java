@@ -11,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -71,6 +72,7 @@ class JobPollingServiceTest {
         assertThat(result.isInterrupted()).isFalse();
         assertThat(result.getChildJobs()).containsExactly(job);
         assertThat(sleeperCalls).hasValue(0);
+        verify(jobProcessor).limitCheckInterval(Duration.ofSeconds(1));
         verify(jobProcessor).processJobs();
         verify(jobDisplayService).displayFilteredJobsTable(JOB_ID);
     }
@@ -147,6 +149,29 @@ class JobPollingServiceTest {
         verify(completionCheckerFactory).create(WorkflowType.SEQUENCE);
     }
 
+    @Test
+    void shouldSleepUntilNextScheduledCheckBoundedByPollingInterval() {
+        // Given
+        JobPollingService service = new JobPollingService(
+            jobProcessor,
+            jobRepository,
+            jobDisplayService,
+            completionCheckerFactory,
+            5,
+            millis -> {}
+        );
+
+        // When & Then
+        when(jobProcessor.timeUntilNextCheck()).thenReturn(Duration.ofMillis(2_000));
+        assertThat(service.sleepMillis()).isEqualTo(2_000);
+
+        when(jobProcessor.timeUntilNextCheck()).thenReturn(Duration.ofSeconds(60));
+        assertThat(service.sleepMillis()).isEqualTo(5_000);
+
+        when(jobProcessor.timeUntilNextCheck()).thenReturn(Duration.ZERO);
+        assertThat(service.sleepMillis()).isEqualTo(JobPollingService.MIN_SLEEP_MILLIS);
+    }
+
     private Job createJob(AgentState state) {
         return createJob(state, WorkflowType.SEQUENCE);
     }
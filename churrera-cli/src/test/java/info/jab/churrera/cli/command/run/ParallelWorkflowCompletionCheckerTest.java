@@ -39,7 +39,7 @@ class ParallelWorkflowCompletionCheckerTest {
 
     @Test
     void shouldReportNotCompletedWhenParentIsStillActive() {
-        when(jobRepository.findAll()).thenReturn(List.of(parentJob));
+        when(jobRepository.findJobsByParentId(parentJobId)).thenReturn(List.of());
 
         CompletionCheckResult result = checker.checkCompletion(parentJob, parentJobId);
 
@@ -51,7 +51,7 @@ class ParallelWorkflowCompletionCheckerTest {
     @Test
     void shouldReportCompletionWhenParentFinishedAndNoChildrenExist() {
         parentJob = createJob(parentJobId, null, AgentState.finished());
-        when(jobRepository.findAll()).thenReturn(List.of(parentJob));
+        when(jobRepository.findJobsByParentId(parentJobId)).thenReturn(List.of());
 
         CompletionCheckResult result = checker.checkCompletion(parentJob, parentJobId);
 
@@ -65,7 +65,7 @@ class ParallelWorkflowCompletionCheckerTest {
         parentJob = createJob(parentJobId, null, AgentState.finished());
         Job childRunning = createJob("child-1", parentJobId, AgentState.running());
         Job childFinished = createJob("child-2", parentJobId, AgentState.finished());
-        when(jobRepository.findAll()).thenReturn(List.of(parentJob, childRunning, childFinished));
+        when(jobRepository.findJobsByParentId(parentJobId)).thenReturn(List.of(childRunning, childFinished));
 
         CompletionCheckResult result = checker.checkCompletion(parentJob, parentJobId);
 
@@ -79,7 +79,7 @@ class ParallelWorkflowCompletionCheckerTest {
         parentJob = createJob(parentJobId, null, AgentState.finished());
         Job childOk = createJob("child-1", parentJobId, AgentState.finished());
         Job childFailed = createJob("child-2", parentJobId, AgentState.error());
-        when(jobRepository.findAll()).thenReturn(List.of(parentJob, childOk, childFailed));
+        when(jobRepository.findJobsByParentId(parentJobId)).thenReturn(List.of(childOk, childFailed));
 
         CompletionCheckResult result = checker.checkCompletion(parentJob, parentJobId);
 
@@ -93,7 +93,7 @@ class ParallelWorkflowCompletionCheckerTest {
         parentJob = createJob(parentJobId, null, AgentState.finished());
         Job childOk1 = createJob("child-1", parentJobId, AgentState.finished());
         Job childOk2 = createJob("child-2", parentJobId, AgentState.finished());
-        when(jobRepository.findAll()).thenReturn(List.of(parentJob, childOk1, childOk2));
+        when(jobRepository.findJobsByParentId(parentJobId)).thenReturn(List.of(childOk1, childOk2));
 
         CompletionCheckResult result = checker.checkCompletion(parentJob, parentJobId);
 
@@ -105,11 +105,11 @@ class ParallelWorkflowCompletionCheckerTest {
     @Test
     void shouldPropagateRepositoryErrors() {
         parentJob = createJob(parentJobId, null, AgentState.finished());
-        when(jobRepository.findAll()).thenThrow(new RuntimeException("boom"));
+        when(jobRepository.findJobsByParentId(parentJobId)).thenThrow(new RuntimeException("boom"));
 
         assertThatThrownBy(() -> checker.checkCompletion(parentJob, parentJobId))
             .isInstanceOf(RuntimeException.class)
-            .hasMessageContaining("Error retrieving all jobs");
+            .hasMessageContaining("Error retrieving child jobs");
     }
 
     private Job createJob(String jobId, String parentId, AgentState state) {
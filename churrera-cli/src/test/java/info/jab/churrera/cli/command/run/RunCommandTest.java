@@ -3,8 +3,10 @@ import info.jab.churrera.cli.model.AgentState;
 import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.Prompt;
 import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.repository.JobStore;
 import info.jab.churrera.cli.service.CLIAgent;
 import info.jab.churrera.cli.service.JobProcessor;
+import info.jab.churrera.cli.service.RequestJournal;
 import info.jab.churrera.workflow.ParallelWorkflowData;
 import info.jab.churrera.workflow.PmlValidator;
 import info.jab.churrera.workflow.PromptInfo;
@@ -18,6 +20,7 @@ import info.jab.cursor.client.model.ConversationResponse;
 import info.jab.cursor.client.model.ConversationMessage;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -167,7 +170,7 @@ class RunCommandTest {
     @Test
     void testGetJobRepository() {
         // When
-        JobRepository result = runCommand.getJobRepository();
+        JobStore result = runCommand.getJobRepository();
 
         // Then
         assertSame(jobRepository, result);
@@ -239,7 +242,7 @@ class RunCommandTest {
         // Then
         assertEquals(0, exitCode);
         verify(cliAgent).getModels();
-        verify(jobRepository, never()).save(any(Job.class));
+        verify(jobRepository, never()).saveAll(anyList(), anyList());
     }
 
     @Test
@@ -257,7 +260,44 @@ class RunCommandTest {
         // Then
         assertEquals(0, exitCode);
         verify(cliAgent).getRepositories();
-        verify(jobRepository, never()).save(any(Job.class));
+        verify(jobRepository, never()).saveAll(anyList(), anyList());
+    }
+
+    @Test
+    void testRun_RetrieveModels_DoesNotReconcileRequestJournal() {
+        // Given
+        RequestJournal requestJournal = mock(RequestJournal.class);
+        when(cliAgent.getModels()).thenReturn(List.of("model1"));
+        runCommand = new RunCommand(jobRepository, jobProcessor, workflowValidator,
+            workflowParser, pmlValidator, DEFAULT_POLLING_INTERVAL, cliAgent, requestJournal);
+        new CommandLine(runCommand).parseArgs("--retrieve-models");
+
+        // When
+        Integer exitCode = runCommand.call();
+
+        // Then
+        assertEquals(0, exitCode);
+        verifyNoInteractions(requestJournal);
+    }
+
+    @Test
+    void testRun_ReconcilesRequestJournalBeforePolling() {
+        // Given
+        RequestJournal requestJournal = mock(RequestJournal.class);
+        when(requestJournal.pending()).thenReturn(List.of());
+        doThrow(new RuntimeException("Polling stopped")).when(jobProcessor).processJobs();
+        runCommand = new RunCommand(jobRepository, jobProcessor, workflowValidator,
+            workflowParser, pmlValidator, DEFAULT_POLLING_INTERVAL, cliAgent, requestJournal);
+        new CommandLine(runCommand).parseArgs("--workflow", testJobPath);
+
+        // When
+        Integer exitCode = runCommand.call();
+
+        // Then
+        assertEquals(1, exitCode);
+        InOrder inOrder = inOrder(requestJournal, jobProcessor);
+        inOrder.verify(requestJournal).pending();
+        inOrder.verify(jobProcessor).processJobs();
     }
 
     @Test
@@ -273,7 +313,7 @@ class RunCommandTest {
 
         // Then
         assertEquals(1, exitCode);
-        verify(jobRepository, never()).save(any(Job.class));
+        verify(jobRepository, never()).saveAll(anyList(), anyList());
     }
 
     @Test
@@ -286,7 +326,7 @@ class RunCommandTest {
 
         // Then
         assertFalse(result.isSuccess());
-        verify(jobRepository, never()).save(any(Job.class));
+        verify(jobRepository, never()).saveAll(anyList(), anyList());
     }
 
     @Test
@@ -303,7 +343,7 @@ class RunCommandTest {
         // Then
         assertFalse(result.isSuccess());
         verify(workflowValidator).validate(any(File.class));
-        verify(jobRepository, never()).save(any(Job.class));
+        verify(jobRepository, never()).saveAll(anyList(), anyList());
     }
 
     @Test
@@ -318,7 +358,7 @@ class RunCommandTest {
         // Then
         assertFalse(result.isSuccess());
         verify(workflowValidator).validateTimeoutAndFallback(any(File.class), any(WorkflowData.class));
-        verify(jobRepository, never()).save(any(Job.class));
+        verify(jobRepository, never()).saveAll(anyList(), anyList());
     }
 
     @Test
@@ -334,14 +374,13 @@ class RunCommandTest {
         // Then
         assertFalse(result.isSuccess());
         verify(pmlValidator, atLeastOnce()).validate(any(File.class));
-        verify(jobRepository, never()).save(any(Job.class));
+        verify(jobRepository, never()).saveAll(anyList(), anyList());
     }
 
     @Test
     void testCreateJob_Success() throws IOException {
         // Given
-        doNothing().when(jobRepository).save(any(Job.class));
-        doNothing().when(jobRepository).savePrompt(any(Prompt.class));
+        doNothing().when(jobRepository).saveAll(anyList(), anyList());
 
         // When
         JobCreationResult result = jobCreationService.createJob(testJobPath);
@@ -349,15 +388,19 @@ class RunCommandTest {
         // Then
         assertTrue(result.isSuccess());
         assertNotNull(result.getJobId());
-        verify(jobRepository).save(argThat(job -> {
+        verify(jobRepository).saveAll(argThat(jobs -> {
+            assertEquals(1, jobs.size());
+            Job job = jobs.get(0);
             assertEquals(testJobPath, job.path());
             assertEquals("test-model", job.model());
             assertEquals("test-repo", job.repository());
             assertEquals(AgentState.creating(), job.status());
             assertNotNull(job.jobId());
             return true;
+        }), argThat(prompts -> {
+            assertEquals(2, prompts.size());
+            return true;
         }));
-        verify(jobRepository, times(2)).savePrompt(any(Prompt.class));
     }
 
     @Test
@@ -371,19 +414,19 @@ class RunCommandTest {
             null, null, null
         );
         when(workflowParser.parse(any(File.class))).thenReturn(workflowDataWithDefaults);
-        doNothing().when(jobRepository).save(any(Job.class));
-        doNothing().when(jobRepository).savePrompt(any(Prompt.class));
+        doNothing().when(jobRepository).saveAll(anyList(), anyList());
 
         // When
         JobCreationResult result = jobCreationService.createJob(testJobPath);
 
         // Then
         assertTrue(result.isSuccess());
-        verify(jobRepository).save(argThat(job -> {
+        verify(jobRepository).saveAll(argThat(jobs -> {
+            Job job = jobs.get(0);
             assertEquals("default-model", job.model());
             assertEquals("default-repository", job.repository());
             return true;
-        }));
+        }), anyList());
     }
 
     @Test
@@ -398,7 +441,7 @@ class RunCommandTest {
         // Then
         assertFalse(result.isSuccess());
         verify(workflowParser).parse(any(File.class));
-        verify(jobRepository, never()).save(any(Job.class));
+        verify(jobRepository, never()).saveAll(anyList(), anyList());
     }
 
     @Test
@@ -578,52 +621,43 @@ class RunCommandTest {
     }
 
     @Test
-    void testDeleteJob_WithCursorAgent() {
+    void testDeleteAgents_WithCursorAgent() {
         // Given
         Job job = new Job("job-id", "/path", "cursor-agent-123", "model", "repo",
             AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
-        when(jobRepository.findPromptsByJobId("job-id")).thenReturn(List.of());
 
         // When
-        jobDeletionService.deleteJob(job);
+        jobDeletionService.deleteAgents(List.of(job));
 
         // Then
         verify(cliAgent).deleteAgent("cursor-agent-123");
-        verify(jobRepository).deletePromptsByJobId("job-id");
-        verify(jobRepository).deleteById("job-id");
     }
 
     @Test
-    void testDeleteJob_WithoutCursorAgent() {
+    void testDeleteAgents_WithoutCursorAgent() {
         // Given
         Job job = new Job("job-id", "/path", null, "model", "repo",
             AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
-        when(jobRepository.findPromptsByJobId("job-id")).thenReturn(List.of());
 
         // When
-        jobDeletionService.deleteJob(job);
+        jobDeletionService.deleteAgents(List.of(job));
 
         // Then
         verify(cliAgent, never()).deleteAgent(anyString());
-        verify(jobRepository).deletePromptsByJobId("job-id");
-        verify(jobRepository).deleteById("job-id");
     }
 
     @Test
-    void testDeleteJob_CursorAgentDeletionFails() {
+    void testDeleteAgents_CursorAgentDeletionFails() {
         // Given
         Job job = new Job("job-id", "/path", "cursor-agent-123", "model", "repo",
             AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
-        when(jobRepository.findPromptsByJobId("job-id")).thenReturn(List.of());
         doThrow(new RuntimeException("Delete failed")).when(cliAgent).deleteAgent(anyString());
 
         // When
-        jobDeletionService.deleteJob(job);
+        assertDoesNotThrow(() -> jobDeletionService.deleteAgents(List.of(job)));
 
-        // Then - should continue with database deletion even if Cursor API fails
+        // Then - failures are logged and do not propagate
         verify(cliAgent).deleteAgent("cursor-agent-123");
-        verify(jobRepository).deletePromptsByJobId("job-id");
-        verify(jobRepository).deleteById("job-id");
     }
 
     @Test
@@ -773,7 +807,7 @@ class RunCommandTest {
         );
 
         when(jobRepository.findById(parentJobId)).thenReturn(Optional.of(parentJob));
-        when(jobRepository.findAll()).thenReturn(List.of(parentJob, childJob1, childJob2));
+        when(jobRepository.findJobsByParentId(parentJobId)).thenReturn(List.of(childJob1, childJob2));
         when(jobRepository.findPromptsByJobId(parentJobId)).thenReturn(parentPrompts);
         when(jobRepository.findPromptsByJobId(childJobId1)).thenReturn(childPrompts1);
         when(jobRepository.findPromptsByJobId(childJobId2)).thenReturn(childPrompts2);
@@ -783,7 +817,7 @@ class RunCommandTest {
 
         // Then
         verify(jobRepository).findById(parentJobId);
-        verify(jobRepository).findAll();
+        verify(jobRepository).findJobsByParentId(parentJobId);
         verify(jobRepository).findPromptsByJobId(parentJobId);
         verify(jobRepository).findPromptsByJobId(childJobId1);
         verify(jobRepository).findPromptsByJobId(childJobId2);
@@ -872,25 +906,19 @@ class RunCommandTest {
             AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), jobId, null,
             WorkflowType.SEQUENCE, null, null, null, null);
 
-        when(jobRepository.findById(jobId)).thenReturn(Optional.of(parentJob));
-        when(jobRepository.findJobsByParentId(jobId)).thenReturn(List.of(childJob));
-        when(jobRepository.findJobsByParentId(childJobId)).thenReturn(List.of());
-        when(jobRepository.findPromptsByJobId(jobId)).thenReturn(List.of());
-        when(jobRepository.findPromptsByJobId(childJobId)).thenReturn(List.of());
+        when(jobRepository.findJobTree(jobId)).thenReturn(List.of(parentJob, childJob));
         doNothing().when(cliAgent).deleteAgent(anyString());
-        doNothing().when(jobRepository).deletePromptsByJobId(anyString());
-        doNothing().when(jobRepository).deleteById(anyString());
+        doNothing().when(jobRepository).deleteJobCascade(anyString());
 
         // When
         jobDeletionService.deleteJobAndChildren(jobId, "--delete-on-completion");
 
         // Then
-        verify(jobRepository).findJobsByParentId(jobId);
-        verify(jobRepository).findJobsByParentId(childJobId);
+        verify(jobRepository).findJobTree(jobId);
         verify(cliAgent).deleteAgent("cursor-agent-123");
         verify(cliAgent).deleteAgent("cursor-agent-456");
-        verify(jobRepository).deleteById(childJobId);
-        verify(jobRepository).deleteById(jobId);
+        verify(jobRepository).deleteJobCascade(jobId);
+        verify(jobRepository, never()).deleteById(anyString());
     }
 
     @Test
@@ -905,79 +933,59 @@ class RunCommandTest {
             AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), jobId, null,
             WorkflowType.SEQUENCE, null, null, null, null);
 
-        when(jobRepository.findById(jobId)).thenReturn(Optional.of(parentJob));
-        when(jobRepository.findJobsByParentId(jobId)).thenReturn(List.of(childJob));
-        when(jobRepository.findJobsByParentId(childJobId)).thenReturn(List.of());
-        when(jobRepository.findPromptsByJobId(jobId)).thenReturn(List.of());
-        when(jobRepository.findPromptsByJobId(childJobId)).thenReturn(List.of());
+        when(jobRepository.findJobTree(jobId)).thenReturn(List.of(parentJob, childJob));
         doNothing().when(cliAgent).deleteAgent(anyString());
-        doNothing().when(jobRepository).deletePromptsByJobId(anyString());
-        doNothing().when(jobRepository).deleteById(anyString());
+        doNothing().when(jobRepository).deleteJobCascade(anyString());
 
         // When
         jobDeletionService.deleteJobAndChildren(jobId, "--delete-on-success-completion");
 
         // Then
-        verify(jobRepository).findJobsByParentId(jobId);
-        verify(jobRepository).findJobsByParentId(childJobId);
         verify(cliAgent).deleteAgent("cursor-agent-123");
         verify(cliAgent).deleteAgent("cursor-agent-456");
-        verify(jobRepository).deleteById(childJobId);
-        verify(jobRepository).deleteById(jobId);
+        verify(jobRepository).deleteJobCascade(jobId);
     }
 
     @Test
     void testDeleteJobAndChildren_ExceptionHandling() {
         // Given
         String jobId = "parent-job-id";
-        Job parentJob = new Job(jobId, testJobPath, null, "test-model", "test-repo",
-            AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), null, null,
-            WorkflowType.PARALLEL, null, null, null, null);
-
-        when(jobRepository.findById(jobId)).thenReturn(Optional.of(parentJob));
-        when(jobRepository.findJobsByParentId(jobId)).thenThrow(new RuntimeException("Database error"));
+        when(jobRepository.findJobTree(jobId)).thenThrow(new RuntimeException("Database error"));
 
         // When & Then - should handle exception gracefully
         assertDoesNotThrow(() -> jobDeletionService.deleteJobAndChildren(jobId, "--delete-on-completion"));
+        verify(jobRepository, never()).deleteJobCascade(anyString());
     }
 
     @Test
-    void testDeleteChildJobsRecursively_WithNestedChildren() {
+    void testDeleteJobAndChildren_WithNestedChildren() {
         // Given
         String parentJobId = "parent-job-id";
-        String childJobId1 = "child-job-id-1";
-        String childJobId2 = "child-job-id-2";
-        String grandchildJobId = "grandchild-job-id";
-
-        Job childJob1 = new Job(childJobId1, testJobPath, "cursor-agent-1", "test-model", "test-repo",
+        Job parentJob = new Job(parentJobId, testJobPath, null, "test-model", "test-repo",
+            AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), null, null,
+            WorkflowType.PARALLEL, null, null, null, null);
+        Job childJob1 = new Job("child-job-id-1", testJobPath, "cursor-agent-1", "test-model", "test-repo",
             AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), parentJobId, null,
             WorkflowType.SEQUENCE, null, null, null, null);
-        Job childJob2 = new Job(childJobId2, testJobPath, "cursor-agent-2", "test-model", "test-repo",
+        Job childJob2 = new Job("child-job-id-2", testJobPath, "cursor-agent-2", "test-model", "test-repo",
             AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), parentJobId, null,
             WorkflowType.SEQUENCE, null, null, null, null);
-        Job grandchildJob = new Job(grandchildJobId, testJobPath, "cursor-agent-3", "test-model", "test-repo",
-            AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), childJobId1, null,
+        Job grandchildJob = new Job("grandchild-job-id", testJobPath, "cursor-agent-3", "test-model", "test-repo",
+            AgentState.finished(), LocalDateTime.now(), LocalDateTime.now(), "child-job-id-1", null,
             WorkflowType.SEQUENCE, null, null, null, null);
 
-        when(jobRepository.findJobsByParentId(parentJobId)).thenReturn(List.of(childJob1, childJob2));
-        when(jobRepository.findJobsByParentId(childJobId1)).thenReturn(List.of(grandchildJob));
-        when(jobRepository.findJobsByParentId(childJobId2)).thenReturn(List.of());
-        when(jobRepository.findJobsByParentId(grandchildJobId)).thenReturn(List.of());
-        when(jobRepository.findPromptsByJobId(anyString())).thenReturn(List.of());
+        when(jobRepository.findJobTree(parentJobId)).thenReturn(List.of(parentJob, childJob1, childJob2, grandchildJob));
         doNothing().when(cliAgent).deleteAgent(anyString());
-        doNothing().when(jobRepository).deletePromptsByJobId(anyString());
-        doNothing().when(jobRepository).deleteById(anyString());
+        doNothing().when(jobRepository).deleteJobCascade(anyString());
 
         // When
-        jobDeletionService.deleteChildJobsRecursively(parentJobId);
+        jobDeletionService.deleteJobAndChildren(parentJobId, "--delete-on-completion");
 
-        // Then - should delete in depth-first order: grandchild, child1, child2
-        verify(jobRepository).findJobsByParentId(parentJobId);
-        verify(jobRepository).findJobsByParentId(childJobId1);
-        verify(jobRepository).findJobsByParentId(grandchildJobId);
-        verify(jobRepository).deleteById(grandchildJobId);
-        verify(jobRepository).deleteById(childJobId1);
-        verify(jobRepository).deleteById(childJobId2);
+        // Then - every agent in the tree is removed and the records go in one cascade
+        verify(cliAgent).deleteAgent("cursor-agent-1");
+        verify(cliAgent).deleteAgent("cursor-agent-2");
+        verify(cliAgent).deleteAgent("cursor-agent-3");
+        verify(jobRepository, times(1)).deleteJobCascade(parentJobId);
     }
 
     @Test
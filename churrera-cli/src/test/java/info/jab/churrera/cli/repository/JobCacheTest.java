@@ -0,0 +1,115 @@
+package info.jab.churrera.cli.repository;
+
+import info.jab.churrera.cli.model.AgentState;
+import info.jab.churrera.cli.model.Job;
+import info.jab.churrera.cli.model.Prompt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for JobCache.
+ */
+class JobCacheTest {
+
+    private JobCache cache;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        cache = new JobCache();
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void shouldNotAnswerSecondaryIndexesBeforeTheyAreLoaded() {
+        // Given
+        cache.storeJob(job("child-1", "parent", "agent-1", AgentState.running()));
+
+        // When / Then
+        assertThat(cache.childrenOf("parent")).isEmpty();
+        assertThat(cache.unfinishedJobs()).isEmpty();
+        assertThat(cache.promptsOf("child-1")).isEmpty();
+        assertThat(cache.job("child-1")).isPresent();
+    }
+
+    @Test
+    void shouldKeepChildrenIndexCurrentAfterLoad() {
+        // Given
+        cache.rememberChildren("parent", List.of(job("child-1", "parent", "agent-1", AgentState.running())));
+
+        // When
+        cache.storeJob(job("child-2", "parent", "agent-2", AgentState.creating()));
+
+        // Then
+        assertThat(cache.childrenOf("parent")).hasValueSatisfying(children ->
+                assertThat(children).extracting(Job::jobId).containsExactly("child-1", "child-2"));
+    }
+
+    @Test
+    void shouldMoveJobsOutOfUnfinishedIndexWhenTheyTerminate() {
+        // Given
+        cache.rememberUnfinished(List.of(job("job-1", null, "agent-1", AgentState.running())));
+
+        // When
+        cache.storeJob(job("job-1", null, "agent-1", AgentState.finished()));
+        cache.storeJob(job("job-2", null, null, AgentState.error()));
+
+        // Then
+        assertThat(cache.unfinishedJobs()).hasValueSatisfying(jobs ->
+                assertThat(jobs).extracting(Job::jobId).containsExactly("job-2"));
+    }
+
+    @Test
+    void shouldNotOverrideWrittenRecordWithOlderRead() {
+        // Given
+        Job written = job("job-1", null, "agent-1", AgentState.finished());
+        cache.storeJob(written);
+
+        // When
+        cache.rememberJobs(List.of(job("job-1", null, "agent-1", AgentState.running())));
+
+        // Then
+        assertThat(cache.job("job-1")).contains(written);
+    }
+
+    @Test
+    void shouldEvictJobFromAllIndexes() {
+        // Given
+        cache.rememberChildren("parent", List.of());
+        cache.rememberUnfinished(List.of());
+        cache.storeJob(job("child-1", "parent", null, AgentState.creating()));
+
+        // When
+        cache.evictJob("child-1");
+
+        // Then
+        assertThat(cache.job("child-1")).isEmpty();
+        assertThat(cache.childrenOf("parent")).hasValueSatisfying(children -> assertThat(children).isEmpty());
+        assertThat(cache.unfinishedJobs()).hasValueSatisfying(jobs -> assertThat(jobs).isEmpty());
+    }
+
+    @Test
+    void shouldTrackPromptsByJobAndEvictThem() {
+        // Given
+        cache.rememberPromptsOf("job-1", List.of(new Prompt("prompt-1", "job-1", "a.xml", "UNKNOWN", now, now)));
+        cache.storePrompt(new Prompt("prompt-2", "job-1", "b.xml", "UNKNOWN", now, now));
+
+        // When / Then
+        assertThat(cache.promptsOf("job-1")).hasValueSatisfying(prompts ->
+                assertThat(prompts).extracting(Prompt::promptId).containsExactly("prompt-1", "prompt-2"));
+
+        cache.evictPromptsOf("job-1");
+        assertThat(cache.promptsOf("job-1")).isEmpty();
+        assertThat(cache.prompt("prompt-1")).isEmpty();
+    }
+
+    private Job job(String jobId, String parentJobId, String agentId, AgentState state) {
+        return new Job(jobId, "/path", agentId, "model", "repo", state, now, now, parentJobId,
+                null, null, null, null, null, false);
+    }
+}
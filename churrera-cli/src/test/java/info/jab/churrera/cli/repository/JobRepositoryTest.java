@@ -705,4 +705,170 @@ class JobRepositoryTest {
         // Then
         assertThat(jobRepository.findPromptsByJobId("multi-job")).isEmpty();
     }
+
+    @Test
+    void shouldFindJobByIdContainingQuotesAndAmpersands() throws IOException {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        Job job = new Job("job-'quoted'-&-id", "/path", null, "model", "repo", AgentState.creating(), now, now, null, null, null, null, null, null, null);
+        Job other = new Job("job-quoted", "/path", null, "model", "repo", AgentState.creating(), now, now, null, null, null, null, null, null, null);
+        jobRepository.save(job);
+        jobRepository.save(other);
+
+        // When
+        Optional<Job> found = jobRepository.findById("job-'quoted'-&-id");
+
+        // Then
+        assertThat(found).isPresent();
+        assertThat(found.get().jobId()).isEqualTo("job-'quoted'-&-id");
+    }
+
+    @Test
+    void shouldOnlyReturnMatchingRecordsFromTargetedLookups() throws IOException {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 20; i++) {
+            String parent = i % 2 == 0 ? "parent-even" : "parent-odd";
+            AgentState state = i % 4 == 0 ? AgentState.finished() : AgentState.running();
+            jobRepository.save(new Job("job-" + i, "/path", "agent-" + i, "model", "repo", state, now, now, parent, null, null, null, null, null, null));
+            jobRepository.savePrompt(new Prompt("prompt-" + i, "job-" + (i % 5), "file.xml", "SENT", now, now));
+        }
+
+        // When / Then
+        assertThat(jobRepository.findById("job-7")).map(Job::jobId).contains("job-7");
+        assertThat(jobRepository.findJobsByParentId("parent-even")).hasSize(10)
+                .allMatch(job -> "parent-even".equals(job.parentJobId()));
+        assertThat(jobRepository.findUnfinishedJobs()).hasSize(15)
+                .noneMatch(job -> job.status().isTerminal());
+        assertThat(jobRepository.findPromptsByJobId("job-3")).extracting(Prompt::promptId)
+                .containsExactlyInAnyOrder("prompt-3", "prompt-8", "prompt-13", "prompt-18");
+        assertThat(jobRepository.findPromptById("prompt-11")).map(Prompt::jobId).contains("job-1");
+    }
+
+    @Test
+    void shouldTreatErrorJobWithoutAgentAsUnfinished() throws IOException {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        jobRepository.save(new Job("failed-launch", "/path", null, "model", "repo", AgentState.error(), now, now, null, null, null, null, null, null, null));
+        jobRepository.save(new Job("failed-agent", "/path", "agent-1", "model", "repo", AgentState.error(), now, now, null, null, null, null, null, null, null));
+
+        // When
+        List<Job> unfinished = jobRepository.findUnfinishedJobs();
+
+        // Then
+        assertThat(unfinished).extracting(Job::jobId).containsExactly("failed-launch");
+    }
+
+    @Test
+    void shouldReflectWritesInCachedLookups() throws IOException {
+        // Given - warm the parent and unfinished indexes
+        LocalDateTime now = LocalDateTime.now();
+        jobRepository.save(new Job("parent", "/path", "agent-0", "model", "repo", AgentState.running(), now, now, null, null, null, null, null, null, null));
+        assertThat(jobRepository.findJobsByParentId("parent")).isEmpty();
+        assertThat(jobRepository.findUnfinishedJobs()).hasSize(1);
+
+        // When
+        jobRepository.save(new Job("child", "/path", null, "model", "repo", AgentState.creating(), now, now, "parent", null, null, null, null, null, null));
+        Job parent = jobRepository.findById("parent").orElseThrow();
+        jobRepository.save(parent.withStatus(AgentState.finished()));
+
+        // Then
+        assertThat(jobRepository.findJobsByParentId("parent")).extracting(Job::jobId).containsExactly("child");
+        assertThat(jobRepository.findUnfinishedJobs()).extracting(Job::jobId).containsExactly("child");
+        assertThat(jobRepository.findById("child")).map(Job::fallbackExecuted).contains(false);
+    }
+
+    @Test
+    void shouldUpsertJobWithJsonResult() throws IOException {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        Job job = new Job("json-job", "/path", "agent-1", "model", "repo", AgentState.running(), now, now, null, null, null, null, null, null, null);
+        jobRepository.save(job);
+
+        // When - update in place with a result that contains curly braces
+        jobRepository.save(job.withResult("[{\"id\": 1}, {\"id\": 2}]"));
+        jobRepository.close();
+        jobRepository = new JobRepository(propertyResolver);
+
+        // Then
+        assertThat(jobRepository.findAll()).singleElement()
+                .extracting(Job::result).isEqualTo("[{\"id\": 1}, {\"id\": 2}]");
+    }
+
+    @Test
+    void shouldSaveJobsAndPromptsInOneBatch() throws IOException {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        Job existing = new Job("parent", "/path", "agent-1", "model", "repo", AgentState.running(), now, now, null, null, null, null, null, null, null);
+        jobRepository.save(existing);
+
+        List<Job> jobs = List.of(
+                existing.withStatus(AgentState.finished()),
+                new Job("child-1", "/path", null, "model", "repo", AgentState.creating(), now, now, "parent", "{a}", null, null, null, null, null),
+                new Job("child-2", "/path", null, "model", "repo", AgentState.creating(), now, now, "parent", "{b}", null, null, null, null, null));
+        List<Prompt> prompts = List.of(
+                new Prompt("p-1", "child-1", "step1.xml", "UNKNOWN", now, now),
+                new Prompt("p-2", "child-2", "step1.xml", "UNKNOWN", now, now));
+
+        // When
+        jobRepository.saveAll(jobs, prompts);
+        jobRepository.close();
+        jobRepository = new JobRepository(propertyResolver);
+
+        // Then
+        assertThat(jobRepository.findAll()).hasSize(3);
+        assertThat(jobRepository.findById("parent")).map(Job::status).contains(AgentState.finished());
+        assertThat(jobRepository.findJobsByParentId("parent")).extracting(Job::result).containsExactly("{a}", "{b}");
+        assertThat(jobRepository.findPromptsByJobId("child-2")).extracting(Prompt::promptId).containsExactly("p-2");
+    }
+
+    @Test
+    void shouldIgnoreEmptyBatch() {
+        assertDoesNotThrow(() -> jobRepository.saveAll(List.of(), List.of()));
+        assertThat(jobRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void shouldFindJobTreeWithNestedDescendants() throws IOException {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        jobRepository.save(new Job("root", "/path", null, "model", "repo", AgentState.finished(), now, now, null, null, null, null, null, null, null));
+        jobRepository.save(new Job("child", "/path", null, "model", "repo", AgentState.finished(), now, now, "root", null, null, null, null, null, null));
+        jobRepository.save(new Job("grandchild", "/path", null, "model", "repo", AgentState.finished(), now, now, "child", null, null, null, null, null, null));
+        jobRepository.save(new Job("other", "/path", null, "model", "repo", AgentState.finished(), now, now, null, null, null, null, null, null, null));
+
+        // When
+        List<Job> tree = jobRepository.findJobTree("root");
+
+        // Then
+        assertThat(tree).extracting(Job::jobId).containsExactlyInAnyOrder("root", "child", "grandchild");
+        assertThat(jobRepository.findJobTree("missing")).isEmpty();
+    }
+
+    @Test
+    void shouldDeleteJobTreeAndPromptsInOneCascade() throws IOException {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        jobRepository.save(new Job("root", "/path", null, "model", "repo", AgentState.finished(), now, now, null, null, null, null, null, null, null));
+        jobRepository.save(new Job("child", "/path", null, "model", "repo", AgentState.finished(), now, now, "root", null, null, null, null, null, null));
+        jobRepository.save(new Job("grandchild", "/path", null, "model", "repo", AgentState.finished(), now, now, "child", null, null, null, null, null, null));
+        jobRepository.save(new Job("other", "/path", null, "model", "repo", AgentState.finished(), now, now, null, null, null, null, null, null, null));
+        jobRepository.savePrompt(new Prompt("p-root", "root", "a.xml", "UNKNOWN", now, now));
+        jobRepository.savePrompt(new Prompt("p-grandchild", "grandchild", "b.xml", "UNKNOWN", now, now));
+        jobRepository.savePrompt(new Prompt("p-other", "other", "c.xml", "UNKNOWN", now, now));
+        // Warm the cache so eviction is exercised as well
+        assertThat(jobRepository.findJobsByParentId("child")).hasSize(1);
+        assertThat(jobRepository.findPromptsByJobId("grandchild")).hasSize(1);
+
+        // When
+        jobRepository.deleteJobCascade("root");
+
+        // Then
+        assertThat(jobRepository.findAll()).extracting(Job::jobId).containsExactly("other");
+        assertThat(jobRepository.findById("grandchild")).isEmpty();
+        assertThat(jobRepository.findJobsByParentId("child")).isEmpty();
+        assertThat(jobRepository.findPromptsByJobId("grandchild")).isEmpty();
+        assertThat(jobRepository.findPromptById("p-root")).isEmpty();
+        assertThat(jobRepository.findPromptsByJobId("other")).extracting(Prompt::promptId).containsExactly("p-other");
+    }
 }
@@ -0,0 +1,109 @@
+package info.jab.churrera.cli.repository;
+
+import info.jab.churrera.util.PropertyResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for JobStoreFactory.
+ */
+@ExtendWith(MockitoExtension.class)
+class JobStoreFactoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private PropertyResolver propertyResolver;
+
+    @Test
+    void shouldCreateBaseXStoreByDefault() throws IOException {
+        // Given
+        when(propertyResolver.getProperty("application.properties", "jobstore.backend")).thenReturn(Optional.empty());
+        when(propertyResolver.getProperty("application.properties", "basex.database.path"))
+                .thenReturn(Optional.of(tempDir.toString()));
+
+        // When
+        try (JobStore store = JobStoreFactory.create(propertyResolver)) {
+            // Then
+            assertThat(store).isInstanceOf(JobRepository.class);
+        }
+    }
+
+    @Test
+    void shouldCreateLogStoreWhenConfigured() throws IOException {
+        // Given
+        when(propertyResolver.getProperty("application.properties", "jobstore.backend")).thenReturn(Optional.of(" LOG "));
+        when(propertyResolver.getProperty("application.properties", "jobstore.log.path"))
+                .thenReturn(Optional.of(tempDir.resolve("log").toString()));
+        when(propertyResolver.getProperty("application.properties", "jobstore.log.snapshot.every"))
+                .thenReturn(Optional.of("10"));
+
+        // When
+        try (JobStore store = JobStoreFactory.create(propertyResolver)) {
+            // Then
+            assertThat(store).isInstanceOf(LogJobStore.class);
+            assertThat(tempDir.resolve("log").resolve(LogJobStore.LOG_FILE)).exists();
+        }
+    }
+
+    @Test
+    void shouldKeepLogStoreInDataDirectoryByDefault() throws IOException {
+        // Given
+        when(propertyResolver.getProperty("application.properties", "jobstore.backend")).thenReturn(Optional.of("log"));
+        when(propertyResolver.getProperty("application.properties", "basex.database.path"))
+                .thenReturn(Optional.of(tempDir.toString()));
+
+        // When
+        try (JobStore store = JobStoreFactory.create(propertyResolver)) {
+            // Then
+            assertThat(tempDir.resolve("log").resolve(LogJobStore.LOG_FILE)).exists();
+        }
+    }
+
+    @Test
+    void shouldUseBaseXDatabasePathAsDataDirectory() {
+        // Given
+        when(propertyResolver.getProperty("application.properties", "basex.database.path"))
+                .thenReturn(Optional.of(tempDir.toString()));
+
+        // When
+        Path dataDirectory = JobStoreFactory.dataDirectory(propertyResolver);
+
+        // Then
+        assertThat(dataDirectory).isEqualTo(tempDir);
+    }
+
+    @Test
+    void shouldFallBackToTheBaseXDefaultDataDirectory() {
+        // Given
+        when(propertyResolver.getProperty("application.properties", "basex.database.path")).thenReturn(Optional.empty());
+
+        // When
+        Path dataDirectory = JobStoreFactory.dataDirectory(propertyResolver);
+
+        // Then
+        assertThat(dataDirectory).isEqualTo(Path.of(JobStoreFactory.DEFAULT_DATA_DIRECTORY));
+    }
+
+    @Test
+    void shouldRejectUnknownBackend() {
+        // Given
+        when(propertyResolver.getProperty("application.properties", "jobstore.backend")).thenReturn(Optional.of("mongo"));
+
+        // When / Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> JobStoreFactory.create(propertyResolver));
+        assertThat(exception.getMessage()).contains("mongo");
+    }
+}
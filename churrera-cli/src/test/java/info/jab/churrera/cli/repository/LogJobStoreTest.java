@@ -0,0 +1,328 @@
+package info.jab.churrera.cli.repository;
+
+import info.jab.churrera.cli.model.AgentState;
+import info.jab.churrera.cli.model.Job;
+import info.jab.churrera.cli.model.Prompt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for LogJobStore.
+ */
+class LogJobStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LogJobStore store;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        now = LocalDateTime.now().withNano(0);
+        store = new LogJobStore(tempDir, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void shouldSaveAndFindJobsAndPrompts() throws IOException {
+        // Given
+        Job job = job("job-1", null, "agent-1", AgentState.running());
+        Prompt prompt = new Prompt("prompt-1", "job-1", "a.xml", "UNKNOWN", now, now);
+
+        // When
+        store.save(job);
+        store.savePrompt(prompt);
+
+        // Then
+        assertThat(store.findById("job-1")).contains(job);
+        assertThat(store.findPromptById("prompt-1")).contains(prompt);
+        assertThat(store.findPromptsByJobId("job-1")).containsExactly(prompt);
+        assertThat(store.findJobWithDetails("job-1")).hasValueSatisfying(details ->
+                assertThat(details.prompts()).containsExactly(prompt));
+    }
+
+    @Test
+    void shouldReplaceJobInPlace() throws IOException {
+        // Given
+        store.save(job("job-1", null, null, AgentState.creating()));
+        store.save(job("job-2", null, null, AgentState.creating()));
+
+        // When
+        store.save(job("job-1", null, "agent-1", AgentState.finished()));
+
+        // Then
+        assertThat(store.findAll()).extracting(Job::jobId).containsExactly("job-1", "job-2");
+        assertThat(store.findById("job-1")).map(Job::status).contains(AgentState.finished());
+    }
+
+    @Test
+    void shouldRestoreStateAfterReopen() throws IOException {
+        // Given
+        store.saveAll(
+                List.of(job("parent", null, "agent-1", AgentState.running()),
+                        job("child", "parent", null, AgentState.creating())),
+                List.of(new Prompt("p-1", "child", "a.xml", "UNKNOWN", now, now)));
+        store.deleteById("parent");
+
+        // When
+        store.close();
+        store = new LogJobStore(tempDir, 1000);
+
+        // Then
+        assertThat(store.findAll()).extracting(Job::jobId).containsExactly("child");
+        assertThat(store.findPromptsByJobId("child")).extracting(Prompt::promptId).containsExactly("p-1");
+    }
+
+    @Test
+    void shouldRestoreStateFromSnapshotAndLog() throws IOException {
+        // Given
+        store.close();
+        store = new LogJobStore(tempDir, 3);
+        for (int i = 0; i < 5; i++) {
+            store.save(job("job-" + i, null, null, AgentState.creating()));
+        }
+
+        // When
+        store.close();
+        store = new LogJobStore(tempDir, 3);
+
+        // Then
+        assertThat(tempDir.resolve(LogJobStore.SNAPSHOT_FILE)).exists();
+        assertThat(store.findAll()).extracting(Job::jobId)
+                .containsExactly("job-0", "job-1", "job-2", "job-3", "job-4");
+    }
+
+    @Test
+    void shouldDiscardTornRecordAtEndOfLog() throws IOException {
+        // Given
+        store.save(job("job-1", null, null, AgentState.creating()));
+        store.close();
+        long end = findEndOfLog();
+        try (FileChannel channel = FileChannel.open(tempDir.resolve(LogJobStore.LOG_FILE), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(12).putInt(64).putInt(42).putInt(7).flip(), end);
+        }
+
+        // When
+        store = new LogJobStore(tempDir, 1000);
+        store.save(job("job-2", null, null, AgentState.creating()));
+        store.close();
+        store = new LogJobStore(tempDir, 1000);
+
+        // Then
+        assertThat(store.findAll()).extracting(Job::jobId).containsExactly("job-1", "job-2");
+    }
+
+    @Test
+    void shouldFailOnDamagedRecordFollowedByValidRecords() throws IOException {
+        // Given
+        store.save(job("job-1", null, null, AgentState.creating()));
+        store.save(job("job-2", null, null, AgentState.creating()));
+        store.close();
+        store = null;
+        Path logFile = tempDir.resolve(LogJobStore.LOG_FILE);
+        byte[] damaged = Files.readAllBytes(logFile);
+        damaged[Integer.BYTES * 2 + 10] ^= 0x7F;
+        Files.write(logFile, damaged);
+
+        // When
+        IOException error = assertThrows(IOException.class, () -> new LogJobStore(tempDir, 1000));
+
+        // Then
+        assertThat(error.getMessage()).contains("is corrupt at offset 0");
+        assertThat(Files.readAllBytes(logFile)).isEqualTo(damaged);
+    }
+
+    @Test
+    void shouldFailOnDamagedSnapshot() throws IOException {
+        // Given
+        store.close();
+        store = new LogJobStore(tempDir, 1);
+        store.save(job("job-1", null, null, AgentState.creating()));
+        store.close();
+        store = null;
+        Path snapshot = tempDir.resolve(LogJobStore.SNAPSHOT_FILE);
+        byte[] damaged = Files.readAllBytes(snapshot);
+        damaged[damaged.length - 1] ^= 0x7F;
+        Files.write(snapshot, damaged);
+
+        // When
+        IOException error = assertThrows(IOException.class, () -> new LogJobStore(tempDir, 1));
+
+        // Then
+        assertThat(error.getMessage()).contains("snapshot").contains("is corrupt");
+        assertThat(Files.readAllBytes(snapshot)).isEqualTo(damaged);
+    }
+
+    @Test
+    void shouldRestoreEmptySnapshot() throws IOException {
+        // Given
+        store.close();
+        store = new LogJobStore(tempDir, 2);
+        store.save(job("job-1", null, null, AgentState.creating()));
+        store.deleteById("job-1");
+
+        // When
+        store.close();
+        store = new LogJobStore(tempDir, 2);
+
+        // Then
+        assertThat(tempDir.resolve(LogJobStore.SNAPSHOT_FILE)).exists();
+        assertThat(store.findAll()).isEmpty();
+    }
+
+    @Test
+    void shouldReopenAfterSnapshotInterruptedWhileClearingLog() throws IOException {
+        // Given
+        byte[] previousLog = logBeforeSnapshot();
+        int firstRecord = Integer.BYTES * 3 + ByteBuffer.wrap(previousLog).getInt(0);
+        Arrays.fill(previousLog, 0, firstRecord, (byte) 0);
+        Files.write(tempDir.resolve(LogJobStore.LOG_FILE), previousLog);
+
+        // When
+        store = new LogJobStore(tempDir, 4);
+        store.save(job("job-3", null, null, AgentState.creating()));
+        store.close();
+        store = new LogJobStore(tempDir, 4);
+
+        // Then
+        assertThat(store.findAll()).extracting(Job::jobId).containsExactly("job-1", "job-2", "job-3");
+    }
+
+    @Test
+    void shouldReopenAfterSnapshotInterruptedBeforeClearingLog() throws IOException {
+        // Given
+        Files.write(tempDir.resolve(LogJobStore.LOG_FILE), logBeforeSnapshot());
+
+        // When
+        store = new LogJobStore(tempDir, 4);
+
+        // Then
+        assertThat(store.findAll()).extracting(Job::jobId).containsExactly("job-1", "job-2");
+    }
+
+    @Test
+    void shouldFindUnfinishedJobsAndChildren() throws IOException {
+        // Given
+        store.save(job("parent", null, "agent-1", AgentState.finished()));
+        store.save(job("child-1", "parent", null, AgentState.error()));
+        store.save(job("child-2", "parent", "agent-2", AgentState.running()));
+        store.save(job("child-3", "parent", "agent-3", AgentState.expired()));
+
+        // When / Then
+        assertThat(store.findUnfinishedJobs()).extracting(Job::jobId).containsExactly("child-1", "child-2");
+        assertThat(store.findJobsByParentId("parent")).hasSize(3);
+        assertThat(store.findJobsByParentId(null)).isEmpty();
+    }
+
+    @Test
+    void shouldDeleteJobTreeWithPrompts() throws IOException {
+        // Given
+        store.save(job("root", null, null, AgentState.finished()));
+        store.save(job("child", "root", null, AgentState.finished()));
+        store.save(job("grandchild", "child", null, AgentState.finished()));
+        store.save(job("other", null, null, AgentState.finished()));
+        store.savePrompt(new Prompt("p-root", "root", "a.xml", "UNKNOWN", now, now));
+        store.savePrompt(new Prompt("p-other", "other", "b.xml", "UNKNOWN", now, now));
+
+        // When
+        List<Job> tree = store.findJobTree("root");
+        store.deleteJobCascade("root");
+        store.close();
+        store = new LogJobStore(tempDir, 1000);
+
+        // Then
+        assertThat(tree).extracting(Job::jobId).containsExactly("root", "child", "grandchild");
+        assertThat(store.findAll()).extracting(Job::jobId).containsExactly("other");
+        assertThat(store.findPromptById("p-root")).isEmpty();
+        assertThat(store.findPromptById("p-other")).isPresent();
+    }
+
+    @Test
+    void shouldDeletePromptsByJobId() throws IOException {
+        // Given
+        store.savePrompt(new Prompt("p-1", "job-1", "a.xml", "UNKNOWN", now, now));
+        store.savePrompt(new Prompt("p-2", "job-1", "b.xml", "UNKNOWN", now, now));
+
+        // When
+        store.deletePromptsByJobId("job-1");
+
+        // Then
+        assertThat(store.findPromptsByJobId("job-1")).isEmpty();
+        assertDoesNotThrow(() -> store.deletePromptsByJobId("missing"));
+    }
+
+    @Test
+    void shouldGrowLogBeyondInitialMapping() throws IOException {
+        // Given
+        String result = "x".repeat(300_000);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            store.save(job("job-" + i, null, null, AgentState.creating()).withResult(result));
+        }
+        store.close();
+        store = new LogJobStore(tempDir, 1000);
+
+        // Then
+        assertThat(store.findAll()).hasSize(5).allSatisfy(job -> assertThat(job.result()).hasSize(300_000));
+    }
+
+    @Test
+    void shouldRejectNonPositiveSnapshotInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new LogJobStore(tempDir.resolve("other"), 0));
+    }
+
+    /**
+     * Leave a snapshot behind and return the log as it was before the snapshot cleared it.
+     * Replaying that log on top of the snapshot would delete job-2 again.
+     */
+    private byte[] logBeforeSnapshot() throws IOException {
+        store.save(job("job-2", null, null, AgentState.creating()));
+        store.deleteById("job-2");
+        store.save(job("job-1", null, null, AgentState.creating()));
+        store.close();
+        byte[] log = Files.readAllBytes(tempDir.resolve(LogJobStore.LOG_FILE));
+        store = new LogJobStore(tempDir, 4);
+        store.save(job("job-2", null, null, AgentState.creating()));
+        store.close();
+        store = null;
+        return log;
+    }
+
+    private long findEndOfLog() throws IOException {
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(tempDir.resolve(LogJobStore.LOG_FILE)));
+        int offset = 0;
+        while (log.getInt(offset) != 0) {
+            offset += Integer.BYTES * 3 + log.getInt(offset);
+        }
+        return offset;
+    }
+
+    private Job job(String jobId, String parentJobId, String agentId, AgentState state) {
+        return new Job(jobId, "/path", agentId, "model", "repo", state, now, now, parentJobId,
+                null, null, null, null, null, false);
+    }
+}
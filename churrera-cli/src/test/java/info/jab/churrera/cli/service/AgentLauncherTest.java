@@ -6,6 +6,10 @@ import info.jab.churrera.cli.repository.JobRepository;
 import info.jab.churrera.workflow.ParallelWorkflowData;
 import info.jab.churrera.workflow.PromptInfo;
 import info.jab.churrera.workflow.WorkflowData;
+import info.jab.cursor.client.model.AgentResponse;
+import info.jab.cursor.client.model.AgentStatus;
+import info.jab.cursor.client.model.Source;
+import info.jab.cursor.client.model.Target;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,12 +18,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -181,6 +191,29 @@ class AgentLauncherTest {
         verify(cliAgent).launchAgentForJob(eq(testJob), eq("prompt content"), eq("pml"), isNull(), eq(true));
     }
 
+    @Test
+    void testLaunchJobAgents_LaunchesEveryJobAndIsolatesFailures() {
+        // Given
+        Job firstJob = testJob;
+        Job failingJob = new Job("job-id-2", "/path/workflow.xml", null, "model", "repo", AgentState.creating(),
+            LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
+        Job lastJob = new Job("job-id-3", "/path/workflow.xml", null, "model", "repo", AgentState.creating(),
+            LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.launchAgentForJob(eq(firstJob), anyString(), anyString(), any(), anyBoolean())).thenReturn("agent-1");
+        when(cliAgent.launchAgentForJob(eq(failingJob), anyString(), anyString(), any(), anyBoolean()))
+            .thenThrow(new RuntimeException("Failed to launch agent"));
+        when(cliAgent.launchAgentForJob(eq(lastJob), anyString(), anyString(), any(), anyBoolean())).thenReturn("agent-3");
+
+        // When
+        agentLauncher.launchJobAgents(List.of(firstJob, failingJob, lastJob), testWorkflowData);
+
+        // Then
+        verify(cliAgent).updateJobCursorIdInDatabase(any(Job.class), eq("agent-1"), eq(AgentState.creating()));
+        verify(cliAgent).updateJobCursorIdInDatabase(any(Job.class), eq("agent-3"), eq(AgentState.creating()));
+        verify(cliAgent).updateJobStatusInDatabase(failingJob, AgentState.error());
+    }
+
     @Test
     void testLaunchJobAgent_Exception() {
         // Given
@@ -202,5 +235,158 @@ class AgentLauncherTest {
         // When - Should not throw, just log error
         assertDoesNotThrow(() -> agentLauncher.launchJobAgent(testJob, testWorkflowData));
     }
-}
 
+    @Test
+    void testLaunchJobAgent_WithJournal_CommitsLaunch() throws IOException {
+        // Given
+        Path journalFile = tempDir.resolve(RequestJournal.FILE_NAME);
+        RequestJournal journal = new RequestJournal(journalFile);
+        AgentLauncher journaledLauncher = new AgentLauncher(cliAgent, jobRepository, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.launchAgentForJob(any(Job.class), anyString(), anyString(), any(), anyBoolean()))
+            .thenReturn("agent-id-123");
+
+        // When
+        journaledLauncher.launchJobAgent(testJob, testWorkflowData);
+
+        // Then
+        verify(cliAgent).updateJobCursorIdInDatabase(any(Job.class), eq("agent-id-123"), eq(AgentState.creating()));
+        assertTrue(new RequestJournal(journalFile).pending().isEmpty());
+    }
+
+    @Test
+    void testLaunchJobAgent_WithJournal_StoreFails_KeepsLaunchPending() throws IOException {
+        // Given
+        Path journalFile = tempDir.resolve(RequestJournal.FILE_NAME);
+        RequestJournal journal = new RequestJournal(journalFile);
+        AgentLauncher journaledLauncher = new AgentLauncher(cliAgent, jobRepository, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.launchAgentForJob(any(Job.class), anyString(), anyString(), any(), anyBoolean()))
+            .thenReturn("agent-id-123");
+        doThrow(new RuntimeException("Database unavailable"))
+            .when(cliAgent).updateJobCursorIdInDatabase(any(Job.class), eq("agent-id-123"), any());
+
+        // When
+        journaledLauncher.launchJobAgent(testJob, testWorkflowData);
+
+        // Then
+        List<RequestJournal.PendingRequest> pending = new RequestJournal(journalFile).pending();
+        assertEquals(1, pending.size());
+        assertEquals(RequestJournal.Phase.SENT, pending.get(0).phase());
+        assertEquals("agent-id-123", pending.get(0).agentId());
+    }
+
+    @Test
+    void testLaunchJobAgent_WithJournal_OutcomeUnknown_KeepsLaunchOpenAndPostpones() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(tempDir.resolve(RequestJournal.FILE_NAME));
+        AgentLauncher journaledLauncher = new AgentLauncher(cliAgent, jobRepository, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.launchAgentForJob(any(Job.class), anyString(), anyString(), any(), anyBoolean()))
+            .thenThrow(new ApiUnavailableException("Cursor API launch call failed: timeout", null, true));
+
+        // When
+        journaledLauncher.launchJobAgent(testJob, testWorkflowData);
+
+        // Then
+        List<RequestJournal.PendingRequest> pending = journal.pending();
+        assertEquals(1, pending.size());
+        assertEquals(RequestJournal.Phase.INTENT, pending.get(0).phase());
+        assertFalse(journal.isInFlight(pending.get(0).id()));
+        verify(cliAgent, never()).updateJobStatusInDatabase(any(), any());
+    }
+
+    @Test
+    void testLaunchJobAgent_WithJournal_ClientError_AbortsLaunch() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(tempDir.resolve(RequestJournal.FILE_NAME));
+        AgentLauncher journaledLauncher = new AgentLauncher(cliAgent, jobRepository, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.launchAgentForJob(any(Job.class), anyString(), anyString(), any(), anyBoolean()))
+            .thenThrow(new RuntimeException("Failed to launch agent: Repository cannot be null or empty"));
+
+        // When
+        journaledLauncher.launchJobAgent(testJob, testWorkflowData);
+
+        // Then
+        assertTrue(journal.pending().isEmpty());
+        verify(cliAgent).updateJobStatusInDatabase(testJob, AgentState.error());
+    }
+
+    @Test
+    void testLaunchJobAgent_WithJournal_UnknownLaunchCreatedAgent_AdoptsInsteadOfRelaunching() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(tempDir.resolve(RequestJournal.FILE_NAME));
+        AgentLauncher journaledLauncher = new AgentLauncher(cliAgent, jobRepository, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.launchAgentForJob(any(Job.class), anyString(), anyString(), any(), anyBoolean()))
+            .thenThrow(new ApiUnavailableException("Cursor API launch call failed: timeout", null, true));
+        journaledLauncher.launchJobAgent(testJob, testWorkflowData);
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(testJob));
+        when(jobRepository.findAll()).thenReturn(List.of(testJob));
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class))).thenReturn(List.of(createAgent("agent-id-123", "repo")));
+
+        // When
+        journaledLauncher.launchJobAgent(testJob, testWorkflowData);
+
+        // Then
+        verify(cliAgent, times(1)).launchAgentForJob(any(Job.class), anyString(), anyString(), any(), anyBoolean());
+        verify(cliAgent).updateJobCursorIdInDatabase(any(Job.class), eq("agent-id-123"), eq(AgentState.creating()));
+        assertTrue(journal.pending().isEmpty());
+    }
+
+    @Test
+    void testLaunchJobAgent_WithJournal_UnknownLaunchCreatedNoAgent_LaunchesAgain() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(tempDir.resolve(RequestJournal.FILE_NAME));
+        AgentLauncher journaledLauncher = new AgentLauncher(cliAgent, jobRepository, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.launchAgentForJob(any(Job.class), anyString(), anyString(), any(), anyBoolean()))
+            .thenThrow(new ApiUnavailableException("Cursor API launch call failed: timeout", null, true))
+            .thenReturn("agent-id-456");
+        journaledLauncher.launchJobAgent(testJob, testWorkflowData);
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(testJob));
+        when(jobRepository.findAll()).thenReturn(List.of(testJob));
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class))).thenReturn(List.of());
+
+        // When
+        journaledLauncher.launchJobAgent(testJob, testWorkflowData);
+
+        // Then
+        verify(cliAgent, times(2)).launchAgentForJob(any(Job.class), anyString(), anyString(), any(), anyBoolean());
+        verify(cliAgent).updateJobCursorIdInDatabase(any(Job.class), eq("agent-id-456"), eq(AgentState.creating()));
+        assertTrue(journal.pending().isEmpty());
+    }
+
+    @Test
+    void testLaunchJobAgent_WithJournal_UnknownLaunchCannotBeChecked_Postpones() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(tempDir.resolve(RequestJournal.FILE_NAME));
+        AgentLauncher journaledLauncher = new AgentLauncher(cliAgent, jobRepository, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.launchAgentForJob(any(Job.class), anyString(), anyString(), any(), anyBoolean()))
+            .thenThrow(new ApiUnavailableException("Cursor API launch call failed: timeout", null, true));
+        journaledLauncher.launchJobAgent(testJob, testWorkflowData);
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class)))
+            .thenThrow(new ApiUnavailableException("Cursor API status circuit is open"));
+
+        // When
+        journaledLauncher.launchJobAgent(testJob, testWorkflowData);
+
+        // Then
+        verify(cliAgent, times(1)).launchAgentForJob(any(Job.class), anyString(), anyString(), any(), anyBoolean());
+        verify(cliAgent, never()).updateJobStatusInDatabase(any(), any());
+        assertEquals(1, journal.pending().size());
+    }
+
+    private AgentResponse createAgent(String id, String repository) {
+        return new AgentResponse(
+            id,
+            "Test Agent",
+            AgentStatus.CREATING,
+            new Source(URI.create(repository), "main"),
+            new Target("cursor/test", URI.create("https://cursor.com/agents?id=" + id), false, false, false),
+            OffsetDateTime.now()
+        );
+    }
+}
@@ -0,0 +1,194 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.cursor.generated.client.ApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ApiGuard.
+ */
+class ApiGuardTest {
+
+    private static final int THRESHOLD = 3;
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private MutableClock clock;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        calls = new AtomicInteger();
+    }
+
+    private ApiGuard guard(int maxConcurrentCalls, Duration bulkheadWait) {
+        return new ApiGuard("status", maxConcurrentCalls, THRESHOLD, OPEN_DURATION, bulkheadWait, clock);
+    }
+
+    private Supplier<String> failingWith(int code) {
+        return () -> {
+            calls.incrementAndGet();
+            throw new RuntimeException("Failed to get agent status", new ApiException(code, "HTTP " + code));
+        };
+    }
+
+    private Supplier<String> succeeding() {
+        return () -> {
+            calls.incrementAndGet();
+            return "ok";
+        };
+    }
+
+    @Test
+    void testCall_OutageError_RethrownAsUnavailable() {
+        // Given
+        ApiGuard guard = guard(1, Duration.ZERO);
+
+        // When & Then
+        ApiUnavailableException exception = assertThrows(ApiUnavailableException.class, () -> guard.call(failingWith(503)));
+        assertInstanceOf(RuntimeException.class, exception.getCause());
+        assertTrue(exception.isOutcomeUnknown());
+        assertEquals(ApiGuard.State.CLOSED, guard.state());
+    }
+
+    @Test
+    void testCall_RateLimitedOrRejected_OutcomeKnown() {
+        // Given
+        ApiGuard guard = guard(1, Duration.ZERO);
+
+        // When
+        ApiUnavailableException rateLimited = assertThrows(ApiUnavailableException.class, () -> guard.call(failingWith(429)));
+        for (int i = 1; i < THRESHOLD; i++) {
+            assertThrows(ApiUnavailableException.class, () -> guard.call(failingWith(500)));
+        }
+        ApiUnavailableException rejected = assertThrows(ApiUnavailableException.class, () -> guard.call(succeeding()));
+
+        // Then
+        assertFalse(rateLimited.isOutcomeUnknown());
+        assertFalse(rejected.isOutcomeUnknown());
+        assertFalse(ApiGuard.isOutcomeUnknown(new RuntimeException("Failed", new ApiException(400, "HTTP 400"))));
+        assertTrue(ApiGuard.isOutcomeUnknown(new RuntimeException("Failed", new ApiException(0, "timeout"))));
+    }
+
+    @Test
+    void testCall_ConsecutiveFailures_OpenCircuitAndRejectCalls() {
+        // Given
+        ApiGuard guard = guard(1, Duration.ZERO);
+        for (int i = 0; i < THRESHOLD; i++) {
+            assertThrows(ApiUnavailableException.class, () -> guard.call(failingWith(500)));
+        }
+
+        // When
+        ApiUnavailableException exception = assertThrows(ApiUnavailableException.class, () -> guard.call(succeeding()));
+
+        // Then
+        assertEquals(ApiGuard.State.OPEN, guard.state());
+        assertTrue(exception.getMessage().contains("circuit is open"));
+        assertEquals(THRESHOLD, calls.get());
+    }
+
+    @Test
+    void testCall_ClientErrors_DoNotOpenCircuit() {
+        // Given
+        ApiGuard guard = guard(1, Duration.ZERO);
+
+        // When
+        for (int i = 0; i < THRESHOLD * 2; i++) {
+            RuntimeException exception = assertThrows(RuntimeException.class, () -> guard.call(failingWith(404)));
+            assertFalse(exception instanceof ApiUnavailableException);
+        }
+
+        // Then
+        assertEquals(ApiGuard.State.CLOSED, guard.state());
+        assertEquals(THRESHOLD * 2, calls.get());
+    }
+
+    @Test
+    void testCall_SuccessResetsFailureCount() {
+        // Given
+        ApiGuard guard = guard(1, Duration.ZERO);
+
+        // When
+        for (int i = 0; i < THRESHOLD * 2; i++) {
+            assertThrows(ApiUnavailableException.class, () -> guard.call(failingWith(429)));
+            assertEquals("ok", guard.call(succeeding()));
+        }
+
+        // Then
+        assertEquals(ApiGuard.State.CLOSED, guard.state());
+    }
+
+    @Test
+    void testCall_AfterOpenDuration_TrialCallClosesCircuit() {
+        // Given
+        ApiGuard guard = guard(1, Duration.ZERO);
+        for (int i = 0; i < THRESHOLD; i++) {
+            assertThrows(ApiUnavailableException.class, () -> guard.call(failingWith(502)));
+        }
+        clock.advance(OPEN_DURATION);
+
+        // When
+        String result = guard.call(succeeding());
+
+        // Then
+        assertEquals("ok", result);
+        assertEquals(ApiGuard.State.CLOSED, guard.state());
+    }
+
+    @Test
+    void testCall_AfterOpenDuration_FailedTrialCallReopensCircuit() {
+        // Given
+        ApiGuard guard = guard(1, Duration.ZERO);
+        for (int i = 0; i < THRESHOLD; i++) {
+            assertThrows(ApiUnavailableException.class, () -> guard.call(failingWith(503)));
+        }
+        clock.advance(OPEN_DURATION);
+
+        // When
+        assertThrows(ApiUnavailableException.class, () -> guard.call(failingWith(503)));
+
+        // Then
+        assertEquals(ApiGuard.State.OPEN, guard.state());
+        assertThrows(ApiUnavailableException.class, () -> guard.call(succeeding()));
+        assertEquals(THRESHOLD + 1, calls.get());
+    }
+
+    @Test
+    void testCall_BulkheadFull_RejectsCall() throws Exception {
+        // Given
+        ApiGuard guard = guard(1, Duration.ZERO);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slowCall = Thread.ofVirtual().start(() -> guard.call(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        ApiUnavailableException exception = assertThrows(ApiUnavailableException.class, () -> guard.call(succeeding()));
+
+        // Then
+        assertTrue(exception.getMessage().contains("Too many concurrent"));
+        assertEquals(0, calls.get());
+        assertEquals(ApiGuard.State.CLOSED, guard.state());
+
+        release.countDown();
+        slowCall.join();
+        assertEquals("ok", guard.call(succeeding()));
+    }
+}
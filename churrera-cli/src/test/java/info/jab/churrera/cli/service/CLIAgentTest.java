@@ -5,12 +5,14 @@ import info.jab.churrera.cli.model.Job;
 import info.jab.churrera.cli.model.Prompt;
 import info.jab.churrera.cli.repository.JobRepository;
 import info.jab.churrera.util.PmlConverter;
+import info.jab.churrera.util.PmlMarkdownRenderer;
 import info.jab.churrera.util.PropertyResolver;
 import info.jab.cursor.client.CursorAgentGeneralEndpoints;
 import info.jab.cursor.client.CursorAgentInformation;
 import info.jab.cursor.client.CursorAgentManagement;
 import info.jab.cursor.client.model.AgentResponse;
 import info.jab.cursor.client.model.AgentStatus;
+import info.jab.cursor.client.model.AgentsList;
 import info.jab.cursor.client.model.ConversationMessage;
 import info.jab.cursor.client.model.ConversationResponse;
 import info.jab.cursor.client.model.FollowUpResponse;
@@ -27,7 +29,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -224,6 +229,38 @@ class CLIAgentTest {
                 () -> cliAgent.followUpForPrompt("agent-id", "pml content", "pml", null));
             assertTrue(exception.getMessage().contains("Failed to send follow-up"));    }
 
+    @Test
+    void testIsFollowUpDelivered_LastUserMessageIsPrompt_ReturnsTrue() {
+        // Given
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+        when(cursorAgentInformation.getAgentConversation("agent-id")).thenReturn(createTestConversationResponse("agent-id", List.of(
+            new ConversationMessage("msg-1", "user_message", "First prompt"),
+            new ConversationMessage("msg-2", "assistant_message", "Done"),
+            new ConversationMessage("msg-3", "user_message", "Second prompt\n"))));
+
+        // When
+        boolean delivered = cliAgent.isFollowUpDelivered("agent-id", "Second prompt", "md", null);
+
+        // Then
+        assertTrue(delivered);
+    }
+
+    @Test
+    void testIsFollowUpDelivered_PromptOnlyInEarlierMessage_ReturnsFalse() {
+        // Given
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+        when(cursorAgentInformation.getAgentConversation("agent-id")).thenReturn(createTestConversationResponse("agent-id", List.of(
+            new ConversationMessage("msg-1", "user_message", "Second prompt"),
+            new ConversationMessage("msg-2", "user_message", "First prompt"),
+            new ConversationMessage("msg-3", "assistant_message", "Second prompt"))));
+
+        // When
+        boolean delivered = cliAgent.isFollowUpDelivered("agent-id", "Second prompt", "md", null);
+
+        // Then
+        assertFalse(delivered);
+    }
+
     @Test
     void testMonitorAgent_TerminalState() {
 
@@ -484,6 +521,117 @@ class CLIAgentTest {
                 () -> cliAgent.getAgentStatus("agent-id"));
             assertTrue(exception.getMessage().contains("Failed to get agent status"));    }
 
+    @Test
+    void testRefreshAgentStatuses_PagesUntilAllAgentsAreFound() {
+
+        // Given
+
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+
+            when(cursorAgentInformation.getAgents(CLIAgent.AGENTS_PAGE_SIZE, null))
+                .thenReturn(new AgentsList(List.of(
+                    createTestAgentResponse("agent-1", AgentStatus.RUNNING),
+                    createTestAgentResponse("other-agent", AgentStatus.RUNNING)), "page-2"));
+            when(cursorAgentInformation.getAgents(CLIAgent.AGENTS_PAGE_SIZE, "page-2"))
+                .thenReturn(new AgentsList(List.of(createTestAgentResponse("agent-2", AgentStatus.FINISHED)), "page-3"));
+
+            // When
+            int found = cliAgent.refreshAgentStatuses(Set.of("agent-1", "agent-2"));
+
+            // Then
+            assertEquals(2, found);
+            assertEquals(AgentState.running(), cliAgent.getAgentStatus("agent-1"));
+            assertEquals(AgentState.finished(), cliAgent.getAgentStatus("agent-2"));
+            verify(cursorAgentInformation, never()).getAgents(CLIAgent.AGENTS_PAGE_SIZE, "page-3");
+            verify(cursorAgentInformation, never()).getStatus(anyString());
+    }
+
+    @Test
+    void testRefreshAgentStatuses_FetchesNoMorePagesThanAgents() {
+        // Given
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+        when(cursorAgentInformation.getAgents(CLIAgent.AGENTS_PAGE_SIZE, null))
+            .thenReturn(new AgentsList(List.of(createTestAgentResponse("agent-1", AgentStatus.RUNNING)), "page-2"));
+        when(cursorAgentInformation.getAgents(CLIAgent.AGENTS_PAGE_SIZE, "page-2"))
+            .thenReturn(new AgentsList(List.of(createTestAgentResponse("other-agent", AgentStatus.RUNNING)), "page-3"));
+        when(cursorAgentInformation.getStatus("deleted-agent"))
+            .thenReturn(createTestAgentResponse("deleted-agent", AgentStatus.FINISHED));
+
+        // When
+        int found = cliAgent.refreshAgentStatuses(Set.of("agent-1", "deleted-agent"));
+
+        // Then
+        assertEquals(1, found);
+        assertEquals(AgentState.finished(), cliAgent.getAgentStatus("deleted-agent"));
+        verify(cursorAgentInformation, times(2)).getAgents(eq(CLIAgent.AGENTS_PAGE_SIZE), any());
+        verify(cursorAgentInformation, never()).getAgents(CLIAgent.AGENTS_PAGE_SIZE, "page-3");
+    }
+
+    @Test
+    void testRefreshAgentStatuses_LeavesUnlistedAgentsOutOfLaterRefreshes() {
+        // Given
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+        when(cursorAgentInformation.getAgents(CLIAgent.AGENTS_PAGE_SIZE, null))
+            .thenReturn(new AgentsList(List.of(createTestAgentResponse("agent-1", AgentStatus.RUNNING)), "page-2"));
+        when(cursorAgentInformation.getAgents(CLIAgent.AGENTS_PAGE_SIZE, "page-2"))
+            .thenReturn(new AgentsList(List.of(createTestAgentResponse("agent-2", AgentStatus.RUNNING)), "page-3"));
+        cliAgent.refreshAgentStatuses(Set.of("agent-1", "deleted-agent"));
+
+        // When
+        int found = cliAgent.refreshAgentStatuses(Set.of("agent-1", "agent-2", "deleted-agent"));
+
+        // Then
+        assertEquals(2, found);
+        // Two pages for the first refresh, two for the agents still listed in the second one
+        verify(cursorAgentInformation, times(2)).getAgents(CLIAgent.AGENTS_PAGE_SIZE, null);
+        verify(cursorAgentInformation, times(2)).getAgents(CLIAgent.AGENTS_PAGE_SIZE, "page-2");
+        verify(cursorAgentInformation, never()).getAgents(CLIAgent.AGENTS_PAGE_SIZE, "page-3");
+    }
+
+    @Test
+    void testGetAgentStatus_UsesRefreshedStatusOnlyOnce() {
+
+        // Given
+
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+
+            when(cursorAgentInformation.getAgents(CLIAgent.AGENTS_PAGE_SIZE, null))
+                .thenReturn(new AgentsList(List.of(createTestAgentResponse("agent-1", AgentStatus.RUNNING)), null));
+            when(cursorAgentInformation.getStatus("agent-1"))
+                .thenReturn(createTestAgentResponse("agent-1", AgentStatus.FINISHED));
+            cliAgent.refreshAgentStatuses(Set.of("agent-1"));
+
+            // When
+            AgentState first = cliAgent.getAgentStatus("agent-1");
+            AgentState second = cliAgent.getAgentStatus("agent-1");
+
+            // Then
+            assertEquals(AgentState.running(), first);
+            assertEquals(AgentState.finished(), second);
+            verify(cursorAgentInformation).getStatus("agent-1");
+    }
+
+    @Test
+    void testRefreshAgentStatuses_FallsBackToSingleRequestsWhenListingFails() {
+
+        // Given
+
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+
+            when(cursorAgentInformation.getAgents(CLIAgent.AGENTS_PAGE_SIZE, null))
+                .thenThrow(new RuntimeException("Too many requests"));
+            when(cursorAgentInformation.getStatus("agent-1"))
+                .thenReturn(createTestAgentResponse("agent-1", AgentStatus.RUNNING));
+
+            // When
+            int found = cliAgent.refreshAgentStatuses(Set.of("agent-1", "agent-2"));
+
+            // Then
+            assertEquals(0, found);
+            assertEquals(AgentState.running(), cliAgent.getAgentStatus("agent-1"));
+            verify(cursorAgentInformation).getStatus("agent-1");
+    }
+
     // Tests for bindValue replacement logic
     @ParameterizedTest(name = "Should launch agent with bindValue ''{0}'' and content type ''{1}''")
     @CsvSource({
@@ -515,6 +663,57 @@ class CLIAgentTest {
         verify(cursorAgentManagement).launch(expectedLaunchContent, "test-model", "test-repo", true);
     }
 
+    @Test
+    void testLaunchAgentForJob_SamePromptDifferentBindValues_ConvertsOnce() {
+        // Given
+        when(mockPmlConverter.toMarkdownFromContent(anyString(), anyString()))
+                .thenReturn("converted markdown with <input>INPUT</input>");
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+        when(cursorAgentManagement.launch(anyString(), anyString(), anyString(), anyBoolean()))
+            .thenReturn(createTestAgentResponse("new-agent-id", AgentStatus.CREATING));
+
+        // When
+        cliAgent.launchAgentForJob(testJob, "pml content", "pml", "first", false);
+        cliAgent.launchAgentForJob(testJob, "pml content", "pml", "second", false);
+
+        // Then
+        verify(mockPmlConverter, times(1)).toMarkdownFromContent(anyString(), anyString());
+        verify(cursorAgentManagement).launch("converted markdown with <input>first</input>", "test-model", "test-repo", false);
+        verify(cursorAgentManagement).launch("converted markdown with <input>second</input>", "test-model", "test-repo", false);
+    }
+
+    @Test
+    void testLaunchAgentForJob_NativeRenderer_SkipsXslt() {
+        // Given
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints,
+            mockPmlConverter, MetadataCache.disabled(), new PmlMarkdownRenderer(PmlMarkdownRenderer.CLI_STYLESHEET));
+        when(cursorAgentManagement.launch(anyString(), anyString(), anyString(), anyBoolean()))
+            .thenReturn(createTestAgentResponse("new-agent-id", AgentStatus.CREATING));
+
+        // When
+        cliAgent.launchAgentForJob(testJob, "<prompt><role>Reviewer</role><goal><![CDATA[Check <input>INPUT</input>]]></goal></prompt>", "pml", "orders", false);
+
+        // Then
+        verify(cursorAgentManagement).launch("## Role\n\nReviewer\n\n## Goal\n\nCheck <input>orders</input>\n", "test-model", "test-repo", false);
+        verifyNoInteractions(mockPmlConverter);
+    }
+
+    @Test
+    void testLaunchAgentForJob_NativeRendererFails_FallsBackToXslt() {
+        // Given
+        when(mockPmlConverter.toMarkdownFromContent(anyString(), anyString())).thenReturn("converted markdown");
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints,
+            mockPmlConverter, MetadataCache.disabled(), new PmlMarkdownRenderer(PmlMarkdownRenderer.CLI_STYLESHEET));
+        when(cursorAgentManagement.launch(anyString(), anyString(), anyString(), anyBoolean()))
+            .thenReturn(createTestAgentResponse("new-agent-id", AgentStatus.CREATING));
+
+        // When
+        cliAgent.launchAgentForJob(testJob, "not xml", "pml", null, false);
+
+        // Then
+        verify(cursorAgentManagement).launch("converted markdown", "test-model", "test-repo", false);
+    }
+
     @ParameterizedTest(name = "Should follow up with bindValue ''{0}'' and content type ''{1}''")
     @CsvSource({
         "bound-value, pml, converted markdown with <input>INPUT</input>, converted markdown with <input>bound-value</input>",
@@ -642,4 +841,79 @@ class CLIAgentTest {
             RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> cliAgent.updateJobInDatabase(testJob));
             assertTrue(exception.getMessage().contains("Failed to update job in database"));    }
+
+    @Test
+    void testStreamConversation_NotCached_StreamsFromApi() {
+        // Given
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+        ConversationMessage message = new ConversationMessage("msg-id", "assistant_message", "Hello");
+        when(cursorAgentInformation.streamAgentConversation(eq("agent-id"), any())).thenAnswer(invocation -> {
+            Consumer<ConversationMessage> consumer = invocation.getArgument(1);
+            consumer.accept(message);
+            return 1;
+        });
+        List<ConversationMessage> received = new ArrayList<>();
+
+        // When
+        int count = cliAgent.streamConversation("agent-id", received::add);
+
+        // Then
+        assertEquals(1, count);
+        assertEquals(List.of(message), received);
+        verify(cursorAgentInformation, never()).getAgentConversation(anyString());
+    }
+
+    @Test
+    void testStreamConversation_Cached_ReplaysWithoutApiCall() {
+        // Given
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+        ConversationMessage message = new ConversationMessage("msg-id", "assistant_message", "<result>ok</result>");
+        when(cursorAgentInformation.getStatus("agent-id")).thenReturn(createTestAgentResponse("agent-id", AgentStatus.FINISHED));
+        when(cursorAgentInformation.getAgentConversation("agent-id"))
+            .thenReturn(createTestConversationResponse("agent-id", List.of(message)));
+        cliAgent.getAgentStatus("agent-id");
+        cliAgent.getConversationContent("agent-id");
+        List<ConversationMessage> received = new ArrayList<>();
+
+        // When
+        int count = cliAgent.streamConversation("agent-id", received::add);
+
+        // Then
+        assertEquals(1, count);
+        assertEquals(List.of(message), received);
+        verify(cursorAgentInformation, never()).streamAgentConversation(anyString(), any());
+    }
+
+    @Test
+    void testReleaseConversation_FetchesConversationAgain() {
+        // Given
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+        ConversationMessage message = new ConversationMessage("msg-id", "assistant_message", "<result>ok</result>");
+        when(cursorAgentInformation.getStatus("agent-id")).thenReturn(createTestAgentResponse("agent-id", AgentStatus.FINISHED));
+        when(cursorAgentInformation.getAgentConversation("agent-id"))
+            .thenReturn(createTestConversationResponse("agent-id", List.of(message)));
+        cliAgent.getAgentStatus("agent-id");
+        cliAgent.getConversationContent("agent-id");
+
+        // When
+        cliAgent.releaseConversation("agent-id");
+        String content = cliAgent.getConversationContent("agent-id");
+
+        // Then
+        assertEquals("<result>ok</result>\n", content);
+        verify(cursorAgentInformation, times(2)).getAgentConversation("agent-id");
+    }
+
+    @Test
+    void testStreamConversation_Failure() {
+        // Given
+        cliAgent = new CLIAgent(jobRepository, cursorAgentManagement, cursorAgentInformation, cursorAgentGeneralEndpoints, mockPmlConverter);
+        when(cursorAgentInformation.streamAgentConversation(eq("agent-id"), any()))
+            .thenThrow(new RuntimeException("Stream failed"));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> cliAgent.streamConversation("agent-id", _ -> { }));
+        assertTrue(exception.getMessage().contains("Failed to get agent conversation for agent-id"));
+    }
 }
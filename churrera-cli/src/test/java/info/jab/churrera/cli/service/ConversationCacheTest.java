@@ -0,0 +1,110 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.churrera.cli.model.AgentState;
+import info.jab.cursor.client.model.ConversationMessage;
+import info.jab.cursor.client.model.ConversationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConversationCache.
+ */
+class ConversationCacheTest {
+
+    private static final String AGENT_ID = "agent-1";
+
+    private ConversationCache cache;
+    private List<String> fetches;
+    private List<ConversationMessage> serverMessages;
+    private Function<String, ConversationResponse> fetcher;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConversationCache();
+        fetches = new ArrayList<>();
+        serverMessages = new ArrayList<>(List.of(new ConversationMessage("m1", "user_message", "Hello")));
+        fetcher = agentId -> {
+            fetches.add(agentId);
+            return new ConversationResponse(agentId, List.copyOf(serverMessages));
+        };
+    }
+
+    @Test
+    void testContent_FetchesEveryTimeWhenStatusIsUnknown() {
+        // When
+        cache.content(AGENT_ID, fetcher);
+        cache.content(AGENT_ID, fetcher);
+
+        // Then
+        assertEquals(2, fetches.size());
+    }
+
+    @Test
+    void testContent_SharesOneFetchWhileStatusIsUnchanged() {
+        // Given
+        cache.observeStatus(AGENT_ID, AgentState.finished());
+
+        // When
+        String content = cache.content(AGENT_ID, fetcher);
+        ConversationResponse conversation = cache.conversation(AGENT_ID, fetcher);
+        cache.observeStatus(AGENT_ID, AgentState.finished());
+        cache.content(AGENT_ID, fetcher);
+
+        // Then
+        assertEquals("Hello\n", content);
+        assertEquals(1, conversation.messages().size());
+        assertEquals(List.of(AGENT_ID), fetches);
+    }
+
+    @Test
+    void testContent_RefetchesAndMergesMessagesWhenStatusChanges() {
+        // Given
+        cache.observeStatus(AGENT_ID, AgentState.running());
+        cache.content(AGENT_ID, fetcher);
+        serverMessages.set(0, new ConversationMessage("m1", "user_message", "Hello again"));
+        serverMessages.add(new ConversationMessage("m2", "assistant_message", "Done"));
+
+        // When
+        cache.observeStatus(AGENT_ID, AgentState.finished());
+        String content = cache.content(AGENT_ID, fetcher);
+
+        // Then
+        assertEquals("Hello again\nDone\n", content);
+        assertEquals(2, fetches.size());
+    }
+
+    @Test
+    void testInvalidate_RefetchesUntilStatusIsObservedAgain() {
+        // Given
+        cache.observeStatus(AGENT_ID, AgentState.finished());
+        cache.content(AGENT_ID, fetcher);
+
+        // When - a follow-up was sent and the agent finished again
+        cache.invalidate(AGENT_ID);
+        cache.content(AGENT_ID, fetcher);
+        cache.observeStatus(AGENT_ID, AgentState.finished());
+        cache.content(AGENT_ID, fetcher);
+        cache.content(AGENT_ID, fetcher);
+
+        // Then
+        assertEquals(3, fetches.size());
+    }
+
+    @Test
+    void testContent_SkipsMessagesWithoutText() {
+        // Given
+        serverMessages.add(new ConversationMessage("m2", "assistant_message", null));
+
+        // When
+        String content = cache.content(AGENT_ID, fetcher);
+
+        // Then
+        assertEquals("Hello\n", content);
+    }
+}
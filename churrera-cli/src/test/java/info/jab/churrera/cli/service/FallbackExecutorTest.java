@@ -184,6 +184,22 @@ class FallbackExecutorTest {
         verify(cliAgent).updateJobStatusInDatabase(testJob, AgentState.error());
     }
 
+    @Test
+    void testExecuteFallback_ApiUnavailable_LeavesFallbackToRetry() {
+        // Given
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("fallback content");
+        when(workflowFileService.inferTypeFromExtension("fallback.pml")).thenReturn("pml");
+        when(cliAgent.followUpForPrompt(anyString(), anyString(), anyString(), any()))
+            .thenThrow(new ApiUnavailableException("Cursor API launch circuit is open"));
+
+        // When
+        fallbackExecutor.executeFallback(testJob, testWorkflowData, 1000L, 1000L);
+
+        // Then
+        verify(cliAgent, never()).updateJobStatusInDatabase(any(), any());
+        verify(jobRepository, never()).save(any(Job.class));
+    }
+
     @Test
     void testExecuteFallbackForParallelChildren_AlreadyExecuted() {
         // Given
@@ -223,7 +239,7 @@ class FallbackExecutorTest {
         Job child2 = new Job("child-2", "/path", null, "model", "repo", AgentState.creating(),
             LocalDateTime.now(), LocalDateTime.now(), "job-id", null, null, null, null, null, null);
         
-        when(jobRepository.findAll()).thenReturn(List.of(testJob, child1, child2));
+        when(jobRepository.findJobsByParentId("job-id")).thenReturn(List.of(child1, child2));
         when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("fallback content");
         when(workflowFileService.inferTypeFromExtension("fallback.pml")).thenReturn("pml");
         when(cliAgent.followUpForPrompt(anyString(), anyString(), anyString(), any())).thenReturn("follow-up-id");
@@ -239,6 +255,33 @@ class FallbackExecutorTest {
         verify(jobRepository, atLeast(3)).save(any(Job.class)); // 2 children + parent
     }
 
+    @Test
+    void testExecuteFallbackForParallelChildren_ApiUnavailable_LeavesParentFallbackToRetry() throws IOException {
+        // Given
+        ParallelWorkflowData parallelData = mock(ParallelWorkflowData.class);
+        when(parallelData.getFallbackSrc()).thenReturn("fallback.pml");
+
+        Job child1 = new Job("child-1", "/path", "child-agent-1", "model", "repo", AgentState.creating(),
+            LocalDateTime.now(), LocalDateTime.now(), "job-id", null, null, null, null, null, null);
+        Job child2 = new Job("child-2", "/path", "child-agent-2", "model", "repo", AgentState.creating(),
+            LocalDateTime.now(), LocalDateTime.now(), "job-id", null, null, null, null, null, null);
+
+        when(jobRepository.findJobsByParentId("job-id")).thenReturn(List.of(child1, child2));
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("fallback content");
+        when(workflowFileService.inferTypeFromExtension("fallback.pml")).thenReturn("pml");
+        when(cliAgent.followUpForPrompt(eq("child-agent-1"), anyString(), anyString(), any())).thenReturn("follow-up-id");
+        when(cliAgent.followUpForPrompt(eq("child-agent-2"), anyString(), anyString(), any()))
+            .thenThrow(new ApiUnavailableException("Cursor API launch circuit is open"));
+
+        // When
+        fallbackExecutor.executeFallbackForParallelChildren(testJob, parallelData);
+
+        // Then
+        verify(jobRepository).save(argThat(job -> job.jobId().equals("child-1") && Boolean.TRUE.equals(job.fallbackExecuted())));
+        verify(jobRepository, never()).save(argThat(job -> job.jobId().equals("child-2")));
+        verify(jobRepository, never()).save(argThat(job -> job.jobId().equals("job-id")));
+    }
+
     @Test
     void testExecuteFallbackForParallelChildren_ChildAlreadyExecuted() throws IOException {
         // Given
@@ -248,7 +291,7 @@ class FallbackExecutorTest {
         Job child1 = new Job("child-1", "/path", "child-agent-1", "model", "repo", AgentState.creating(),
             LocalDateTime.now(), LocalDateTime.now(), "job-id", null, null, null, null, null, true);
         
-        when(jobRepository.findAll()).thenReturn(List.of(testJob, child1));
+        when(jobRepository.findJobsByParentId("job-id")).thenReturn(List.of(child1));
         when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("fallback content");
         when(workflowFileService.inferTypeFromExtension("fallback.pml")).thenReturn("pml");
 
@@ -269,7 +312,7 @@ class FallbackExecutorTest {
         Job finishedChild = new Job("child-1", "/path", "child-agent-1", "model", "repo", AgentState.finished(),
             LocalDateTime.now(), LocalDateTime.now(), "job-id", null, null, null, null, null, null);
         
-        when(jobRepository.findAll()).thenReturn(List.of(testJob, finishedChild));
+        when(jobRepository.findJobsByParentId("job-id")).thenReturn(List.of(finishedChild));
         when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("fallback content");
         when(workflowFileService.inferTypeFromExtension("fallback.pml")).thenReturn("pml");
 
@@ -287,7 +330,7 @@ class FallbackExecutorTest {
         // Given
         ParallelWorkflowData parallelData = mock(ParallelWorkflowData.class);
         when(parallelData.getFallbackSrc()).thenReturn("fallback.pml");
-        when(jobRepository.findAll()).thenThrow(new RuntimeException("DB error"));
+        when(jobRepository.findJobsByParentId("job-id")).thenThrow(new RuntimeException("DB error"));
 
         // When - Should not throw
         assertDoesNotThrow(() -> fallbackExecutor.executeFallbackForParallelChildren(testJob, parallelData));
@@ -23,7 +23,17 @@ import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -1542,4 +1552,146 @@ class JobProcessorTest {
         Files.deleteIfExists(tempDir);
     }
 
+    @Test
+    void testProcessJobs_ProcessesJobsConcurrently() {
+        // Given
+        Job firstJob = testJob;
+        Job secondJob = new Job("second-job-id", "/test/path/workflow.xml", null, "test-model", "test-repo",
+            AgentState.creating(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
+        when(jobRepository.findUnfinishedJobs()).thenReturn(List.of(firstJob, secondJob));
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        AtomicInteger overlapping = new AtomicInteger();
+        when(jobRepository.findJobWithDetails(anyString())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            if (bothStarted.await(5, TimeUnit.SECONDS)) {
+                overlapping.incrementAndGet();
+            }
+            return Optional.empty();
+        });
+
+        // When
+        jobProcessor.processJobs();
+
+        // Then - each job waited for the other one, which only works when they run at the same time
+        assertEquals(2, overlapping.get());
+        verify(jobRepository).findJobWithDetails("test-job-id");
+        verify(jobRepository).findJobWithDetails("second-job-id");
+    }
+
+    @Test
+    void testProcessJobs_RespectsMaxConcurrency() {
+        // Given
+        jobProcessor = new JobProcessor(jobRepository, cliAgent, workflowParser, 2);
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            jobs.add(new Job("job-" + i, "/test/path/workflow.xml", null, "test-model", "test-repo",
+                AgentState.creating(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null));
+        }
+        when(jobRepository.findUnfinishedJobs()).thenReturn(jobs);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(jobRepository.findJobWithDetails(anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return Optional.empty();
+        });
+
+        // When
+        jobProcessor.processJobs();
+
+        // Then
+        verify(jobRepository, times(6)).findJobWithDetails(anyString());
+        assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test
+    void testProcessJobs_ParentAndChildNeverProcessedTogether() {
+        // Given - the child comes first in the list, its parent second
+        Job parentJob = testJob;
+        Job childJob = new Job("child-job-id", "/test/path/workflow.xml", null, "test-model", "test-repo",
+            AgentState.creating(), LocalDateTime.now(), LocalDateTime.now(), "test-job-id", null, null, null, null, null, null);
+        Job otherChildJob = new Job("other-child-job-id", "/test/path/workflow.xml", null, "test-model", "test-repo",
+            AgentState.creating(), LocalDateTime.now(), LocalDateTime.now(), "test-job-id", null, null, null, null, null, null);
+        when(jobRepository.findUnfinishedJobs()).thenReturn(List.of(childJob, parentJob, otherChildJob));
+        List<String> order = new CopyOnWriteArrayList<>();
+        AtomicInteger parentRunning = new AtomicInteger();
+        AtomicInteger overlapping = new AtomicInteger();
+        when(jobRepository.findJobWithDetails(anyString())).thenAnswer(invocation -> {
+            String jobId = invocation.getArgument(0);
+            order.add(jobId);
+            if (jobId.equals("test-job-id")) {
+                parentRunning.incrementAndGet();
+                Thread.sleep(50);
+                parentRunning.decrementAndGet();
+            } else if (parentRunning.get() > 0) {
+                overlapping.incrementAndGet();
+            }
+            return Optional.empty();
+        });
+
+        // When
+        jobProcessor.processJobs();
+
+        // Then
+        assertEquals(0, overlapping.get());
+        assertEquals("test-job-id", order.get(0));
+        assertEquals(3, order.size());
+    }
+
+    @Test
+    void testProcessJobs_SkipsUnchangedJobUntilItIsDueAgain() {
+        // Given
+        when(jobRepository.findUnfinishedJobs()).thenReturn(List.of(testJob));
+        when(jobRepository.findJobWithDetails("test-job-id")).thenReturn(Optional.empty());
+
+        // When
+        jobProcessor.processJobs();
+        jobProcessor.processJobs();
+
+        // Then - the second tick comes before the backoff has elapsed
+        verify(jobRepository, times(2)).findUnfinishedJobs();
+        verify(jobRepository, times(1)).findJobWithDetails("test-job-id");
+        assertTrue(jobProcessor.timeUntilNextCheck().compareTo(JobScheduler.DEFAULT_MIN_DELAY) <= 0);
+    }
+
+    @Test
+    void testProcessJobs_ProcessesChangedJobOnNextTick() {
+        // Given
+        when(jobRepository.findUnfinishedJobs())
+            .thenReturn(List.of(testJob))
+            .thenReturn(List.of(testJob.withStatus(AgentState.running())));
+        when(jobRepository.findJobWithDetails("test-job-id")).thenReturn(Optional.empty());
+
+        // When
+        jobProcessor.processJobs();
+        jobProcessor.processJobs();
+
+        // Then
+        verify(jobRepository, times(2)).findJobWithDetails("test-job-id");
+    }
+
+    @Test
+    void testProcessJobs_RefreshesAgentStatusesOncePerTick() {
+        // Given
+        Job firstJob = new Job("first-job-id", "/test/path/workflow.xml", "agent-1", "test-model", "test-repo",
+            AgentState.running(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
+        Job secondJob = new Job("second-job-id", "/test/path/workflow.xml", "agent-2", "test-model", "test-repo",
+            AgentState.running(), LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
+        when(jobRepository.findUnfinishedJobs()).thenReturn(List.of(firstJob, secondJob));
+        when(jobRepository.findJobWithDetails(anyString())).thenReturn(Optional.empty());
+
+        // When
+        jobProcessor.processJobs();
+
+        // Then
+        verify(cliAgent).refreshAgentStatuses(Set.of("agent-1", "agent-2"));
+        verify(cliAgent).clearAgentStatuses();
+    }
+
+    @Test
+    void testConstructor_RejectsNonPositiveConcurrency() {
+        assertThrows(IllegalArgumentException.class, () -> new JobProcessor(jobRepository, cliAgent, workflowParser, 0));
+    }
 }
+
@@ -0,0 +1,181 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.churrera.cli.model.AgentState;
+import info.jab.churrera.cli.model.Job;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JobScheduler.
+ */
+class JobSchedulerTest {
+
+    private static final Instant START = Instant.parse("2025-01-01T10:00:00Z");
+
+    private MutableClock clock;
+    private JobScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        scheduler = new JobScheduler(Duration.ofSeconds(2), Duration.ofSeconds(16), clock);
+    }
+
+    @Test
+    void testSelectDue_NewJobIsDueImmediately() {
+        // Given
+        Job job = job("job-1", "agent-1", AgentState.running(), null);
+
+        // When
+        List<Job> due = scheduler.selectDue(List.of(job));
+
+        // Then
+        assertEquals(List.of(job), due);
+    }
+
+    @Test
+    void testSelectDue_UnchangedJobBacksOffExponentially() {
+        // Given
+        Job job = job("job-1", "agent-1", AgentState.running(), null);
+        scheduler.selectDue(List.of(job));
+        scheduler.processed(job);
+
+        // Then - 2s, then 4s, then 8s, then capped at 16s
+        assertDueAfter(job, Duration.ofSeconds(2));
+        assertDueAfter(job, Duration.ofSeconds(4));
+        assertDueAfter(job, Duration.ofSeconds(8));
+        assertDueAfter(job, Duration.ofSeconds(16));
+        assertDueAfter(job, Duration.ofSeconds(16));
+    }
+
+    @Test
+    void testSelectDue_ChangedJobIsDueImmediatelyAndBackoffResets() {
+        // Given
+        Job job = job("job-1", "agent-1", AgentState.running(), null);
+        scheduler.selectDue(List.of(job));
+        scheduler.processed(job);
+        assertDueAfter(job, Duration.ofSeconds(2));
+        clock.advance(Duration.ofSeconds(1));
+
+        // When
+        Job finished = job.withStatus(AgentState.finished());
+        List<Job> due = scheduler.selectDue(List.of(finished));
+
+        // Then
+        assertEquals(List.of(finished), due);
+        scheduler.processed(finished);
+        assertDueAfter(finished, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void testSelectDue_ChildChangeWakesParent() {
+        // Given
+        Job parent = job("parent", "agent-p", AgentState.running(), null);
+        Job child = job("child", "agent-c", AgentState.running(), "parent");
+        scheduler.selectDue(List.of(parent, child));
+        scheduler.processed(parent);
+        scheduler.processed(child);
+
+        // When
+        Job finishedChild = child.withStatus(AgentState.finished());
+        List<Job> due = scheduler.selectDue(List.of(parent, finishedChild));
+
+        // Then
+        assertEquals(List.of(parent, finishedChild), due);
+    }
+
+    @Test
+    void testProcessed_JobWithTimeoutIsWokenAtDeadline() {
+        // Given - the workflow started 10s ago with a 13s timeout, backoff is already 16s
+        scheduler = new JobScheduler(Duration.ofSeconds(16), Duration.ofSeconds(16), clock);
+        LocalDateTime startTime = LocalDateTime.ofInstant(START.minusSeconds(10), ZoneOffset.UTC);
+        Job job = new Job("job-1", "/path", "agent-1", "model", "repo", AgentState.running(),
+            LocalDateTime.now(), LocalDateTime.now(), null, null, null, 13_000L, startTime, null, null);
+        scheduler.selectDue(List.of(job));
+
+        // When
+        scheduler.processed(job);
+
+        // Then
+        assertEquals(Duration.ofSeconds(3), scheduler.timeUntilNextCheck());
+        clock.advance(Duration.ofSeconds(3));
+        assertEquals(List.of(job), scheduler.selectDue(List.of(job)));
+    }
+
+    @Test
+    void testSelectDue_ForgetsFinishedJobs() {
+        // Given
+        Job job = job("job-1", "agent-1", AgentState.running(), null);
+        scheduler.selectDue(List.of(job));
+        scheduler.processed(job);
+
+        // When
+        scheduler.selectDue(List.of());
+
+        // Then
+        assertEquals(Duration.ofSeconds(16), scheduler.timeUntilNextCheck());
+        assertEquals(List.of(job), scheduler.selectDue(List.of(job)));
+    }
+
+    @Test
+    void testLimitMaxDelay_CapsBackoffAndPendingChecks() {
+        // Given
+        Job job = job("job-1", "agent-1", AgentState.running(), null);
+        scheduler.selectDue(List.of(job));
+        scheduler.processed(job);
+        assertDueAfter(job, Duration.ofSeconds(2));
+        assertDueAfter(job, Duration.ofSeconds(4));
+        assertDueAfter(job, Duration.ofSeconds(8));
+
+        // When
+        scheduler.limitMaxDelay(Duration.ofSeconds(10));
+
+        // Then - the pending 16s check is pulled in, and later checks never wait longer
+        assertDueAfter(job, Duration.ofSeconds(10));
+        assertDueAfter(job, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void testLimitMaxDelay_IgnoresLongerLimitAndKeepsMinDelay() {
+        // Given
+        Job job = job("job-1", "agent-1", AgentState.running(), null);
+        scheduler.selectDue(List.of(job));
+        scheduler.processed(job);
+
+        // When
+        scheduler.limitMaxDelay(Duration.ofSeconds(60));
+        scheduler.limitMaxDelay(Duration.ofSeconds(1));
+
+        // Then
+        assertDueAfter(job, Duration.ofSeconds(2));
+        assertDueAfter(job, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidRange() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new JobScheduler(Duration.ofSeconds(10), Duration.ofSeconds(5), clock));
+    }
+
+    private void assertDueAfter(Job job, Duration delay) {
+        assertEquals(delay, scheduler.timeUntilNextCheck());
+        clock.advance(delay.minusMillis(1));
+        assertTrue(scheduler.selectDue(List.of(job)).isEmpty());
+        clock.advance(Duration.ofMillis(1));
+        assertEquals(List.of(job), scheduler.selectDue(List.of(job)));
+        scheduler.processed(job);
+    }
+
+    private static Job job(String jobId, String agentId, AgentState status, String parentJobId) {
+        return new Job(jobId, "/path", agentId, "model", "repo", status,
+            LocalDateTime.now(), LocalDateTime.now(), parentJobId, null, null, null, null, null, null);
+    }
+}
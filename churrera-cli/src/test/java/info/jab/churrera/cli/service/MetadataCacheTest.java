@@ -0,0 +1,213 @@
+package info.jab.churrera.cli.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MetadataCache.
+ */
+class MetadataCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Duration STALE = Duration.ofHours(1);
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private MutableClock clock;
+    private List<Runnable> backgroundTasks;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("data").resolve(MetadataCache.FILE_NAME);
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        backgroundTasks = new ArrayList<>();
+        calls = new AtomicInteger();
+    }
+
+    private MetadataCache cache(boolean offline) {
+        return new MetadataCache(file, TTL, STALE, offline, clock, backgroundTasks::add);
+    }
+
+    private Supplier<List<String>> loader(String... values) {
+        return () -> {
+            calls.incrementAndGet();
+            return List.of(values);
+        };
+    }
+
+    @Test
+    void testGet_Fresh_ServedFromCache() {
+        // Given
+        MetadataCache cache = cache(false);
+        cache.get(MetadataCache.MODELS, loader("model-a"));
+        clock.advance(TTL.minusSeconds(1));
+
+        // When
+        List<String> models = cache.get(MetadataCache.MODELS, loader("model-b"));
+
+        // Then
+        assertEquals(List.of("model-a"), models);
+        assertEquals(1, calls.get());
+        assertTrue(backgroundTasks.isEmpty());
+    }
+
+    @Test
+    void testGet_Stale_ServedWhileRefreshingInBackground() {
+        // Given
+        MetadataCache cache = cache(false);
+        cache.get(MetadataCache.MODELS, loader("model-a"));
+        clock.advance(TTL.plusSeconds(1));
+
+        // When
+        List<String> stale = cache.get(MetadataCache.MODELS, loader("model-b"));
+        cache.get(MetadataCache.MODELS, loader("model-b"));
+        backgroundTasks.forEach(Runnable::run);
+        List<String> refreshed = cache.get(MetadataCache.MODELS, loader("model-c"));
+
+        // Then
+        assertEquals(List.of("model-a"), stale);
+        assertEquals(1, backgroundTasks.size());
+        assertEquals(List.of("model-b"), refreshed);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testAwaitRefreshes_WaitsForPendingRefresh() {
+        // Given
+        MetadataCache cache = cache(false);
+        cache.get(MetadataCache.MODELS, loader("model-a"));
+        clock.advance(TTL.plusSeconds(1));
+        cache.get(MetadataCache.MODELS, loader("model-b"));
+
+        // When
+        boolean beforeRefresh = cache.awaitRefreshes(Duration.ofMillis(10));
+        backgroundTasks.forEach(Runnable::run);
+        boolean afterRefresh = cache.awaitRefreshes(Duration.ofMillis(10));
+
+        // Then
+        assertFalse(beforeRefresh);
+        assertTrue(afterRefresh);
+        assertEquals(List.of("model-b"), cache(false).get(MetadataCache.MODELS, loader("model-c")));
+    }
+
+    @Test
+    void testAwaitRefreshes_BackgroundThread_PersistedBeforeReturning() {
+        // Given
+        MetadataCache cache = new MetadataCache(file, TTL, STALE, false, clock, task -> Thread.ofVirtual().start(task));
+        cache.get(MetadataCache.REPOSITORIES, loader("repo-a"));
+        clock.advance(TTL.plusSeconds(1));
+        cache.get(MetadataCache.REPOSITORIES, () -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of("repo-b");
+        });
+
+        // When
+        boolean completed = cache.awaitRefreshes(Duration.ofSeconds(5));
+
+        // Then
+        assertTrue(completed);
+        assertEquals(List.of("repo-b"), cache(false).get(MetadataCache.REPOSITORIES, loader("repo-c")));
+    }
+
+    @Test
+    void testGet_Expired_LoadsBeforeReturning() {
+        // Given
+        MetadataCache cache = cache(false);
+        cache.get(MetadataCache.REPOSITORIES, loader("repo-a"));
+        clock.advance(TTL.plus(STALE));
+
+        // When
+        List<String> repositories = cache.get(MetadataCache.REPOSITORIES, loader("repo-b"));
+
+        // Then
+        assertEquals(List.of("repo-b"), repositories);
+        assertEquals(2, calls.get());
+        assertTrue(backgroundTasks.isEmpty());
+    }
+
+    @Test
+    void testGet_PersistedAcrossInstances() {
+        // Given
+        cache(false).get(MetadataCache.MODELS, loader("model-a", "model-b"));
+
+        // When
+        List<String> models = cache(false).get(MetadataCache.MODELS, loader("model-c"));
+
+        // Then
+        assertTrue(Files.exists(file));
+        assertEquals(List.of("model-a", "model-b"), models);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testGet_Offline_ServesExpiredEntryWithoutLoading() {
+        // Given
+        cache(false).get(MetadataCache.MODELS, loader("model-a"));
+        clock.advance(TTL.plus(STALE).multipliedBy(10));
+
+        // When
+        List<String> models = cache(true).get(MetadataCache.MODELS, loader("model-b"));
+
+        // Then
+        assertEquals(List.of("model-a"), models);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testGet_OfflineWithoutEntry_Throws() {
+        // Given
+        MetadataCache cache = cache(true);
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+            () -> cache.get(MetadataCache.REPOSITORIES, loader("repo-a")));
+        assertTrue(exception.getMessage().contains("offline mode"));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void testGet_CorruptFile_Ignored() throws Exception {
+        // Given
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "{not json");
+
+        // When
+        List<String> models = cache(false).get(MetadataCache.MODELS, loader("model-a"));
+
+        // Then
+        assertEquals(List.of("model-a"), models);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testGet_Disabled_AlwaysLoads() {
+        // Given
+        MetadataCache cache = MetadataCache.disabled();
+
+        // When
+        cache.get(MetadataCache.MODELS, loader("model-a"));
+        cache.get(MetadataCache.MODELS, loader("model-a"));
+
+        // Then
+        assertEquals(2, calls.get());
+    }
+}
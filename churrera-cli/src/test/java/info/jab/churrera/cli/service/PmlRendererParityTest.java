@@ -0,0 +1,66 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.churrera.util.PmlConverter;
+import info.jab.churrera.util.PmlMarkdownRenderer;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Parity tests between the native PML renderer, used with {@code pml.renderer=native},
+ * and the XSLT stylesheets it replaces, over every bundled example with a prompt.
+ */
+class PmlRendererParityTest {
+
+    private static final Path EXAMPLES = Path.of("src", "test", "resources", "examples");
+    private static final PmlConverter CONVERTER = new PmlConverter();
+
+    @ParameterizedTest(name = "{0} renders {1} like the stylesheet")
+    @MethodSource("examplesPerStylesheet")
+    void testRender_Example_MatchesStylesheet(String stylesheet, Path example) throws IOException {
+        // Given
+        String pmlContent = Files.readString(example);
+        PmlMarkdownRenderer renderer = new PmlMarkdownRenderer(stylesheet);
+
+        // When
+        String result = renderer.render(pmlContent);
+
+        // Then
+        assertEquals(CONVERTER.toMarkdownFromContent(pmlContent, stylesheet), result);
+    }
+
+    private static Stream<Arguments> examplesPerStylesheet() throws IOException {
+        List<Path> examples = examplesWithPrompt();
+        assertFalse(examples.isEmpty(), "No examples with a prompt found in " + EXAMPLES.toAbsolutePath());
+        return Stream.of(PmlMarkdownRenderer.CLI_STYLESHEET, PmlMarkdownRenderer.PML_STYLESHEET)
+            .flatMap(stylesheet -> examples.stream().map(example -> arguments(stylesheet, example)));
+    }
+
+    private static List<Path> examplesWithPrompt() throws IOException {
+        try (Stream<Path> files = Files.walk(EXAMPLES)) {
+            return files
+                .filter(file -> file.toString().endsWith(".xml"))
+                .filter(PmlRendererParityTest::hasPromptElement)
+                .sorted()
+                .toList();
+        }
+    }
+
+    private static boolean hasPromptElement(Path file) {
+        try {
+            return Files.readString(file).contains("<prompt");
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read example " + file, e);
+        }
+    }
+}
@@ -8,12 +8,16 @@ import info.jab.churrera.workflow.WorkflowData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.Mockito.*;
 
@@ -29,6 +33,9 @@ class PromptProcessorTest {
     @Mock
     private WorkflowFileService workflowFileService;
 
+    @TempDir
+    Path tempDir;
+
     private PromptProcessor promptProcessor;
     private Job testJob;
     private Prompt testPrompt;
@@ -206,5 +213,80 @@ class PromptProcessorTest {
         assertThatCode(() -> promptProcessor.processPrompt(testJob, testPrompt, new PromptInfo("prompt1.pml", "pml")))
             .doesNotThrowAnyException();
     }
-}
 
+    @Test
+    void testProcessPrompt_WithJournal_OutcomeUnknown_KeepsFollowUpOpen() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(tempDir.resolve(RequestJournal.FILE_NAME));
+        PromptProcessor journaledProcessor = new PromptProcessor(cliAgent, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.followUpForPrompt(anyString(), anyString(), anyString(), any()))
+            .thenThrow(new ApiUnavailableException("Cursor API launch call failed: timeout", null, true));
+
+        // When
+        journaledProcessor.processPrompt(testJob, testPrompt, new PromptInfo("prompt1.pml", "pml"));
+
+        // Then
+        assertThat(journal.pending()).hasSize(1);
+        assertThat(journal.isInFlight(journal.pending().get(0).id())).isFalse();
+        verify(cliAgent, never()).updatePromptInDatabase(any(), anyString());
+    }
+
+    @Test
+    void testProcessPrompt_WithJournal_Rejected_AbortsFollowUp() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(tempDir.resolve(RequestJournal.FILE_NAME));
+        PromptProcessor journaledProcessor = new PromptProcessor(cliAgent, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.followUpForPrompt(anyString(), anyString(), anyString(), any()))
+            .thenThrow(new ApiUnavailableException("Cursor API launch circuit is open"));
+
+        // When
+        journaledProcessor.processPrompt(testJob, testPrompt, new PromptInfo("prompt1.pml", "pml"));
+
+        // Then
+        assertThat(journal.pending()).isEmpty();
+        verify(cliAgent, never()).updatePromptInDatabase(any(), anyString());
+    }
+
+    @Test
+    void testProcessPrompt_WithJournal_UnknownFollowUpDelivered_MarksSentWithoutResending() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(tempDir.resolve(RequestJournal.FILE_NAME));
+        PromptProcessor journaledProcessor = new PromptProcessor(cliAgent, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.followUpForPrompt(anyString(), anyString(), anyString(), any()))
+            .thenThrow(new ApiUnavailableException("Cursor API launch call failed: timeout", null, true));
+        when(cliAgent.isFollowUpDelivered("agent-id", "prompt content", "pml", null)).thenReturn(true);
+        journaledProcessor.processPrompt(testJob, testPrompt, new PromptInfo("prompt1.pml", "pml"));
+
+        // When
+        journaledProcessor.processPrompt(testJob, testPrompt, new PromptInfo("prompt1.pml", "pml"));
+
+        // Then
+        verify(cliAgent, times(1)).followUpForPrompt(anyString(), anyString(), anyString(), any());
+        verify(cliAgent).updatePromptInDatabase(testPrompt, "SENT");
+        assertThat(journal.pending()).isEmpty();
+    }
+
+    @Test
+    void testProcessPrompt_WithJournal_UnknownFollowUpNotDelivered_SendsAgain() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(tempDir.resolve(RequestJournal.FILE_NAME));
+        PromptProcessor journaledProcessor = new PromptProcessor(cliAgent, workflowFileService, journal);
+        when(workflowFileService.readPromptFile(anyString(), anyString())).thenReturn("prompt content");
+        when(cliAgent.followUpForPrompt(anyString(), anyString(), anyString(), any()))
+            .thenThrow(new ApiUnavailableException("Cursor API launch call failed: timeout", null, true))
+            .thenReturn("follow-up-id");
+        when(cliAgent.isFollowUpDelivered("agent-id", "prompt content", "pml", null)).thenReturn(false);
+        journaledProcessor.processPrompt(testJob, testPrompt, new PromptInfo("prompt1.pml", "pml"));
+
+        // When
+        journaledProcessor.processPrompt(testJob, testPrompt, new PromptInfo("prompt1.pml", "pml"));
+
+        // Then
+        verify(cliAgent, times(2)).followUpForPrompt("agent-id", "prompt content", "pml", null);
+        verify(cliAgent).updatePromptInDatabase(testPrompt, "SENT");
+        assertThat(journal.pending()).isEmpty();
+    }
+}
@@ -0,0 +1,104 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.churrera.cli.service.RenderedPromptCache.RenderedPrompt;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RenderedPromptCache.
+ */
+class RenderedPromptCacheTest {
+
+    private RenderedPromptCache cache;
+    private AtomicInteger renders;
+    private BiFunction<String, String, String> renderer;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RenderedPromptCache();
+        renders = new AtomicInteger();
+        renderer = (content, type) -> {
+            renders.incrementAndGet();
+            return "# Rendered\n" + content;
+        };
+    }
+
+    @Test
+    void testRender_SameContent_RendersOnce() {
+        // Given
+        String content = "Review <input>INPUT</input> carefully";
+
+        // When
+        RenderedPrompt first = cache.render(content, "pml", renderer);
+        RenderedPrompt second = cache.render(content, "PML", renderer);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, renders.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testRender_ChangedContentOrType_RendersAgain() {
+        // When
+        cache.render("prompt v1", "pml", renderer);
+        cache.render("prompt v2", "pml", renderer);
+        cache.render("prompt v2", "markdown", renderer);
+
+        // Then
+        assertEquals(3, renders.get());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testBind_ReplacesEveryPlaceholder() {
+        // Given
+        RenderedPrompt rendered = cache.render("<input>INPUT</input> and <input>INPUT</input>", "pml", renderer);
+
+        // When
+        String bound = rendered.bind("orders");
+
+        // Then
+        assertEquals("# Rendered\n<input>orders</input> and <input>orders</input>", bound);
+        assertEquals(2, rendered.template().slotCount());
+    }
+
+    @Test
+    void testBind_NullOrEmptyValue_KeepsPlaceholder() {
+        // Given
+        RenderedPrompt rendered = cache.render("Use <input>INPUT</input>", "pml", renderer);
+
+        // When & Then
+        assertEquals("# Rendered\nUse <input>INPUT</input>", rendered.bind(null));
+        assertEquals("# Rendered\nUse <input>INPUT</input>", rendered.bind(""));
+    }
+
+    @Test
+    void testBind_NoPlaceholder_ReturnsMarkdown() {
+        // Given
+        RenderedPrompt rendered = cache.render("No placeholder here", "pml", renderer);
+
+        // When & Then
+        assertEquals("# Rendered\nNo placeholder here", rendered.bind("value"));
+        assertEquals(0, rendered.template().slotCount());
+    }
+
+    @Test
+    void testRender_Full_StartsOver() {
+        // Given
+        for (int i = 0; i < RenderedPromptCache.MAX_ENTRIES; i++) {
+            cache.render("prompt " + i, "pml", renderer);
+        }
+
+        // When
+        cache.render("one more prompt", "pml", renderer);
+
+        // Then
+        assertEquals(1, cache.size());
+    }
+}
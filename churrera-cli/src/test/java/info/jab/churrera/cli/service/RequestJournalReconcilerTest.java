@@ -0,0 +1,326 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.churrera.cli.model.AgentState;
+import info.jab.churrera.cli.model.Job;
+import info.jab.churrera.cli.model.Prompt;
+import info.jab.churrera.cli.repository.JobRepository;
+import info.jab.churrera.cli.service.RequestJournal.Operation;
+import info.jab.cursor.client.model.AgentResponse;
+import info.jab.cursor.client.model.AgentStatus;
+import info.jab.cursor.client.model.Source;
+import info.jab.cursor.client.model.Target;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RequestJournalReconciler.
+ */
+@ExtendWith(MockitoExtension.class)
+class RequestJournalReconcilerTest {
+
+    private static final Instant STARTED_AT = Instant.parse("2025-01-01T10:00:00Z");
+    private static final String REPOSITORY = "https://github.com/test/repo";
+
+    @Mock
+    private JobRepository jobRepository;
+
+    @Mock
+    private CLIAgent cliAgent;
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private RequestJournal journal;
+    private RequestJournalReconciler reconciler;
+    private Job testJob;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = tempDir.resolve(RequestJournal.FILE_NAME);
+        journal = new RequestJournal(file, Clock.fixed(STARTED_AT, ZoneOffset.UTC));
+        reconciler = new RequestJournalReconciler(journal, jobRepository, cliAgent);
+        testJob = new Job("job-id", "/path/workflow.xml", null, "model", REPOSITORY, AgentState.creating(),
+            LocalDateTime.now(), LocalDateTime.now(), null, null, null, null, null, null, null);
+    }
+
+    private AgentResponse createAgent(String id, String repository, Instant createdAt) {
+        return new AgentResponse(
+            id,
+            "Test Agent",
+            AgentStatus.CREATING,
+            new Source(URI.create(repository), "main"),
+            new Target("cursor/test", URI.create("https://cursor.com/agents?id=" + id), false, false, false),
+            createdAt.atOffset(ZoneOffset.UTC)
+        );
+    }
+
+    @Test
+    void testReconcile_NoPendingRequests_DoesNothing() {
+        // When
+        int resolved = reconciler.reconcile();
+
+        // Then
+        assertEquals(0, resolved);
+        verifyNoInteractions(jobRepository, cliAgent);
+    }
+
+    @Test
+    void testReconcile_SentLaunch_AdoptsAgent() throws IOException {
+        // Given
+        String id = journal.begin(Operation.LAUNCH, "job-id", null, null);
+        journal.sent(id, "agent-1");
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(testJob));
+
+        // When
+        int resolved = reconciler.reconcile();
+
+        // Then
+        assertEquals(1, resolved);
+        verify(cliAgent).updateJobCursorIdInDatabase(any(Job.class), eq("agent-1"), eq(AgentState.creating()));
+        verify(cliAgent, never()).getAgentsCreatedSince(any());
+        assertTrue(new RequestJournal(file).pending().isEmpty());
+    }
+
+    @Test
+    void testReconcile_IntentLaunch_AdoptsUnownedAgentOnSameRepository() throws IOException {
+        // Given
+        journal.begin(Operation.LAUNCH, "job-id", null, null);
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(testJob));
+        Job otherJob = testJob.withCursorAgentId("owned-agent");
+        when(jobRepository.findAll()).thenReturn(List.of(testJob, otherJob));
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class))).thenReturn(List.of(
+            createAgent("owned-agent", REPOSITORY, STARTED_AT.plusSeconds(1)),
+            createAgent("other-repo-agent", "https://github.com/test/other", STARTED_AT.plusSeconds(2)),
+            createAgent("orphan-agent", REPOSITORY, STARTED_AT.plusSeconds(3))));
+
+        // When
+        int resolved = reconciler.reconcile();
+
+        // Then
+        assertEquals(1, resolved);
+        verify(cliAgent).updateJobCursorIdInDatabase(any(Job.class), eq("orphan-agent"), eq(AgentState.creating()));
+        assertTrue(new RequestJournal(file).pending().isEmpty());
+    }
+
+    @Test
+    void testReconcile_IntentLaunch_NoAgentFound_LeavesJobToRelaunch() throws IOException {
+        // Given
+        journal.begin(Operation.LAUNCH, "job-id", null, null);
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(testJob));
+        when(jobRepository.findAll()).thenReturn(List.of(testJob));
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class))).thenReturn(List.of(
+            createAgent("old-agent", REPOSITORY, STARTED_AT.minus(RequestJournalReconciler.CLOCK_SKEW).minusSeconds(60))));
+
+        // When
+        int resolved = reconciler.reconcile();
+
+        // Then
+        assertEquals(1, resolved);
+        verify(cliAgent, never()).updateJobCursorIdInDatabase(any(), any(), any());
+        assertTrue(new RequestJournal(file).pending().isEmpty());
+    }
+
+    @Test
+    void testReconcile_IntentLaunch_ListingFails_KeepsRequestPending() throws IOException {
+        // Given
+        journal.begin(Operation.LAUNCH, "job-id", null, null);
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class)))
+            .thenThrow(new ApiUnavailableException("Cursor API status circuit is open"));
+
+        // When
+        int resolved = reconciler.reconcile();
+
+        // Then
+        assertEquals(0, resolved);
+        verify(cliAgent, never()).updateJobCursorIdInDatabase(any(), any(), any());
+        assertEquals(1, new RequestJournal(file).pending().size());
+    }
+
+    @Test
+    void testReconcile_SentFollowUp_MarksPromptSent() {
+        // Given
+        String id = journal.begin(Operation.FOLLOW_UP, "job-id", "prompt-2", "agent-1");
+        journal.sent(id, "agent-1");
+        Prompt prompt = new Prompt("prompt-2", "job-id", "prompt2.pml", "UNKNOWN",
+            LocalDateTime.now(), LocalDateTime.now());
+        when(jobRepository.findPromptById("prompt-2")).thenReturn(Optional.of(prompt));
+
+        // When
+        int resolved = reconciler.reconcile();
+
+        // Then
+        assertEquals(1, resolved);
+        verify(cliAgent).updatePromptInDatabase(prompt, "SENT");
+    }
+
+    @Test
+    void testReconcile_IntentFollowUp_PromptUnsent_KeepsRequestForDeliveryCheck() {
+        // Given
+        journal.begin(Operation.FOLLOW_UP, "job-id", "prompt-2", "agent-1");
+        Prompt prompt = new Prompt("prompt-2", "job-id", "prompt2.pml", "UNKNOWN",
+            LocalDateTime.now(), LocalDateTime.now());
+        when(jobRepository.findPromptById("prompt-2")).thenReturn(Optional.of(prompt));
+
+        // When
+        int resolved = reconciler.reconcile();
+
+        // Then
+        assertEquals(0, resolved);
+        verifyNoInteractions(cliAgent);
+        assertEquals(1, journal.pending().size());
+    }
+
+    @Test
+    void testReconcile_IntentFollowUp_PromptGone_AbortsRequest() {
+        // Given
+        journal.begin(Operation.FOLLOW_UP, "job-id", "prompt-2", "agent-1");
+        when(jobRepository.findPromptById("prompt-2")).thenReturn(Optional.empty());
+
+        // When
+        int resolved = reconciler.reconcile();
+
+        // Then
+        assertEquals(1, resolved);
+        verifyNoInteractions(cliAgent);
+        assertTrue(journal.pending().isEmpty());
+    }
+
+    @Test
+    void testReconcile_IntentLaunch_SeveralCandidates_DoesNotGuess() throws IOException {
+        // Given
+        journal.begin(Operation.LAUNCH, "job-id", null, null);
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(testJob));
+        when(jobRepository.findAll()).thenReturn(List.of(testJob));
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class))).thenReturn(List.of(
+            createAgent("agent-a", REPOSITORY, STARTED_AT.plusSeconds(1)),
+            createAgent("agent-b", REPOSITORY, STARTED_AT.plusSeconds(2))));
+
+        // When
+        int resolved = reconciler.reconcile();
+
+        // Then
+        assertEquals(1, resolved);
+        verify(cliAgent, never()).updateJobCursorIdInDatabase(any(), any(), any());
+        assertTrue(new RequestJournal(file).pending().isEmpty());
+    }
+
+    @Test
+    void testReconcile_IntentLaunches_SiblingsOnSameRepository_DoNotGuess() throws IOException {
+        // Given
+        Job sibling = new Job("sibling-id", "/path/workflow.xml", null, "model", REPOSITORY, AgentState.creating(),
+            LocalDateTime.now(), LocalDateTime.now(), "parent-id", null, null, null, null, null, null);
+        journal.begin(Operation.LAUNCH, "job-id", null, null);
+        journal.begin(Operation.LAUNCH, "sibling-id", null, null);
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(testJob));
+        when(jobRepository.findById("sibling-id")).thenReturn(Optional.of(sibling));
+        when(jobRepository.findAll()).thenReturn(List.of(testJob, sibling));
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class))).thenReturn(List.of(
+            createAgent("orphan-agent", REPOSITORY, STARTED_AT.plusSeconds(1))));
+
+        // When
+        int resolved = reconciler.reconcile();
+
+        // Then
+        assertEquals(2, resolved);
+        verify(cliAgent, never()).updateJobCursorIdInDatabase(any(), any(), any());
+        assertTrue(new RequestJournal(file).pending().isEmpty());
+    }
+
+    @Test
+    void testClearToLaunch_NoOpenLaunch_AllowsLaunch() {
+        // When
+        boolean clear = reconciler.clearToLaunch(testJob);
+
+        // Then
+        assertTrue(clear);
+        verifyNoInteractions(jobRepository, cliAgent);
+    }
+
+    @Test
+    void testClearToLaunch_LaunchInFlight_IsNotReconciled() {
+        // Given
+        journal.begin(Operation.LAUNCH, "job-id", null, null);
+
+        // When
+        boolean clear = reconciler.clearToLaunch(testJob);
+
+        // Then
+        assertTrue(clear);
+        verifyNoInteractions(jobRepository, cliAgent);
+    }
+
+    @Test
+    void testClearToLaunch_ReleasedLaunchCreatedAgent_AdoptsAgent() {
+        // Given
+        journal.release(journal.begin(Operation.LAUNCH, "job-id", null, null));
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(testJob));
+        when(jobRepository.findAll()).thenReturn(List.of(testJob));
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class))).thenReturn(List.of(
+            createAgent("orphan-agent", REPOSITORY, STARTED_AT.plusSeconds(1))));
+
+        // When
+        boolean clear = reconciler.clearToLaunch(testJob);
+
+        // Then
+        assertFalse(clear);
+        verify(cliAgent).updateJobCursorIdInDatabase(any(Job.class), eq("orphan-agent"), eq(AgentState.creating()));
+        assertTrue(journal.pending().isEmpty());
+    }
+
+    @Test
+    void testClearToLaunch_ReleasedLaunchWithSiblingInFlight_DoesNotGuess() {
+        // Given
+        Job sibling = new Job("sibling-id", "/path/workflow.xml", null, "model", REPOSITORY, AgentState.creating(),
+            LocalDateTime.now(), LocalDateTime.now(), "parent-id", null, null, null, null, null, null);
+        journal.release(journal.begin(Operation.LAUNCH, "job-id", null, null));
+        journal.begin(Operation.LAUNCH, "sibling-id", null, null);
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(testJob));
+        when(jobRepository.findById("sibling-id")).thenReturn(Optional.of(sibling));
+        when(jobRepository.findAll()).thenReturn(List.of(testJob, sibling));
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class))).thenReturn(List.of(
+            createAgent("orphan-agent", REPOSITORY, STARTED_AT.plusSeconds(1))));
+
+        // When
+        boolean clear = reconciler.clearToLaunch(testJob);
+
+        // Then
+        assertTrue(clear);
+        verify(cliAgent, never()).updateJobCursorIdInDatabase(any(), any(), any());
+        assertEquals(1, journal.pending().size());
+        assertEquals("sibling-id", journal.pending().get(0).jobId());
+    }
+
+    @Test
+    void testClearToLaunch_ListingFails_PostponesLaunch() {
+        // Given
+        journal.release(journal.begin(Operation.LAUNCH, "job-id", null, null));
+        when(cliAgent.getAgentsCreatedSince(any(OffsetDateTime.class)))
+            .thenThrow(new ApiUnavailableException("Cursor API status circuit is open"));
+
+        // When
+        boolean clear = reconciler.clearToLaunch(testJob);
+
+        // Then
+        assertFalse(clear);
+        assertEquals(1, journal.pending().size());
+    }
+}
@@ -0,0 +1,165 @@
+package info.jab.churrera.cli.service;
+
+import info.jab.churrera.cli.service.RequestJournal.Operation;
+import info.jab.churrera.cli.service.RequestJournal.PendingRequest;
+import info.jab.churrera.cli.service.RequestJournal.Phase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RequestJournal.
+ */
+class RequestJournalTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private Clock clock;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("data").resolve(RequestJournal.FILE_NAME);
+        clock = Clock.fixed(NOW, ZoneOffset.UTC);
+    }
+
+    @Test
+    void testBegin_Reopened_RequestIsPending() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(file, clock);
+        String id = journal.begin(Operation.LAUNCH, "job-1", null, null);
+
+        // When
+        List<PendingRequest> pending = new RequestJournal(file, clock).pending();
+
+        // Then
+        assertEquals(1, pending.size());
+        PendingRequest request = pending.get(0);
+        assertEquals(id, request.id());
+        assertEquals(Operation.LAUNCH, request.operation());
+        assertEquals(Phase.INTENT, request.phase());
+        assertEquals("job-1", request.jobId());
+        assertNull(request.promptId());
+        assertNull(request.agentId());
+        assertEquals(NOW, request.startedAt());
+    }
+
+    @Test
+    void testSent_Reopened_RequestKeepsAgentId() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(file, clock);
+        String id = journal.begin(Operation.FOLLOW_UP, "job-1", "prompt-2", "agent-1");
+        journal.sent(id, "agent-1");
+
+        // When
+        List<PendingRequest> pending = new RequestJournal(file, clock).pending();
+
+        // Then
+        assertEquals(1, pending.size());
+        assertEquals(Phase.SENT, pending.get(0).phase());
+        assertEquals("prompt-2", pending.get(0).promptId());
+        assertEquals("agent-1", pending.get(0).agentId());
+    }
+
+    @Test
+    void testCommitAndAbort_Reopened_NoRequestPending() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(file, clock);
+        String launched = journal.begin(Operation.LAUNCH, "job-1", null, null);
+        journal.sent(launched, "agent-1");
+        journal.commit(launched);
+        String failed = journal.begin(Operation.LAUNCH, "job-2", null, null);
+        journal.abort(failed);
+
+        // When
+        List<PendingRequest> pending = new RequestJournal(file, clock).pending();
+
+        // Then
+        assertTrue(pending.isEmpty());
+        assertTrue(journal.pending().isEmpty());
+    }
+
+    @Test
+    void testRelease_RequestStaysOpenButNotInFlight() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(file, clock);
+        String released = journal.begin(Operation.LAUNCH, "job-1", null, null);
+        String running = journal.begin(Operation.LAUNCH, "job-2", null, null);
+
+        // When
+        journal.release(released);
+
+        // Then
+        assertEquals(2, journal.pending().size());
+        assertFalse(journal.isInFlight(released));
+        assertTrue(journal.isInFlight(running));
+        assertEquals(2, new RequestJournal(file, clock).pending().size());
+    }
+
+    @Test
+    void testCompact_KeepsOnlyOpenRequests() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(file, clock);
+        for (int i = 0; i < 10; i++) {
+            journal.commit(journal.begin(Operation.LAUNCH, "job-" + i, null, null));
+        }
+        String open = journal.begin(Operation.LAUNCH, "job-open", null, null);
+
+        // When
+        journal.compact();
+
+        // Then
+        assertEquals(1, Files.readAllLines(file).size());
+        assertEquals(open, new RequestJournal(file, clock).pending().get(0).id());
+
+        journal.commit(open);
+        assertTrue(new RequestJournal(file, clock).pending().isEmpty());
+    }
+
+    @Test
+    void testRead_TornLastLine_IsSkipped() throws IOException {
+        // Given
+        RequestJournal journal = new RequestJournal(file, clock);
+        String id = journal.begin(Operation.LAUNCH, "job-1", null, null);
+        Files.writeString(file, "{\"id\":\"torn\",\"operation\":\"LAU", StandardOpenOption.APPEND);
+
+        // When
+        RequestJournal reopened = new RequestJournal(file, clock);
+        String next = reopened.begin(Operation.LAUNCH, "job-2", null, null);
+
+        // Then
+        assertEquals(List.of(id, next), new RequestJournal(file, clock).pending().stream()
+            .map(PendingRequest::id)
+            .toList());
+    }
+
+    @Test
+    void testDisabled_RecordsNothing() {
+        // Given
+        RequestJournal journal = RequestJournal.disabled();
+
+        // When
+        String id = journal.begin(Operation.LAUNCH, "job-1", null, null);
+        journal.sent(id, "agent-1");
+        journal.compact();
+
+        // Then
+        assertEquals(1, journal.pending().size());
+        journal.commit(id);
+        assertTrue(journal.pending().isEmpty());
+    }
+}
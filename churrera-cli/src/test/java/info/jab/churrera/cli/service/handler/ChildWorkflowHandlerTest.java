@@ -235,6 +235,7 @@ class ChildWorkflowHandlerTest {
 
         // Then
         verify(cliAgent).updateJobStatusInDatabase(jobWithAgent, AgentState.error());
+        verify(cliAgent).releaseConversation("agent-id");
         verify(promptProcessor, never()).processRemainingPrompts(any(), any(), any());
     }
 
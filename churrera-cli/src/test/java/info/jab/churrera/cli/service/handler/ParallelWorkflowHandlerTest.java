@@ -17,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -143,7 +144,51 @@ class ParallelWorkflowHandlerTest {
 
         // Then
         verify(resultExtractor).extractResults(jobWithAgent, testParallelData);
-        verify(jobRepository, atLeastOnce()).save(any(Job.class)); // Child jobs created
+        verify(jobRepository).saveAll(argThat(jobs -> jobs.size() == 2), anyList()); // Child jobs created in one batch
+        verify(cliAgent).releaseConversation("agent-id");
+    }
+
+    @Test
+    void testProcessWorkflow_StatusSuccessful_LaunchesChildJobsTogether() throws IOException {
+        // Given
+        Job jobWithAgent = testJob.withCursorAgentId("agent-id");
+        SequenceInfo sequenceInfo = mock(SequenceInfo.class);
+        when(sequenceInfo.getPrompts()).thenReturn(List.of(new PromptInfo("child1.pml", "pml"), new PromptInfo("child2.pml", "pml")));
+        when(testParallelData.getSequences()).thenReturn(List.of(sequenceInfo));
+        when(testParallelData.getTimeoutMillis()).thenReturn(null);
+        when(cliAgent.getAgentStatus("agent-id")).thenReturn(AgentState.finished());
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(jobWithAgent));
+        when(resultExtractor.extractResults(jobWithAgent, testParallelData)).thenReturn(List.of("item1", "item2", "item3"));
+
+        // When
+        handler.processWorkflow(jobWithAgent, testWorkflowData);
+
+        // Then
+        verify(jobRepository).saveAll(argThat(jobs -> jobs.size() == 3), argThat(prompts -> prompts.size() == 6));
+        verify(agentLauncher).launchJobAgents(
+            argThat(jobs -> jobs.size() == 3 && jobs.stream().allMatch(child -> "job-id".equals(child.parentJobId()))),
+            argThat(data -> data.getLaunchPrompt().getSrcFile().equals("child1.pml") && data.getUpdatePrompts().size() == 1));
+    }
+
+    @Test
+    void testProcessWorkflow_StatusSuccessful_BindsValueSelectedByExpression() throws IOException {
+        // Given
+        Job jobWithAgent = testJob.withCursorAgentId("agent-id");
+        SequenceInfo sequenceInfo = mock(SequenceInfo.class);
+        when(sequenceInfo.getPrompts()).thenReturn(List.of(new PromptInfo("child1.pml", "pml", "$get().name")));
+        when(testParallelData.getSequences()).thenReturn(List.of(sequenceInfo));
+        when(testParallelData.getTimeoutMillis()).thenReturn(null);
+        when(cliAgent.getAgentStatus("agent-id")).thenReturn(AgentState.finished());
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(jobWithAgent));
+        when(resultExtractor.extractResults(jobWithAgent, testParallelData))
+            .thenReturn(List.of(Map.of("name", "core", "size", 7), Map.of("name", "cli", "size", 3)));
+
+        // When
+        handler.processWorkflow(jobWithAgent, testWorkflowData);
+
+        // Then
+        verify(jobRepository).saveAll(
+            argThat(jobs -> jobs.stream().map(Job::result).toList().equals(List.of("core", "cli"))), anyList());
     }
 
     @Test
@@ -160,7 +205,9 @@ class ParallelWorkflowHandlerTest {
 
         // Then
         verify(cliAgent).updateJobStatusInDatabase(jobWithAgent, AgentState.error());
-        verify(jobRepository, never()).save(any(Job.class)); // No child jobs created
+        verify(cliAgent).releaseConversation("agent-id");
+        verify(jobRepository, never()).saveAll(anyList(), anyList()); // No child jobs created
+        verify(agentLauncher, never()).launchJobAgents(anyList(), any());
     }
 
     @Test
@@ -292,7 +339,23 @@ class ParallelWorkflowHandlerTest {
 
         // Then - should handle empty sequences gracefully
         verify(resultExtractor).extractResults(jobWithAgent, testParallelData);
-        verify(jobRepository, never()).save(any(Job.class)); // No child jobs created due to empty sequences
+        verify(jobRepository, never()).saveAll(anyList(), anyList()); // No child jobs created due to empty sequences
     }
-}
 
+    @Test
+    void testProcessWorkflow_CreateChildJobs_BatchFailureMarksParentAsError() throws IOException {
+        // Given
+        Job jobWithAgent = testJob.withCursorAgentId("agent-id");
+        when(testParallelData.getTimeoutMillis()).thenReturn(null);
+        when(cliAgent.getAgentStatus("agent-id")).thenReturn(AgentState.finished());
+        when(jobRepository.findById("job-id")).thenReturn(Optional.of(jobWithAgent));
+        when(resultExtractor.extractResults(jobWithAgent, testParallelData)).thenReturn(List.of("item1", "item2"));
+        doThrow(new IOException("write failed")).when(jobRepository).saveAll(anyList(), anyList());
+
+        // When
+        handler.processWorkflow(jobWithAgent, testWorkflowData);
+
+        // Then
+        verify(cliAgent).updateJobStatusInDatabase(jobWithAgent, AgentState.error());
+    }
+}
@@ -196,6 +196,7 @@ class SequenceWorkflowHandlerTest {
 
         // Then
         verify(cliAgent).updateJobStatusInDatabase(jobWithAgent, AgentState.error());
+        verify(cliAgent).releaseConversation("agent-id");
         verify(promptProcessor, never()).processRemainingPrompts(any(), any(), any());
     }
 
@@ -215,6 +216,20 @@ class SequenceWorkflowHandlerTest {
         verify(cliAgent).updateJobStatusInDatabase(jobWithAgent, AgentState.error());
     }
 
+    @Test
+    void testProcessWorkflow_StatusCheckApiUnavailable_KeepsJobState() {
+        // Given
+        Job jobWithAgent = testJob.withCursorAgentId("agent-id");
+        when(timeoutManager.resetStaleWorkflowStartTime(jobWithAgent)).thenReturn(jobWithAgent);
+        when(cliAgent.getAgentStatus("agent-id")).thenThrow(new ApiUnavailableException("Cursor API status circuit is open"));
+
+        // When
+        handler.processWorkflow(jobWithAgent, testPrompts, testWorkflowData);
+
+        // Then
+        verify(cliAgent, never()).updateJobStatusInDatabase(any(Job.class), any(AgentState.class));
+    }
+
     @Test
     void testProcessWorkflow_JustLaunched() {
         // Given
@@ -6,9 +6,12 @@ import info.jab.churrera.workflow.WorkflowType;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -335,5 +338,38 @@ class JobXmlMapperTest {
             assertThat(jobs).isEmpty();
         }
     }
+
+    @Nested
+    class StreamTests {
+
+        @Test
+        void shouldStreamJobsLazily() {
+            // Given
+            String xml = "<jobs>" + buildBaseJobXml(now())
+                    + buildBaseJobXml(now()).replace("job-1", "job-2")
+                    + buildBaseJobXml(now()).replace("job-1", "job-3") + "</jobs>";
+
+            // When
+            Optional<Job> found;
+            try (Stream<Job> jobs = JobXmlMapper.stream(new StringReader(xml), FORMATTER)) {
+                found = jobs.filter(job -> job.jobId().equals("job-2")).findFirst();
+            }
+
+            // Then
+            assertThat(found).map(Job::jobId).contains("job-2");
+        }
+
+        @Test
+        void shouldReadRecordsSerializedWithCharacterReferences() {
+            // Given
+            String xml = buildBaseJobXml(now()).replace("<result>null</result>", "<result>[{&#34;a&#34;:1}]&#xA;</result>");
+
+            // When
+            Job job = JobXmlMapper.fromXml(xml, FORMATTER);
+
+            // Then
+            assertThat(job.result()).isEqualTo("[{\"a\":1}]\n");
+        }
+    }
 }
 
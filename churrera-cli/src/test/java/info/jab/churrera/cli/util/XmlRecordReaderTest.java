@@ -0,0 +1,105 @@
+package info.jab.churrera.cli.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for XmlRecordReader.
+ */
+class XmlRecordReaderTest {
+
+    private static final String[] FIELDS = {"id", "name"};
+
+    private XmlRecordReader reader(String xml) {
+        return new XmlRecordReader(new StringReader(xml), "item", FIELDS);
+    }
+
+    @Test
+    void shouldReadRecordsWithoutRootElement() throws IOException {
+        // Given
+        XmlRecordReader reader = reader("<item><id>1</id><name>a</name></item>\n<item><id>2</id><name/></item>");
+        String[] values = new String[FIELDS.length];
+
+        // When / Then
+        assertThat(reader.next(values)).isTrue();
+        assertThat(values).containsExactly("1", "a");
+        assertThat(reader.next(values)).isTrue();
+        assertThat(values).containsExactly("2", "");
+        assertThat(reader.next(values)).isFalse();
+    }
+
+    @Test
+    void shouldDecodeNamedAndNumericEntities() throws IOException {
+        // Given
+        XmlRecordReader reader = reader("<?xml version=\"1.0\"?><items><item><id>&lt;1&gt;</id>"
+                + "<name>&quot;a&quot; &amp; &apos;b&apos; &#65;&#x42; &unknown; &amp</name></item></items>");
+        String[] values = new String[FIELDS.length];
+
+        // When
+        reader.next(values);
+
+        // Then
+        assertThat(values).containsExactly("<1>", "\"a\" & 'b' AB &unknown; &amp");
+    }
+
+    @Test
+    void shouldLeaveMissingFieldsNullAndIgnoreUnknownElements() throws IOException {
+        // Given
+        XmlRecordReader reader = reader("<item><other>x</other><name>a</name></item>");
+        String[] values = new String[FIELDS.length];
+
+        // When
+        reader.next(values);
+
+        // Then
+        assertThat(values).containsExactly(null, "a");
+    }
+
+    @Test
+    void shouldSkipMalformedRecordAndContinue() throws IOException {
+        // Given
+        XmlRecordReader reader = reader("<item><id>1</item><item><id><b>2</b></id></item><item><id>3</id></item>");
+        String[] values = new String[FIELDS.length];
+
+        // When / Then
+        assertThatThrownBy(() -> reader.next(values)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("<id>");
+        assertThatThrownBy(() -> reader.next(values)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(reader.next(values)).isTrue();
+        assertThat(values[0]).isEqualTo("3");
+    }
+
+    @Test
+    void shouldStreamRecordsAcrossBufferBoundaries() {
+        // Given
+        String longName = "n".repeat(20_000);
+        String xml = "<item><id>1</id><name>" + longName + "</name></item><item><id>2</id></item>";
+
+        // When
+        List<String> names;
+        try (Stream<String> records = reader(xml).stream(values -> values[0] + ":" + (values[1] == null ? 0 : values[1].length()))) {
+            names = records.toList();
+        }
+
+        // Then
+        assertThat(names).containsExactly("1:20000", "2:0");
+    }
+
+    @Test
+    void shouldStopAtTruncatedRecord() throws IOException {
+        // Given
+        XmlRecordReader reader = reader("<item><id>1</id></item><item><id>2");
+        String[] values = new String[FIELDS.length];
+
+        // When / Then
+        assertThat(reader.next(values)).isTrue();
+        assertThat(reader.next(values)).isFalse();
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.Arguments;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -357,5 +359,74 @@ class XmlUtilsTest {
             assertThat(value).isEqualTo("first");
         }
     }
-}
 
+    @Nested
+    @DisplayName("Single-pass escaping Tests")
+    class SinglePassTests {
+
+        @Test
+        @DisplayName("Should return the same instance when nothing needs escaping")
+        void shouldReturnSameInstanceWhenNothingToEscape() {
+            // Given
+            String text = "[{plain: 1}, {plain: 2}]";
+
+            // When / Then
+            assertThat(XmlUtils.escapeXml(text)).isSameAs(text);
+            assertThat(XmlUtils.unescapeXml(text)).isSameAs(text);
+        }
+
+        @Test
+        @DisplayName("Should append escaped text to a builder")
+        void shouldAppendEscapedTextToBuilder() {
+            // Given
+            StringBuilder out = new StringBuilder("prefix:");
+
+            // When
+            XmlUtils.escapeXml("a<b>&'c'", out);
+            XmlUtils.escapeXml(null, out);
+
+            // Then
+            assertThat(out).hasToString("prefix:a&lt;b&gt;&amp;&apos;c&apos;");
+        }
+
+        @Test
+        @DisplayName("Should append escaped text to any Appendable")
+        void shouldAppendEscapedTextToAppendable() throws IOException {
+            // Given
+            StringWriter out = new StringWriter();
+
+            // When
+            XmlUtils.escapeXml("\"x\" & y", out);
+
+            // Then
+            assertThat(out).hasToString("&quot;x&quot; &amp; y");
+        }
+
+        @Test
+        @DisplayName("Should unescape every character it escapes")
+        void shouldUnescapeEveryCharacterItEscapes() {
+            // Given
+            String text = "&<>\"' é";
+
+            // When
+            String escaped = XmlUtils.escapeXml(text);
+
+            // Then
+            assertThat(escaped).isEqualTo("&amp;&lt;&gt;&quot;&apos; é");
+            assertThat(XmlUtils.unescapeXml(escaped)).isEqualTo(text);
+        }
+
+        @Test
+        @DisplayName("Should unescape into a builder and keep unknown entities")
+        void shouldUnescapeIntoBuilderKeepingUnknownEntities() {
+            // Given
+            StringBuilder out = new StringBuilder();
+
+            // When
+            XmlUtils.unescapeXml("&amp;lt; &nbsp; &lt&gt; &", out);
+
+            // Then
+            assertThat(out).hasToString("&lt; &nbsp; &lt> &");
+        }
+    }
+}
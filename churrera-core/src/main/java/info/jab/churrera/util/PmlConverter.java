@@ -1,8 +1,10 @@
 package info.jab.churrera.util;
 
 import javax.xml.XMLConstants;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -10,14 +12,19 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class for converting PML (Prompt Markup Language) XML files to Markdown format
- * using XSLT transformations.
+ * using XSLT transformations. Each stylesheet is compiled once per converter and
+ * reused by all later conversions.
  */
 public final class PmlConverter {
 
     private final ClasspathResolver resolver;
+    // Compiled stylesheets by classpath path; Templates is thread-safe, Transformer is not
+    private final Map<String, Templates> templates = new ConcurrentHashMap<>();
 
     /**
      * Constructor that creates a default ClasspathResolver.
@@ -64,6 +71,48 @@ public final class PmlConverter {
         return factory;
     }
 
+    /**
+     * Returns the compiled stylesheet, compiling it on first use. A stylesheet that fails to
+     * compile is not cached, so the next call tries again.
+     *
+     * @param xsltFile the path to the XSLT file in classpath resources
+     * @return the compiled stylesheet
+     */
+    private Templates templatesFor(String xsltFile) {
+        return templates.computeIfAbsent(xsltFile, path -> {
+            String xsltContent = resolver.retrieve(path);
+            InputStream xsltStream = new ByteArrayInputStream(xsltContent.getBytes(StandardCharsets.UTF_8));
+            try {
+                return createSecureTransformerFactory().newTemplates(new StreamSource(xsltStream));
+            } catch (TransformerConfigurationException e) {
+                throw new RuntimeException("Failed to compile " + path + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Transforms PML content with a new transformer from the compiled stylesheet;
+     * transformers are cheap to create but not thread-safe, unlike the stylesheet.
+     */
+    private static String transform(Templates compiled, String pmlContent) throws TransformerException {
+        InputStream pmlStream = new ByteArrayInputStream(pmlContent.getBytes(StandardCharsets.UTF_8));
+        Transformer transformer = compiled.newTransformer();
+
+        // Perform transformation
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transformer.transform(new StreamSource(pmlStream), new StreamResult(outputStream));
+
+        // Return result as String
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of compiled stylesheets held by this converter.
+     */
+    int cachedTemplates() {
+        return templates.size();
+    }
+
     /**
      * Converts a PML XML file to Markdown format using the specified XSLT transformation.
      *
@@ -84,25 +133,7 @@ public final class PmlConverter {
         try {
             // Load PML XML content from classpath
             String pmlContent = resolver.retrieve(pmlFile);
-
-            // Load XSLT content from classpath
-            String xsltContent = resolver.retrieve(xsltFile);
-
-            // Create input streams
-            InputStream pmlStream = new ByteArrayInputStream(pmlContent.getBytes(StandardCharsets.UTF_8));
-            InputStream xsltStream = new ByteArrayInputStream(xsltContent.getBytes(StandardCharsets.UTF_8));
-
-            // Create secure transformer factory and transformer
-            TransformerFactory factory = createSecureTransformerFactory();
-            Transformer transformer = factory.newTransformer(new StreamSource(xsltStream));
-
-            // Perform transformation
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            transformer.transform(new StreamSource(pmlStream), new StreamResult(outputStream));
-
-            // Return result as String
-            return outputStream.toString(StandardCharsets.UTF_8);
-
+            return transform(templatesFor(xsltFile), pmlContent);
         } catch (Exception e) {
             throw new RuntimeException("Failed to convert PML to Markdown: " + e.getMessage(), e);
         }
@@ -139,24 +170,7 @@ public final class PmlConverter {
         }
 
         try {
-            // Load XSLT content from classpath
-            String xsltContent = resolver.retrieve(xsltFile);
-
-            // Create input streams
-            InputStream pmlStream = new ByteArrayInputStream(pmlContent.getBytes(StandardCharsets.UTF_8));
-            InputStream xsltStream = new ByteArrayInputStream(xsltContent.getBytes(StandardCharsets.UTF_8));
-
-            // Create secure transformer factory and transformer
-            TransformerFactory factory = createSecureTransformerFactory();
-            Transformer transformer = factory.newTransformer(new StreamSource(xsltStream));
-
-            // Perform transformation
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            transformer.transform(new StreamSource(pmlStream), new StreamResult(outputStream));
-
-            // Return result as String
-            return outputStream.toString(StandardCharsets.UTF_8);
-
+            return transform(templatesFor(xsltFile), pmlContent);
         } catch (Exception e) {
             throw new RuntimeException("Failed to convert PML content to Markdown: " + e.getMessage(), e);
         }
@@ -0,0 +1,646 @@
+package info.jab.churrera.util;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders PML (Prompt Markup Language) XML to Markdown without XSLT.
+ * <p>
+ * The prompt is read with StAX into a small element tree, which is then written to an
+ * {@link Appendable} following the rules of one of the bundled stylesheets: the same sections
+ * in the same order, the same whitespace normalization and the same code block trimming.
+ * For a given prompt the output is identical to {@link PmlConverter#toMarkdownFromContent(String, String)}
+ * with that stylesheet, including documents whose root is not a {@code prompt} element, which
+ * the stylesheet's built-in rules render as their text.
+ */
+public final class PmlMarkdownRenderer {
+
+    /**
+     * The stylesheet bundled with churrera-core.
+     */
+    public static final String PML_STYLESHEET = "pml/pml-to-md.xsl";
+
+    /**
+     * The stylesheet bundled with the CLI. It also renders root-level titles, top-level steps,
+     * acceptance criteria and plain-text output formats and safeguards, and keeps the
+     * indentation of every fenced code block in a step.
+     */
+    public static final String CLI_STYLESHEET = "xslt/pml-to-md.xsl";
+
+    private static final String XINCLUDE_NAMESPACE = "http://www.w3.org/2001/XInclude";
+
+    // Elements whose whitespace-only text is dropped, as declared by xsl:strip-space
+    private static final Set<String> STRIP_SPACE = Set.of("prompt", "metadata", "tags", "example",
+        "code-examples", "good-example", "bad-example", "output-format", "instructions", "steps", "step");
+
+    // Configured once; the JDK factory creates independent readers, so it can be shared
+    private static final XMLInputFactory INPUT_FACTORY = createSecureInputFactory();
+
+    private final boolean cliRules;
+
+    /**
+     * Constructor that follows the default stylesheet, {@value #PML_STYLESHEET}.
+     */
+    public PmlMarkdownRenderer() {
+        this(PML_STYLESHEET);
+    }
+
+    /**
+     * Constructor that follows the given stylesheet.
+     *
+     * @param xsltFile {@value #PML_STYLESHEET} or {@value #CLI_STYLESHEET}
+     * @throws IllegalArgumentException if the stylesheet is not one of them
+     */
+    public PmlMarkdownRenderer(String xsltFile) {
+        if (!PML_STYLESHEET.equals(xsltFile) && !CLI_STYLESHEET.equals(xsltFile)) {
+            throw new IllegalArgumentException("Unsupported stylesheet for native rendering: " + xsltFile);
+        }
+        this.cliRules = CLI_STYLESHEET.equals(xsltFile);
+    }
+
+    /**
+     * Renders PML XML content to Markdown.
+     *
+     * @param pmlContent the PML XML content as a String
+     * @return the Markdown content as a String
+     * @throws IllegalArgumentException if pmlContent is null or empty
+     * @throws RuntimeException if the content cannot be parsed
+     */
+    public String render(String pmlContent) {
+        if (pmlContent == null || pmlContent.trim().isEmpty()) {
+            throw new IllegalArgumentException("PML content cannot be null or empty");
+        }
+        StringBuilder markdown = new StringBuilder(pmlContent.length());
+        render(new StringReader(pmlContent), markdown);
+        return markdown.toString();
+    }
+
+    /**
+     * Renders PML XML to Markdown, writing to the given output.
+     *
+     * @param pml the PML XML
+     * @param out where the Markdown is written
+     * @throws RuntimeException if the XML cannot be parsed or the output cannot be written
+     */
+    public void render(Reader pml, Appendable out) {
+        try {
+            Element document = parse(pml);
+            List<Element> roots = document.elements();
+            if (!roots.isEmpty() && roots.get(0).is("prompt")) {
+                renderPrompt(roots.get(0), out);
+            } else {
+                renderBuiltIn(document, out);
+            }
+        } catch (XMLStreamException | IOException e) {
+            throw new RuntimeException("Failed to render PML to Markdown: " + e.getMessage(), e);
+        }
+    }
+
+    private static XMLInputFactory createSecureInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newDefaultFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        return factory;
+    }
+
+    // Parsing
+
+    /**
+     * An element, with its children in document order. Text children are Strings.
+     */
+    private static final class Element {
+
+        private final String namespace;
+        private final String name;
+        private final Map<String, String> attributes;
+        private final List<Object> children = new ArrayList<>();
+
+        Element(String namespace, String name, Map<String, String> attributes) {
+            this.namespace = namespace;
+            this.name = name;
+            this.attributes = attributes;
+        }
+
+        boolean is(String localName) {
+            return namespace.isEmpty() && name.equals(localName);
+        }
+
+        String attribute(String attributeName) {
+            return attributes.get(attributeName);
+        }
+
+        List<Element> elements() {
+            List<Element> elements = new ArrayList<>();
+            for (Object child : children) {
+                if (child instanceof Element element) {
+                    elements.add(element);
+                }
+            }
+            return elements;
+        }
+
+        List<Element> children(String localName) {
+            List<Element> elements = new ArrayList<>();
+            for (Object child : children) {
+                if (child instanceof Element element && element.is(localName)) {
+                    elements.add(element);
+                }
+            }
+            return elements;
+        }
+
+        String firstText() {
+            for (Object child : children) {
+                if (child instanceof String text) {
+                    return text;
+                }
+            }
+            return "";
+        }
+
+        String text() {
+            StringBuilder text = new StringBuilder();
+            appendText(text);
+            return text.toString();
+        }
+
+        private void appendText(StringBuilder text) {
+            for (Object child : children) {
+                if (child instanceof Element element) {
+                    element.appendText(text);
+                } else {
+                    text.append((String) child);
+                }
+            }
+        }
+    }
+
+    private static Element parse(Reader pml) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(pml);
+        try {
+            Element document = new Element("", "", Map.of());
+            Deque<Element> open = new ArrayDeque<>();
+            open.push(document);
+            StringBuilder text = new StringBuilder();
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        flushText(open.peek(), text);
+                        Element element = new Element(nullToEmpty(reader.getNamespaceURI()), reader.getLocalName(),
+                            attributes(reader));
+                        open.peek().children.add(element);
+                        open.push(element);
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        flushText(open.peek(), text);
+                        open.pop();
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                        if (open.size() > 1) {
+                            text.append(reader.getText());
+                        }
+                    }
+                    // Comments and processing instructions separate text nodes
+                    case XMLStreamConstants.COMMENT, XMLStreamConstants.PROCESSING_INSTRUCTION -> flushText(open.peek(), text);
+                    default -> {
+                        // Document start and end, DTD: nothing to render
+                    }
+                }
+            }
+            return document;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Map<String, String> attributes(XMLStreamReader reader) {
+        int count = reader.getAttributeCount();
+        if (count == 0) {
+            return Map.of();
+        }
+        Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            if (nullToEmpty(reader.getAttributeNamespace(i)).isEmpty()) {
+                attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+        }
+        return attributes;
+    }
+
+    private static void flushText(Element parent, StringBuilder text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        if (!(parent.namespace.isEmpty() && STRIP_SPACE.contains(parent.name) && isXmlWhitespace(text))) {
+            parent.children.add(text.toString());
+        }
+        text.setLength(0);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    // Rendering, one method per template of the stylesheets
+
+    private void renderPrompt(Element prompt, Appendable out) throws IOException {
+        List<Element> metadata = prompt.children("metadata");
+        String author = normalizeSpace(text(first(metadata, "author")));
+        String version = normalizeSpace(text(first(metadata, "version")));
+        if (!metadata.isEmpty() && (!author.isEmpty() || !version.isEmpty())) {
+            out.append("---");
+            if (!author.isEmpty()) {
+                out.append("\nauthor: ").append(author);
+            }
+            if (!version.isEmpty()) {
+                out.append("\nversion: ").append(version);
+            }
+            out.append("\n---\n");
+        }
+        renderTitle(prompt, metadata, out);
+        renderRole(prompt, out);
+
+        for (Element tone : prompt.children("tone")) {
+            renderTone(tone, out);
+        }
+        for (Element goal : prompt.children("goal")) {
+            renderGoal(goal, out);
+        }
+        for (Element constraints : prompt.children("constraints")) {
+            renderConstraints(constraints, out);
+        }
+        for (Element instructions : prompt.children("instructions")) {
+            renderInstructions(instructions, out);
+        }
+
+        List<Element> examples = prompt.children("examples");
+        if (hasAutoGeneratedToc(examples)) {
+            out.append("\n## Examples\n\n### Table of contents\n\n");
+            for (Element example : all(examples, "example")) {
+                out.append("- Example ").append(attribute(example, "number")).append(": ")
+                    .append(normalizeSpace(text(first(example.children("example-header"), "example-title"))))
+                    .append("\n");
+            }
+        }
+
+        for (Element section : prompt.elements()) {
+            if (section.is("examples")) {
+                renderExamples(section, out);
+            } else if (section.is("output-format")) {
+                renderOutputFormat(section, out);
+            } else if (section.is("safeguards")) {
+                renderSafeguards(section, out);
+            } else if (cliRules && section.is("steps")) {
+                renderSteps(section, false, out);
+            } else if (cliRules && section.is("acceptance-criteria")) {
+                renderAcceptanceCriteria(section, out);
+            }
+        }
+    }
+
+    private void renderTitle(Element prompt, List<Element> metadata, Appendable out) throws IOException {
+        Element metadataTitle = first(metadata, "title");
+        boolean hasMetadataTitle = !metadata.isEmpty() && !normalizeSpace(text(metadataTitle)).isEmpty();
+        if (!cliRules) {
+            if (hasMetadataTitle) {
+                out.append("# ").append(text(metadataTitle)).append("\n\n");
+            }
+            return;
+        }
+        String title = hasMetadataTitle
+            ? normalizeSpace(text(metadataTitle))
+            : normalizeSpace(text(first(List.of(prompt), "title")));
+        if (!title.isEmpty()) {
+            out.append("# ").append(title).append("\n\n");
+        }
+    }
+
+    private void renderRole(Element prompt, Appendable out) throws IOException {
+        String role = text(first(List.of(prompt), "role"));
+        if (!cliRules) {
+            out.append("## Role\n\n").append(role);
+        } else if (!normalizeSpace(role).isEmpty()) {
+            out.append("## Role\n\n").append(normalizeSpace(role));
+        }
+    }
+
+    private static void renderTone(Element tone, Appendable out) throws IOException {
+        out.append("\n\n## Tone\n\n").append(normalizeSpace(tone.text()));
+    }
+
+    private static void renderGoal(Element goal, Appendable out) throws IOException {
+        out.append("\n\n## Goal\n\n").append(removeIndentation(trimNewlines(goal.text()))).append("\n");
+    }
+
+    private void renderInstructions(Element instructions, Appendable out) throws IOException {
+        out.append("\n## Instructions\n\n");
+        for (Element steps : instructions.children("steps")) {
+            renderSteps(steps, true, out);
+        }
+    }
+
+    private void renderSteps(Element steps, boolean inInstructions, Appendable out) throws IOException {
+        if (cliRules && !inInstructions) {
+            out.append("\n## Steps\n\n");
+        }
+        for (Element step : steps.children("step")) {
+            renderStep(step, out);
+        }
+    }
+
+    private void renderStep(Element step, Appendable out) throws IOException {
+        out.append("### Step ");
+        String number = step.attribute("number");
+        if (number != null) {
+            out.append(number).append(": ");
+        }
+        out.append(normalizeSpace(text(first(List.of(step), "step-title")))).append("\n\n");
+
+        String content = trimNewlines(text(first(List.of(step), "step-content")));
+        boolean keepIndentation;
+        if (cliRules) {
+            keepIndentation = content.contains("```");
+        } else {
+            boolean shellScript = content.contains("```bash") && (content.contains("#!/bin/bash")
+                || content.contains("#!/usr/bin/env bash") || content.contains("#!/bin/sh"));
+            keepIndentation = shellScript
+                || content.contains("```xml") || content.contains("```java") || content.contains("```txt");
+        }
+        out.append(keepIndentation ? trimNewlines(content) : removeIndentation(content));
+
+        List<Element> stepConstraints = step.children("step-constraints");
+        if (!stepConstraints.isEmpty()) {
+            out.append("\n#### Step Constraints\n\n");
+            renderItems(all(all(stepConstraints, "step-constraint-list"), "step-constraint"), out);
+            out.append("\n");
+        }
+    }
+
+    private static boolean hasAutoGeneratedToc(List<Element> examples) {
+        for (Element toc : all(examples, "toc")) {
+            if ("true".equals(toc.attribute("auto-generate"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void renderExamples(Element examples, Appendable out) throws IOException {
+        List<Element> children = examples.children("example");
+        for (int i = 0; i < children.size(); i++) {
+            renderExample(children.get(i), i == children.size() - 1, out);
+        }
+    }
+
+    private static void renderExample(Element example, boolean last, Appendable out) throws IOException {
+        List<Element> header = example.children("example-header");
+        out.append("\n### Example ").append(attribute(example, "number")).append(": ")
+            .append(normalizeSpace(text(first(header, "example-title"))))
+            .append("\n\nTitle: ").append(normalizeSpace(text(first(header, "example-subtitle"))))
+            .append("\nDescription: ").append(normalizeSpace(text(first(List.of(example), "example-description"))));
+
+        List<Element> codeExamples = example.children("code-examples");
+        renderCodeExample(all(codeExamples, "good-example"), "\n\n**Good example:**\n\n```", out);
+        renderCodeExample(all(codeExamples, "bad-example"), "\n\n**Bad example:**\n\n```", out);
+        if (!last) {
+            out.append("\n");
+        }
+    }
+
+    private static void renderCodeExample(List<Element> codeExamples, String heading, Appendable out) throws IOException {
+        if (codeExamples.isEmpty()) {
+            return;
+        }
+        out.append(heading);
+        List<Element> codeBlocks = all(codeExamples, "code-block");
+        for (Element codeBlock : codeBlocks) {
+            String language = codeBlock.attribute("language");
+            if (language != null) {
+                out.append(language);
+                break;
+            }
+        }
+        out.append("\n").append(removeTrailingSpaces(trimNewlines(text(codeBlocks.isEmpty() ? null : codeBlocks.get(0)))))
+            .append("\n```");
+        for (Element codeExample : codeExamples) {
+            if ("true".equals(codeExample.attribute("last-item"))) {
+                out.append("\n");
+                break;
+            }
+        }
+    }
+
+    private void renderOutputFormat(Element outputFormat, Appendable out) throws IOException {
+        out.append("\n## Output Format\n\n");
+        renderList(outputFormat, "output-format-list", "output-format-item", out);
+    }
+
+    private void renderSafeguards(Element safeguards, Appendable out) throws IOException {
+        out.append("\n## Safeguards\n\n");
+        renderList(safeguards, "safeguards-list", "safeguards-item", out);
+    }
+
+    private void renderList(Element section, String listName, String itemName, Appendable out) throws IOException {
+        List<Element> lists = section.children(listName);
+        if (cliRules && lists.isEmpty()) {
+            out.append(normalizeSpace(section.firstText())).append("\n");
+        } else {
+            renderItems(all(lists, itemName), out);
+        }
+    }
+
+    private static void renderAcceptanceCriteria(Element acceptanceCriteria, Appendable out) throws IOException {
+        out.append("\n## Acceptance Criteria\n\nThe goal will be achieved if the following criteria are met:\n\n");
+        renderItems(all(acceptanceCriteria.children("acceptance-criteria-list"), "acceptance-criteria-item"), out);
+    }
+
+    private static void renderConstraints(Element constraints, Appendable out) throws IOException {
+        out.append("\n## Constraints\n\n");
+        Element description = first(List.of(constraints), "constraints-description");
+        if (description != null) {
+            out.append(normalizeSpace(description.text())).append("\n\n");
+        }
+        renderItems(all(constraints.children("constraint-list"), "constraint"), out);
+    }
+
+    private static void renderItems(List<Element> items, Appendable out) throws IOException {
+        for (Element item : items) {
+            out.append("- ").append(normalizeSpace(item.text())).append("\n");
+        }
+    }
+
+    /**
+     * Built-in template rules, used when the root is not a prompt: the text of the document, except
+     * for the elements the stylesheet has a template for, which are rendered wherever they occur.
+     */
+    private void renderBuiltIn(Element parent, Appendable out) throws IOException {
+        List<Object> children = parent.children;
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i) instanceof Element element) {
+                renderMatching(parent, element, i == children.size() - 1, out);
+            } else {
+                out.append((String) children.get(i));
+            }
+        }
+    }
+
+    private void renderMatching(Element parent, Element element, boolean last, Appendable out) throws IOException {
+        if (XINCLUDE_NAMESPACE.equals(element.namespace) && element.name.equals("include")) {
+            if ("text".equals(element.attribute("parse"))) {
+                out.append(trimNewlines(element.text()));
+            } else {
+                renderBuiltIn(element, out);
+            }
+            return;
+        }
+        if (!element.namespace.isEmpty()) {
+            renderBuiltIn(element, out);
+            return;
+        }
+        switch (element.name) {
+            case "examples" -> renderExamples(element, out);
+            case "example" -> renderExample(element, last, out);
+            case "goal" -> renderGoal(element, out);
+            case "tone" -> renderTone(element, out);
+            case "instructions" -> renderInstructions(element, out);
+            case "steps" -> renderSteps(element, parent.is("instructions"), out);
+            case "step" -> renderStep(element, out);
+            case "output-format" -> renderOutputFormat(element, out);
+            case "safeguards" -> renderSafeguards(element, out);
+            case "constraints" -> renderConstraints(element, out);
+            case "acceptance-criteria" -> {
+                if (cliRules) {
+                    renderAcceptanceCriteria(element, out);
+                } else {
+                    renderBuiltIn(element, out);
+                }
+            }
+            default -> renderBuiltIn(element, out);
+        }
+    }
+
+    // Path and string helpers mirroring the XPath 1.0 functions the stylesheets use
+
+    private static List<Element> all(List<Element> parents, String localName) {
+        List<Element> children = new ArrayList<>();
+        for (Element parent : parents) {
+            children.addAll(parent.children(localName));
+        }
+        return children;
+    }
+
+    private static Element first(List<Element> parents, String localName) {
+        for (Element parent : parents) {
+            for (Element child : parent.children(localName)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private static String text(Element element) {
+        return element == null ? "" : element.text();
+    }
+
+    private static String attribute(Element element, String name) {
+        String value = element.attribute(name);
+        return value == null ? "" : value;
+    }
+
+    private static boolean isXmlWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isXmlWhitespace(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!isXmlWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collapses runs of XML whitespace into one space and trims the ends, like normalize-space().
+     */
+    static String normalizeSpace(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isXmlWhitespace(c)) {
+                pendingSpace = !normalized.isEmpty();
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Drops one leading and one trailing newline, like the trimmed-start and trimmed-both variables.
+     */
+    static String trimNewlines(String text) {
+        int start = text.startsWith("\n") ? 1 : 0;
+        int end = text.length() > start && text.endsWith("\n") ? text.length() - 1 : text.length();
+        return text.substring(start, end);
+    }
+
+    /**
+     * Drops the leading spaces of every line, like the remove-goal-indentation template.
+     */
+    static String removeIndentation(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        boolean lineStart = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (lineStart && c == ' ') {
+                continue;
+            }
+            result.append(c);
+            lineStart = c == '\n';
+        }
+        return result.toString();
+    }
+
+    /**
+     * Drops the trailing spaces of every line, like the remove-trailing-spaces template.
+     */
+    static String removeTrailingSpaces(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        int lineStart = 0;
+        while (true) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            int end = lineEnd < 0 ? text.length() : lineEnd;
+            int trimmed = end;
+            while (trimmed > lineStart && text.charAt(trimmed - 1) == ' ') {
+                trimmed--;
+            }
+            result.append(text, lineStart, trimmed);
+            if (lineEnd < 0) {
+                return result.toString();
+            }
+            result.append('\n');
+            lineStart = lineEnd + 1;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package info.jab.churrera.workflow;
+
+import java.lang.reflect.RecordComponent;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bind expression parsed once by {@link ExpressionEvaluator#compile(String)}.
+ * <p>
+ * Supported forms are {@code $get()} for the item itself, {@code $get(index)} for an element
+ * of a list item, and a trailing {@code .field} path for a key of a map or a component of a
+ * record, e.g. {@code $get().name} or {@code $get(0).id}. A missing element or field
+ * evaluates to an empty value, like a null item.
+ */
+public final class CompiledExpression {
+
+    private final String source;
+    private final int index;
+    private final String[] fields;
+
+    CompiledExpression(String source, int index, String[] fields) {
+        this.source = source;
+        this.index = index;
+        this.fields = fields;
+    }
+
+    /**
+     * Evaluates the expression against an item.
+     *
+     * @param item the item of the parallel iteration
+     * @return the selected value as a string, or an empty string if there is none
+     */
+    public String evaluate(Object item) {
+        Object value = item;
+        if (index >= 0) {
+            value = value instanceof List<?> list && index < list.size() ? list.get(index) : null;
+        }
+        for (String field : fields) {
+            value = field(value, field);
+        }
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * Returns the expression as written.
+     */
+    public String source() {
+        return source;
+    }
+
+    private static Object field(Object value, String field) {
+        if (value instanceof Map<?, ?> map) {
+            return map.get(field);
+        }
+        if (value != null && value.getClass().isRecord()) {
+            for (RecordComponent component : value.getClass().getRecordComponents()) {
+                if (component.getName().equals(field)) {
+                    try {
+                        return component.getAccessor().invoke(value);
+                    } catch (ReflectiveOperationException e) {
+                        throw new RuntimeException("Failed to read " + field + " of " + value.getClass().getSimpleName(), e);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -3,6 +3,8 @@ package info.jab.churrera.workflow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.regex.Pattern;
+
 /**
  * Evaluates expressions in prompts and replaces placeholders with actual values.
  * Supports simple expression evaluation for parallel job execution.
@@ -11,38 +13,71 @@ public final class ExpressionEvaluator {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpressionEvaluator.class);
 
+    private static final String GET_OPEN = "$get(";
+    private static final Pattern INDEX = Pattern.compile("\\d+");
+    private static final Pattern FIELD_PATH = Pattern.compile("(\\.[A-Za-z_][A-Za-z0-9_]*)+");
+
     private ExpressionEvaluator() {
         throw new UnsupportedOperationException("Utility class cannot be instantiated");
     }
 
     /**
-     * Evaluates a simple $get() expression by returning the provided value.
+     * Evaluates a $get() expression against the provided value.
      * This is used in parallel workflows where each iteration gets a value from a list.
      *
-     * @param expression the expression to evaluate (e.g., "$get()")
-     * @param value the value to return for this iteration
+     * @param expression the expression to evaluate (e.g., "$get()", "$get(0)" or "$get().name")
+     * @param value the value to evaluate it against for this iteration
      * @return the value as a string, or null if expression is not supported
      */
     public static String evaluate(String expression, Object value) {
+        CompiledExpression compiled = compile(expression);
+        return compiled != null ? compiled.evaluate(value) : null;
+    }
+
+    /**
+     * Parses an expression once, so it can be evaluated for every iteration without parsing it again.
+     * Supports $get(), $get(index) and a trailing .field path, e.g. $get().name or $get(0).id.
+     *
+     * @param expression the expression to compile
+     * @return the compiled expression, or null if the expression is not supported
+     */
+    public static CompiledExpression compile(String expression) {
         if (expression == null || expression.trim().isEmpty()) {
             return null;
         }
 
-        if ("$get()".equals(expression.trim())) {
-            return value != null ? value.toString() : "";
+        String trimmed = expression.trim();
+        if (!trimmed.startsWith(GET_OPEN)) {
+            return null;
         }
-
-        // Future expressions can be added here:
-        // - $get(index)
-        // - $get().field
-        // - etc.
-
-        return null; // Unsupported expression
+        int close = trimmed.indexOf(')', GET_OPEN.length());
+        if (close < 0) {
+            return null;
+        }
+        String argument = trimmed.substring(GET_OPEN.length(), close);
+        int index = -1;
+        if (!argument.isEmpty()) {
+            if (!INDEX.matcher(argument).matches()) {
+                return null;
+            }
+            try {
+                index = Integer.parseInt(argument);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        String path = trimmed.substring(close + 1);
+        if (!path.isEmpty() && !FIELD_PATH.matcher(path).matches()) {
+            return null;
+        }
+        String[] fields = path.isEmpty() ? new String[0] : path.substring(1).split("\\.");
+        return new CompiledExpression(trimmed, index, fields);
     }
 
     /**
      * Replaces INPUT placeholder in prompt content with the actual value.
      * This replaces occurrences of <input>INPUT</input> with the provided value.
+     * Prompts bound more than once should be compiled with {@link PromptTemplate#compile(String)} instead.
      *
      * @param promptContent the prompt content (markdown or PML)
      * @param value the value to replace INPUT with
@@ -53,28 +88,12 @@ public final class ExpressionEvaluator {
             logger.warn("replaceInputPlaceholder: promptContent is null");
             return null;
         }
-        if (value == null) {
-            value = "";
-        }
 
-        String pattern = "<input>INPUT</input>";
-        boolean containsPattern = promptContent.contains(pattern);
-        
-        logger.info("🔍 Pattern search: looking for '{}' in content (length: {})", pattern, promptContent.length());
-        logger.info("🔍 Pattern found: {}", containsPattern);
-        
-        if (containsPattern) {
-            String result = promptContent.replace(pattern, "<input>" + value + "</input>");
-            logger.info("✅ Replacement applied: INPUT -> '{}' (content changed: {})", 
-                value, !result.equals(promptContent));
-            return result;
-        } else {
-            logger.warn("⚠️ Pattern '{}' NOT FOUND in content", pattern);
-            logger.warn("⚠️ Content preview (first 300 chars): {}", 
-                promptContent.length() > 300 ? promptContent.substring(0, 300) + "..." : promptContent);
-            // Replace <input>INPUT</input> with the actual value anyway (in case it's there but not detected)
-            return promptContent.replace(pattern, "<input>" + value + "</input>");
+        PromptTemplate template = PromptTemplate.compile(promptContent);
+        if (template.slotCount() == 0) {
+            logger.debug("Pattern '{}' not found in content (length: {})", PromptTemplate.INPUT_PLACEHOLDER, promptContent.length());
         }
+        return template.render(value);
     }
 
     /**
@@ -88,8 +107,7 @@ public final class ExpressionEvaluator {
             return false;
         }
 
-        return "$get()".equals(expression.trim());
-        // Future expressions can be added to this check
+        return compile(expression) != null;
     }
 }
 
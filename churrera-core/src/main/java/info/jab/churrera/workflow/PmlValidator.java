@@ -3,10 +3,8 @@ package info.jab.churrera.workflow;
 import info.jab.churrera.util.PropertyResolver;
 import org.xml.sax.SAXException;
 
-import javax.xml.XMLConstants;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 import java.io.File;
 import java.io.IOException;
@@ -22,9 +20,20 @@ public class PmlValidator {
     private static final String SCHEMA_URL_PROPERTY = "pml.schema.url";
     private static final String AT_LINE_SUFFIX = " at line ";
     private final PropertyResolver propertyResolver;
+    private final SchemaCache schemaCache;
 
     public PmlValidator() {
+        this(SchemaCache.defaultCache());
+    }
+
+    /**
+     * Constructor with the cache the schema is loaded from.
+     *
+     * @param schemaCache cache of compiled schemas and their local copies
+     */
+    public PmlValidator(SchemaCache schemaCache) {
         this.propertyResolver = new PropertyResolver();
+        this.schemaCache = schemaCache;
     }
 
     /**
@@ -43,7 +52,7 @@ public class PmlValidator {
                 return new ValidationResult(false, errors);
             }
 
-            // Load the XSD schema from external URL
+            // Load the XSD schema, downloaded and compiled on first use only
             Schema schema = loadSchema();
 
             // Create validator
@@ -83,38 +92,14 @@ public class PmlValidator {
     }
 
     /**
-     * Creates a secure SchemaFactory with external entity access disabled
-     * to prevent XXE (XML External Entity) attacks.
-     *
-     * @return a configured SchemaFactory with security features enabled
-     * @throws SAXException if the factory cannot be configured
-     */
-    private static SchemaFactory createSecureSchemaFactory() throws SAXException {
-        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-
-        // Enable secure processing feature
-        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-
-        // Disable external DTD access
-        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-
-        // Disable external schema access
-        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
-
-        return factory;
-    }
-
-    /**
-     * Loads the XSD schema from the external URL.
+     * Loads the XSD schema from the schema cache, downloading it on first use.
      *
      * @return the loaded Schema object
      * @throws SAXException if there's an error parsing the schema
-     * @throws IOException if there's an error reading the schema file
+     * @throws IOException if the schema is not cached and cannot be downloaded
      */
     private Schema loadSchema() throws SAXException, IOException {
-        SchemaFactory factory = createSecureSchemaFactory();
-        String schemaUrl = getSchemaUrl();
-        return factory.newSchema(java.net.URI.create(schemaUrl).toURL());
+        return schemaCache.get(getSchemaUrl());
     }
 
     /**
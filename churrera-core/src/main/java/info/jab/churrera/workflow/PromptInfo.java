@@ -7,6 +7,7 @@ public class PromptInfo {
     private final String srcFile;
     private final String type;
     private final String bindResultExp;
+    private final CompiledExpression bindExpression;
 
     public PromptInfo(String srcFile, String type) {
         this(srcFile, type, null);
@@ -16,6 +17,8 @@ public class PromptInfo {
         this.srcFile = srcFile;
         this.type = type;
         this.bindResultExp = bindResultExp;
+        // Parsed once with the workflow, not for every child job
+        this.bindExpression = ExpressionEvaluator.compile(bindResultExp);
     }
 
     public String getSrcFile() {
@@ -30,6 +33,13 @@ public class PromptInfo {
         return bindResultExp;
     }
 
+    /**
+     * Returns the compiled bindResultExp, or null if there is none or it is not supported.
+     */
+    public CompiledExpression getBindExpression() {
+        return bindExpression;
+    }
+
     public boolean hasBindResultExp() {
         return bindResultExp != null && !bindResultExp.trim().isEmpty();
     }
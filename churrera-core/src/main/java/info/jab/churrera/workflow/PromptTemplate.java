@@ -0,0 +1,88 @@
+package info.jab.churrera.workflow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A prompt compiled once into the literal text around its {@code <input>INPUT</input>} slots.
+ * Rendering joins the literals and the bound value in a single pass, so a prompt sent by many
+ * parallel jobs is only scanned when it is compiled.
+ */
+public final class PromptTemplate {
+
+    /**
+     * The placeholder replaced by the bound value.
+     */
+    public static final String INPUT_PLACEHOLDER = "<input>INPUT</input>";
+
+    private static final String INPUT_OPEN = "<input>";
+    private static final String INPUT_CLOSE = "</input>";
+
+    private final String source;
+    private final String[] segments;
+    private final int literalLength;
+
+    private PromptTemplate(String source, String[] segments) {
+        this.source = source;
+        this.segments = segments;
+        this.literalLength = source.length() - (segments.length - 1) * INPUT_PLACEHOLDER.length();
+    }
+
+    /**
+     * Compiles a prompt.
+     *
+     * @param promptContent the prompt content (markdown or PML)
+     * @return the compiled template
+     * @throws IllegalArgumentException if promptContent is null
+     */
+    public static PromptTemplate compile(String promptContent) {
+        if (promptContent == null) {
+            throw new IllegalArgumentException("Prompt content cannot be null");
+        }
+
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int slot;
+        while ((slot = promptContent.indexOf(INPUT_PLACEHOLDER, start)) >= 0) {
+            segments.add(promptContent.substring(start, slot));
+            start = slot + INPUT_PLACEHOLDER.length();
+        }
+        segments.add(promptContent.substring(start));
+        return new PromptTemplate(promptContent, segments.toArray(String[]::new));
+    }
+
+    /**
+     * Renders the prompt with the value in every slot.
+     *
+     * @param value the value to bind (null binds an empty value)
+     * @return the rendered prompt
+     */
+    public String render(String value) {
+        if (segments.length == 1) {
+            return source;
+        }
+        String bound = value == null ? "" : value;
+        int slots = segments.length - 1;
+        StringBuilder result = new StringBuilder(literalLength
+            + slots * (INPUT_OPEN.length() + bound.length() + INPUT_CLOSE.length()));
+        result.append(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            result.append(INPUT_OPEN).append(bound).append(INPUT_CLOSE).append(segments[i]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the number of slots in the prompt.
+     */
+    public int slotCount() {
+        return segments.length - 1;
+    }
+
+    /**
+     * Returns the prompt as compiled, with its slots unbound.
+     */
+    public String source() {
+        return source;
+    }
+}
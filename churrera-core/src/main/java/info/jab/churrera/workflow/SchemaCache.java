@@ -0,0 +1,200 @@
+package info.jab.churrera.workflow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of compiled XSD schemas, backed by local copies of the schema files.
+ * <p>
+ * Each schema is compiled once per process and shared by every validation, as {@link Schema}
+ * is immutable and thread-safe. A schema served over HTTP is downloaded once and kept under the
+ * cache directory at a path derived from its URL, e.g.
+ * {@code jabrena.github.io/pml/schemas/0.3.0/pml.xsd}. The URL carries the schema version, so the
+ * local copy is pinned to it: a copy is never refreshed, and configuring another version downloads
+ * that version next to the existing ones. On runners without network access, validation works
+ * from copies placed in the cache directory beforehand.
+ */
+public final class SchemaCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaCache.class);
+
+    /**
+     * Directory of the default cache, next to the default BaseX data directory.
+     */
+    public static final Path DEFAULT_DIRECTORY = Paths.get("churrera-data", "schemas");
+
+    static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    static final Duration READ_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final SchemaCache DEFAULT = new SchemaCache(DEFAULT_DIRECTORY);
+
+    private final Path directory;
+    private final Map<String, Schema> schemas = new ConcurrentHashMap<>();
+    // Guarded by this, like every load
+    private int downloads;
+
+    /**
+     * Constructor.
+     *
+     * @param directory where downloaded schema files are kept
+     */
+    public SchemaCache(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Schema cache directory cannot be null");
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cache shared by validators created without one.
+     */
+    public static SchemaCache defaultCache() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the compiled schema, compiling it on first use.
+     *
+     * @param schemaUrl the URL of the XSD schema
+     * @return the compiled schema
+     * @throws SAXException if the schema cannot be parsed
+     * @throws IOException if the schema is not cached and cannot be downloaded
+     */
+    public Schema get(String schemaUrl) throws SAXException, IOException {
+        Schema schema = schemas.get(schemaUrl);
+        if (schema != null) {
+            return schema;
+        }
+        synchronized (this) {
+            schema = schemas.get(schemaUrl);
+            if (schema == null) {
+                schema = load(schemaUrl);
+                schemas.put(schemaUrl, schema);
+            }
+            return schema;
+        }
+    }
+
+    /**
+     * Returns where the local copy of a schema served over HTTP is kept.
+     *
+     * @param schemaUrl the URL of the XSD schema
+     * @return the path of the local copy
+     * @throws IllegalArgumentException if the URL does not map to a path inside the cache directory
+     */
+    public Path localCopy(String schemaUrl) {
+        URI uri = URI.create(schemaUrl);
+        String host = uri.getHost() == null ? "localhost" : uri.getHost().toLowerCase(Locale.ROOT);
+        if (uri.getPort() >= 0) {
+            host = host + "_" + uri.getPort();
+        }
+        String path = uri.getPath() == null ? "" : uri.getPath().replaceFirst("^/+", "");
+        Path root = directory.toAbsolutePath().normalize();
+        Path copy = root.resolve(host).resolve(path).normalize();
+        if (path.isEmpty() || !copy.startsWith(root.resolve(host))) {
+            throw new IllegalArgumentException("Schema URL does not name a file: " + schemaUrl);
+        }
+        return copy;
+    }
+
+    private Schema load(String schemaUrl) throws SAXException, IOException {
+        URI uri = URI.create(schemaUrl);
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https")) {
+            // Local schemas (file:, jar:) need no copy
+            return compile(new StreamSource(uri.toURL().toExternalForm()));
+        }
+
+        Path copy = localCopy(schemaUrl);
+        if (Files.isRegularFile(copy)) {
+            logger.debug("Using cached schema {} for {}", copy, schemaUrl);
+            return compile(new StreamSource(copy.toFile()));
+        }
+
+        Path temporary = download(uri, copy);
+        try {
+            // Only keep the download if it is a schema, not e.g. an error page
+            Schema schema = compile(new StreamSource(temporary.toFile()));
+            Files.move(temporary, copy, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Cached schema {} at {}", schemaUrl, copy);
+            return schema;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private Path download(URI uri, Path copy) throws IOException {
+        Files.createDirectories(copy.getParent());
+        Path temporary = copy.resolveSibling(copy.getFileName() + ".tmp");
+        try {
+            URLConnection connection = uri.toURL().openConnection();
+            connection.setConnectTimeout((int) CONNECT_TIMEOUT.toMillis());
+            connection.setReadTimeout((int) READ_TIMEOUT.toMillis());
+            if (connection instanceof HttpURLConnection http && http.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + http.getResponseCode());
+            }
+            try (InputStream in = connection.getInputStream()) {
+                Files.copy(in, temporary, StandardCopyOption.REPLACE_EXISTING);
+            }
+            downloads++;
+            return temporary;
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw new IOException("Schema " + uri + " is not cached at " + copy
+                + " and could not be downloaded: " + e.getMessage(), e);
+        }
+    }
+
+    private static Schema compile(StreamSource source) throws SAXException {
+        return createSecureSchemaFactory().newSchema(source);
+    }
+
+    /**
+     * Creates a secure SchemaFactory with external entity access disabled
+     * to prevent XXE (XML External Entity) attacks.
+     *
+     * @return a configured SchemaFactory with security features enabled
+     * @throws SAXException if the factory cannot be configured
+     */
+    private static SchemaFactory createSecureSchemaFactory() throws SAXException {
+        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+
+        // Enable secure processing feature
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+
+        // Disable external DTD access
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+
+        // Disable external schema access
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+
+        return factory;
+    }
+
+    int cachedSchemas() {
+        return schemas.size();
+    }
+
+    synchronized int downloads() {
+        return downloads;
+    }
+}
@@ -8,8 +8,18 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests for PmlConverter class.
@@ -354,4 +364,67 @@ class PmlConverterTest {
                 .hasMessageContaining("ClasspathResolver cannot be null");
         }
     }
+
+    @Nested
+    @DisplayName("Templates cache Tests")
+    class TemplatesCacheTests {
+
+        private static final String PML = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <prompt>
+                <role>You are a helpful assistant</role>
+                <goal>Help the user with their task</goal>
+            </prompt>
+            """;
+
+        @Test
+        @DisplayName("Should load and compile the stylesheet once for repeated conversions")
+        void shouldCompileStylesheetOnceForRepeatedConversions() {
+            // Given
+            ClasspathResolver resolver = spy(new ClasspathResolver());
+            PmlConverter cachingConverter = new PmlConverter(resolver);
+
+            // When
+            String first = cachingConverter.toMarkdownFromContent(PML);
+            String second = cachingConverter.toMarkdownFromContent(PML);
+
+            // Then
+            assertThat(second).isEqualTo(first).contains("You are a helpful assistant");
+            assertThat(cachingConverter.cachedTemplates()).isEqualTo(1);
+            verify(resolver, times(1)).retrieve("pml/pml-to-md.xsl");
+        }
+
+        @Test
+        @DisplayName("Should not cache a stylesheet that fails to load")
+        void shouldNotCacheStylesheetThatFailsToLoad() {
+            // When & Then
+            assertThatThrownBy(() -> converter.toMarkdownFromContent(PML, "non-existent.xsl"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Failed to convert PML content to Markdown");
+            assertThat(converter.cachedTemplates()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should produce the same Markdown from concurrent conversions")
+        void shouldProduceSameMarkdownFromConcurrentConversions() throws Exception {
+            // Given
+            String expected = converter.toMarkdownFromContent(PML);
+
+            // When
+            List<String> results;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<String>> futures = IntStream.range(0, 32)
+                    .mapToObj(i -> executor.submit(() -> converter.toMarkdownFromContent(PML)))
+                    .toList();
+                results = new ArrayList<>();
+                for (Future<String> future : futures) {
+                    results.add(future.get());
+                }
+            }
+
+            // Then
+            assertThat(results).hasSize(32).allMatch(expected::equals);
+            assertThat(converter.cachedTemplates()).isEqualTo(1);
+        }
+    }
 }
@@ -0,0 +1,312 @@
+package info.jab.churrera.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for PmlMarkdownRenderer class.
+ */
+@DisplayName("PmlMarkdownRenderer Tests")
+class PmlMarkdownRendererTest {
+
+    private PmlMarkdownRenderer renderer;
+    private PmlConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new PmlMarkdownRenderer();
+        converter = new PmlConverter();
+    }
+
+    @Nested
+    @DisplayName("XSLT Parity Tests")
+    class XsltParityTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+            "examples/hello-world/prompt1.xml",
+            "examples/hello-world/prompt2.xml",
+            "examples/pi/prompt1.xml",
+            "examples/pi/prompt2.xml",
+            "examples/pi/prompt3.xml",
+            "examples/pi/prompt4.xml",
+            "examples/pi/prompt5.xml",
+            "examples/cis194/prompt1.xml"
+        })
+        @DisplayName("Should render bundled examples like the stylesheet")
+        void shouldRenderBundledExamplesLikeTheStylesheet(String pmlFile) {
+            // Given
+            String pmlContent = new ClasspathResolver().retrieve(pmlFile);
+
+            // When
+            String result = renderer.render(pmlContent);
+
+            // Then
+            assertThat(result).isEqualTo(converter.toMarkdownFromContent(pmlContent));
+        }
+
+        @Test
+        @DisplayName("Should render every section like the stylesheet")
+        void shouldRenderEverySectionLikeTheStylesheet() {
+            // Given
+            String pmlContent = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <prompt>
+                    <metadata>
+                        <author>  Jane   Doe </author>
+                        <version>1.0</version>
+                        <title>Sample</title>
+                    </metadata>
+                    <role>You are a   reviewer</role>
+                    <tone>Calm and
+                        precise</tone>
+                    <goal>
+                        Review the code
+                          carefully
+                    </goal>
+                    <constraints>
+                        <constraints-description>Follow these</constraints-description>
+                        <constraint-list>
+                            <constraint>Be   brief</constraint>
+                            <constraint>Be kind</constraint>
+                        </constraint-list>
+                    </constraints>
+                    <instructions>
+                        <steps>
+                            <step number="1">
+                                <step-title>Build</step-title>
+                                <step-content>
+                                    Run the build
+                                    ```java
+                                    int answer = 42;
+                                    ```
+                                </step-content>
+                                <step-constraints>
+                                    <step-constraint-list>
+                                        <step-constraint>No network</step-constraint>
+                                    </step-constraint-list>
+                                </step-constraints>
+                            </step>
+                            <step>
+                                <step-title>Report</step-title>
+                                <step-content><![CDATA[Use <b>bold</b> & more]]></step-content>
+                            </step>
+                        </steps>
+                    </instructions>
+                    <examples>
+                        <toc auto-generate="true"/>
+                        <example number="1">
+                            <example-header>
+                                <example-title>First</example-title>
+                                <example-subtitle>Sub</example-subtitle>
+                            </example-header>
+                            <example-description>Shows it</example-description>
+                            <code-examples>
+                                <good-example>
+                                    <code-block language="java">
+                int x = 1;
+                                    </code-block>
+                                </good-example>
+                                <bad-example last-item="true">
+                                    <code-block>int x;</code-block>
+                                </bad-example>
+                            </code-examples>
+                        </example>
+                        <example number="2">
+                            <example-header>
+                                <example-title>Second</example-title>
+                            </example-header>
+                        </example>
+                    </examples>
+                    <output-format>
+                        <output-format-list>
+                            <output-format-item>A list</output-format-item>
+                        </output-format-list>
+                    </output-format>
+                    <safeguards>
+                        <safeguards-list>
+                            <safeguards-item>Keep <!-- not this --> tests</safeguards-item>
+                        </safeguards-list>
+                    </safeguards>
+                </prompt>
+                """;
+
+            // When
+            String result = renderer.render(pmlContent);
+
+            // Then
+            assertThat(result).isEqualTo(converter.toMarkdownFromContent(pmlContent));
+        }
+
+        @Test
+        @DisplayName("Should render document without prompt root like the stylesheet")
+        void shouldRenderDocumentWithoutPromptRootLikeTheStylesheet() {
+            // Given
+            String pmlContent = """
+                <notes>
+                    Some text
+                    <goal>Nested goal</goal>
+                    <constraints>
+                        <constraint-list><constraint>One</constraint></constraint-list>
+                    </constraints>
+                </notes>
+                """;
+
+            // When
+            String result = renderer.render(pmlContent);
+
+            // Then
+            assertThat(result).isEqualTo(converter.toMarkdownFromContent(pmlContent));
+        }
+    }
+
+    @Nested
+    @DisplayName("CLI Stylesheet Tests")
+    class CliStylesheetTests {
+
+        @Test
+        @DisplayName("Should render root title, top-level steps and acceptance criteria")
+        void shouldRenderRootTitleTopLevelStepsAndAcceptanceCriteria() {
+            // Given
+            PmlMarkdownRenderer cliRenderer = new PmlMarkdownRenderer(PmlMarkdownRenderer.CLI_STYLESHEET);
+            String pmlContent = """
+                <prompt>
+                    <title>Release checklist</title>
+                    <role>Release   engineer</role>
+                    <steps>
+                        <step number="1">
+                            <step-title>Tag</step-title>
+                            <step-content>Create the tag</step-content>
+                        </step>
+                    </steps>
+                    <output-format>A short   summary</output-format>
+                    <acceptance-criteria>
+                        <acceptance-criteria-list>
+                            <acceptance-criteria-item>The tag   exists</acceptance-criteria-item>
+                        </acceptance-criteria-list>
+                    </acceptance-criteria>
+                </prompt>
+                """;
+
+            // When
+            String result = cliRenderer.render(pmlContent);
+
+            // Then
+            assertThat(result).isEqualTo("""
+                # Release checklist
+
+                ## Role
+
+                Release engineer
+                ## Steps
+
+                ### Step 1: Tag
+
+                Create the tag
+                ## Output Format
+
+                A short summary
+
+                ## Acceptance Criteria
+
+                The goal will be achieved if the following criteria are met:
+
+                - The tag exists
+                """);
+        }
+
+        @Test
+        @DisplayName("Should ignore CLI-only sections with the default stylesheet")
+        void shouldIgnoreCliOnlySectionsWithTheDefaultStylesheet() {
+            // Given
+            String pmlContent = """
+                <prompt>
+                    <title>Release checklist</title>
+                    <role>Release engineer</role>
+                    <acceptance-criteria>
+                        <acceptance-criteria-list>
+                            <acceptance-criteria-item>The tag exists</acceptance-criteria-item>
+                        </acceptance-criteria-list>
+                    </acceptance-criteria>
+                </prompt>
+                """;
+
+            // When
+            String result = renderer.render(pmlContent);
+
+            // Then
+            assertThat(result).isEqualTo("## Role\n\nRelease engineer");
+        }
+
+        @Test
+        @DisplayName("Should throw exception for unsupported stylesheet")
+        void shouldThrowExceptionForUnsupportedStylesheet() {
+            // When & Then
+            assertThatThrownBy(() -> new PmlMarkdownRenderer("custom/other.xsl"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported stylesheet");
+        }
+    }
+
+    @Nested
+    @DisplayName("Input Validation Tests")
+    class InputValidationTests {
+
+        @ParameterizedTest
+        @NullSource
+        @ValueSource(strings = {"", "   "})
+        @DisplayName("Should throw exception for null or empty content")
+        void shouldThrowExceptionForNullOrEmptyContent(String pmlContent) {
+            // When & Then
+            assertThatThrownBy(() -> renderer.render(pmlContent))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("PML content cannot be null or empty");
+        }
+
+        @Test
+        @DisplayName("Should throw exception for malformed XML")
+        void shouldThrowExceptionForMalformedXml() {
+            // When & Then
+            assertThatThrownBy(() -> renderer.render("<prompt><role>Unclosed</prompt>"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Failed to render PML to Markdown");
+        }
+
+        @Test
+        @DisplayName("Should not resolve external entities")
+        void shouldNotResolveExternalEntities(@TempDir Path tempDir) throws IOException {
+            // Given
+            Path secret = Files.writeString(tempDir.resolve("secret.txt"), "top-secret");
+            String pmlContent = """
+                <?xml version="1.0"?>
+                <!DOCTYPE prompt [<!ENTITY secret SYSTEM "%s">]>
+                <prompt><role>&secret;</role></prompt>
+                """.formatted(secret.toUri());
+
+            // When
+            StringBuilder out = new StringBuilder();
+            try {
+                renderer.render(new StringReader(pmlContent), out);
+            } catch (RuntimeException e) {
+                // Rejecting the entity is as safe as not expanding it
+            }
+
+            // Then
+            assertThat(out.toString()).doesNotContain("top-secret");
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
 import java.util.stream.Stream;
 
@@ -88,6 +89,68 @@ class ExpressionEvaluatorTest {
         }
     }
 
+    @Nested
+    @DisplayName("Compile Tests")
+    class CompileTests {
+
+        record Component(String name, int size) {
+        }
+
+        @Test
+        @DisplayName("Should evaluate indexed get expression")
+        void shouldEvaluateIndexedGetExpression() {
+            // Given
+            CompiledExpression expression = ExpressionEvaluator.compile("$get(1)");
+
+            // When & Then
+            assertThat(expression).isNotNull();
+            assertThat(expression.evaluate(List.of(10, 20, 30))).isEqualTo("20");
+            assertThat(expression.evaluate(List.of(10))).isEmpty();
+            assertThat(expression.evaluate("not a list")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should evaluate field of map and record items")
+        void shouldEvaluateFieldOfMapAndRecordItems() {
+            // Given
+            CompiledExpression expression = ExpressionEvaluator.compile(" $get().name ");
+
+            // When & Then
+            assertThat(expression.source()).isEqualTo("$get().name");
+            assertThat(expression.evaluate(Map.of("name", "core"))).isEqualTo("core");
+            assertThat(expression.evaluate(new Component("cli", 3))).isEqualTo("cli");
+            assertThat(expression.evaluate(Map.of("other", "x"))).isEmpty();
+            assertThat(expression.evaluate(null)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should evaluate field of indexed element")
+        void shouldEvaluateFieldOfIndexedElement() {
+            // When
+            String result = ExpressionEvaluator.evaluate("$get(0).size", List.of(new Component("core", 7)));
+
+            // Then
+            assertThat(result).isEqualTo("7");
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"$get(-1)", "$get(a)", "$get().", "$get().1st", "$get()x", "$get().name.", "$get(99999999999)"})
+        @DisplayName("Should not compile malformed expressions")
+        void shouldNotCompileMalformedExpressions(String expression) {
+            // When & Then
+            assertThat(ExpressionEvaluator.compile(expression)).isNull();
+            assertThat(ExpressionEvaluator.isSupported(expression)).isFalse();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"$get()", "$get(0)", "$get().name", "$get(2).owner.login"})
+        @DisplayName("Should support get expressions")
+        void shouldSupportGetExpressions(String expression) {
+            // When & Then
+            assertThat(ExpressionEvaluator.isSupported(expression)).isTrue();
+        }
+    }
+
     @Nested
     @DisplayName("ReplaceInputPlaceholder Tests")
     class ReplaceInputPlaceholderTests {
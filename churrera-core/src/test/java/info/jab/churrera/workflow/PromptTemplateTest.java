@@ -0,0 +1,83 @@
+package info.jab.churrera.workflow;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for PromptTemplate.
+ */
+@DisplayName("PromptTemplate Tests")
+class PromptTemplateTest {
+
+    @Nested
+    @DisplayName("Compile Tests")
+    class CompileTests {
+
+        @Test
+        @DisplayName("Should find every input slot")
+        void shouldFindEveryInputSlot() {
+            // When
+            PromptTemplate template = PromptTemplate.compile("<input>INPUT</input> and <input>INPUT</input>.");
+
+            // Then
+            assertThat(template.slotCount()).isEqualTo(2);
+            assertThat(template.source()).isEqualTo("<input>INPUT</input> and <input>INPUT</input>.");
+        }
+
+        @Test
+        @DisplayName("Should compile prompt without slots")
+        void shouldCompilePromptWithoutSlots() {
+            // When
+            PromptTemplate template = PromptTemplate.compile("<prompt>No placeholder</prompt>");
+
+            // Then
+            assertThat(template.slotCount()).isZero();
+            assertThat(template.render("value")).isEqualTo("<prompt>No placeholder</prompt>");
+        }
+
+        @Test
+        @DisplayName("Should throw exception for null content")
+        void shouldThrowExceptionForNullContent() {
+            // When & Then
+            assertThatThrownBy(() -> PromptTemplate.compile(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Prompt content cannot be null");
+        }
+    }
+
+    @Nested
+    @DisplayName("Render Tests")
+    class RenderTests {
+
+        @Test
+        @DisplayName("Should render the same prompts as replaceInputPlaceholder")
+        void shouldRenderTheSamePromptsAsReplaceInputPlaceholder() {
+            // Given
+            String content = "Process: <![CDATA[<input>INPUT</input>]]> then <input>INPUT</input>";
+            PromptTemplate template = PromptTemplate.compile(content);
+
+            // When & Then
+            for (String value : new String[] {"5", "", null, "<>&\"'"}) {
+                assertThat(template.render(value))
+                    .isEqualTo(content.replace("<input>INPUT</input>", "<input>" + (value == null ? "" : value) + "</input>"));
+            }
+        }
+
+        @Test
+        @DisplayName("Should render slots at the start and end of the prompt")
+        void shouldRenderSlotsAtTheStartAndEndOfThePrompt() {
+            // Given
+            PromptTemplate template = PromptTemplate.compile("<input>INPUT</input><input>INPUT</input>");
+
+            // When
+            String result = template.render("x");
+
+            // Then
+            assertThat(result).isEqualTo("<input>x</input><input>x</input>");
+        }
+    }
+}
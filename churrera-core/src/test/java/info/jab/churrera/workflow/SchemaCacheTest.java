@@ -0,0 +1,230 @@
+package info.jab.churrera.workflow;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for SchemaCache class.
+ */
+@DisplayName("SchemaCache Tests")
+class SchemaCacheTest {
+
+    private static final String SCHEMA = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <xs:schema xmlns:xs="http://www.w3.org/2001/XMLSchema">
+            <xs:element name="prompt" type="xs:string"/>
+        </xs:schema>
+        """;
+
+    @TempDir
+    Path cacheDirectory;
+
+    private HttpServer server;
+    private AtomicInteger requests;
+    private String schemaUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        requests = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/pml/schemas/0.3.0/pml.xsd", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = SCHEMA.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/broken.xsd", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = "<html>Not found</html>".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        schemaUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/pml/schemas/0.3.0/pml.xsd";
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Nested
+    @DisplayName("In-process Cache Tests")
+    class InProcessCacheTests {
+
+        @Test
+        @DisplayName("Should download and compile schema once for repeated validations")
+        void shouldDownloadAndCompileSchemaOnceForRepeatedValidations() throws Exception {
+            // Given
+            SchemaCache cache = new SchemaCache(cacheDirectory);
+
+            // When
+            Schema first = cache.get(schemaUrl);
+            for (int i = 0; i < 19; i++) {
+                assertThat(cache.get(schemaUrl)).isSameAs(first);
+            }
+
+            // Then
+            assertThat(requests.get()).isEqualTo(1);
+            assertThat(cache.downloads()).isEqualTo(1);
+            assertThat(cache.cachedSchemas()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should validate documents with the cached schema")
+        void shouldValidateDocumentsWithTheCachedSchema() throws Exception {
+            // Given
+            Schema schema = new SchemaCache(cacheDirectory).get(schemaUrl);
+
+            // When & Then
+            assertThatCode(() -> schema.newValidator().validate(new StreamSource(new StringReader("<prompt>ok</prompt>"))))
+                .doesNotThrowAnyException();
+            assertThatThrownBy(() -> schema.newValidator().validate(new StreamSource(new StringReader("<other/>"))))
+                .hasMessageContaining("other");
+        }
+    }
+
+    @Nested
+    @DisplayName("Local Copy Tests")
+    class LocalCopyTests {
+
+        @Test
+        @DisplayName("Should keep a local copy pinned to the schema URL")
+        void shouldKeepLocalCopyPinnedToTheSchemaUrl() throws Exception {
+            // Given
+            SchemaCache cache = new SchemaCache(cacheDirectory);
+
+            // When
+            cache.get(schemaUrl);
+
+            // Then
+            Path copy = cache.localCopy(schemaUrl);
+            assertThat(copy).startsWith(cacheDirectory.toAbsolutePath());
+            assertThat(copy.toString()).contains("0.3.0");
+            assertThat(Files.readString(copy)).isEqualTo(SCHEMA);
+        }
+
+        @Test
+        @DisplayName("Should use local copy without network in a new process")
+        void shouldUseLocalCopyWithoutNetworkInANewProcess() throws Exception {
+            // Given
+            new SchemaCache(cacheDirectory).get(schemaUrl);
+            server.stop(0);
+
+            // When
+            SchemaCache restarted = new SchemaCache(cacheDirectory);
+            Schema schema = restarted.get(schemaUrl);
+
+            // Then
+            assertThat(schema).isNotNull();
+            assertThat(restarted.downloads()).isZero();
+            assertThat(requests.get()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should use a copy placed beforehand on an offline runner")
+        void shouldUseACopyPlacedBeforehandOnAnOfflineRunner() throws Exception {
+            // Given
+            server.stop(0);
+            SchemaCache cache = new SchemaCache(cacheDirectory);
+            Path copy = cache.localCopy(schemaUrl);
+            Files.createDirectories(copy.getParent());
+            Files.writeString(copy, SCHEMA);
+
+            // When
+            Schema schema = cache.get(schemaUrl);
+
+            // Then
+            assertThat(schema).isNotNull();
+            assertThat(requests.get()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should report where to place the schema when offline without a copy")
+        void shouldReportWhereToPlaceTheSchemaWhenOfflineWithoutACopy() {
+            // Given
+            server.stop(0);
+            SchemaCache cache = new SchemaCache(cacheDirectory);
+
+            // When & Then
+            assertThatThrownBy(() -> cache.get(schemaUrl))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("is not cached at " + cache.localCopy(schemaUrl));
+            assertThat(cache.cachedSchemas()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should not keep a download that is not a schema")
+        void shouldNotKeepADownloadThatIsNotASchema() {
+            // Given
+            SchemaCache cache = new SchemaCache(cacheDirectory);
+            String brokenUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/broken.xsd";
+
+            // When & Then
+            assertThatThrownBy(() -> cache.get(brokenUrl)).isInstanceOf(Exception.class);
+            assertThat(cache.localCopy(brokenUrl)).doesNotExist();
+            assertThat(cache.cachedSchemas()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should compile local schema files without copying them")
+        void shouldCompileLocalSchemaFilesWithoutCopyingThem() throws Exception {
+            // Given
+            Path schemaFile = Files.writeString(cacheDirectory.resolve("local.xsd"), SCHEMA);
+            SchemaCache cache = new SchemaCache(cacheDirectory.resolve("copies"));
+
+            // When
+            Schema schema = cache.get(schemaFile.toUri().toString());
+
+            // Then
+            assertThat(schema).isNotNull();
+            assertThat(cache.downloads()).isZero();
+            assertThat(cacheDirectory.resolve("copies")).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("Should reject schema URL outside the cache directory")
+        void shouldRejectSchemaUrlOutsideTheCacheDirectory() {
+            // Given
+            SchemaCache cache = new SchemaCache(cacheDirectory);
+
+            // When & Then
+            assertThatThrownBy(() -> cache.localCopy("https://example.com/../../etc/passwd"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Schema URL does not name a file");
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw exception for null directory")
+    void shouldThrowExceptionForNullDirectory() {
+        // When & Then
+        assertThatThrownBy(() -> new SchemaCache(null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Schema cache directory cannot be null");
+    }
+}
@@ -15,6 +15,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -682,6 +683,31 @@ class WorkflowParserTest {
             assertThat(promptInfo.isPml()).isTrue();
         }
 
+        @Test
+        @DisplayName("Should compile bindResultExp once for every child item")
+        void shouldCompileBindResultExpOnceForEveryChildItem() {
+            // When
+            PromptInfo promptInfo = new PromptInfo("test.xml", "pml", "$get().name");
+
+            // Then
+            CompiledExpression expression = promptInfo.getBindExpression();
+            assertThat(expression).isNotNull();
+            assertThat(expression.source()).isEqualTo("$get().name");
+            assertThat(expression.evaluate(Map.of("name", "core"))).isEqualTo("core");
+            assertThat(promptInfo.getBindExpression()).isSameAs(expression);
+        }
+
+        @Test
+        @DisplayName("Should not compile unsupported bindResultExp")
+        void shouldNotCompileUnsupportedBindResultExp() {
+            // When
+            PromptInfo promptInfo = new PromptInfo("test.xml", "pml", "$unknown()");
+
+            // Then
+            assertThat(promptInfo.hasBindResultExp()).isTrue();
+            assertThat(promptInfo.getBindExpression()).isNull();
+        }
+
         @Test
         @DisplayName("Should create PromptInfo without bindResultExp")
         void shouldCreatePromptInfoWithoutBindResultExp() {
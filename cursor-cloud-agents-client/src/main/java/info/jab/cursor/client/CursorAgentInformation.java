@@ -2,8 +2,13 @@ package info.jab.cursor.client;
 
 import info.jab.cursor.client.model.AgentResponse;
 import info.jab.cursor.client.model.AgentsList;
+import info.jab.cursor.client.model.ConversationMessage;
 import info.jab.cursor.client.model.ConversationResponse;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 /**
  * Interface for agent information operations.
  *
@@ -41,4 +46,63 @@ public interface CursorAgentInformation {
      */
     ConversationResponse getAgentConversation(String agentId);
 
+    /**
+     * Passes the conversation history of an agent to a consumer, one message at a time and in order.
+     * Implementations may decode the response while it is being read, so the whole conversation
+     * never has to be held in memory. This default implementation loads it with
+     * {@link #getAgentConversation(String)}.
+     *
+     * @param agentId The ID of the agent to retrieve conversation for
+     * @param consumer The consumer of the messages
+     * @return the number of messages passed to the consumer
+     */
+    default int streamAgentConversation(String agentId, Consumer<ConversationMessage> consumer) {
+        ConversationResponse conversation = getAgentConversation(agentId);
+        if (conversation == null || conversation.messages() == null) {
+            return 0;
+        }
+        conversation.messages().forEach(consumer);
+        return conversation.messages().size();
+    }
+
+    /**
+     * Gets a list of agents without blocking the caller.
+     *
+     * @see #getAgents(Integer, String)
+     * @return a future completed with the list of agents
+     */
+    default CompletableFuture<AgentsList> getAgentsAsync(Integer limit, String cursor) {
+        return CursorAsync.supplyAsync(() -> getAgents(limit, cursor));
+    }
+
+    /**
+     * Gets the current status of an agent without blocking the caller.
+     *
+     * @see #getStatus(String)
+     * @return a future completed with the agent
+     */
+    default CompletableFuture<AgentResponse> getStatusAsync(String agentId) {
+        return CursorAsync.supplyAsync(() -> getStatus(agentId));
+    }
+
+    /**
+     * Gets the conversation history of an agent without blocking the caller.
+     *
+     * @see #getAgentConversation(String)
+     * @return a future completed with the conversation
+     */
+    default CompletableFuture<ConversationResponse> getAgentConversationAsync(String agentId) {
+        return CursorAsync.supplyAsync(() -> getAgentConversation(agentId));
+    }
+
+    /**
+     * Gets the status of many agents in parallel, with at most {@code maxConcurrency} requests in flight.
+     *
+     * @param agentIds The IDs of the agents to query
+     * @param maxConcurrency The maximum number of requests running at the same time
+     * @return one future per agent, in the same order; each one fails on its own
+     */
+    default List<CompletableFuture<AgentResponse>> getStatusesAsync(List<String> agentIds, int maxConcurrency) {
+        return CursorAsync.mapConcurrently(agentIds, maxConcurrency, this::getStatus);
+    }
 }
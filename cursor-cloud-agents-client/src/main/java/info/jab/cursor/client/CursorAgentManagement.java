@@ -4,6 +4,9 @@ import info.jab.cursor.client.model.AgentResponse;
 import info.jab.cursor.client.model.FollowUpResponse;
 import info.jab.cursor.client.model.DeleteAgentResponse;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for launching Cursor agents with simplified parameters.
  * This interface provides an abstraction layer for interacting with the Cursor API
@@ -44,4 +47,61 @@ public interface CursorAgentManagement {
      * @param agentId The ID of the agent to delete
      */
     DeleteAgentResponse delete(String agentId);
+
+    /**
+     * Launches a Cursor agent without blocking the caller.
+     *
+     * @see #launch(String, String, String, Boolean)
+     * @return a future completed with the launched agent
+     */
+    default CompletableFuture<AgentResponse> launchAsync(String prompt, String model, String repository, Boolean pr) {
+        return CursorAsync.supplyAsync(() -> launch(prompt, model, repository, pr));
+    }
+
+    /**
+     * Launches one agent per prompt in parallel, with at most {@code maxConcurrency} requests in flight.
+     * All the agents share the model, repository and PR flag, as the agents of a fan-out do.
+     *
+     * @param prompts The prompts of the agents to launch
+     * @param model The LLM model to use
+     * @param repository The repository URL where the agents should work
+     * @param pr Whether to automatically create a pull request when each agent completes
+     * @param maxConcurrency The maximum number of launches running at the same time
+     * @return one future per prompt, in the same order; each one fails on its own
+     */
+    default List<CompletableFuture<AgentResponse>> launchAllAsync(List<String> prompts, String model, String repository,
+                                                                  Boolean pr, int maxConcurrency) {
+        return CursorAsync.mapConcurrently(prompts, maxConcurrency, prompt -> launch(prompt, model, repository, pr));
+    }
+
+    /**
+     * Sends a follow-up prompt without blocking the caller.
+     *
+     * @see #followUp(String, String)
+     * @return a future completed with the follow-up response
+     */
+    default CompletableFuture<FollowUpResponse> followUpAsync(String agentId, String prompt) {
+        return CursorAsync.supplyAsync(() -> followUp(agentId, prompt));
+    }
+
+    /**
+     * Deletes an agent without blocking the caller.
+     *
+     * @see #delete(String)
+     * @return a future completed with the deletion response
+     */
+    default CompletableFuture<DeleteAgentResponse> deleteAsync(String agentId) {
+        return CursorAsync.supplyAsync(() -> delete(agentId));
+    }
+
+    /**
+     * Deletes many agents in parallel, with at most {@code maxConcurrency} requests in flight.
+     *
+     * @param agentIds The IDs of the agents to delete
+     * @param maxConcurrency The maximum number of deletions running at the same time
+     * @return one future per agent, in the same order; each one fails on its own
+     */
+    default List<CompletableFuture<DeleteAgentResponse>> deleteAllAsync(List<String> agentIds, int maxConcurrency) {
+        return CursorAsync.mapConcurrently(agentIds, maxConcurrency, this::delete);
+    }
 }
@@ -0,0 +1,78 @@
+package info.jab.cursor.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Helpers to run blocking Cursor API calls asynchronously.
+ * Every call runs on its own virtual thread, so waiting for the network does not hold a
+ * platform thread and many calls can be in flight at once.
+ */
+public final class CursorAsync {
+
+    private static final ThreadFactory THREAD_FACTORY = Thread.ofVirtual().name("cursor-api-", 0).factory();
+    private static final Executor VIRTUAL_THREADS = task -> THREAD_FACTORY.newThread(task).start();
+
+    private CursorAsync() {
+        // Utility class
+    }
+
+    /**
+     * Runs a blocking call on a virtual thread.
+     *
+     * @param call the call to run
+     * @return a future completed with the result of the call, or exceptionally with its error
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, VIRTUAL_THREADS);
+    }
+
+    /**
+     * Runs a blocking call for every input, with at most {@code maxConcurrency} calls in flight.
+     * The futures are returned in input order; each one fails on its own, so one failed call
+     * does not cancel the others.
+     *
+     * @param inputs the inputs to call with
+     * @param maxConcurrency the maximum number of calls running at the same time
+     * @param call the call to run for each input
+     * @return one future per input
+     */
+    public static <T, R> List<CompletableFuture<R>> mapConcurrently(List<T> inputs, int maxConcurrency,
+                                                                    Function<? super T, ? extends R> call) {
+        // Preconditions
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be at least 1");
+        }
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<CompletableFuture<R>> futures = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            futures.add(supplyAsync(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    return call.apply(input);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Waits for all futures and returns their results in order.
+     *
+     * @param futures the futures to wait for
+     * @return a future completed with all results, or exceptionally with the first error
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+            .thenApply(_ -> futures.stream().map(CompletableFuture::join).toList());
+    }
+}
@@ -0,0 +1,201 @@
+package info.jab.cursor.client.impl;
+
+import info.jab.cursor.generated.client.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs API requests through a shared {@link TokenBucketRateLimiter} and retries those that the
+ * server rejected as rate limited (429) or temporarily unavailable (503).
+ * <p>
+ * Only a 429 is retried for requests that are not idempotent, such as creating an agent or
+ * adding a follow-up: it is returned before the request is processed, whereas a 503 from a
+ * gateway may come after the backend accepted it, and repeating the request would then create
+ * a second agent or send the follow-up twice.
+ * <p>
+ * Retries wait with exponential backoff and jitter. When the response carries a
+ * {@code Retry-After} header the wait is at least that long, and the shared limiter is paused
+ * for that time so that other requests slow down as well.
+ */
+public class ApiRequestExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiRequestExecutor.class);
+
+    public static final double DEFAULT_PERMITS_PER_SECOND = 5;
+    public static final int DEFAULT_BURST = 10;
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(60);
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final String RETRY_AFTER = "Retry-After";
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final TokenBucketRateLimiter.Sleeper sleeper;
+    private final Supplier<ZonedDateTime> now;
+
+    /**
+     * Creates a new ApiRequestExecutor.
+     *
+     * @param rateLimiter The limiter shared by all requests
+     * @param maxAttempts The maximum number of attempts per request, including the first one
+     * @param initialBackoff The wait before the first retry; it doubles on every further retry
+     * @param maxBackoff The longest wait between two attempts
+     */
+    public ApiRequestExecutor(TokenBucketRateLimiter rateLimiter, int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        this(rateLimiter, maxAttempts, initialBackoff, maxBackoff, TimeUnit.NANOSECONDS::sleep, ZonedDateTime::now);
+    }
+
+    ApiRequestExecutor(TokenBucketRateLimiter rateLimiter, int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+                       TokenBucketRateLimiter.Sleeper sleeper, Supplier<ZonedDateTime> now) {
+        // Preconditions
+        if (rateLimiter == null) {
+            throw new IllegalArgumentException("Rate limiter cannot be null");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be at least 1");
+        }
+        if (initialBackoff == null || initialBackoff.isNegative() || maxBackoff == null || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("Invalid backoff range: " + initialBackoff + " to " + maxBackoff);
+        }
+
+        this.rateLimiter = rateLimiter;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.sleeper = sleeper;
+        this.now = now;
+    }
+
+    /**
+     * Creates an executor with the default rate limit and retry settings.
+     *
+     * @return a new executor with its own rate limiter
+     */
+    public static ApiRequestExecutor withDefaults() {
+        return new ApiRequestExecutor(new TokenBucketRateLimiter(DEFAULT_PERMITS_PER_SECOND, DEFAULT_BURST),
+            DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+    }
+
+    /**
+     * Runs an idempotent request, waiting for the rate limiter before every attempt.
+     *
+     * @param operation The operation name used in log messages
+     * @param call The request to run
+     * @return the result of the first successful attempt
+     * @throws ApiException the error of the last attempt, or of the first one that is not retryable
+     */
+    public <T> T execute(String operation, ApiCall<T> call) throws ApiException {
+        return execute(operation, true, call);
+    }
+
+    /**
+     * Runs a request, waiting for the rate limiter before every attempt.
+     *
+     * @param operation The operation name used in log messages
+     * @param idempotent Whether repeating the request is safe; if not, only 429 is retried
+     * @param call The request to run
+     * @return the result of the first successful attempt
+     * @throws ApiException the error of the last attempt, or of the first one that is not retryable
+     */
+    public <T> T execute(String operation, boolean idempotent, ApiCall<T> call) throws ApiException {
+        int attempt = 1;
+        while (true) {
+            waitFor(rateLimiter::acquire, operation);
+            try {
+                return call.call();
+            } catch (ApiException e) {
+                if (!isRetryable(e, idempotent) || attempt >= maxAttempts) {
+                    throw e;
+                }
+                Optional<Duration> retryAfter = retryAfter(e.getResponseHeaders());
+                Duration delay = backoff(attempt, retryAfter);
+                retryAfter.ifPresent(_ -> rateLimiter.pause(delay.toNanos()));
+                logger.warn("{} failed with status {} (attempt {}/{}), retrying in {} ms",
+                    operation, e.getCode(), attempt, maxAttempts, delay.toMillis());
+                waitFor(() -> sleeper.sleep(delay.toNanos()), operation);
+                attempt++;
+            }
+        }
+    }
+
+    static boolean isRetryable(ApiException e, boolean idempotent) {
+        return e.getCode() == TOO_MANY_REQUESTS || (idempotent && e.getCode() == SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Exponential backoff with jitter between half and all of the nominal delay, but never
+     * shorter than the server's {@code Retry-After}.
+     */
+    Duration backoff(int attempt, Optional<Duration> retryAfter) {
+        long nominal = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(nominal, maxBackoff.toMillis());
+        long jittered = capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+        Duration delay = Duration.ofMillis(jittered);
+        if (retryAfter.isPresent() && retryAfter.get().compareTo(delay) > 0) {
+            delay = retryAfter.get().compareTo(maxBackoff) > 0 ? maxBackoff : retryAfter.get();
+        }
+        return delay;
+    }
+
+    /**
+     * Parses the {@code Retry-After} header, given either in seconds or as an HTTP date.
+     */
+    Optional<Duration> retryAfter(HttpHeaders headers) {
+        if (headers == null) {
+            return Optional.empty();
+        }
+        return headers.firstValue(RETRY_AFTER)
+            .map(String::trim)
+            .flatMap(value -> {
+                try {
+                    return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(value))));
+                } catch (NumberFormatException _) {
+                    try {
+                        ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                        Duration delay = Duration.between(now.get(), date);
+                        return Optional.of(delay.isNegative() ? Duration.ZERO : delay);
+                    } catch (DateTimeParseException _) {
+                        logger.debug("Ignoring unparseable {} header: {}", RETRY_AFTER, value);
+                        return Optional.empty();
+                    }
+                }
+            });
+    }
+
+    private void waitFor(Wait wait, String operation) throws ApiException {
+        try {
+            wait.run();
+        } catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while waiting to call " + operation);
+        }
+    }
+
+    /**
+     * A request against the generated API.
+     */
+    @FunctionalInterface
+    public interface ApiCall<T> {
+        T call() throws ApiException;
+    }
+
+    @FunctionalInterface
+    private interface Wait {
+        void run() throws InterruptedException;
+    }
+}
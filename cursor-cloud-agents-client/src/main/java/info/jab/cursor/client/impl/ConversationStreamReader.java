@@ -0,0 +1,86 @@
+package info.jab.cursor.client.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import info.jab.cursor.client.model.ConversationMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streaming decoder for the body of the agent conversation endpoint.
+ * This class walks the JSON with a {@link JsonParser} and hands every message to the consumer as
+ * soon as it has been read, so only one message is held in memory at a time instead of the
+ * whole transcript.
+ */
+public final class ConversationStreamReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private ConversationStreamReader() {
+        // Utility class
+    }
+
+    /**
+     * Reads the conversation from the stream and passes its messages to the consumer in order.
+     * Fields other than the message id, type and text are skipped, as are messages without an
+     * id or type.
+     *
+     * @param body The response body, e.g. {@code {"id":"...","messages":[{"id":"...","type":"...","text":"..."}]}}
+     * @param consumer The consumer of the messages
+     * @return the number of messages passed to the consumer
+     * @throws IOException if the stream cannot be read or is not valid JSON
+     */
+    public static int read(InputStream body, Consumer<ConversationMessage> consumer) throws IOException {
+        int count = 0;
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Conversation response is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("messages".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        ConversationMessage message = readMessage(parser);
+                        if (message != null) {
+                            consumer.accept(message);
+                            count++;
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return count;
+    }
+
+    private static ConversationMessage readMessage(JsonParser parser) throws IOException {
+        String id = null;
+        String type = null;
+        String text = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_STRING) {
+                switch (field) {
+                    case "id" -> id = parser.getText();
+                    case "type" -> type = parser.getText();
+                    case "text" -> text = parser.getText();
+                    default -> {
+                        // Not needed
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (id == null || type == null) {
+            return null;
+        }
+        return new ConversationMessage(id, type, text);
+    }
+}
@@ -5,7 +5,6 @@ import info.jab.cursor.client.model.ApiKeyInfo;
 import info.jab.cursor.generated.client.api.DefaultApi;
 import info.jab.cursor.generated.client.ApiException;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 import java.util.Objects;
@@ -17,36 +16,49 @@ import java.util.Objects;
  */
 public class CursorAgentGeneralEndpointsImpl implements CursorAgentGeneralEndpoints {
 
-    private final String apiKey;
+    private final Map<String, String> authHeaders;
     private final DefaultApi defaultApi;
+    private final ApiRequestExecutor requestExecutor;
 
     /**
      * Creates a new CursorAgentGeneralEndpointsImpl with the specified API key and DefaultApi.
-     * This constructor allows dependency injection for better testability and flexibility.
+     * Requests use the default rate limit and retry settings.
      *
      * @param apiKey The API key for authentication with Cursor API
      * @param defaultApi The DefaultApi instance to use (can be a mock in tests or real instance)
      */
     public CursorAgentGeneralEndpointsImpl(String apiKey, DefaultApi defaultApi) {
-        this.apiKey = apiKey;
+        this(apiKey, defaultApi, ApiRequestExecutor.withDefaults());
+    }
+
+    /**
+     * Creates a new CursorAgentGeneralEndpointsImpl with the specified API key and DefaultApi.
+     * This constructor allows dependency injection for better testability and flexibility.
+     *
+     * @param apiKey The API key for authentication with Cursor API
+     * @param defaultApi The DefaultApi instance to use (can be a mock in tests or real instance)
+     * @param requestExecutor The executor that rate limits and retries the requests, shared by all clients
+     */
+    public CursorAgentGeneralEndpointsImpl(String apiKey, DefaultApi defaultApi, ApiRequestExecutor requestExecutor) {
+        this.authHeaders = Map.of("Authorization", "Bearer " + apiKey);
         this.defaultApi = defaultApi;
+        this.requestExecutor = requestExecutor;
     }
 
     /**
-     * Creates authentication headers with the API key.
+     * Returns the authentication headers with the API key.
+     * The map is built once and is immutable, so every request can share it.
      *
      * @return Map containing the Authorization header with Bearer token
      */
     private Map<String, String> getAuthHeaders() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Authorization", "Bearer " + apiKey);
-        return headers;
+        return authHeaders;
     }
 
     @Override
     public ApiKeyInfo getApiKeyInfo() {
         try {
-           return ApiKeyInfo.from(defaultApi.getMe(getAuthHeaders()));
+           return ApiKeyInfo.from(requestExecutor.execute("getMe", () -> defaultApi.getMe(getAuthHeaders())));
         } catch (ApiException e) {
             throw new RuntimeException("Failed to get API key info: " + e.getMessage(), e);
         }
@@ -55,7 +67,7 @@ public class CursorAgentGeneralEndpointsImpl implements CursorAgentGeneralEndpoi
     @Override
     public List<String> getModels() {
         try {
-            return defaultApi.listModels(getAuthHeaders()).getModels();
+            return requestExecutor.execute("listModels", () -> defaultApi.listModels(getAuthHeaders())).getModels();
         } catch (ApiException e) {
             throw new RuntimeException("Failed to get models: " + e.getMessage(), e);
         }
@@ -64,7 +76,7 @@ public class CursorAgentGeneralEndpointsImpl implements CursorAgentGeneralEndpoi
     @Override
     public List<String> getRepositories() {
         try {
-            var response = defaultApi.listRepositories(getAuthHeaders());
+            var response = requestExecutor.execute("listRepositories", () -> defaultApi.listRepositories(getAuthHeaders()));
             if (response == null) {
                 return List.of();
             }
@@ -3,12 +3,23 @@ package info.jab.cursor.client.impl;
 import info.jab.cursor.client.CursorAgentInformation;
 import info.jab.cursor.client.model.AgentResponse;
 import info.jab.cursor.client.model.AgentsList;
+import info.jab.cursor.client.model.ConversationMessage;
 import info.jab.cursor.client.model.ConversationResponse;
+import info.jab.cursor.generated.client.ApiClient;
 import info.jab.cursor.generated.client.api.DefaultApi;
 import info.jab.cursor.generated.client.ApiException;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Implementation of the CursorAgentInformation interface that provides agent information operations.
@@ -17,17 +28,49 @@ import java.util.Map;
  */
 public class CursorAgentInformationImpl implements CursorAgentInformation {
 
-    private final String apiKey;
+    private final Map<String, String> authHeaders;
     private final DefaultApi defaultApi;
+    private final ApiRequestExecutor requestExecutor;
+    // Only set when the ApiClient is known; otherwise conversations are streamed from the materialized model
+    private final HttpClient streamingHttpClient;
+    private final String baseUri;
+    private final Duration readTimeout;
 
     /**
      * Creates a new CursorAgentInformationImpl with the specified API key and DefaultApi.
-     * This constructor allows dependency injection for better testability and flexibility.
+     * Requests use the default rate limit and retry settings.
      *
      * @param apiKey The API key for authentication with Cursor API
      * @param defaultApi The DefaultApi instance to use (can be a mock in tests or real instance)
      */
     public CursorAgentInformationImpl(String apiKey, DefaultApi defaultApi) {
+        this(apiKey, defaultApi, ApiRequestExecutor.withDefaults());
+    }
+
+    /**
+     * Creates a new CursorAgentInformationImpl with the specified API key and DefaultApi.
+     * This constructor allows dependency injection for better testability and flexibility.
+     *
+     * @param apiKey The API key for authentication with Cursor API
+     * @param defaultApi The DefaultApi instance to use (can be a mock in tests or real instance)
+     * @param requestExecutor The executor that rate limits and retries the requests, shared by all clients
+     */
+    public CursorAgentInformationImpl(String apiKey, DefaultApi defaultApi, ApiRequestExecutor requestExecutor) {
+        this(apiKey, defaultApi, requestExecutor, null);
+    }
+
+    /**
+     * Creates a new CursorAgentInformationImpl that can stream agent conversations.
+     * The ApiClient provides the HTTP client, base URI and read timeout for the streaming requests,
+     * which bypass the generated model. An ApiClient from {@link CursorApiClientFactory} returns the
+     * HTTP client the DefaultApi uses, so streaming shares its connections.
+     *
+     * @param apiKey The API key for authentication with Cursor API
+     * @param defaultApi The DefaultApi instance to use (can be a mock in tests or real instance)
+     * @param requestExecutor The executor that rate limits and retries the requests, shared by all clients
+     * @param apiClient The ApiClient the DefaultApi was created from (can be null to disable streaming)
+     */
+    public CursorAgentInformationImpl(String apiKey, DefaultApi defaultApi, ApiRequestExecutor requestExecutor, ApiClient apiClient) {
         // Preconditions
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new IllegalArgumentException("API key cannot be null or empty");
@@ -35,20 +78,26 @@ public class CursorAgentInformationImpl implements CursorAgentInformation {
         if (defaultApi == null) {
             throw new IllegalArgumentException("DefaultApi cannot be null");
         }
+        if (requestExecutor == null) {
+            throw new IllegalArgumentException("Request executor cannot be null");
+        }
 
-        this.apiKey = apiKey;
+        this.authHeaders = Map.of("Authorization", "Bearer " + apiKey);
         this.defaultApi = defaultApi;
+        this.requestExecutor = requestExecutor;
+        this.streamingHttpClient = apiClient != null ? apiClient.getHttpClient() : null;
+        this.baseUri = apiClient != null ? apiClient.getBaseUri() : null;
+        this.readTimeout = apiClient != null ? apiClient.getReadTimeout() : null;
     }
 
     /**
-     * Creates authentication headers with the API key.
+     * Returns the authentication headers with the API key.
+     * The map is built once and is immutable, so every request can share it.
      *
      * @return Map containing the Authorization header with Bearer token
      */
     private Map<String, String> getAuthHeaders() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Authorization", "Bearer " + apiKey);
-        return headers;
+        return authHeaders;
     }
 
     /**
@@ -69,7 +118,7 @@ public class CursorAgentInformationImpl implements CursorAgentInformation {
         }
 
         try {
-            return AgentsList.from(defaultApi.listAgents(limit, cursor, getAuthHeaders()));
+            return AgentsList.from(requestExecutor.execute("listAgents", () -> defaultApi.listAgents(limit, cursor, getAuthHeaders())));
         } catch (ApiException e) {
             throw new RuntimeException("Failed to get agents: " + e.getMessage(), e);
         }
@@ -91,7 +140,7 @@ public class CursorAgentInformationImpl implements CursorAgentInformation {
 
         try {
             // Get current agent status - single API call
-            return AgentResponse.from(defaultApi.getAgent(agentId, getAuthHeaders()));
+            return AgentResponse.from(requestExecutor.execute("getAgent", () -> defaultApi.getAgent(agentId, getAuthHeaders())));
         } catch (Exception statusException) {
             // If status parsing fails due to unknown enum value, try to handle gracefully
             if (statusException.getMessage() != null && statusException.getMessage().contains("Unexpected value")) {
@@ -117,10 +166,69 @@ public class CursorAgentInformationImpl implements CursorAgentInformation {
         }
 
         try {
-            return ConversationResponse.from(defaultApi.getAgentConversation(agentId, getAuthHeaders()));
+            return ConversationResponse.from(requestExecutor.execute("getAgentConversation", () -> defaultApi.getAgentConversation(agentId, getAuthHeaders())));
         } catch (ApiException e) {
             throw new RuntimeException("Failed to get agent conversation for " + agentId + ": " + e.getMessage(), e);
         }
     }
-}
 
+    /**
+     * Streams the conversation history for a specific agent.
+     * The response body is decoded while it is being read, and every message is handed to the
+     * consumer before the next one is parsed.
+     *
+     * @param agentId The ID of the agent to retrieve conversation for
+     * @param consumer The consumer of the messages
+     * @return the number of messages passed to the consumer
+     */
+    @Override
+    public int streamAgentConversation(String agentId, Consumer<ConversationMessage> consumer) {
+        // Preconditions
+        if (agentId == null || agentId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Agent ID cannot be null or empty");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+
+        if (streamingHttpClient == null) {
+            return CursorAgentInformation.super.streamAgentConversation(agentId, consumer);
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+            .uri(URI.create(baseUri + "/v0/agents/" + URLEncoder.encode(agentId, StandardCharsets.UTF_8) + "/conversation"))
+            .header("Accept", "application/json")
+            .GET();
+        authHeaders.forEach(builder::header);
+        if (readTimeout != null) {
+            builder.timeout(readTimeout);
+        }
+        HttpRequest request = builder.build();
+
+        try {
+            return requestExecutor.execute("getAgentConversation", () -> streamConversation(request, consumer));
+        } catch (ApiException e) {
+            throw new RuntimeException("Failed to get agent conversation for " + agentId + ": " + e.getMessage(), e);
+        }
+    }
+
+    private int streamConversation(HttpRequest request, Consumer<ConversationMessage> consumer) throws ApiException {
+        try {
+            HttpResponse<InputStream> response = streamingHttpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() / 100 != 2) {
+                    String responseBody = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+                    throw new ApiException(response.statusCode(),
+                        "getAgentConversation call failed with: " + response.statusCode() + " - " + responseBody,
+                        response.headers(), responseBody);
+                }
+                return ConversationStreamReader.read(body, consumer);
+            }
+        } catch (IOException e) {
+            throw new ApiException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(e);
+        }
+    }
+}
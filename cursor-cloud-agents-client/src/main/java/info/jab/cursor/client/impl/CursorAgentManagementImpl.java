@@ -6,14 +6,10 @@ import info.jab.cursor.client.model.DeleteAgentResponse;
 import info.jab.cursor.client.model.FollowUpResponse;
 import info.jab.cursor.generated.client.api.DefaultApi;
 import info.jab.cursor.generated.client.model.CreateAgentRequest;
-import info.jab.cursor.generated.client.model.CreateAgentRequestPrompt;
-import info.jab.cursor.generated.client.model.CreateAgentRequestSource;
-import info.jab.cursor.generated.client.model.CreateAgentRequestTarget;
 import info.jab.cursor.generated.client.model.AddFollowupRequest;
 import info.jab.cursor.generated.client.model.AddFollowupRequestPrompt;
 import info.jab.cursor.generated.client.ApiException;
 
-import java.util.HashMap;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,17 +25,31 @@ public class CursorAgentManagementImpl implements CursorAgentManagement {
 
     private static final String DEFAULT_BRANCH = "main";
 
-    private final String apiKey;
+    private final Map<String, String> authHeaders;
     private final DefaultApi defaultApi;
+    private final ApiRequestExecutor requestExecutor;
+    private final LaunchRequestTemplates launchRequestTemplates = new LaunchRequestTemplates(DEFAULT_BRANCH);
 
     /**
      * Creates a new CursorAgentManagementImpl with the specified API key and DefaultApi.
-     * This constructor allows dependency injection for better testability and flexibility.
+     * Requests use the default rate limit and retry settings.
      *
      * @param apiKey The API key for authentication with Cursor API
      * @param defaultApi The DefaultApi instance to use (can be a mock in tests or real instance)
      */
     public CursorAgentManagementImpl(String apiKey, DefaultApi defaultApi) {
+        this(apiKey, defaultApi, ApiRequestExecutor.withDefaults());
+    }
+
+    /**
+     * Creates a new CursorAgentManagementImpl with the specified API key and DefaultApi.
+     * This constructor allows dependency injection for better testability and flexibility.
+     *
+     * @param apiKey The API key for authentication with Cursor API
+     * @param defaultApi The DefaultApi instance to use (can be a mock in tests or real instance)
+     * @param requestExecutor The executor that rate limits and retries the requests, shared by all clients
+     */
+    public CursorAgentManagementImpl(String apiKey, DefaultApi defaultApi, ApiRequestExecutor requestExecutor) {
         // Preconditions
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new IllegalArgumentException("API key cannot be null or empty");
@@ -47,20 +57,23 @@ public class CursorAgentManagementImpl implements CursorAgentManagement {
         if (defaultApi == null) {
             throw new IllegalArgumentException("DefaultApi cannot be null");
         }
+        if (requestExecutor == null) {
+            throw new IllegalArgumentException("Request executor cannot be null");
+        }
 
-        this.apiKey = apiKey;
+        this.authHeaders = Map.of("Authorization", "Bearer " + apiKey);
         this.defaultApi = defaultApi;
+        this.requestExecutor = requestExecutor;
     }
 
     /**
-     * Creates authentication headers with the API key.
+     * Returns the authentication headers with the API key.
+     * The map is built once and is immutable, so every request can share it.
      *
      * @return Map containing the Authorization header with Bearer token
      */
     private Map<String, String> getAuthHeaders() {
-        Map<String, String> headers = new HashMap<>();
-        headers.put("Authorization", "Bearer " + apiKey);
-        return headers;
+        return authHeaders;
     }
 
     /**
@@ -89,12 +102,12 @@ public class CursorAgentManagementImpl implements CursorAgentManagement {
         }
 
         // Create the launch request
-        CreateAgentRequest request = createLaunchAgentRequest(prompt, model, repository, pr);
+        CreateAgentRequest request = launchRequestTemplates.create(prompt, model, repository, pr);
 
         // Launch the agent
         try {
             logger.debug("Launching agent with model: {}, repository: {}", model, repository);
-            AgentResponse result = AgentResponse.from(defaultApi.createAgent(request, getAuthHeaders()));
+            AgentResponse result = AgentResponse.from(requestExecutor.execute("createAgent", false, () -> defaultApi.createAgent(request, getAuthHeaders())));
             logger.debug("Successfully launched agent: {}", result.id());
             return result;
         } catch (ApiException e) {
@@ -102,39 +115,6 @@ public class CursorAgentManagementImpl implements CursorAgentManagement {
         }
     }
 
-    /**
-     * Creates a CreateAgentRequest with the specified parameters.
-     *
-     * @param prompt     The prompt/instructions for the agent to execute
-     * @param model      The LLM model to use
-     * @param repository The repository URL where the agent should work
-     * @param pr         Whether to automatically create a pull request when the agent completes
-     * @return CreateAgentRequest instance configured with the provided parameters
-     */
-    private CreateAgentRequest createLaunchAgentRequest(String prompt, String model, String repository, boolean pr) {
-        // Create the prompt
-        CreateAgentRequestPrompt promptObj = new CreateAgentRequestPrompt();
-        promptObj.setText(prompt);
-
-        // Create the source (repository and branch)
-        CreateAgentRequestSource source = new CreateAgentRequestSource();
-        source.setRepository(repository);
-        source.setRef(DEFAULT_BRANCH);
-
-        // Create the target configuration (optional)
-        CreateAgentRequestTarget target = new CreateAgentRequestTarget();
-        target.setAutoCreatePr(pr);
-
-        // Create the launch request
-        CreateAgentRequest request = new CreateAgentRequest();
-        request.setPrompt(promptObj);
-        request.setSource(source);
-        request.setModel(model);
-        request.setTarget(target);
-
-        return request;
-    }
-
     @Override
     public FollowUpResponse followUp(String agentId, String prompt) {
         // Preconditions
@@ -156,7 +136,7 @@ public class CursorAgentManagementImpl implements CursorAgentManagement {
         // Follow-up the agent
         try {
             logger.debug("Following up agent: {}", agentId);
-            FollowUpResponse response = FollowUpResponse.from(defaultApi.addFollowup(agentId, request, getAuthHeaders()));
+            FollowUpResponse response = FollowUpResponse.from(requestExecutor.execute("addFollowup", false, () -> defaultApi.addFollowup(agentId, request, getAuthHeaders())));
             logger.debug("Successfully followed up agent: {}", agentId);
             return response;
         } catch (ApiException e) {
@@ -175,7 +155,7 @@ public class CursorAgentManagementImpl implements CursorAgentManagement {
 
         try {
             logger.debug("Deleting agent: {}", agentId);
-            DeleteAgentResponse response = DeleteAgentResponse.from(defaultApi.deleteAgent(agentId, getAuthHeaders()));
+            DeleteAgentResponse response = DeleteAgentResponse.from(requestExecutor.execute("deleteAgent", () -> defaultApi.deleteAgent(agentId, getAuthHeaders())));
             logger.debug("Successfully deleted agent: {} with response: {}", agentId, response.id());
             return response;
         } catch (ApiException e) {
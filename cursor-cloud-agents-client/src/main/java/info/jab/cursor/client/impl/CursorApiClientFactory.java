@@ -0,0 +1,134 @@
+package info.jab.cursor.client.impl;
+
+import info.jab.cursor.generated.client.ApiClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Factory for the {@link ApiClient} used by the generated {@code DefaultApi}.
+ * This class configures the underlying {@link HttpClient} for many concurrent calls:
+ * HTTP/2 is preferred so that requests share a few multiplexed connections, connect and read
+ * timeouts are bounded, and responses are handled on virtual threads. How long idle connections
+ * are kept alive is a JVM-wide setting of the JDK client, {@code jdk.httpclient.keepalive.timeout},
+ * so it is left to the application.
+ * <p>
+ * The generated {@link ApiClient} builds a new {@link HttpClient}, with its own connection pool,
+ * every time it is asked for one. The ApiClients created here return the same HttpClient instead,
+ * so the {@code DefaultApi} and the conversation streaming share connections. Build the HttpClient
+ * once with {@link #createHttpClient(Duration)} and pass it to
+ * {@link #createApiClient(String, HttpClient, Duration)} to share it with other callers too.
+ */
+public final class CursorApiClientFactory {
+
+    public static final String DEFAULT_BASE_URI = "https://api.cursor.com";
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(60);
+
+    private CursorApiClientFactory() {
+        // Utility class
+    }
+
+    /**
+     * Creates an ApiClient for the Cursor API with the default timeouts.
+     *
+     * @return a configured ApiClient
+     */
+    public static ApiClient createApiClient() {
+        return createApiClient(DEFAULT_BASE_URI, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * Creates an ApiClient with the specified base URI and timeouts.
+     *
+     * @param baseUri The base URI of the Cursor API
+     * @param connectTimeout The maximum time to establish a connection
+     * @param readTimeout The maximum time to wait for a response
+     * @return a configured ApiClient
+     */
+    public static ApiClient createApiClient(String baseUri, Duration connectTimeout, Duration readTimeout) {
+        // Preconditions
+        if (baseUri == null || baseUri.trim().isEmpty()) {
+            throw new IllegalArgumentException("Base URI cannot be null or empty");
+        }
+        if (readTimeout == null || readTimeout.isNegative() || readTimeout.isZero()) {
+            throw new IllegalArgumentException("Read timeout must be positive");
+        }
+
+        return createApiClient(baseUri, createHttpClient(connectTimeout), readTimeout);
+    }
+
+    /**
+     * Creates an ApiClient that sends every request through the given HttpClient.
+     *
+     * @param baseUri The base URI of the Cursor API
+     * @param httpClient The HttpClient to share, e.g. from {@link #createHttpClient(Duration)}
+     * @param readTimeout The maximum time to wait for a response
+     * @return a configured ApiClient whose {@code getHttpClient()} always returns httpClient
+     */
+    public static ApiClient createApiClient(String baseUri, HttpClient httpClient, Duration readTimeout) {
+        // Preconditions
+        if (baseUri == null || baseUri.trim().isEmpty()) {
+            throw new IllegalArgumentException("Base URI cannot be null or empty");
+        }
+        if (httpClient == null) {
+            throw new IllegalArgumentException("HTTP client cannot be null");
+        }
+        if (readTimeout == null || readTimeout.isNegative() || readTimeout.isZero()) {
+            throw new IllegalArgumentException("Read timeout must be positive");
+        }
+
+        ApiClient apiClient = new SharedHttpClientApiClient(httpClient);
+        apiClient.setReadTimeout(readTimeout);
+        apiClient.updateBaseUri(baseUri);
+        return apiClient;
+    }
+
+    /**
+     * Creates the HttpClient for the Cursor API: HTTP/2 preferred, a connect timeout
+     * and a virtual-thread executor.
+     *
+     * @param connectTimeout The maximum time to establish a connection
+     * @return a configured HttpClient
+     */
+    public static HttpClient createHttpClient(Duration connectTimeout) {
+        return createHttpClientBuilder(connectTimeout).build();
+    }
+
+    /**
+     * Creates an HttpClient builder preferring HTTP/2, with a connect timeout and a
+     * virtual-thread executor.
+     *
+     * @param connectTimeout The maximum time to establish a connection
+     * @return a configured HttpClient builder
+     */
+    static HttpClient.Builder createHttpClientBuilder(Duration connectTimeout) {
+        // Preconditions
+        if (connectTimeout == null || connectTimeout.isNegative() || connectTimeout.isZero()) {
+            throw new IllegalArgumentException("Connect timeout must be positive");
+        }
+
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .executor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * ApiClient returning one HttpClient rather than building a new one on every call.
+     */
+    private static final class SharedHttpClientApiClient extends ApiClient {
+
+        private final HttpClient httpClient;
+
+        SharedHttpClientApiClient(HttpClient httpClient) {
+            this.httpClient = httpClient;
+        }
+
+        @Override
+        public HttpClient getHttpClient() {
+            return httpClient;
+        }
+    }
+}
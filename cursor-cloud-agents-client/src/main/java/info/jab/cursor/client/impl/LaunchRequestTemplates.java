@@ -0,0 +1,86 @@
+package info.jab.cursor.client.impl;
+
+import info.jab.cursor.generated.client.model.CreateAgentRequest;
+import info.jab.cursor.generated.client.model.CreateAgentRequestPrompt;
+import info.jab.cursor.generated.client.model.CreateAgentRequestSource;
+import info.jab.cursor.generated.client.model.CreateAgentRequestTarget;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reusable templates for launch requests.
+ * <p>
+ * The source and target of a launch only depend on the repository and the pull request flag,
+ * so they are built once per combination and shared by every request created from it. Creating
+ * a request then only allocates the request itself and its prompt. The shared parts must not be
+ * modified after they have been handed out.
+ */
+final class LaunchRequestTemplates {
+
+    static final int MAX_TEMPLATES = 64;
+
+    private final String branch;
+    private final Map<Key, Template> templates = new ConcurrentHashMap<>();
+
+    LaunchRequestTemplates(String branch) {
+        this.branch = branch;
+    }
+
+    /**
+     * Creates a launch request from the template for the repository and pull request flag.
+     *
+     * @param prompt The prompt/instructions for the agent to execute
+     * @param model The LLM model to use
+     * @param repository The repository URL where the agent should work
+     * @param pr Whether to automatically create a pull request when the agent completes
+     * @return a new request sharing its source and target with earlier requests
+     */
+    CreateAgentRequest create(String prompt, String model, String repository, boolean pr) {
+        Template template = template(repository, pr);
+
+        CreateAgentRequestPrompt promptObj = new CreateAgentRequestPrompt();
+        promptObj.setText(prompt);
+
+        CreateAgentRequest request = new CreateAgentRequest();
+        request.setPrompt(promptObj);
+        request.setSource(template.source());
+        request.setModel(model);
+        request.setTarget(template.target());
+        return request;
+    }
+
+    int size() {
+        return templates.size();
+    }
+
+    private Template template(String repository, boolean pr) {
+        Key key = new Key(repository, pr);
+        Template template = templates.get(key);
+        if (template != null) {
+            return template;
+        }
+        // Only a handful of repositories are expected; start over rather than grow without bound
+        if (templates.size() >= MAX_TEMPLATES) {
+            templates.clear();
+        }
+        return templates.computeIfAbsent(key, this::newTemplate);
+    }
+
+    private Template newTemplate(Key key) {
+        CreateAgentRequestSource source = new CreateAgentRequestSource();
+        source.setRepository(key.repository());
+        source.setRef(branch);
+
+        CreateAgentRequestTarget target = new CreateAgentRequestTarget();
+        target.setAutoCreatePr(key.pr());
+
+        return new Template(source, target);
+    }
+
+    private record Key(String repository, boolean pr) {
+    }
+
+    private record Template(CreateAgentRequestSource source, CreateAgentRequestTarget target) {
+    }
+}
@@ -0,0 +1,90 @@
+package info.jab.cursor.client.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter shared by all API clients.
+ * This class refills {@code permitsPerSecond} tokens per second up to {@code burst} tokens,
+ * and each request takes one token, waiting when the bucket is empty.
+ * Callers reserve their token up front, so concurrent requests queue up fairly instead of all
+ * waking at the same time.
+ */
+public final class TokenBucketRateLimiter {
+
+    private final double nanosPerPermit;
+    private final int burst;
+    private final LongSupplier nanoTime;
+    private final Sleeper sleeper;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    /**
+     * Creates a new TokenBucketRateLimiter.
+     *
+     * @param permitsPerSecond The sustained number of requests per second
+     * @param burst The maximum number of requests that may be sent back to back
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    TokenBucketRateLimiter(double permitsPerSecond, int burst, LongSupplier nanoTime, Sleeper sleeper) {
+        // Preconditions
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("Permits per second must be greater than 0");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be at least 1");
+        }
+
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burst = burst;
+        this.nanoTime = nanoTime;
+        this.sleeper = sleeper;
+        this.tokens = burst;
+        this.lastRefillNanos = nanoTime.getAsLong();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * Takes one token, waiting until it is available.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            sleeper.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Stops handing out tokens for the given time, e.g. after the server answered 429.
+     * Requests already waiting are not shortened; new requests wait at least until then.
+     *
+     * @param nanos The pause in nanoseconds
+     */
+    public synchronized void pause(long nanos) {
+        pausedUntilNanos = Math.max(pausedUntilNanos, nanoTime.getAsLong() + nanos);
+    }
+
+    /**
+     * Reserves one token and returns how long the caller has to wait before using it.
+     */
+    synchronized long reserve() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) / nanosPerPermit);
+        lastRefillNanos = now;
+        tokens -= 1;
+        long tokenWait = tokens < 0 ? (long) Math.ceil(-tokens * nanosPerPermit) : 0;
+        return Math.max(tokenWait, pausedUntilNanos - now);
+    }
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+}
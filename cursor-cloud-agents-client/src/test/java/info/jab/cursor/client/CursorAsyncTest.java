@@ -0,0 +1,84 @@
+package info.jab.cursor.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for CursorAsync class.
+ */
+@DisplayName("CursorAsync Tests")
+class CursorAsyncTest {
+
+    @Test
+    @DisplayName("Should run the call on a virtual thread")
+    void should_runOnVirtualThread_when_supplyAsync() {
+        // When
+        boolean virtual = CursorAsync.supplyAsync(() -> Thread.currentThread().isVirtual()).join();
+
+        // Then
+        assertThat(virtual).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep input order and respect the concurrency cap")
+    void should_respectMaxConcurrency_when_mappingConcurrently() {
+        // Given
+        List<Integer> inputs = IntStream.range(0, 20).boxed().toList();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        // When
+        List<CompletableFuture<Integer>> futures = CursorAsync.mapConcurrently(inputs, 3, input -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return input * 2;
+        });
+        List<Integer> results = CursorAsync.allOf(futures).join();
+
+        // Then
+        assertThat(results).isEqualTo(inputs.stream().map(input -> input * 2).toList());
+        assertThat(maxInFlight.get()).isBetween(1, 3);
+    }
+
+    @Test
+    @DisplayName("Should fail only the future of the failing call")
+    void should_isolateFailures_when_oneCallFails() {
+        // When
+        List<CompletableFuture<String>> futures = CursorAsync.mapConcurrently(List.of("a", "b"), 2, input -> {
+            if (input.equals("a")) {
+                throw new RuntimeException("Failed to delete agent a");
+            }
+            return input;
+        });
+
+        // Then
+        assertThatThrownBy(() -> futures.get(0).join())
+            .isInstanceOf(CompletionException.class)
+            .hasRootCauseMessage("Failed to delete agent a");
+        assertThat(futures.get(1).join()).isEqualTo("b");
+        assertThatThrownBy(() -> CursorAsync.allOf(futures).join())
+            .isInstanceOf(CompletionException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive concurrency cap")
+    void should_throwIllegalArgumentException_when_maxConcurrencyIsInvalid() {
+        assertThatThrownBy(() -> CursorAsync.mapConcurrently(List.of("a"), 0, input -> input))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Max concurrency");
+    }
+}
@@ -0,0 +1,176 @@
+package info.jab.cursor.client.impl;
+
+import info.jab.cursor.generated.client.ApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ApiRequestExecutor class.
+ */
+@DisplayName("ApiRequestExecutor Tests")
+class ApiRequestExecutorTest {
+
+    private static final ZonedDateTime NOW = ZonedDateTime.of(2025, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Duration> sleeps = new ArrayList<>();
+    private ApiRequestExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1000, 1000, clock::get, clock::addAndGet);
+        executor = new ApiRequestExecutor(rateLimiter, 3, Duration.ofSeconds(1), Duration.ofSeconds(8), nanos -> {
+            sleeps.add(Duration.ofNanos(nanos));
+            clock.addAndGet(nanos);
+        }, () -> NOW);
+    }
+
+    private static ApiException error(int code, String retryAfter) {
+        HttpHeaders headers = HttpHeaders.of(
+            retryAfter == null ? Map.of() : Map.of("Retry-After", List.of(retryAfter)), (name, value) -> true);
+        return new ApiException(code, "status " + code, headers, null);
+    }
+
+    @Test
+    @DisplayName("Should retry a 429 and return the result of the next successful attempt")
+    void should_retry_when_rateLimited() throws ApiException {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = executor.execute("getAgent", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw error(429, null);
+            }
+            return "ok";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(2);
+        assertThat(sleeps).singleElement()
+            .satisfies(delay -> assertThat(delay).isBetween(Duration.ofMillis(500), Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("Should wait at least as long as Retry-After")
+    void should_honorRetryAfter_when_present() throws ApiException {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        executor.execute("getAgent", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw error(503, "5");
+            }
+            return "ok";
+        });
+
+        // Then - the retry itself waits 5s; the paused limiter adds nothing once that time has passed
+        assertThat(sleeps).first().isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should give up after the maximum number of attempts")
+    void should_throwLastError_when_attemptsAreExhausted() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> executor.execute("getAgent", () -> {
+            attempts.incrementAndGet();
+            throw error(429, null);
+        }))
+            .isInstanceOf(ApiException.class)
+            .hasMessageContaining("status 429");
+        assertThat(attempts).hasValue(3);
+        assertThat(sleeps).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should not retry errors other than 429 and 503")
+    void should_notRetry_when_errorIsNotRetryable() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThatThrownBy(() -> executor.execute("getAgent", () -> {
+            attempts.incrementAndGet();
+            throw error(500, null);
+        }))
+            .isInstanceOf(ApiException.class);
+        assertThat(attempts).hasValue(1);
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not retry a 503 for a request that is not idempotent")
+    void should_notRetryServiceUnavailable_when_requestIsNotIdempotent() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then - the backend may already have accepted the request
+        assertThatThrownBy(() -> executor.execute("createAgent", false, () -> {
+            attempts.incrementAndGet();
+            throw error(503, null);
+        }))
+            .isInstanceOf(ApiException.class)
+            .hasMessageContaining("status 503");
+        assertThat(attempts).hasValue(1);
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should retry a 429 for a request that is not idempotent")
+    void should_retryRateLimited_when_requestIsNotIdempotent() throws ApiException {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = executor.execute("createAgent", false, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw error(429, null);
+            }
+            return "ok";
+        });
+
+        // Then
+        assertThat(result).isEqualTo("ok");
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should parse Retry-After given in seconds or as an HTTP date")
+    void should_parseRetryAfter_when_secondsOrDate() {
+        assertThat(executor.retryAfter(HttpHeaders.of(Map.of("Retry-After", List.of("7")), (n, v) -> true)))
+            .contains(Duration.ofSeconds(7));
+        assertThat(executor.retryAfter(HttpHeaders.of(
+            Map.of("Retry-After", List.of("Wed, 01 Jan 2025 10:00:30 GMT")), (n, v) -> true)))
+            .contains(Duration.ofSeconds(30));
+        assertThat(executor.retryAfter(HttpHeaders.of(Map.of("Retry-After", List.of("soon")), (n, v) -> true)))
+            .isEmpty();
+        assertThat(executor.retryAfter(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should cap the backoff at the maximum delay")
+    void should_capBackoff_when_attemptsGrow() {
+        assertThat(executor.backoff(10, Optional.empty())).isBetween(Duration.ofSeconds(4), Duration.ofSeconds(8));
+        assertThat(executor.backoff(1, Optional.of(Duration.ofMinutes(5)))).isEqualTo(Duration.ofSeconds(8));
+    }
+}
@@ -0,0 +1,94 @@
+package info.jab.cursor.client.impl;
+
+import info.jab.cursor.client.model.ConversationMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ConversationStreamReader class.
+ */
+@DisplayName("ConversationStreamReader Tests")
+class ConversationStreamReaderTest {
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should pass every message to the consumer in order")
+    void should_emitMessagesInOrder_when_conversationIsRead() throws IOException {
+        // Given
+        String body = """
+            {"id":"bc_123","messages":[
+              {"id":"m1","type":"user_message","text":"Hello"},
+              {"id":"m2","type":"assistant_message","text":"<result>42</result>"}
+            ]}
+            """;
+        List<ConversationMessage> messages = new ArrayList<>();
+
+        // When
+        int count = ConversationStreamReader.read(json(body), messages::add);
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        assertThat(messages).containsExactly(
+            new ConversationMessage("m1", "user_message", "Hello"),
+            new ConversationMessage("m2", "assistant_message", "<result>42</result>"));
+    }
+
+    @Test
+    @DisplayName("Should skip unknown fields and messages without id or type")
+    void should_skipUnknownContent_when_conversationHasExtraFields() throws IOException {
+        // Given
+        String body = """
+            {"extra":{"nested":[1,2,{"a":null}]},"messages":[
+              {"id":"m1","type":"user_message","attachments":[{"name":"a.txt"}],"text":null},
+              {"type":"assistant_message","text":"orphan"},
+              {"id":"m3","type":"assistant_message","text":"Done"}
+            ],"id":"bc_123"}
+            """;
+        List<ConversationMessage> messages = new ArrayList<>();
+
+        // When
+        int count = ConversationStreamReader.read(json(body), messages::add);
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        assertThat(messages).containsExactly(
+            new ConversationMessage("m1", "user_message", null),
+            new ConversationMessage("m3", "assistant_message", "Done"));
+    }
+
+    @Test
+    @DisplayName("Should emit nothing when the conversation has no messages")
+    void should_emitNothing_when_messagesAreMissing() throws IOException {
+        // Given
+        List<ConversationMessage> messages = new ArrayList<>();
+
+        // When
+        int count = ConversationStreamReader.read(json("{\"id\":\"bc_123\"}"), messages::add);
+
+        // Then
+        assertThat(count).isZero();
+        assertThat(messages).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should throw IOException when the body is not a JSON object")
+    void should_throwIOException_when_bodyIsNotAnObject() {
+        // When & Then
+        assertThatThrownBy(() -> ConversationStreamReader.read(json("[]"), _ -> { }))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("not a JSON object");
+    }
+}
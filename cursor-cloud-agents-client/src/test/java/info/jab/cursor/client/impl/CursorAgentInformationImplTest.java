@@ -172,5 +172,43 @@ class CursorAgentInformationImplTest {
                 .hasCause(apiException);
         }
     }
-}
 
+    @Nested
+    @DisplayName("streamAgentConversation() Tests")
+    class StreamAgentConversationTests {
+
+        @ParameterizedTest(name = "Should throw IllegalArgumentException when agentId is {0}")
+        @NullAndEmptySource
+        @ValueSource(strings = {"   ", "\t", "\n"})
+        @DisplayName("Should throw IllegalArgumentException when agentId is invalid")
+        void should_throwIllegalArgumentException_when_agentIdIsInvalid(String agentId) {
+            // When & Then
+            assertThatThrownBy(() -> impl.streamAgentConversation(agentId, _ -> { }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Agent ID cannot be null or empty");
+        }
+
+        @Test
+        @DisplayName("Should throw IllegalArgumentException when consumer is null")
+        void should_throwIllegalArgumentException_when_consumerIsNull() {
+            // When & Then
+            assertThatThrownBy(() -> impl.streamAgentConversation("test-id", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Consumer cannot be null");
+        }
+
+        @Test
+        @DisplayName("Should load the conversation through DefaultApi when no ApiClient is given")
+        void should_useDefaultApi_when_apiClientIsNotGiven() throws ApiException {
+            // Given
+            ApiException apiException = new ApiException(500, "Internal Server Error");
+            when(defaultApi.getAgentConversation(anyString(), any())).thenThrow(apiException);
+
+            // When & Then
+            assertThatThrownBy(() -> impl.streamAgentConversation("test-id", _ -> { }))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Failed to get agent conversation")
+                .hasCause(apiException);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package info.jab.cursor.client.impl;
 
+import info.jab.cursor.client.model.AgentResponse;
 import info.jab.cursor.generated.client.api.DefaultApi;
 import info.jab.cursor.generated.client.ApiException;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,11 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
@@ -121,6 +127,38 @@ class CursorAgentManagementImplTest {
                 .hasMessageContaining("Failed to launch agent")
                 .hasCause(apiException);
         }
+
+        @Test
+        @DisplayName("Should not retry createAgent on 503")
+        void should_notRetry_when_createAgentIsUnavailable() throws ApiException {
+            // Given
+            when(defaultApi.createAgent(any(), any())).thenThrow(new ApiException(503, "Service Unavailable"));
+
+            // When & Then
+            assertThatThrownBy(() -> impl.launch("prompt", "model", "repo", true))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Failed to launch agent");
+            verify(defaultApi, times(1)).createAgent(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should launch every prompt and fail each launch on its own")
+        void should_failEachLaunchOnItsOwn_when_launchingAll() throws ApiException {
+            // Given
+            when(defaultApi.createAgent(any(), any())).thenThrow(new ApiException(400, "Bad Request"));
+
+            // When
+            List<CompletableFuture<AgentResponse>> launches = impl.launchAllAsync(List.of("one", "two", "three"), "model", "repo", true, 2);
+
+            // Then
+            assertThat(launches).hasSize(3);
+            for (CompletableFuture<AgentResponse> launch : launches) {
+                assertThatThrownBy(launch::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasMessageContaining("Failed to launch agent");
+            }
+            verify(defaultApi, times(3)).createAgent(any(), any());
+        }
     }
 
     @Nested
@@ -162,6 +200,19 @@ class CursorAgentManagementImplTest {
                 .hasMessageContaining("Failed to follow up agent")
                 .hasCause(apiException);
         }
+
+        @Test
+        @DisplayName("Should not retry addFollowup on 503")
+        void should_notRetry_when_addFollowupIsUnavailable() throws ApiException {
+            // Given
+            when(defaultApi.addFollowup(anyString(), any(), any())).thenThrow(new ApiException(503, "Service Unavailable"));
+
+            // When & Then
+            assertThatThrownBy(() -> impl.followUp("agent-id", "prompt"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Failed to follow up agent");
+            verify(defaultApi, times(1)).addFollowup(anyString(), any(), any());
+        }
     }
 
     @Nested
@@ -0,0 +1,78 @@
+package info.jab.cursor.client.impl;
+
+import info.jab.cursor.generated.client.ApiClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for CursorApiClientFactory class.
+ */
+@DisplayName("CursorApiClientFactory Tests")
+class CursorApiClientFactoryTest {
+
+    @Test
+    @DisplayName("Should configure HTTP/2, timeouts and an executor")
+    void should_configureHttpClient_when_creatingApiClient() {
+        // When
+        ApiClient apiClient = CursorApiClientFactory.createApiClient("https://api.example.com",
+            Duration.ofSeconds(3), Duration.ofSeconds(30));
+        HttpClient httpClient = apiClient.getHttpClient();
+
+        // Then
+        assertThat(apiClient.getBaseUri()).isEqualTo("https://api.example.com");
+        assertThat(apiClient.getReadTimeout()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(httpClient.version()).isEqualTo(HttpClient.Version.HTTP_2);
+        assertThat(httpClient.connectTimeout()).contains(Duration.ofSeconds(3));
+        assertThat(httpClient.executor()).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should use the Cursor API and default timeouts")
+    void should_useDefaults_when_noSettingsAreGiven() {
+        // When
+        ApiClient apiClient = CursorApiClientFactory.createApiClient();
+
+        // Then
+        assertThat(apiClient.getBaseUri()).isEqualTo(CursorApiClientFactory.DEFAULT_BASE_URI);
+        assertThat(apiClient.getReadTimeout()).isEqualTo(CursorApiClientFactory.DEFAULT_READ_TIMEOUT);
+        assertThat(apiClient.getHttpClient().connectTimeout()).contains(CursorApiClientFactory.DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Should return the same HttpClient to every caller")
+    void should_shareHttpClient_when_askedMoreThanOnce() {
+        // Given
+        HttpClient httpClient = CursorApiClientFactory.createHttpClient(Duration.ofSeconds(3));
+
+        // When
+        ApiClient apiClient = CursorApiClientFactory.createApiClient("https://api.example.com", httpClient, Duration.ofSeconds(30));
+        ApiClient defaultApiClient = CursorApiClientFactory.createApiClient();
+
+        // Then
+        assertThat(apiClient.getHttpClient()).isSameAs(httpClient);
+        assertThat(apiClient.getReadTimeout()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(defaultApiClient.getHttpClient()).isSameAs(defaultApiClient.getHttpClient());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid settings")
+    void should_throwIllegalArgumentException_when_settingsAreInvalid() {
+        assertThatThrownBy(() -> CursorApiClientFactory.createApiClient(" ",
+            Duration.ofSeconds(1), Duration.ofSeconds(1)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Base URI");
+        assertThatThrownBy(() -> CursorApiClientFactory.createApiClient("https://api.example.com",
+            Duration.ZERO, Duration.ofSeconds(1)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Connect timeout");
+        assertThatThrownBy(() -> CursorApiClientFactory.createApiClient("https://api.example.com", null, Duration.ofSeconds(1)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("HTTP client");
+    }
+}
@@ -0,0 +1,73 @@
+package info.jab.cursor.client.impl;
+
+import info.jab.cursor.generated.client.model.CreateAgentRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for LaunchRequestTemplates class.
+ */
+@DisplayName("LaunchRequestTemplates Tests")
+class LaunchRequestTemplatesTest {
+
+    private static final String REPOSITORY = "https://github.com/test/repo";
+
+    private final LaunchRequestTemplates templates = new LaunchRequestTemplates("main");
+
+    @Test
+    @DisplayName("Should build a request with the prompt, model, source and target")
+    void should_buildRequest_when_created() {
+        // When
+        CreateAgentRequest request = templates.create("Do it", "default", REPOSITORY, true);
+
+        // Then
+        assertThat(request.getPrompt().getText()).isEqualTo("Do it");
+        assertThat(request.getModel()).isEqualTo("default");
+        assertThat(request.getSource().getRepository()).isEqualTo(REPOSITORY);
+        assertThat(request.getSource().getRef()).isEqualTo("main");
+        assertThat(request.getTarget().getAutoCreatePr()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should share source and target between requests for the same repository")
+    void should_shareStaticParts_when_repositoryAndPrAreTheSame() {
+        // When
+        CreateAgentRequest first = templates.create("First", "model-a", REPOSITORY, false);
+        CreateAgentRequest second = templates.create("Second", "model-b", REPOSITORY, false);
+
+        // Then
+        assertThat(second.getSource()).isSameAs(first.getSource());
+        assertThat(second.getTarget()).isSameAs(first.getTarget());
+        assertThat(second.getPrompt()).isNotSameAs(first.getPrompt());
+        assertThat(second.getPrompt().getText()).isEqualTo("Second");
+        assertThat(templates.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should use separate templates when the pull request flag differs")
+    void should_useSeparateTemplates_when_prDiffers() {
+        // When
+        CreateAgentRequest withoutPr = templates.create("Prompt", "default", REPOSITORY, false);
+        CreateAgentRequest withPr = templates.create("Prompt", "default", REPOSITORY, true);
+
+        // Then
+        assertThat(withPr.getTarget()).isNotSameAs(withoutPr.getTarget());
+        assertThat(withoutPr.getTarget().getAutoCreatePr()).isFalse();
+        assertThat(withPr.getTarget().getAutoCreatePr()).isTrue();
+        assertThat(templates.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep at most the maximum number of templates")
+    void should_boundTemplates_when_manyRepositoriesAreUsed() {
+        // When
+        for (int i = 0; i <= LaunchRequestTemplates.MAX_TEMPLATES; i++) {
+            templates.create("Prompt", "default", REPOSITORY + i, false);
+        }
+
+        // Then
+        assertThat(templates.size()).isLessThanOrEqualTo(LaunchRequestTemplates.MAX_TEMPLATES);
+    }
+}
@@ -0,0 +1,101 @@
+package info.jab.cursor.client.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for TokenBucketRateLimiter class.
+ */
+@DisplayName("TokenBucketRateLimiter Tests")
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Long> sleeps = new ArrayList<>();
+
+    private TokenBucketRateLimiter limiter(double permitsPerSecond, int burst) {
+        return new TokenBucketRateLimiter(permitsPerSecond, burst, clock::get, nanos -> {
+            sleeps.add(nanos);
+            clock.addAndGet(nanos);
+        });
+    }
+
+    @Test
+    @DisplayName("Should let a burst through without waiting")
+    void should_notWait_when_burstIsAvailable() throws InterruptedException {
+        // Given
+        TokenBucketRateLimiter limiter = limiter(2, 3);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire();
+        }
+
+        // Then
+        assertThat(sleeps).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should space requests at the configured rate once the burst is used")
+    void should_waitForRefill_when_bucketIsEmpty() {
+        // Given
+        TokenBucketRateLimiter limiter = limiter(2, 1);
+        limiter.reserve();
+
+        // When & Then - reservations queue up half a second apart
+        assertThat(limiter.reserve()).isEqualTo(SECOND / 2);
+        assertThat(limiter.reserve()).isEqualTo(SECOND);
+    }
+
+    @Test
+    @DisplayName("Should refill tokens over time up to the burst size")
+    void should_refillTokens_when_timePasses() {
+        // Given
+        TokenBucketRateLimiter limiter = limiter(1, 2);
+        limiter.reserve();
+        limiter.reserve();
+
+        // When
+        clock.addAndGet(10 * SECOND);
+
+        // Then
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isZero();
+        assertThat(limiter.reserve()).isEqualTo(SECOND);
+    }
+
+    @Test
+    @DisplayName("Should hold all requests back while paused")
+    void should_wait_when_paused() {
+        // Given
+        TokenBucketRateLimiter limiter = limiter(10, 10);
+
+        // When
+        limiter.pause(3 * SECOND);
+
+        // Then
+        assertThat(limiter.reserve()).isEqualTo(3 * SECOND);
+        clock.addAndGet(3 * SECOND);
+        assertThat(limiter.reserve()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject invalid settings")
+    void should_throwIllegalArgumentException_when_settingsAreInvalid() {
+        assertThatThrownBy(() -> new TokenBucketRateLimiter(0, 1))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Permits per second");
+        assertThatThrownBy(() -> new TokenBucketRateLimiter(1, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Burst");
+    }
+}